@@ -0,0 +1,25 @@
+--
+-- Copyright © 2016-2017 PT VIO Intelligence Authors
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+CREATE TABLE IF NOT EXISTS ts_kv_dictionary (
+    entity_type varchar(255) NOT NULL,
+    entity_id varchar(31) NOT NULL,
+    key varchar(255) NOT NULL,
+    data_type varchar(255),
+    first_ts bigint NOT NULL,
+    last_ts bigint NOT NULL,
+    CONSTRAINT ts_kv_dictionary_unq_key UNIQUE (entity_type, entity_id, key)
+);
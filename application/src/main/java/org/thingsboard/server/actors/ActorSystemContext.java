@@ -28,6 +28,8 @@ import lombok.Setter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.actors.rpc.RpcPendingQueueRegistry;
+import org.thingsboard.server.actors.rule.RuleActorShardsRegistry;
 import org.thingsboard.server.actors.service.ActorService;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Event;
@@ -49,6 +51,7 @@ import org.thingsboard.server.dao.relation.RelationService;
 import org.thingsboard.server.dao.rule.RuleService;
 import org.thingsboard.server.dao.tenant.TenantService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
+import org.thingsboard.server.extensions.core.filter.JsExecutorService;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
 import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
@@ -57,6 +60,7 @@ import org.thingsboard.server.service.component.ComponentDiscoveryService;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 @Component
 public class ActorSystemContext {
@@ -78,6 +82,9 @@ public class ActorSystemContext {
     @Autowired
     @Getter private ClusterRpcService rpcService;
 
+    @Autowired
+    @Getter private JsExecutorService jsExecutorService;
+
     @Autowired
     @Getter private DeviceAuthService deviceAuthService;
 
@@ -120,6 +127,12 @@ public class ActorSystemContext {
     @Autowired
     @Getter @Setter private PluginWebSocketMsgEndpoint wsMsgEndpoint;
 
+    @Autowired
+    @Getter private RpcPendingQueueRegistry rpcPendingQueueRegistry;
+
+    @Autowired
+    @Getter private RuleActorShardsRegistry ruleActorShardsRegistry;
+
     @Value("${actors.session.sync.timeout}")
     @Getter private long syncSessionTimeout;
 
@@ -132,12 +145,26 @@ public class ActorSystemContext {
     @Value("${actors.plugin.error_persist_frequency}")
     @Getter private long pluginErrorPersistFrequency;
 
+    @Value("${actors.plugin.callback_executor.thread_pool_size}")
+    @Getter private int pluginCallbackThreadPoolSize;
+
+    @Getter @Setter private Executor pluginCallbackExecutor;
+
+    @Value("${actors.plugin.batch_query.max_entities}")
+    @Getter private int pluginBatchQueryMaxEntities;
+
+    @Value("${actors.plugin.batch_query.parallelism}")
+    @Getter private int pluginBatchQueryParallelism;
+
     @Value("${actors.rule.termination.delay}")
     @Getter private long ruleActorTerminationDelay;
 
     @Value("${actors.rule.error_persist_frequency}")
     @Getter private long ruleErrorPersistFrequency;
 
+    @Value("${actors.rule.shards}")
+    @Getter private int ruleActorShards;
+
     @Value("${actors.statistics.enabled}")
     @Getter private boolean statisticsEnabled;
 
@@ -184,7 +211,7 @@ public class ActorSystemContext {
     }
 
     private void persistEvent(Event event) {
-        eventService.save(event);
+        eventService.saveAsync(event);
     }
 
     private String toString(Exception e) {
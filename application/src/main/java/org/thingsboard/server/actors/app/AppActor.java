@@ -22,6 +22,7 @@ import akka.event.LoggingAdapter;
 import akka.japi.Function;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.plugin.PluginTerminationMsg;
+import org.thingsboard.server.actors.rule.RuleActorShards;
 import org.thingsboard.server.actors.service.ContextAwareActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.service.DefaultActorService;
@@ -129,13 +130,11 @@ public class AppActor extends ContextAwareActor {
     }
 
     private void onToRuleMsg(ToRuleActorMsg msg) {
-        ActorRef target;
         if (SYSTEM_TENANT.equals(msg.getTenantId())) {
-            target = ruleManager.getOrCreateRuleActor(this.context(), msg.getRuleId());
+            ruleManager.tellRule(this.context(), msg);
         } else {
-            target = getOrCreateTenantActor(msg.getTenantId());
+            getOrCreateTenantActor(msg.getTenantId()).tell(msg, ActorRef.noSender());
         }
-        target.tell(msg, ActorRef.noSender());
     }
 
     private void onToPluginMsg(ToPluginActorMsg msg) {
@@ -156,13 +155,13 @@ public class AppActor extends ContextAwareActor {
             if (pluginId.isPresent()) {
                 target = pluginManager.getOrCreatePluginActor(this.context(), pluginId.get());
             } else if (ruleId.isPresent()) {
-                Optional<ActorRef> ref = ruleManager.update(this.context(), ruleId.get(), msg.getEvent());
+                Optional<RuleActorShards> ref = ruleManager.update(this.context(), ruleId.get(), msg.getEvent());
                 if (ref.isPresent()) {
-                    target = ref.get();
+                    ref.get().broadcast(msg, ActorRef.noSender());
                 } else {
                     logger.debug("Failed to find actor for rule: [{}]", ruleId);
-                    return;
                 }
+                return;
             }
         } else {
             target = getOrCreateTenantActor(msg.getTenantId());
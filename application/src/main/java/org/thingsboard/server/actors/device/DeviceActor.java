@@ -41,7 +41,7 @@ public class DeviceActor extends ContextAwareActor {
     private final DeviceActorMessageProcessor processor;
 
     private DeviceActor(ActorSystemContext systemContext, TenantId tenantId, DeviceId deviceId) {
-        super(systemContext);
+        super(systemContext, tenantId);
         this.tenantId = tenantId;
         this.deviceId = deviceId;
         this.processor = new DeviceActorMessageProcessor(systemContext, logger, deviceId);
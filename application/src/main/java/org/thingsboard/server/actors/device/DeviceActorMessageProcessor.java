@@ -231,13 +231,15 @@ public class DeviceActorMessageProcessor extends AbstractContextAwareMsgProcesso
     }
 
     void process(ActorContext context, RuleChainDeviceMsg srcMsg) {
-        ChainProcessingMetaData md = new ChainProcessingMetaData(srcMsg.getRuleChain(),
+        RuleActorChain ruleChain = srcMsg.getRuleChain();
+        FromDeviceMsg payload = srcMsg.getToDeviceActorMsg().getPayload();
+        String methodName = payload.getMsgType() == MsgType.TO_SERVER_RPC_REQUEST ? ((ToServerRpcRequestMsg) payload).getMethod() : null;
+        RuleActorChain matchingChain = ruleChain.forMessage(payload.getMsgType(), deviceType, methodName);
+        ChainProcessingMetaData md = new ChainProcessingMetaData(matchingChain,
                 srcMsg.getToDeviceActorMsg(), new DeviceMetaData(deviceId, deviceName, deviceType, deviceAttributes), context.self());
-        ChainProcessingContext ctx = new ChainProcessingContext(md);
+        ChainProcessingContext ctx = new ChainProcessingContext(md, RuleActorChain.getInitialError(ruleChain, matchingChain));
         if (ctx.getChainLength() > 0) {
-            RuleProcessingMsg msg = new RuleProcessingMsg(ctx);
-            ActorRef ruleActorRef = ctx.getCurrentActor();
-            ruleActorRef.tell(msg, ActorRef.noSender());
+            ctx.tellCurrentActor(new RuleProcessingMsg(ctx), ActorRef.noSender());
         } else {
             context.self().tell(new RulesProcessedMsg(ctx), context.self());
         }
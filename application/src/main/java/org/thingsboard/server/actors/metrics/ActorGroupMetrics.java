@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import org.thingsboard.server.actors.metrics.InstrumentedMailbox.InstrumentedMessageQueue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of all actors of the same type that belong to the same tenant.
+ */
+public class ActorGroupMetrics {
+
+    private final String actorType;
+    private final String tenantId;
+    private final Set<InstrumentedMessageQueue> queues = ConcurrentHashMap.newKeySet();
+    private final LongAdder retiredEnqueued = new LongAdder();
+    private final LongAdder retiredDropped = new LongAdder();
+    private final LatencyHistogram processingTime = new LatencyHistogram();
+
+    private long lastRatesTs = System.currentTimeMillis();
+    private long lastEnqueued;
+    private long lastProcessed;
+    private volatile double enqueueRate;
+    private volatile double processingRate;
+
+    ActorGroupMetrics(String actorType, String tenantId) {
+        this.actorType = actorType;
+        this.tenantId = tenantId;
+    }
+
+    public void onProcessed(long nanos) {
+        processingTime.record(nanos);
+    }
+
+    void attach(InstrumentedMessageQueue queue) {
+        queues.add(queue);
+    }
+
+    void detach(InstrumentedMessageQueue queue) {
+        if (queues.remove(queue)) {
+            retiredEnqueued.add(queue.getEnqueuedCount());
+            retiredDropped.add(queue.getDroppedCount());
+        }
+    }
+
+    public String getActorType() {
+        return actorType;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    long getQueueSize() {
+        long result = 0;
+        for (InstrumentedMessageQueue queue : queues) {
+            result += queue.numberOfMessages();
+        }
+        return result;
+    }
+
+    /**
+     * Recalculates the enqueue and processing rates over the period since the previous call.
+     * Called periodically by the registry, so that reading snapshots does not affect the rates.
+     */
+    synchronized void updateRates(long ts) {
+        long enqueued = retiredEnqueued.sum();
+        for (InstrumentedMessageQueue queue : queues) {
+            enqueued += queue.getEnqueuedCount();
+        }
+        long processed = processingTime.getCount();
+        double seconds = Math.max(1, ts - lastRatesTs) / 1000.0;
+        enqueueRate = (enqueued - lastEnqueued) / seconds;
+        processingRate = (processed - lastProcessed) / seconds;
+        lastRatesTs = ts;
+        lastEnqueued = enqueued;
+        lastProcessed = processed;
+    }
+
+    ActorMetricsSnapshot snapshot() {
+        int actors = 0;
+        long queueSize = 0;
+        int maxQueueSize = 0;
+        long enqueued = retiredEnqueued.sum();
+        long dropped = retiredDropped.sum();
+        for (InstrumentedMessageQueue queue : queues) {
+            int size = queue.numberOfMessages();
+            actors++;
+            queueSize += size;
+            maxQueueSize = Math.max(maxQueueSize, size);
+            enqueued += queue.getEnqueuedCount();
+            dropped += queue.getDroppedCount();
+        }
+        return new ActorMetricsSnapshot(actorType, tenantId, actors, queueSize, maxQueueSize, enqueued, enqueueRate, dropped,
+                processingTime.getCount(), processingRate, processingTime.getAvgMs(), processingTime.getPercentileMs(50),
+                processingTime.getPercentileMs(99), processingTime.getBuckets());
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.ExtensionIdProvider;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes a single {@link ActorMetricsRegistry} available per actor system and periodically updates its rates.
+ */
+public class ActorMetricsExtension extends AbstractExtensionId<ActorMetricsRegistry> implements ExtensionIdProvider {
+
+    public static final ActorMetricsExtension ID = new ActorMetricsExtension();
+
+    private ActorMetricsExtension() {
+    }
+
+    @Override
+    public ActorMetricsExtension lookup() {
+        return ID;
+    }
+
+    @Override
+    public ActorMetricsRegistry createExtension(ExtendedActorSystem system) {
+        ActorMetricsRegistry registry = new ActorMetricsRegistry();
+        FiniteDuration interval = Duration.create(ActorMetricsRegistry.RATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        system.scheduler().schedule(interval, interval, registry::updateRates, system.dispatcher());
+        return registry;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.ActorRef;
+import akka.actor.Extension;
+import lombok.Data;
+import org.thingsboard.server.actors.metrics.InstrumentedMailbox.InstrumentedMessageQueue;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Aggregates mailbox and processing metrics per actor type and tenant.
+ * Mailboxes register themselves when created; actors bind their mailbox to a group once constructed.
+ */
+public class ActorMetricsRegistry implements Extension {
+
+    public static final String SYSTEM_TENANT = "SYSTEM";
+    public static final long RATE_INTERVAL_MS = 10000;
+
+    private final ConcurrentMap<ActorRef, InstrumentedMessageQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<GroupKey, ActorGroupMetrics> groups = new ConcurrentHashMap<>();
+
+    void onMailboxCreated(ActorRef owner, InstrumentedMessageQueue queue) {
+        queues.put(owner, queue);
+    }
+
+    void onMailboxCleanUp(ActorRef owner, InstrumentedMessageQueue queue) {
+        queues.remove(owner, queue);
+        ActorGroupMetrics group = queue.group;
+        if (group != null) {
+            group.detach(queue);
+        }
+    }
+
+    /**
+     * Binds the mailbox of the given actor to the metrics group of its type and tenant.
+     *
+     * @return metrics group used to record processing time of the actor
+     */
+    public ActorGroupMetrics bind(ActorRef self, Class<?> actorClass, TenantId tenantId) {
+        String tenant = tenantId == null || tenantId.isNullUid() ? SYSTEM_TENANT : tenantId.getId().toString();
+        GroupKey key = new GroupKey(actorClass.getSimpleName(), tenant);
+        ActorGroupMetrics group = groups.computeIfAbsent(key, k -> new ActorGroupMetrics(k.getActorType(), k.getTenantId()));
+        InstrumentedMessageQueue queue = queues.get(self);
+        if (queue != null) {
+            queue.group = group;
+            group.attach(queue);
+        }
+        return group;
+    }
+
+    /**
+     * @return metrics of all groups, most loaded mailboxes first. Rates are averaged over the last {@link #RATE_INTERVAL_MS}.
+     */
+    public List<ActorMetricsSnapshot> getSnapshot() {
+        List<ActorMetricsSnapshot> result = new ArrayList<>();
+        for (ActorGroupMetrics group : groups.values()) {
+            result.add(group.snapshot());
+        }
+        result.sort(Comparator.comparingLong(ActorMetricsSnapshot::getQueueSize).reversed()
+                .thenComparing(Comparator.comparingDouble(ActorMetricsSnapshot::getEnqueueRate).reversed()));
+        return result;
+    }
+
+    void updateRates() {
+        long ts = System.currentTimeMillis();
+        for (ActorGroupMetrics group : groups.values()) {
+            group.updateRates(ts);
+        }
+    }
+
+    /**
+     * @return number of messages waiting in the mailbox of the actor, or 0 if the actor is not running
+     */
+    public int getQueueSize(ActorRef actor) {
+        InstrumentedMessageQueue queue = queues.get(actor);
+        return queue != null ? queue.numberOfMessages() : 0;
+    }
+
+    /**
+     * @return number of messages waiting in the mailboxes of each tenant
+     */
+    public Map<String, Long> getQueueSizeByTenant() {
+        Map<String, Long> result = new HashMap<>();
+        for (ActorGroupMetrics group : groups.values()) {
+            result.merge(group.getTenantId(), group.getQueueSize(), Long::sum);
+        }
+        return result;
+    }
+
+    @Data
+    private static final class GroupKey {
+        private final String actorType;
+        private final String tenantId;
+    }
+}
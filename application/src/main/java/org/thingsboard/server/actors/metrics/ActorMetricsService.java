@@ -0,0 +1,34 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import org.thingsboard.server.actors.rpc.RpcPendingQueueStats;
+import org.thingsboard.server.actors.rule.RuleShardStats;
+import org.thingsboard.server.dao.util.ExecutorStats;
+
+import java.util.List;
+
+public interface ActorMetricsService {
+
+    List<ActorMetricsSnapshot> getActorMetrics();
+
+    List<RpcPendingQueueStats> getRpcPendingQueueStats();
+
+    List<RuleShardStats> getRuleShardStats();
+
+    List<ExecutorStats> getExecutorStats();
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class ActorMetricsSnapshot {
+
+    private final String actorType;
+    private final String tenantId;
+    private final int actors;
+    private final long queueSize;
+    private final int maxQueueSize;
+    private final long enqueued;
+    private final double enqueueRate;
+    private final long dropped;
+    private final long processed;
+    private final double processingRate;
+    private final double avgProcessingTimeMs;
+    private final double p50ProcessingTimeMs;
+    private final double p99ProcessingTimeMs;
+    private final Map<String, Long> processingTimeHistogram;
+
+}
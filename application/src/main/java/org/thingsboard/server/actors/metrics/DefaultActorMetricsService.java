@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.ActorSystem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.rpc.RpcPendingQueueStats;
+import org.thingsboard.server.actors.rule.RuleShardStats;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
+import org.thingsboard.server.dao.util.ExecutorStats;
+import org.thingsboard.server.dao.util.InstrumentedThreadPoolExecutor;
+import org.thingsboard.server.extensions.core.filter.JsExecutorService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@Service
+@ManagedResource(objectName = "org.thingsboard.server:type=ActorMetrics", description = "Mailbox and processing metrics of actors")
+public class DefaultActorMetricsService implements ActorMetricsService {
+
+    @Autowired
+    private ActorSystemContext actorContext;
+
+    @Autowired
+    private DaoExecutorRegistry daoExecutorRegistry;
+
+    @Override
+    public List<ActorMetricsSnapshot> getActorMetrics() {
+        ActorSystem system = actorContext.getActorSystem();
+        if (system == null) {
+            return Collections.emptyList();
+        }
+        return ActorMetricsExtension.ID.get(system).getSnapshot();
+    }
+
+    @Override
+    public List<RpcPendingQueueStats> getRpcPendingQueueStats() {
+        return actorContext.getRpcPendingQueueRegistry().getStats();
+    }
+
+    @Override
+    public List<RuleShardStats> getRuleShardStats() {
+        ActorSystem system = actorContext.getActorSystem();
+        if (system == null) {
+            return Collections.emptyList();
+        }
+        return actorContext.getRuleActorShardsRegistry().getStats(ActorMetricsExtension.ID.get(system)::getQueueSize);
+    }
+
+    @Override
+    public List<ExecutorStats> getExecutorStats() {
+        List<ExecutorStats> result = new ArrayList<>();
+        Executor pluginCallbackExecutor = actorContext.getPluginCallbackExecutor();
+        if (pluginCallbackExecutor instanceof InstrumentedThreadPoolExecutor) {
+            result.add(ExecutorStats.of((InstrumentedThreadPoolExecutor) pluginCallbackExecutor));
+        }
+        JsExecutorService jsExecutorService = actorContext.getJsExecutorService();
+        if (jsExecutorService != null) {
+            result.add(toStats(jsExecutorService));
+        }
+        daoExecutorRegistry.getExecutors().forEach(executor -> result.add(ExecutorStats.of(executor)));
+        return result;
+    }
+
+    private static ExecutorStats toStats(JsExecutorService executor) {
+        return new ExecutorStats(JsExecutorService.NAME, executor.getPoolSize(), executor.getActiveCount(),
+                executor.getQueueSize(), executor.getExecutedTaskCount(), 0, executor.getAvgQueueWaitMs(),
+                executor.getMaxQueueWaitMs(), executor.getAvgExecutionTimeMs(), executor.getRejectedCount(),
+                executor.getTimedOutCount(), executor.getKilledCount());
+    }
+
+    @ManagedAttribute(description = "Metrics per actor type and tenant, most loaded mailboxes first")
+    public String[] getMetrics() {
+        return getActorMetrics().stream().map(ActorMetricsSnapshot::toString).toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Total number of messages waiting in actor mailboxes")
+    public long getTotalQueueSize() {
+        return getActorMetrics().stream().mapToLong(ActorMetricsSnapshot::getQueueSize).sum();
+    }
+
+    @ManagedAttribute(description = "Queues of messages to other nodes that are not connected")
+    public String[] getRpcPendingQueues() {
+        return getRpcPendingQueueStats().stream().map(RpcPendingQueueStats::toString).toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Mailbox depth of every rule actor shard, most loaded shards first")
+    public String[] getRuleShards() {
+        return getRuleShardStats().stream().map(RuleShardStats::toString).toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Active threads, queue depth and task latency of plugin callback, JS and DAO executors")
+    public String[] getExecutors() {
+        return getExecutorStats().stream().map(ExecutorStats::toString).toArray(String[]::new);
+    }
+}
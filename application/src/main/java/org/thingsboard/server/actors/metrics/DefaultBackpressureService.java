@@ -0,0 +1,185 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.ActorSystem;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically sums up mailbox sizes of the actors of each tenant and marks tenants whose queues
+ * are above the high watermark as overloaded until they drop below the low watermark.
+ */
+@Service
+@Slf4j
+@ManagedResource(objectName = "org.thingsboard.server:type=Backpressure", description = "Throttling of device transports")
+public class DefaultBackpressureService implements BackpressureService {
+
+    @Autowired
+    private ActorSystemContext actorContext;
+
+    @Value("${actors.backpressure.enabled}")
+    private boolean enabled;
+
+    @Value("${actors.backpressure.high_watermark}")
+    private long highWatermark;
+
+    @Value("${actors.backpressure.low_watermark}")
+    private long lowWatermark;
+
+    @Value("${actors.backpressure.check_interval}")
+    private long checkInterval;
+
+    private final ConcurrentMap<UUID, ThrottleStats> stats = new ConcurrentHashMap<>();
+    private volatile Set<UUID> overloadedTenants = Collections.emptySet();
+    private volatile boolean systemOverloaded;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "backpressure-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::checkQueues, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isOverloaded(TenantId tenantId) {
+        return systemOverloaded || (tenantId != null && overloadedTenants.contains(tenantId.getId()));
+    }
+
+    @Override
+    public void onRequestRejected(TenantId tenantId) {
+        getStats(tenantId).rejectedRequests.increment();
+    }
+
+    @Override
+    public void onReadPaused(TenantId tenantId, long pausedMs) {
+        ThrottleStats tenantStats = getStats(tenantId);
+        tenantStats.readPauses.increment();
+        tenantStats.readPausedMs.add(pausedMs);
+    }
+
+    public List<TenantThrottleStats> getThrottleStats() {
+        List<TenantThrottleStats> result = new ArrayList<>();
+        stats.forEach((tenantId, s) -> result.add(new TenantThrottleStats(tenantId.toString(), overloadedTenants.contains(tenantId),
+                s.rejectedRequests.sum(), s.readPauses.sum(), s.readPausedMs.sum())));
+        return result;
+    }
+
+    @ManagedAttribute(description = "Throttling statistics per tenant")
+    public String[] getThrottledTenants() {
+        return getThrottleStats().stream().map(TenantThrottleStats::toString).toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Number of tenants which messages are not accepted at the moment")
+    public int getOverloadedTenantCount() {
+        return overloadedTenants.size();
+    }
+
+    @ManagedAttribute(description = "True if queues of the system actors throttle all tenants")
+    public boolean isSystemOverloaded() {
+        return systemOverloaded;
+    }
+
+    void checkQueues() {
+        try {
+            ActorSystem system = actorContext.getActorSystem();
+            if (system == null) {
+                return;
+            }
+            Map<String, Long> queueSizes = ActorMetricsExtension.ID.get(system).getQueueSizeByTenant();
+            Set<UUID> overloaded = new HashSet<>();
+            boolean overloadedSystem = false;
+            for (Map.Entry<String, Long> entry : queueSizes.entrySet()) {
+                boolean isSystem = ActorMetricsRegistry.SYSTEM_TENANT.equals(entry.getKey());
+                UUID tenantId = isSystem ? null : UUID.fromString(entry.getKey());
+                boolean wasOverloaded = isSystem ? systemOverloaded : overloadedTenants.contains(tenantId);
+                long threshold = wasOverloaded ? lowWatermark : highWatermark;
+                if (entry.getValue() >= threshold) {
+                    if (isSystem) {
+                        overloadedSystem = true;
+                    } else {
+                        overloaded.add(tenantId);
+                    }
+                    if (!wasOverloaded) {
+                        log.warn("[{}] Throttling device transports, {} messages are queued", entry.getKey(), entry.getValue());
+                    }
+                } else if (wasOverloaded) {
+                    log.info("[{}] Resuming device transports, {} messages are queued", entry.getKey(), entry.getValue());
+                }
+            }
+            overloadedTenants = overloaded;
+            systemOverloaded = overloadedSystem;
+        } catch (Exception e) {
+            log.warn("Failed to check actor queue sizes", e);
+        }
+    }
+
+    private ThrottleStats getStats(TenantId tenantId) {
+        return stats.computeIfAbsent(tenantId.getId(), id -> new ThrottleStats());
+    }
+
+    private static final class ThrottleStats {
+        private final LongAdder rejectedRequests = new LongAdder();
+        private final LongAdder readPauses = new LongAdder();
+        private final LongAdder readPausedMs = new LongAdder();
+    }
+
+    @Data
+    public static class TenantThrottleStats {
+        private final String tenantId;
+        private final boolean overloaded;
+        private final long rejectedRequests;
+        private final long readPauses;
+        private final long readPausedMs;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import com.typesafe.config.Config;
+import scala.Option;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mailbox that counts enqueued messages and keeps track of the queue depth.
+ * Configured as {@code mailbox-type} of the dispatchers and mailboxes in actor-system.conf.
+ * If {@code mailbox-capacity} is positive, messages that do not fit into the mailbox are sent to dead letters.
+ */
+public class InstrumentedMailbox implements MailboxType, ProducesMessageQueue<InstrumentedMailbox.InstrumentedMessageQueue> {
+
+    static final String CAPACITY = "mailbox-capacity";
+
+    private final int capacity;
+
+    public InstrumentedMailbox(ActorSystem.Settings settings, Config config) {
+        this.capacity = config.hasPath(CAPACITY) ? config.getInt(CAPACITY) : 0;
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        ActorMetricsRegistry registry = system.isDefined() ? ActorMetricsExtension.ID.get(system.get()) : null;
+        ActorRef deadLetters = system.isDefined() ? system.get().deadLetters() : null;
+        InstrumentedMessageQueue queue = new InstrumentedMessageQueue(registry, capacity, deadLetters);
+        if (registry != null && owner.isDefined()) {
+            registry.onMailboxCreated(owner.get(), queue);
+        }
+        return queue;
+    }
+
+    public static class InstrumentedMessageQueue implements MessageQueue {
+
+        private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final ActorMetricsRegistry registry;
+        private final int capacity;
+        private final ActorRef deadLetters;
+        volatile ActorGroupMetrics group;
+
+        InstrumentedMessageQueue(ActorMetricsRegistry registry, int capacity, ActorRef deadLetters) {
+            this.registry = registry;
+            this.capacity = capacity;
+            this.deadLetters = deadLetters;
+        }
+
+        @Override
+        public void enqueue(ActorRef receiver, Envelope handle) {
+            if (capacity > 0 && size.get() >= capacity && deadLetters != null) {
+                dropped.incrementAndGet();
+                deadLetters.tell(new DeadLetter(handle.message(), handle.sender(), receiver), handle.sender());
+                return;
+            }
+            queue.offer(handle);
+            size.incrementAndGet();
+            enqueued.incrementAndGet();
+        }
+
+        @Override
+        public Envelope dequeue() {
+            Envelope envelope = queue.poll();
+            if (envelope != null) {
+                size.decrementAndGet();
+            }
+            return envelope;
+        }
+
+        @Override
+        public int numberOfMessages() {
+            return size.get();
+        }
+
+        @Override
+        public boolean hasMessages() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+            Envelope envelope;
+            while ((envelope = dequeue()) != null) {
+                deadLetters.enqueue(owner, envelope);
+            }
+            if (registry != null) {
+                registry.onMailboxCleanUp(owner, this);
+            }
+        }
+
+        long getEnqueuedCount() {
+            return enqueued.get();
+        }
+
+        long getDroppedCount() {
+            return dropped.get();
+        }
+    }
+}
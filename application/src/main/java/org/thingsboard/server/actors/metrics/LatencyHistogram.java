@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of processing times with fixed buckets from 10 microseconds to 10 seconds.
+ * Safe to update from several threads.
+ */
+public class LatencyHistogram {
+
+    static final long[] BUCKET_BOUNDS_US = {10, 50, 100, 500, 1000, 5000, 10000, 50000, 100000, 500000, 1000000, 10000000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_US.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int i = 0;
+        while (i < BUCKET_BOUNDS_US.length && micros > BUCKET_BOUNDS_US[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getAvgMs() {
+        long n = count.sum();
+        return n > 0 ? totalNanos.sum() / (double) n / 1000000 : 0;
+    }
+
+    /**
+     * @return upper bound of the bucket that contains the given percentile, in milliseconds.
+     * Values above the last bucket are reported as the last bucket bound
+     */
+    public double getPercentileMs(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_US.length; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return BUCKET_BOUNDS_US[i] / 1000.0;
+            }
+        }
+        return BUCKET_BOUNDS_US[BUCKET_BOUNDS_US.length - 1] / 1000.0;
+    }
+
+    /**
+     * @return number of samples per bucket, keyed by bucket upper bound
+     */
+    public Map<String, Long> getBuckets() {
+        long[] counts = getBucketCounts();
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_BOUNDS_US.length; i++) {
+            result.put("<=" + formatMicros(BUCKET_BOUNDS_US[i]), counts[i]);
+        }
+        result.put(">" + formatMicros(BUCKET_BOUNDS_US[BUCKET_BOUNDS_US.length - 1]), counts[BUCKET_BOUNDS_US.length]);
+        return result;
+    }
+
+    private long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros >= 1000000) {
+            return (micros / 1000000) + "s";
+        } else if (micros >= 1000) {
+            return (micros / 1000) + "ms";
+        } else {
+            return micros + "us";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.plugin;
+
+import akka.actor.ActorRef;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
+import org.thingsboard.server.extensions.api.plugins.PluginCallback;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Loads the data of several entities with at most {@code parallelism} queries in flight.
+ * Results of each entity are delivered to the plugin actor as soon as they are available,
+ * followed by a single completion message once all entities are processed.
+ */
+@Slf4j
+final class PluginBatchQuery<T> {
+
+    private final SharedPluginProcessingContext pluginCtx;
+    private final List<EntityId> entityIds;
+    private final Function<EntityId, ListenableFuture<T>> loader;
+    private final PluginBatchCallback<T> callback;
+    private final int parallelism;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+
+    PluginBatchQuery(SharedPluginProcessingContext pluginCtx, List<EntityId> entityIds,
+                     Function<EntityId, ListenableFuture<T>> loader, PluginBatchCallback<T> callback, int parallelism) {
+        this.pluginCtx = pluginCtx;
+        this.entityIds = entityIds;
+        this.loader = loader;
+        this.callback = callback;
+        this.parallelism = Math.max(1, parallelism);
+        this.remaining = new AtomicInteger(entityIds.size());
+    }
+
+    void start() {
+        if (entityIds.isEmpty()) {
+            onComplete();
+            return;
+        }
+        int initial = Math.min(parallelism, entityIds.size());
+        for (int i = 0; i < initial; i++) {
+            loadNext();
+        }
+    }
+
+    private void loadNext() {
+        int index = next.getAndIncrement();
+        if (index >= entityIds.size()) {
+            return;
+        }
+        EntityId entityId = entityIds.get(index);
+        ListenableFuture<T> future;
+        try {
+            future = loader.apply(entityId);
+        } catch (Exception e) {
+            future = Futures.immediateFailedFuture(e);
+        }
+        Futures.addCallback(future, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(@Nullable T result) {
+                tell(PluginCallbackMessage.onSuccess(entityCallback(entityId), result));
+                onEntityDone();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                Exception e = t instanceof Exception ? (Exception) t : new RuntimeException(t);
+                log.debug("[{}] Failed to load data of the entity {}", pluginCtx.pluginId, entityId, t);
+                tell(PluginCallbackMessage.onError(entityCallback(entityId), e));
+                onEntityDone();
+            }
+        }, pluginCtx.getCallbackExecutor());
+    }
+
+    private void onEntityDone() {
+        if (remaining.decrementAndGet() == 0) {
+            onComplete();
+        } else {
+            loadNext();
+        }
+    }
+
+    private void onComplete() {
+        tell(PluginCallbackMessage.onSuccess(new PluginCallback<Void>() {
+            @Override
+            public void onSuccess(PluginContext ctx, Void value) {
+                callback.onComplete(ctx);
+            }
+
+            @Override
+            public void onFailure(PluginContext ctx, Exception e) {
+                callback.onFailure(ctx, e);
+            }
+        }, null));
+    }
+
+    private PluginCallback<T> entityCallback(EntityId entityId) {
+        return new PluginCallback<T>() {
+            @Override
+            public void onSuccess(PluginContext ctx, T value) {
+                callback.onEntitySuccess(ctx, entityId, value);
+            }
+
+            @Override
+            public void onFailure(PluginContext ctx, Exception e) {
+                callback.onEntityFailure(ctx, entityId, e);
+            }
+        };
+    }
+
+    private void tell(PluginCallbackMessage<?> msg) {
+        pluginCtx.self().tell(msg, ActorRef.noSender());
+    }
+}
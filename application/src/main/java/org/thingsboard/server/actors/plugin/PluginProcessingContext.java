@@ -30,6 +30,7 @@ import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.id.*;
 import org.thingsboard.server.common.data.kv.AttributeKey;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.common.data.kv.TsKvQuery;
 import org.thingsboard.server.common.data.page.TextPageLink;
@@ -40,6 +41,7 @@ import org.thingsboard.server.common.data.rule.RuleMetaData;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
 import org.thingsboard.server.extensions.api.device.DeviceAttributesEventNotificationMsg;
 import org.thingsboard.server.extensions.api.plugins.PluginApiCallSecurityContext;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
 import org.thingsboard.server.extensions.api.plugins.msg.*;
@@ -51,14 +53,11 @@ import org.thingsboard.server.extensions.api.plugins.ws.msg.PluginWebsocketMsg;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Slf4j
 public final class PluginProcessingContext implements PluginContext {
 
-    private static final Executor executor = Executors.newSingleThreadExecutor();
     public static final String CUSTOMER_USER_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION = "Customer user is not allowed to perform this operation!";
     public static final String SYSTEM_ADMINISTRATOR_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION = "System administrator is not allowed to perform this operation!";
     public static final String DEVICE_WITH_REQUESTED_ID_NOT_FOUND = "Device with requested id wasn't found!";
@@ -100,7 +99,7 @@ public final class PluginProcessingContext implements PluginContext {
                     onDeviceAttributesChanged(tenantId, new DeviceId(entityId.getId()), scope, attributes);
                 }
                 return null;
-            }), executor);
+            }), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -108,7 +107,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void removeAttributes(final TenantId tenantId, final EntityId entityId, final String scope, final List<String> keys, final PluginCallback<Void> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<Void>> futures = pluginCtx.attributesService.removeAll(entityId, scope, keys);
-            Futures.addCallback(futures, getCallback(callback, v -> null), executor);
+            Futures.addCallback(futures, getCallback(callback, v -> null), pluginCtx.getCallbackExecutor());
             if (entityId.getEntityType() == EntityType.DEVICE) {
                 onDeviceAttributesDeleted(tenantId, new DeviceId(entityId.getId()), keys.stream().map(key -> new AttributeKey(scope, key)).collect(Collectors.toSet()));
             }
@@ -119,7 +118,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadAttribute(EntityId entityId, String attributeType, String attributeKey, final PluginCallback<Optional<AttributeKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<Optional<AttributeKvEntry>> future = pluginCtx.attributesService.find(entityId, attributeType, attributeKey);
-            Futures.addCallback(future, getCallback(callback, v -> v), executor);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -127,7 +126,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadAttributes(EntityId entityId, String attributeType, Collection<String> attributeKeys, final PluginCallback<List<AttributeKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<AttributeKvEntry>> future = pluginCtx.attributesService.find(entityId, attributeType, attributeKeys);
-            Futures.addCallback(future, getCallback(callback, v -> v), executor);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -135,7 +134,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadAttributes(EntityId entityId, String attributeType, PluginCallback<List<AttributeKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<AttributeKvEntry>> future = pluginCtx.attributesService.findAll(entityId, attributeType);
-            Futures.addCallback(future, getCallback(callback, v -> v), executor);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -157,11 +156,23 @@ public final class PluginProcessingContext implements PluginContext {
         }));
     }
 
+    @Override
+    public void loadAttributes(final List<EntityId> entityIds, final Collection<String> attributeTypes, final Collection<String> attributeKeys,
+                               final PluginBatchCallback<List<AttributeKvEntry>> callback) {
+        loadBatch(entityIds, callback, entityId -> {
+            List<ListenableFuture<List<AttributeKvEntry>>> futures = new ArrayList<>();
+            attributeTypes.forEach(attributeType -> futures.add(attributeKeys != null && !attributeKeys.isEmpty() ?
+                    pluginCtx.attributesService.find(entityId, attributeType, attributeKeys) : pluginCtx.attributesService.findAll(entityId, attributeType)));
+            return Futures.transform(Futures.allAsList(futures), (Function<List<List<AttributeKvEntry>>, List<AttributeKvEntry>>) input ->
+                    input.stream().flatMap(List::stream).collect(Collectors.toList()));
+        });
+    }
+
     @Override
     public void saveTsData(final EntityId entityId, final TsKvEntry entry, final PluginCallback<Void> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<Void>> rsListFuture = pluginCtx.tsService.save(entityId, entry);
-            Futures.addCallback(rsListFuture, getListCallback(callback, v -> null), executor);
+            Futures.addCallback(rsListFuture, getListCallback(callback, v -> null), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -174,7 +185,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void saveTsData(final EntityId entityId, final List<TsKvEntry> entries, long ttl, final PluginCallback<Void> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<Void>> rsListFuture = pluginCtx.tsService.save(entityId, entries, ttl);
-            Futures.addCallback(rsListFuture, getListCallback(callback, v -> null), executor);
+            Futures.addCallback(rsListFuture, getListCallback(callback, v -> null), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -183,7 +194,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadTimeseries(final EntityId entityId, final List<TsKvQuery> queries, final PluginCallback<List<TsKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<TsKvEntry>> future = pluginCtx.tsService.findAll(entityId, queries);
-            Futures.addCallback(future, getCallback(callback, v -> v), executor);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -191,10 +202,40 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadLatestTimeseries(final EntityId entityId, final PluginCallback<List<TsKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<TsKvEntry>> future = pluginCtx.tsService.findAllLatest(entityId);
-            Futures.addCallback(future, getCallback(callback, v -> v), executor);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
+        }));
+    }
+
+    @Override
+    public void loadTimeseriesKeys(final EntityId entityId, final PluginCallback<List<TsKeyInfo>> callback) {
+        validate(entityId, new ValidationCallback(callback, ctx -> {
+            ListenableFuture<List<TsKeyInfo>> future = pluginCtx.tsService.findKeys(entityId);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
+        }));
+    }
+
+    @Override
+    public void loadTimeseriesKeys(final List<EntityId> entityIds, final PluginCallback<List<TsKeyInfo>> callback) {
+        if (!checkMaxEntities(entityIds, callback)) {
+            return;
+        }
+        validate(entityIds, callback, new ValidationCallback(callback, ctx -> {
+            ListenableFuture<List<TsKeyInfo>> future = pluginCtx.tsService.findKeys(entityIds);
+            Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
+    @Override
+    public void loadTimeseries(final List<EntityId> entityIds, final List<TsKvQuery> queries, final PluginBatchCallback<List<TsKvEntry>> callback) {
+        loadBatch(entityIds, callback, entityId -> pluginCtx.tsService.findAll(entityId, queries));
+    }
+
+    @Override
+    public void loadLatestTimeseries(final List<EntityId> entityIds, final Collection<String> keys, final PluginBatchCallback<List<TsKvEntry>> callback) {
+        loadBatch(entityIds, callback, entityId -> keys != null && !keys.isEmpty() ?
+                pluginCtx.tsService.findLatest(entityId, keys) : pluginCtx.tsService.findAllLatest(entityId));
+    }
+
     @Override
     public void logAttributesUpdated(PluginApiCallSecurityContext ctx, EntityId entityId, String attributeType,
                                                                      List<AttributeKvEntry> attributes, Exception e) {
@@ -245,7 +286,7 @@ public final class PluginProcessingContext implements PluginContext {
     public void loadLatestTimeseries(final EntityId entityId, final Collection<String> keys, final PluginCallback<List<TsKvEntry>> callback) {
         validate(entityId, new ValidationCallback(callback, ctx -> {
             ListenableFuture<List<TsKvEntry>> rsListFuture = pluginCtx.tsService.findLatest(entityId, keys);
-            Futures.addCallback(rsListFuture, getCallback(callback, v -> v), executor);
+            Futures.addCallback(rsListFuture, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
         }));
     }
 
@@ -317,6 +358,98 @@ public final class PluginProcessingContext implements PluginContext {
         validate(deviceId, new ValidationCallback(callback, ctx -> callback.onSuccess(ctx, null)));
     }
 
+    private <T> void loadBatch(List<EntityId> entityIds, PluginBatchCallback<T> callback,
+                               java.util.function.Function<EntityId, ListenableFuture<T>> loader) {
+        PluginCallback<Void> batchCallback = new PluginCallback<Void>() {
+            @Override
+            public void onSuccess(PluginContext ctx, Void value) {
+                new PluginBatchQuery<>(pluginCtx, entityIds, loader, callback, pluginCtx.getBatchQueryParallelism()).start();
+            }
+
+            @Override
+            public void onFailure(PluginContext ctx, Exception e) {
+                callback.onFailure(ctx, e);
+            }
+        };
+        if (!checkMaxEntities(entityIds, batchCallback)) {
+            return;
+        }
+        validate(entityIds, batchCallback, new ValidationCallback(batchCallback, ctx -> batchCallback.onSuccess(ctx, null)));
+    }
+
+    private boolean checkMaxEntities(List<EntityId> entityIds, PluginCallback<?> callback) {
+        int maxEntities = pluginCtx.getBatchQueryMaxEntities();
+        if (entityIds.size() > maxEntities) {
+            callback.onFailure(this, new IllegalArgumentException("Requested " + entityIds.size() + " entities, but at most " + maxEntities + " are allowed!"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Validates devices and assets with one query per entity type, other entities one by one.
+     */
+    private void validate(List<EntityId> entityIds, PluginCallback<?> callback, ValidationCallback validationCallback) {
+        if (!securityCtx.isPresent()) {
+            validationCallback.onSuccess(this, ValidationResult.ok());
+            return;
+        }
+        final PluginApiCallSecurityContext ctx = securityCtx.get();
+        List<DeviceId> deviceIds = new ArrayList<>();
+        List<AssetId> assetIds = new ArrayList<>();
+        List<EntityId> otherIds = new ArrayList<>();
+        for (EntityId entityId : new LinkedHashSet<>(entityIds)) {
+            switch (entityId.getEntityType()) {
+                case DEVICE:
+                    deviceIds.add(new DeviceId(entityId.getId()));
+                    break;
+                case ASSET:
+                    assetIds.add(new AssetId(entityId.getId()));
+                    break;
+                default:
+                    otherIds.add(entityId);
+            }
+        }
+        ValidationCallback othersCallback = new ValidationCallback(callback, c -> validate(otherIds, 0, callback, validationCallback));
+        if (deviceIds.isEmpty() && assetIds.isEmpty()) {
+            othersCallback.onSuccess(this, ValidationResult.ok());
+        } else if (ctx.isSystemAdmin()) {
+            othersCallback.onSuccess(this, ValidationResult.accessDenied(SYSTEM_ADMINISTRATOR_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION));
+        } else {
+            List<ListenableFuture<Integer>> found = new ArrayList<>(2);
+            if (!deviceIds.isEmpty()) {
+                ListenableFuture<List<Device>> devices = ctx.isCustomerUser() ?
+                        pluginCtx.deviceService.findDevicesByTenantIdCustomerIdAndIdsAsync(ctx.getTenantId(), ctx.getCustomerId(), deviceIds) :
+                        pluginCtx.deviceService.findDevicesByTenantIdAndIdsAsync(ctx.getTenantId(), deviceIds);
+                found.add(Futures.transform(devices, (Function<List<Device>, Integer>) List::size));
+            }
+            if (!assetIds.isEmpty()) {
+                ListenableFuture<List<Asset>> assets = ctx.isCustomerUser() ?
+                        pluginCtx.assetService.findAssetsByTenantIdCustomerIdAndIdsAsync(ctx.getTenantId(), ctx.getCustomerId(), assetIds) :
+                        pluginCtx.assetService.findAssetsByTenantIdAndIdsAsync(ctx.getTenantId(), assetIds);
+                found.add(Futures.transform(assets, (Function<List<Asset>, Integer>) List::size));
+            }
+            int expected = deviceIds.size() + assetIds.size();
+            Futures.addCallback(Futures.allAsList(found), getCallback(othersCallback, counts -> {
+                if (counts.stream().mapToInt(Integer::intValue).sum() == expected) {
+                    return ValidationResult.ok();
+                } else if (ctx.isCustomerUser()) {
+                    return ValidationResult.accessDenied("Some of the requested entities don't belong to the current Customer!");
+                } else {
+                    return ValidationResult.accessDenied("Some of the requested entities don't belong to the current Tenant!");
+                }
+            }));
+        }
+    }
+
+    private void validate(List<EntityId> entityIds, int index, PluginCallback<?> callback, ValidationCallback validationCallback) {
+        if (index < entityIds.size()) {
+            validate(entityIds.get(index), new ValidationCallback(callback, ctx -> validate(entityIds, index + 1, callback, validationCallback)));
+        } else {
+            validationCallback.onSuccess(this, ValidationResult.ok());
+        }
+    }
+
     private void validate(EntityId entityId, ValidationCallback callback) {
         if (securityCtx.isPresent()) {
             final PluginApiCallSecurityContext ctx = securityCtx.get();
@@ -540,7 +673,7 @@ public final class PluginProcessingContext implements PluginContext {
                     List<AttributeKvEntry> result = new ArrayList<>();
                     input.forEach(r -> result.addAll(r));
                     return result;
-                }, executor);
-        Futures.addCallback(future, getCallback(callback, v -> v), executor);
+                }, pluginCtx.getCallbackExecutor());
+        Futures.addCallback(future, getCallback(callback, v -> v), pluginCtx.getCallbackExecutor());
     }
 }
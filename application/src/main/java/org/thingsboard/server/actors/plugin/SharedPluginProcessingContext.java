@@ -44,6 +44,7 @@ import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
 import scala.concurrent.duration.Duration;
 
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
@@ -95,6 +96,18 @@ public final class SharedPluginProcessingContext {
         return pluginId;
     }
 
+    public Executor getCallbackExecutor() {
+        return systemContext.getPluginCallbackExecutor();
+    }
+
+    public int getBatchQueryMaxEntities() {
+        return systemContext.getPluginBatchQueryMaxEntities();
+    }
+
+    public int getBatchQueryParallelism() {
+        return systemContext.getPluginBatchQueryParallelism();
+    }
+
     public TenantId getPluginTenantId() {
         return tenantId;
     }
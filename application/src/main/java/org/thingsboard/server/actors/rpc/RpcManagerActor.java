@@ -25,7 +25,6 @@ import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.common.msg.cluster.ClusterEventMsg;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
-import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import org.thingsboard.server.service.cluster.discovery.ServerInstance;
 
 import java.util.*;
@@ -39,14 +38,14 @@ public class RpcManagerActor extends ContextAwareActor {
 
     private final Map<ServerAddress, SessionActorInfo> sessionActors;
 
-    private final Map<ServerAddress, Queue<ClusterAPIProtos.ToRpcServerMessage>> pendingMsgs;
+    private final RpcPendingQueueRegistry pendingMsgs;
 
     private final ServerAddress instance;
 
     public RpcManagerActor(ActorSystemContext systemContext) {
         super(systemContext);
         this.sessionActors = new HashMap<>();
-        this.pendingMsgs = new HashMap<>();
+        this.pendingMsgs = systemContext.getRpcPendingQueueRegistry();
         this.instance = systemContext.getDiscoveryService().getCurrentServer().getServerAddress();
 
         systemContext.getDiscoveryService().getOtherServers().stream()
@@ -78,7 +77,7 @@ public class RpcManagerActor extends ContextAwareActor {
     private void onMsg(RpcBroadcastMsg msg) {
         log.debug("Forwarding msg to session actors {}", msg);
         sessionActors.keySet().forEach(address -> onMsg(new RpcSessionTellMsg(address, msg.getMsg())));
-        pendingMsgs.values().forEach(queue -> queue.add(msg.getMsg()));
+        pendingMsgs.getQueues().forEach(queue -> queue.add(msg.getMsg(), true));
     }
 
     private void onMsg(RpcSessionTellMsg msg) {
@@ -89,12 +88,7 @@ public class RpcManagerActor extends ContextAwareActor {
             session.actor.tell(msg, ActorRef.noSender());
         } else {
             log.debug("{} Storing msg to pending queue", address);
-            Queue<ClusterAPIProtos.ToRpcServerMessage> queue = pendingMsgs.get(address);
-            if (queue == null) {
-                queue = new LinkedList<>();
-                pendingMsgs.put(address, queue);
-            }
-            queue.add(msg.getMsg());
+            pendingMsgs.getOrCreate(address).add(msg.getMsg(), false);
         }
     }
 
@@ -143,7 +137,10 @@ public class RpcManagerActor extends ContextAwareActor {
         SessionActorInfo sessionRef = sessionActors.get(remoteAddress);
         if (context().sender().equals(sessionRef.actor)) {
             sessionActors.remove(remoteAddress);
-            pendingMsgs.remove(remoteAddress);
+            RpcPendingMsgQueue queue = pendingMsgs.remove(remoteAddress);
+            if (queue != null) {
+                queue.clear();
+            }
             if (reconnect) {
                 onCreateSessionRequest(new RpcSessionCreateRequestMsg(sessionRef.sessionId, remoteAddress, null));
             }
@@ -160,10 +157,10 @@ public class RpcManagerActor extends ContextAwareActor {
     private void register(ServerAddress remoteAddress, UUID uuid, ActorRef sender) {
         sessionActors.put(remoteAddress, new SessionActorInfo(uuid, sender));
         log.debug("[{}][{}] Registering session actor.", remoteAddress, uuid);
-        Queue<ClusterAPIProtos.ToRpcServerMessage> data = pendingMsgs.remove(remoteAddress);
+        RpcPendingMsgQueue data = pendingMsgs.remove(remoteAddress);
         if (data != null) {
             log.debug("[{}][{}] Forwarding {} pending messages.", remoteAddress, uuid, data.size());
-            data.forEach(msg -> sender.tell(new RpcSessionTellMsg(remoteAddress, msg), ActorRef.noSender()));
+            data.drain(msg -> sender.tell(new RpcSessionTellMsg(remoteAddress, msg), ActorRef.noSender()));
         } else {
             log.debug("[{}][{}] No pending messages to forward.", remoteAddress, uuid);
         }
@@ -0,0 +1,228 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rpc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of messages to a node that is not connected yet. Not thread safe: used by the RPC manager actor only,
+ * statistics may be read by other threads.
+ */
+@Slf4j
+public class RpcPendingMsgQueue {
+
+    private final ServerAddress address;
+    private final int maxSize;
+    private final RpcPendingQueueOverflowPolicy overflowPolicy;
+    private final File spillFile;
+    private final long maxSpillBytes;
+
+    private final Deque<PendingMsg> msgs = new ArrayDeque<>();
+    private int broadcasts;
+    private OutputStream spillOut;
+
+    private volatile int size;
+    private volatile long spilledMsgs;
+    private volatile long spilledBytes;
+    private volatile long enqueued;
+    private volatile long dropped;
+    private volatile long droppedBroadcasts;
+
+    public RpcPendingMsgQueue(ServerAddress address, int maxSize, RpcPendingQueueOverflowPolicy overflowPolicy, File spillDir, long maxSpillBytes) {
+        this.address = address;
+        this.maxSize = Math.max(1, maxSize);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = new File(spillDir, address.getHost() + "_" + address.getPort() + ".seg");
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    public void add(ClusterAPIProtos.ToRpcServerMessage msg, boolean broadcast) {
+        enqueued++;
+        if (spilledMsgs > 0) {
+            // Messages already spilled to disk are older than the new one.
+            spill(msg, broadcast);
+            return;
+        }
+        if (msgs.size() >= maxSize) {
+            switch (overflowPolicy) {
+                case SPILL_TO_DISK:
+                    spill(msg, broadcast);
+                    return;
+                case DROP_BROADCAST_FIRST:
+                    if (broadcasts > 0) {
+                        dropOldestBroadcast();
+                    } else if (broadcast) {
+                        onDropped(true);
+                        return;
+                    } else {
+                        dropOldest();
+                    }
+                    break;
+                default:
+                    dropOldest();
+            }
+        }
+        msgs.add(new PendingMsg(msg, broadcast));
+        if (broadcast) {
+            broadcasts++;
+        }
+        size = msgs.size();
+    }
+
+    /**
+     * Passes all pending messages to the consumer in the order they were added and empties the queue.
+     */
+    public void drain(Consumer<ClusterAPIProtos.ToRpcServerMessage> consumer) {
+        msgs.forEach(pending -> consumer.accept(pending.msg));
+        msgs.clear();
+        broadcasts = 0;
+        size = 0;
+        if (spilledMsgs > 0) {
+            replay(consumer);
+        }
+        clear();
+    }
+
+    /**
+     * Discards all pending messages, including the spilled ones.
+     */
+    public void clear() {
+        msgs.clear();
+        broadcasts = 0;
+        size = 0;
+        closeSpillFile();
+        if (spillFile.exists() && !spillFile.delete()) {
+            log.warn("[{}] Failed to delete spill file {}", address, spillFile.getAbsolutePath());
+        }
+        spilledMsgs = 0;
+        spilledBytes = 0;
+    }
+
+    public int size() {
+        return size + (int) spilledMsgs;
+    }
+
+    public RpcPendingQueueStats getStats() {
+        return new RpcPendingQueueStats(address.toString(), size, spilledMsgs, spilledBytes, enqueued, dropped, droppedBroadcasts);
+    }
+
+    private void spill(ClusterAPIProtos.ToRpcServerMessage msg, boolean broadcast) {
+        int msgSize = msg.getSerializedSize();
+        if (spilledBytes + msgSize > maxSpillBytes) {
+            onDropped(broadcast);
+            return;
+        }
+        try {
+            if (spillOut == null) {
+                File dir = spillFile.getParentFile();
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("Can't create directory " + dir.getAbsolutePath());
+                }
+                spillOut = new BufferedOutputStream(new FileOutputStream(spillFile, spilledMsgs > 0));
+            }
+            msg.writeDelimitedTo(spillOut);
+            spilledMsgs++;
+            spilledBytes += msgSize;
+        } catch (IOException e) {
+            log.warn("[{}] Failed to spill pending message to {}", address, spillFile.getAbsolutePath(), e);
+            onDropped(broadcast);
+        }
+    }
+
+    private void replay(Consumer<ClusterAPIProtos.ToRpcServerMessage> consumer) {
+        closeSpillFile();
+        long replayed = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(spillFile))) {
+            ClusterAPIProtos.ToRpcServerMessage msg;
+            while ((msg = ClusterAPIProtos.ToRpcServerMessage.parseDelimitedFrom(in)) != null) {
+                consumer.accept(msg);
+                replayed++;
+            }
+        } catch (IOException e) {
+            log.warn("[{}] Failed to replay spilled messages from {}", address, spillFile.getAbsolutePath(), e);
+        }
+        if (replayed < spilledMsgs) {
+            dropped += spilledMsgs - replayed;
+        }
+        log.debug("[{}] Replayed {} spilled messages", address, replayed);
+    }
+
+    private void closeSpillFile() {
+        if (spillOut != null) {
+            try {
+                spillOut.close();
+            } catch (IOException e) {
+                log.warn("[{}] Failed to close spill file {}", address, spillFile.getAbsolutePath(), e);
+            }
+            spillOut = null;
+        }
+    }
+
+    private void dropOldest() {
+        PendingMsg oldest = msgs.poll();
+        if (oldest.broadcast) {
+            broadcasts--;
+        }
+        onDropped(oldest.broadcast);
+    }
+
+    private void dropOldestBroadcast() {
+        Iterator<PendingMsg> it = msgs.iterator();
+        while (it.hasNext()) {
+            if (it.next().broadcast) {
+                it.remove();
+                broadcasts--;
+                onDropped(true);
+                return;
+            }
+        }
+    }
+
+    private void onDropped(boolean broadcast) {
+        dropped++;
+        if (broadcast) {
+            droppedBroadcasts++;
+        }
+        if (dropped == 1 || dropped % 10000 == 0) {
+            log.warn("[{}] Pending message queue is full, {} messages dropped so far", address, dropped);
+        }
+    }
+
+    private static final class PendingMsg {
+        private final ClusterAPIProtos.ToRpcServerMessage msg;
+        private final boolean broadcast;
+
+        private PendingMsg(ClusterAPIProtos.ToRpcServerMessage msg, boolean broadcast) {
+            this.msg = msg;
+            this.broadcast = broadcast;
+        }
+    }
+}
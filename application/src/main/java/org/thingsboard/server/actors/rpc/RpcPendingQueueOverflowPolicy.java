@@ -0,0 +1,38 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rpc;
+
+/**
+ * Defines what happens when a message is sent to a node whose pending message queue is full.
+ */
+public enum RpcPendingQueueOverflowPolicy {
+
+    /**
+     * The oldest queued message is dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * The oldest queued broadcast message is dropped. If there are no broadcasts in the queue,
+     * a new broadcast is dropped, otherwise the oldest message.
+     */
+    DROP_BROADCAST_FIRST,
+    /**
+     * New messages are appended to a local segment file and replayed after the queued messages.
+     * Messages are dropped once the file reaches its maximum size.
+     */
+    SPILL_TO_DISK
+
+}
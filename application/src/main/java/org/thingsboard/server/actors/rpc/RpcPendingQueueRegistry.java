@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rpc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the queues of messages to other nodes that are not connected yet.
+ * Queues are modified by the RPC manager actor only; the registry exposes their statistics.
+ */
+@Component
+@Slf4j
+public class RpcPendingQueueRegistry {
+
+    @Value("${rpc.pending_queue.max_size}")
+    private int maxSize;
+    @Value("${rpc.pending_queue.overflow_policy}")
+    private RpcPendingQueueOverflowPolicy overflowPolicy;
+    @Value("${rpc.pending_queue.spill_dir}")
+    private String spillDir;
+    @Value("${rpc.pending_queue.spill_max_size}")
+    private long spillMaxSize;
+
+    private final ConcurrentMap<ServerAddress, RpcPendingMsgQueue> queues = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        log.info("Pending RPC messages are limited to {} per node, overflow policy: {}", maxSize, overflowPolicy);
+    }
+
+    RpcPendingMsgQueue get(ServerAddress address) {
+        return queues.get(address);
+    }
+
+    RpcPendingMsgQueue getOrCreate(ServerAddress address) {
+        return queues.computeIfAbsent(address, a -> new RpcPendingMsgQueue(a, maxSize, overflowPolicy, new File(spillDir), spillMaxSize));
+    }
+
+    RpcPendingMsgQueue remove(ServerAddress address) {
+        return queues.remove(address);
+    }
+
+    Iterable<RpcPendingMsgQueue> getQueues() {
+        return queues.values();
+    }
+
+    void clear() {
+        queues.values().forEach(RpcPendingMsgQueue::clear);
+        queues.clear();
+    }
+
+    public List<RpcPendingQueueStats> getStats() {
+        List<RpcPendingQueueStats> result = new ArrayList<>();
+        queues.values().forEach(queue -> result.add(queue.getStats()));
+        return result;
+    }
+}
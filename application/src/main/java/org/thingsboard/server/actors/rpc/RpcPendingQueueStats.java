@@ -0,0 +1,31 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rpc;
+
+import lombok.Data;
+
+@Data
+public class RpcPendingQueueStats {
+
+    private final String serverAddress;
+    private final int queueSize;
+    private final long spilledMsgs;
+    private final long spilledBytes;
+    private final long enqueued;
+    private final long dropped;
+    private final long droppedBroadcasts;
+
+}
@@ -32,10 +32,14 @@ public class ChainProcessingContext {
 
 
     public ChainProcessingContext(ChainProcessingMetaData md) {
+        this(md, RuleEngineError.NO_RULES);
+    }
+
+    public ChainProcessingContext(ChainProcessingMetaData md, RuleEngineError error) {
         super();
         this.md = md;
         this.index = 0;
-        this.error = RuleEngineError.NO_RULES;
+        this.error = error;
     }
 
     private ChainProcessingContext(ChainProcessingContext other, int indexOffset, RuleEngineError error) {
@@ -55,7 +59,14 @@ public class ChainProcessingContext {
     }
 
     public ActorRef getCurrentActor() {
-        return md.chain.getRuleActorMd(index).getActorRef();
+        return md.chain.getRuleActorMd(index).getShards().getShard(md.inMsg.getDeviceId());
+    }
+
+    /**
+     * Sends the message to the shard of the current rule that is responsible for the device.
+     */
+    public void tellCurrentActor(Object msg, ActorRef sender) {
+        md.chain.getRuleActorMd(index).getShards().tell(md.inMsg.getDeviceId(), msg, sender);
     }
 
     public boolean hasNext() {
@@ -15,6 +15,8 @@
  */
 package org.thingsboard.server.actors.rule;
 
+import org.thingsboard.server.common.msg.session.MsgType;
+
 public class ComplexRuleActorChain implements RuleActorChain {
 
     private final RuleActorChain systemChain;
@@ -40,4 +42,14 @@ public class ComplexRuleActorChain implements RuleActorChain {
         }
     }
 
+    @Override
+    public RuleActorChain forMessage(MsgType msgType, String deviceType, String methodName) {
+        RuleActorChain filteredSystemChain = systemChain.forMessage(msgType, deviceType, methodName);
+        RuleActorChain filteredTenantChain = tenantChain.forMessage(msgType, deviceType, methodName);
+        if (filteredSystemChain == systemChain && filteredTenantChain == tenantChain) {
+            return this;
+        }
+        return new ComplexRuleActorChain(filteredSystemChain, filteredTenantChain);
+    }
+
 }
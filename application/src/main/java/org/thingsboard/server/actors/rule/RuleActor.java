@@ -19,17 +19,24 @@ import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.service.ComponentActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.stats.StatsPersistTick;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
 import org.thingsboard.server.common.msg.cluster.ClusterEventMsg;
 import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.PluginToRuleMsg;
 
 public class RuleActor extends ComponentActor<RuleId, RuleActorMessageProcessor> {
 
-    private RuleActor(ActorSystemContext systemContext, TenantId tenantId, RuleId ruleId) {
+    private final RuleActorShards shards;
+    private final int shardIndex;
+
+    private RuleActor(ActorSystemContext systemContext, TenantId tenantId, RuleId ruleId, RuleActorShards shards, int shardIndex) {
         super(systemContext, tenantId, ruleId);
-        setProcessor(new RuleActorMessageProcessor(tenantId, ruleId, systemContext, logger));
+        this.shards = shards;
+        this.shardIndex = shardIndex;
+        setProcessor(new RuleActorMessageProcessor(tenantId, ruleId, shards, systemContext, logger));
     }
 
     @Override
@@ -65,21 +72,66 @@ public class RuleActor extends ComponentActor<RuleId, RuleActorMessageProcessor>
         }
     }
 
+    @Override
+    public void preStart() {
+        if (shardIndex == 0) {
+            systemContext.getRuleActorShardsRegistry().register(tenantId, shards);
+        }
+        super.preStart();
+    }
+
+    @Override
+    public void postStop() {
+        super.postStop();
+        if (shardIndex == 0) {
+            systemContext.getRuleActorShardsRegistry().unregister(shards);
+        }
+    }
+
+    /**
+     * All shards share the rule id, so only the first shard persists the statistics of the rule.
+     */
+    @Override
+    protected void persistStats(EntityId entityId, long messagesProcessed, long errorsOccurred) {
+        if (shards.size() == 1) {
+            super.persistStats(entityId, messagesProcessed, errorsOccurred);
+            return;
+        }
+        shards.addStats(messagesProcessed, errorsOccurred);
+        if (shardIndex == 0) {
+            super.persistStats(entityId, shards.drainMessagesProcessed(), shards.drainErrorsOccurred());
+        }
+    }
+
+    /**
+     * Lifecycle events are the same for all shards, so only the first shard persists them. Failures are persisted by any shard.
+     */
+    @Override
+    protected void logLifecycleEvent(ComponentLifecycleEvent event, Exception e) {
+        if (shardIndex == 0 || e != null) {
+            super.logLifecycleEvent(event, e);
+        }
+    }
+
     public static class ActorCreator extends ContextBasedCreator<RuleActor> {
         private static final long serialVersionUID = 1L;
 
         private final TenantId tenantId;
         private final RuleId ruleId;
+        private final transient RuleActorShards shards;
+        private final int shardIndex;
 
-        public ActorCreator(ActorSystemContext context, TenantId tenantId, RuleId ruleId) {
+        public ActorCreator(ActorSystemContext context, TenantId tenantId, RuleId ruleId, RuleActorShards shards, int shardIndex) {
             super(context);
             this.tenantId = tenantId;
             this.ruleId = ruleId;
+            this.shards = shards;
+            this.shardIndex = shardIndex;
         }
 
         @Override
         public RuleActor create() throws Exception {
-            return new RuleActor(context, tenantId, ruleId);
+            return new RuleActor(context, tenantId, ruleId, shards, shardIndex);
         }
     }
 
@@ -15,10 +15,25 @@
  */
 package org.thingsboard.server.actors.rule;
 
+import org.thingsboard.server.common.msg.core.RuleEngineError;
+import org.thingsboard.server.common.msg.session.MsgType;
+
 public interface RuleActorChain {
 
     int size();
 
     RuleActorMetaData getRuleActorMd(int index);
 
+    /**
+     * @return chain without the rules that can't match the message according to their {@link RulePreFilter}
+     */
+    RuleActorChain forMessage(MsgType msgType, String deviceType, String methodName);
+
+    /**
+     * @return error reported to the device if none of the rules in the matching chain handles the message
+     */
+    static RuleEngineError getInitialError(RuleActorChain chain, RuleActorChain matchingChain) {
+        return chain.size() > matchingChain.size() ? RuleEngineError.NO_FILTERS_MATCHED : RuleEngineError.NO_RULES;
+    }
+
 }
@@ -51,6 +51,7 @@ class RuleActorMessageProcessor extends ComponentMsgProcessor<RuleId> {
 
     private final RuleProcessingContext ruleCtx;
     private final Map<UUID, RuleProcessingMsg> pendingMsgMap;
+    private final RuleActorShards shards;
 
     private RuleMetaData ruleMd;
     private ComponentLifecycleState state;
@@ -61,8 +62,9 @@ class RuleActorMessageProcessor extends ComponentMsgProcessor<RuleId> {
     private TenantId pluginTenantId;
     private PluginId pluginId;
 
-    protected RuleActorMessageProcessor(TenantId tenantId, RuleId ruleId, ActorSystemContext systemContext, LoggingAdapter logger) {
+    protected RuleActorMessageProcessor(TenantId tenantId, RuleId ruleId, RuleActorShards shards, ActorSystemContext systemContext, LoggingAdapter logger) {
         super(systemContext, logger, tenantId, ruleId);
+        this.shards = shards;
         this.pendingMsgMap = new HashMap<>();
         this.ruleCtx = new RuleProcessingContext(systemContext, ruleId);
     }
@@ -171,6 +173,9 @@ class RuleActorMessageProcessor extends ComponentMsgProcessor<RuleId> {
             if (ruleToPluginMsgOptional.isPresent()) {
                 RuleToPluginMsg<?> ruleToPluginMsg = ruleToPluginMsgOptional.get();
                 logger.debug("[{}] Device msg is converted to: {}", entityId, ruleToPluginMsg);
+                if (!action.isOneWayAction()) {
+                    shards.onReplyExpected(ruleToPluginMsg.getUid(), context.self());
+                }
                 context.parent().tell(new RuleToPluginMsgWrapper(pluginTenantId, pluginId, tenantId, entityId, ruleToPluginMsg), context.self());
                 if (action.isOneWayAction()) {
                     pushToNextRule(context, msg.getCtx(), RuleEngineError.NO_TWO_WAY_ACTIONS);
@@ -204,6 +209,7 @@ class RuleActorMessageProcessor extends ComponentMsgProcessor<RuleId> {
 
     void onTimeoutMsg(ActorContext context, RuleToPluginTimeoutMsg msg) {
         RuleProcessingMsg pendingMsg = pendingMsgMap.remove(msg.getMsgId());
+        shards.onReplyCompleted(msg.getMsgId());
         if (pendingMsg != null) {
             logger.debug("[{}] Processing timeout detected [{}]: {}", entityId, msg.getMsgId(), pendingMsg);
             ChainProcessingContext ctx = pendingMsg.getCtx();
@@ -224,7 +230,7 @@ class RuleActorMessageProcessor extends ComponentMsgProcessor<RuleId> {
         } else {
             logger.debug("[{}][{}] Forwarding processing chain to next rule actor.", ruleMd.getId(), ctx.getInMsg().getDeviceId());
             ChainProcessingContext nextTask = ctx.getNext();
-            nextTask.getCurrentActor().tell(new RuleProcessingMsg(nextTask), context.self());
+            nextTask.tellCurrentActor(new RuleProcessingMsg(nextTask), context.self());
         }
     }
 
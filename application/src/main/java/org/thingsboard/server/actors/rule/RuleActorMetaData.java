@@ -19,14 +19,13 @@ import java.util.Comparator;
 
 import org.thingsboard.server.common.data.id.RuleId;
 
-import akka.actor.ActorRef;
-
 public class RuleActorMetaData {
 
     private final RuleId ruleId;
     private final boolean systemRule;
     private final int weight;
-    private final ActorRef actorRef;
+    private final RuleActorShards shards;
+    private final RulePreFilter preFilter;
 
     public static final Comparator<RuleActorMetaData> RULE_ACTOR_MD_COMPARATOR = new Comparator<RuleActorMetaData>() {
 
@@ -42,20 +41,29 @@ public class RuleActorMetaData {
         }
     };
 
-    public static RuleActorMetaData systemRule(RuleId ruleId, int weight, ActorRef actorRef) {
-        return new RuleActorMetaData(ruleId, true, weight, actorRef);
+    public static RuleActorMetaData systemRule(RuleId ruleId, int weight, RuleActorShards shards) {
+        return systemRule(ruleId, weight, shards, RulePreFilter.ANY);
+    }
+
+    public static RuleActorMetaData systemRule(RuleId ruleId, int weight, RuleActorShards shards, RulePreFilter preFilter) {
+        return new RuleActorMetaData(ruleId, true, weight, shards, preFilter);
     }
 
-    public static RuleActorMetaData tenantRule(RuleId ruleId, int weight, ActorRef actorRef) {
-        return new RuleActorMetaData(ruleId, false, weight, actorRef);
+    public static RuleActorMetaData tenantRule(RuleId ruleId, int weight, RuleActorShards shards) {
+        return tenantRule(ruleId, weight, shards, RulePreFilter.ANY);
     }
 
-    private RuleActorMetaData(RuleId ruleId, boolean systemRule, int weight, ActorRef actorRef) {
+    public static RuleActorMetaData tenantRule(RuleId ruleId, int weight, RuleActorShards shards, RulePreFilter preFilter) {
+        return new RuleActorMetaData(ruleId, false, weight, shards, preFilter);
+    }
+
+    private RuleActorMetaData(RuleId ruleId, boolean systemRule, int weight, RuleActorShards shards, RulePreFilter preFilter) {
         super();
         this.ruleId = ruleId;
         this.systemRule = systemRule;
         this.weight = weight;
-        this.actorRef = actorRef;
+        this.shards = shards;
+        this.preFilter = preFilter;
     }
 
     public RuleId getRuleId() {
@@ -70,8 +78,12 @@ public class RuleActorMetaData {
         return weight;
     }
 
-    public ActorRef getActorRef() {
-        return actorRef;
+    public RuleActorShards getShards() {
+        return shards;
+    }
+
+    public RulePreFilter getPreFilter() {
+        return preFilter;
     }
 
     @Override
@@ -101,7 +113,7 @@ public class RuleActorMetaData {
 
     @Override
     public String toString() {
-        return "RuleActorMetaData [ruleId=" + ruleId + ", systemRule=" + systemRule + ", weight=" + weight + ", actorRef=" + actorRef + "]";
+        return "RuleActorMetaData [ruleId=" + ruleId + ", systemRule=" + systemRule + ", weight=" + weight + ", shards=" + shards.size() + ", preFilter=" + preFilter + "]";
     }
 
 }
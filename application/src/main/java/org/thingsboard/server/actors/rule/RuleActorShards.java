@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import akka.actor.ActorRef;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleId;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set of actors that process the same rule. Messages are routed to the shard by device id,
+ * so messages of the same device are always processed in order by the same shard.
+ * Replies from plugins are routed back to the shard that sent the request.
+ * Mailbox depth of the shards is available via {@link org.thingsboard.server.actors.metrics.ActorMetricsService#getRuleShardStats()}.
+ */
+public final class RuleActorShards {
+
+    private final RuleId ruleId;
+    private final ActorRef[] shards;
+    private final ConcurrentMap<UUID, ActorRef> pendingReplies = new ConcurrentHashMap<>();
+    private final AtomicLong messagesProcessed = new AtomicLong();
+    private final AtomicLong errorsOccurred = new AtomicLong();
+
+    public RuleActorShards(RuleId ruleId, int shardCount) {
+        this.ruleId = ruleId;
+        this.shards = new ActorRef[shardCount];
+    }
+
+    public RuleId getRuleId() {
+        return ruleId;
+    }
+
+    public int size() {
+        return shards.length;
+    }
+
+    public void setShard(int index, ActorRef actorRef) {
+        shards[index] = actorRef;
+    }
+
+    public ActorRef getShard(int index) {
+        return shards[index];
+    }
+
+    public ActorRef getShard(DeviceId deviceId) {
+        return shards[getShardIndex(deviceId)];
+    }
+
+    public void tell(DeviceId deviceId, Object msg, ActorRef sender) {
+        shards[getShardIndex(deviceId)].tell(msg, sender);
+    }
+
+    public void broadcast(Object msg, ActorRef sender) {
+        for (ActorRef shard : shards) {
+            shard.tell(msg, sender);
+        }
+    }
+
+    /**
+     * Routes plugin reply to the shard that is waiting for it.
+     */
+    public void tellReply(UUID msgId, Object msg, ActorRef sender) {
+        ActorRef target = shards.length > 1 ? pendingReplies.remove(msgId) : null;
+        (target != null ? target : shards[0]).tell(msg, sender);
+    }
+
+    void onReplyExpected(UUID msgId, ActorRef shard) {
+        if (shards.length > 1) {
+            pendingReplies.put(msgId, shard);
+        }
+    }
+
+    void onReplyCompleted(UUID msgId) {
+        if (shards.length > 1) {
+            pendingReplies.remove(msgId);
+        }
+    }
+
+    /**
+     * Accumulates statistics of the shards, so that they are persisted once per rule and not once per shard.
+     */
+    void addStats(long messagesProcessed, long errorsOccurred) {
+        this.messagesProcessed.addAndGet(messagesProcessed);
+        this.errorsOccurred.addAndGet(errorsOccurred);
+    }
+
+    long drainMessagesProcessed() {
+        return messagesProcessed.getAndSet(0);
+    }
+
+    long drainErrorsOccurred() {
+        return errorsOccurred.getAndSet(0);
+    }
+
+    int getShardIndex(DeviceId deviceId) {
+        if (shards.length == 1 || deviceId == null) {
+            return 0;
+        }
+        return (deviceId.hashCode() & Integer.MAX_VALUE) % shards.length;
+    }
+}
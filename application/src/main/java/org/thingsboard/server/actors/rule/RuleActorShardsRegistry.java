@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import akka.actor.ActorRef;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.actors.metrics.ActorMetricsRegistry;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps track of running rule actor shards, so that their mailbox depth can be exposed as metrics.
+ * Shards are registered by the first shard actor of the rule when it starts and removed when it stops.
+ */
+@Component
+public class RuleActorShardsRegistry {
+
+    private final ConcurrentMap<RuleActorShards, String> shards = new ConcurrentHashMap<>();
+
+    void register(TenantId tenantId, RuleActorShards ruleShards) {
+        String tenant = tenantId == null || tenantId.isNullUid() ? ActorMetricsRegistry.SYSTEM_TENANT : tenantId.getId().toString();
+        shards.put(ruleShards, tenant);
+    }
+
+    void unregister(RuleActorShards ruleShards) {
+        shards.remove(ruleShards);
+    }
+
+    /**
+     * @param queueSize mailbox depth of the shard actor
+     * @return depth of every shard of every running rule, most loaded shards first
+     */
+    public List<RuleShardStats> getStats(ToIntFunction<ActorRef> queueSize) {
+        List<RuleShardStats> result = new ArrayList<>();
+        for (Map.Entry<RuleActorShards, String> entry : shards.entrySet()) {
+            RuleActorShards ruleShards = entry.getKey();
+            for (int i = 0; i < ruleShards.size(); i++) {
+                ActorRef shard = ruleShards.getShard(i);
+                result.add(new RuleShardStats(entry.getValue(), ruleShards.getRuleId().getId().toString(), i,
+                        shard != null ? queueSize.applyAsInt(shard) : 0));
+            }
+        }
+        result.sort(Comparator.comparingInt(RuleShardStats::getQueueSize).reversed());
+        return result;
+    }
+}
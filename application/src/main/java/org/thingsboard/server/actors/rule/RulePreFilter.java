@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.msg.session.MsgType;
+import org.thingsboard.server.extensions.core.filter.DeviceTypeFilter;
+import org.thingsboard.server.extensions.core.filter.MethodNameFilter;
+import org.thingsboard.server.extensions.core.filter.MsgTypeFilter;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Static part of the rule filters that can be checked before the message is sent to the rule actor.
+ * Built from the message type, device type and method name filters of the rule.
+ * Other filters are evaluated by the rule actor as usual, so the pre-filter only skips rules that can never match.
+ */
+@Slf4j
+public final class RulePreFilter {
+
+    public static final RulePreFilter ANY = new RulePreFilter(null, null, null);
+
+    private static final String CLAZZ = "clazz";
+    private static final String CONFIGURATION = "configuration";
+
+    private final Set<MsgType> msgTypes;
+    private final Set<String> deviceTypes;
+    private final Set<String> methodNames;
+
+    private RulePreFilter(Set<MsgType> msgTypes, Set<String> deviceTypes, Set<String> methodNames) {
+        this.msgTypes = msgTypes;
+        this.deviceTypes = deviceTypes;
+        this.methodNames = methodNames;
+    }
+
+    public static RulePreFilter fromFilters(JsonNode filters) {
+        if (filters == null || !filters.isArray()) {
+            return ANY;
+        }
+        Set<MsgType> msgTypes = null;
+        Set<String> deviceTypes = null;
+        Set<String> methodNames = null;
+        try {
+            for (JsonNode filter : filters) {
+                JsonNode clazz = filter.get(CLAZZ);
+                JsonNode configuration = filter.get(CONFIGURATION);
+                if (clazz == null || configuration == null) {
+                    continue;
+                }
+                String className = clazz.asText();
+                if (MsgTypeFilter.class.getName().equals(className)) {
+                    Set<MsgType> types = EnumSet.noneOf(MsgType.class);
+                    for (JsonNode type : configuration.path("messageTypes")) {
+                        types.add(MsgTypeFilter.toMsgType(type.asText()));
+                    }
+                    msgTypes = intersect(msgTypes, types);
+                } else if (DeviceTypeFilter.class.getName().equals(className)) {
+                    deviceTypes = intersect(deviceTypes, getNames(configuration.path("deviceTypes")));
+                } else if (MethodNameFilter.class.getName().equals(className)) {
+                    msgTypes = intersect(msgTypes, EnumSet.of(MsgType.TO_SERVER_RPC_REQUEST));
+                    methodNames = intersect(methodNames, getNames(configuration.path("methodNames")));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Failed to build pre-filter from {}", filters, e);
+            return ANY;
+        }
+        return new RulePreFilter(msgTypes, deviceTypes, methodNames);
+    }
+
+    /**
+     * @return false if the rule filters will reject the message for sure
+     */
+    public boolean mayMatch(MsgType msgType, String deviceType) {
+        if (msgTypes != null && !msgTypes.contains(msgType)) {
+            return false;
+        }
+        return deviceTypes == null || deviceTypes.contains(deviceType);
+    }
+
+    /**
+     * @param methodName name of the RPC method or null if message is not an RPC request
+     */
+    public boolean mayMatchMethod(String methodName) {
+        return methodNames == null || methodNames.contains(methodName);
+    }
+
+    public boolean dependsOnMethodName() {
+        return methodNames != null;
+    }
+
+    private static Set<String> getNames(JsonNode array) {
+        Set<String> names = new HashSet<>();
+        for (JsonNode item : array) {
+            names.add(item.path("name").asText());
+        }
+        return names;
+    }
+
+    private static <T> Set<T> intersect(Set<T> current, Set<T> other) {
+        if (current == null) {
+            return Collections.unmodifiableSet(other);
+        }
+        Set<T> result = new HashSet<>(current);
+        result.retainAll(other);
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public String toString() {
+        return "RulePreFilter [msgTypes=" + msgTypes + ", deviceTypes=" + deviceTypes + ", methodNames=" + methodNames + "]";
+    }
+}
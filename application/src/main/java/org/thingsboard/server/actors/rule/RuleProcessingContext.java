@@ -27,6 +27,7 @@ import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.common.msg.device.ToDeviceActorMsg;
 import org.thingsboard.server.extensions.api.device.DeviceMetaData;
 import org.thingsboard.server.extensions.api.rules.RuleContext;
+import org.thingsboard.server.extensions.api.rules.ScriptExecutor;
 
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
@@ -36,6 +37,7 @@ public class RuleProcessingContext implements RuleContext {
     private final TimeseriesService tsService;
     private final EventService eventService;
     private final AlarmService alarmService;
+    private final ScriptExecutor scriptExecutor;
     private final RuleId ruleId;
     private TenantId tenantId;
     private CustomerId customerId;
@@ -46,6 +48,7 @@ public class RuleProcessingContext implements RuleContext {
         this.tsService = systemContext.getTsService();
         this.eventService = systemContext.getEventService();
         this.alarmService = systemContext.getAlarmService();
+        this.scriptExecutor = systemContext.getJsExecutorService();
         this.ruleId = ruleId;
     }
 
@@ -102,6 +105,11 @@ public class RuleProcessingContext implements RuleContext {
         return alarmService.clearAlarm(alarmId, clearTs);
     }
 
+    @Override
+    public ScriptExecutor getScriptExecutor() {
+        return scriptExecutor;
+    }
+
     private void checkEvent(Event event) {
         if (event.getTenantId() == null) {
             event.setTenantId(tenantId);
@@ -15,17 +15,30 @@
  */
 package org.thingsboard.server.actors.rule;
 
+import org.thingsboard.server.common.msg.session.MsgType;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class SimpleRuleActorChain implements RuleActorChain {
 
+    private static final int MAX_CACHED_CHAINS = 1024;
+
     private final List<RuleActorMetaData> rules;
+    private final boolean methodNameFilters;
+    private final ConcurrentMap<ChainKey, SimpleRuleActorChain> filteredChains = new ConcurrentHashMap<>();
 
     public SimpleRuleActorChain(Set<RuleActorMetaData> ruleSet) {
-        rules = new ArrayList<>(ruleSet);
-        rules.sort(RuleActorMetaData.RULE_ACTOR_MD_COMPARATOR);
+        this(sorted(ruleSet));
+    }
+
+    private SimpleRuleActorChain(List<RuleActorMetaData> rules) {
+        this.rules = rules;
+        this.methodNameFilters = rules.stream().anyMatch(r -> r.getPreFilter().dependsOnMethodName());
     }
 
     public int size() {
@@ -36,4 +49,69 @@ public class SimpleRuleActorChain implements RuleActorChain {
         return rules.get(index);
     }
 
+    @Override
+    public RuleActorChain forMessage(MsgType msgType, String deviceType, String methodName) {
+        ChainKey key = new ChainKey(msgType, deviceType);
+        SimpleRuleActorChain chain = filteredChains.get(key);
+        if (chain == null) {
+            chain = filter(msgType, deviceType);
+            if (filteredChains.size() < MAX_CACHED_CHAINS) {
+                filteredChains.putIfAbsent(key, chain);
+            }
+        }
+        if (chain.methodNameFilters) {
+            chain = chain.filterByMethod(methodName);
+        }
+        return chain;
+    }
+
+    private SimpleRuleActorChain filter(MsgType msgType, String deviceType) {
+        List<RuleActorMetaData> result = new ArrayList<>(rules.size());
+        for (RuleActorMetaData rule : rules) {
+            if (rule.getPreFilter().mayMatch(msgType, deviceType)) {
+                result.add(rule);
+            }
+        }
+        return result.size() == rules.size() ? this : new SimpleRuleActorChain(result);
+    }
+
+    private SimpleRuleActorChain filterByMethod(String methodName) {
+        List<RuleActorMetaData> result = new ArrayList<>(rules.size());
+        for (RuleActorMetaData rule : rules) {
+            if (rule.getPreFilter().mayMatchMethod(methodName)) {
+                result.add(rule);
+            }
+        }
+        return result.size() == rules.size() ? this : new SimpleRuleActorChain(result);
+    }
+
+    private static List<RuleActorMetaData> sorted(Set<RuleActorMetaData> ruleSet) {
+        List<RuleActorMetaData> rules = new ArrayList<>(ruleSet);
+        rules.sort(RuleActorMetaData.RULE_ACTOR_MD_COMPARATOR);
+        return rules;
+    }
+
+    private static final class ChainKey {
+        private final MsgType msgType;
+        private final String deviceType;
+
+        private ChainKey(MsgType msgType, String deviceType) {
+            this.msgType = msgType;
+            this.deviceType = deviceType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ChainKey that = (ChainKey) o;
+            return msgType == that.msgType && Objects.equals(deviceType, that.deviceType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(msgType, deviceType);
+        }
+    }
+
 }
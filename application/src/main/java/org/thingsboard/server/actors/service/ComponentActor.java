@@ -42,7 +42,7 @@ public abstract class ComponentActor<T extends EntityId, P extends ComponentMsgP
     private long errorsOccurred;
 
     public ComponentActor(ActorSystemContext systemContext, TenantId tenantId, T id) {
-        super(systemContext);
+        super(systemContext, tenantId);
         this.tenantId = tenantId;
         this.id = id;
     }
@@ -125,13 +125,17 @@ public abstract class ComponentActor<T extends EntityId, P extends ComponentMsgP
 
     protected void onStatsPersistTick(EntityId entityId) {
         try {
-            systemContext.getStatsActor().tell(new StatsPersistMsg(messagesProcessed, errorsOccurred, tenantId, entityId), ActorRef.noSender());
+            persistStats(entityId, messagesProcessed, errorsOccurred);
             resetStatsCounters();
         } catch (Exception e) {
             logAndPersist("onStatsPersistTick", e);
         }
     }
 
+    protected void persistStats(EntityId entityId, long messagesProcessed, long errorsOccurred) {
+        systemContext.getStatsActor().tell(new StatsPersistMsg(messagesProcessed, errorsOccurred, tenantId, entityId), ActorRef.noSender());
+    }
+
     private void resetStatsCounters() {
         messagesProcessed = 0;
         errorsOccurred = 0;
@@ -17,15 +17,36 @@ package org.thingsboard.server.actors.service;
 
 import akka.actor.UntypedActor;
 import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.metrics.ActorGroupMetrics;
+import org.thingsboard.server.actors.metrics.ActorMetricsExtension;
+import org.thingsboard.server.common.data.id.TenantId;
+import scala.PartialFunction;
+import scala.runtime.BoxedUnit;
 
 public abstract class ContextAwareActor extends UntypedActor {
 
     public static final int ENTITY_PACK_LIMIT = 1024;
 
     protected final ActorSystemContext systemContext;
+    private final ActorGroupMetrics metrics;
 
     public ContextAwareActor(ActorSystemContext systemContext) {
+        this(systemContext, null);
+    }
+
+    public ContextAwareActor(ActorSystemContext systemContext, TenantId tenantId) {
         super();
         this.systemContext = systemContext;
+        this.metrics = ActorMetricsExtension.ID.get(getContext().system()).bind(getSelf(), getClass(), tenantId);
+    }
+
+    @Override
+    public void aroundReceive(PartialFunction<Object, BoxedUnit> receive, Object msg) {
+        long startTime = System.nanoTime();
+        try {
+            super.aroundReceive(receive, msg);
+        } finally {
+            metrics.onProcessed(System.nanoTime() - startTime);
+        }
     }
 }
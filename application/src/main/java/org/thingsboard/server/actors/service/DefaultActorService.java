@@ -19,6 +19,7 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.actor.Terminated;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -43,6 +44,7 @@ import org.thingsboard.server.common.msg.core.ToDeviceSessionActorMsg;
 import org.thingsboard.server.extensions.api.device.DeviceNameOrTypeUpdateMsg;
 import org.thingsboard.server.common.msg.device.ToDeviceActorMsg;
 import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
+import org.thingsboard.server.dao.util.InstrumentedThreadPoolExecutor;
 import org.thingsboard.server.extensions.api.device.DeviceCredentialsUpdateNotificationMsg;
 import org.thingsboard.server.extensions.api.device.ToDeviceActorNotificationMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.ToPluginActorMsg;
@@ -74,6 +76,10 @@ public class DefaultActorService implements ActorService {
     public static final String SESSION_DISPATCHER_NAME = "session-dispatcher";
     public static final String RPC_DISPATCHER_NAME = "rpc-dispatcher";
 
+    public static final String DEVICE_MAILBOX_NAME = "device-mailbox";
+    public static final String SESSION_MAILBOX_NAME = "session-mailbox";
+    public static final String RULE_MAILBOX_NAME = "rule-mailbox";
+
     @Autowired
     private ActorSystemContext actorContext;
 
@@ -91,10 +97,18 @@ public class DefaultActorService implements ActorService {
 
     private ActorRef rpcManagerActor;
 
+    private InstrumentedThreadPoolExecutor pluginCallbackExecutor;
+
     @PostConstruct
     public void initActorSystem() {
         log.info("Initializing Actor system. {}", actorContext.getRuleService());
         actorContext.setActorService(this);
+        if (actorContext.getPluginCallbackThreadPoolSize() > 0) {
+            pluginCallbackExecutor = new InstrumentedThreadPoolExecutor("plugin-callback", actorContext.getPluginCallbackThreadPoolSize());
+            actorContext.setPluginCallbackExecutor(pluginCallbackExecutor);
+        } else {
+            actorContext.setPluginCallbackExecutor(MoreExecutors.directExecutor());
+        }
         system = ActorSystem.create(ACTOR_SYSTEM_NAME, actorContext.getConfig());
         actorContext.setActorSystem(system);
 
@@ -126,6 +140,10 @@ public class DefaultActorService implements ActorService {
         } catch (Exception e) {
             log.error("Failed to terminate actor system.", e);
         }
+        if (pluginCallbackExecutor != null) {
+            log.info("Stopping plugin callback executor: {}", pluginCallbackExecutor);
+            pluginCallbackExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -120,7 +120,8 @@ public class SessionManagerActor extends ContextAwareActor {
         if (sessionActor == null) {
             log.debug("[{}] Creating session actor.", sessionIdStr);
             sessionActor = context().actorOf(
-                    Props.create(new SessionActor.ActorCreator(systemContext, sessionId)).withDispatcher(DefaultActorService.SESSION_DISPATCHER_NAME),
+                    Props.create(new SessionActor.ActorCreator(systemContext, sessionId)).withDispatcher(DefaultActorService.SESSION_DISPATCHER_NAME)
+                            .withMailbox(DefaultActorService.SESSION_MAILBOX_NAME),
                     sessionIdStr);
             sessionActors.put(sessionIdStr, sessionActor);
             log.debug("[{}] Created session actor.", sessionIdStr);
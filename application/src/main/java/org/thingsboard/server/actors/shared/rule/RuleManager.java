@@ -23,8 +23,11 @@ import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.rule.RuleActor;
 import org.thingsboard.server.actors.rule.RuleActorChain;
 import org.thingsboard.server.actors.rule.RuleActorMetaData;
+import org.thingsboard.server.actors.rule.RuleActorShards;
+import org.thingsboard.server.actors.rule.RulePreFilter;
 import org.thingsboard.server.actors.rule.SimpleRuleActorChain;
 import org.thingsboard.server.actors.service.ContextAwareActor;
+import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageDataIterable;
@@ -33,15 +36,19 @@ import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
 import org.thingsboard.server.common.data.plugin.ComponentLifecycleState;
 import org.thingsboard.server.common.data.rule.RuleMetaData;
 import org.thingsboard.server.dao.rule.RuleService;
+import org.thingsboard.server.extensions.api.plugins.msg.PluginToRuleMsg;
+import org.thingsboard.server.extensions.api.rules.ToRuleActorMsg;
 
 import java.util.*;
 
 @Slf4j
 public abstract class RuleManager {
 
+    private static final String SHARDS = "shards";
+
     protected final ActorSystemContext systemContext;
     protected final RuleService ruleService;
-    protected final Map<RuleId, ActorRef> ruleActors;
+    protected final Map<RuleId, RuleActorShards> ruleActors;
     protected final TenantId tenantId;
 
     private Map<RuleMetaData, RuleActorMetaData> ruleMap;
@@ -65,15 +72,15 @@ public abstract class RuleManager {
 
         for (RuleMetaData rule : ruleIterator) {
             log.debug("[{}] Creating rule actor {}", rule.getId(), rule);
-            ActorRef ref = getOrCreateRuleActor(context, rule.getId());
-            ruleMap.put(rule, RuleActorMetaData.systemRule(rule.getId(), rule.getWeight(), ref));
+            RuleActorShards shards = getOrCreateRuleActors(context, rule.getId(), getShardCount(rule));
+            ruleMap.put(rule, RuleActorMetaData.systemRule(rule.getId(), rule.getWeight(), shards, RulePreFilter.fromFilters(rule.getFilters())));
             log.debug("[{}] Rule actor created.", rule.getId());
         }
 
         refreshRuleChain();
     }
 
-    public Optional<ActorRef> update(ActorContext context, RuleId ruleId, ComponentLifecycleEvent event) {
+    public Optional<RuleActorShards> update(ActorContext context, RuleId ruleId, ComponentLifecycleEvent event) {
         if (ruleMap == null) {
             doInit(context);
         }
@@ -94,12 +101,14 @@ public abstract class RuleManager {
         if (rule != null) {
             RuleActorMetaData actorMd = ruleMap.get(rule);
             if (actorMd == null) {
-                ActorRef ref = getOrCreateRuleActor(context, rule.getId());
-                actorMd = RuleActorMetaData.systemRule(rule.getId(), rule.getWeight(), ref);
+                // previous version of the rule may have different state or filters
+                ruleMap.keySet().removeIf(r -> r.getId().equals(ruleId));
+                RuleActorShards shards = getOrCreateRuleActors(context, rule.getId(), getShardCount(rule));
+                actorMd = RuleActorMetaData.systemRule(rule.getId(), rule.getWeight(), shards, RulePreFilter.fromFilters(rule.getFilters()));
                 ruleMap.put(rule, actorMd);
             }
             refreshRuleChain();
-            return Optional.of(actorMd.getActorRef());
+            return Optional.of(actorMd.getShards());
         } else {
             log.warn("[{}] Can't process unknown rule!", ruleId);
             return Optional.empty();
@@ -110,10 +119,42 @@ public abstract class RuleManager {
 
     abstract String getDispatcherName();
 
-    public ActorRef getOrCreateRuleActor(ActorContext context, RuleId ruleId) {
-        return ruleActors.computeIfAbsent(ruleId, rId ->
-                context.actorOf(Props.create(new RuleActor.ActorCreator(systemContext, tenantId, rId))
-                        .withDispatcher(getDispatcherName()), rId.toString()));
+    public void tellRule(ActorContext context, ToRuleActorMsg msg) {
+        RuleActorShards shards = ruleActors.get(msg.getRuleId());
+        if (shards == null) {
+            shards = getOrCreateRuleActors(context, msg.getRuleId(), systemContext.getRuleActorShards());
+        }
+        if (msg instanceof PluginToRuleMsg) {
+            shards.tellReply(((PluginToRuleMsg<?>) msg).getUid(), msg, ActorRef.noSender());
+        } else {
+            shards.broadcast(msg, ActorRef.noSender());
+        }
+    }
+
+    /**
+     * The number of shards is fixed when the rule actors are created.
+     */
+    private RuleActorShards getOrCreateRuleActors(ActorContext context, RuleId ruleId, int shardCount) {
+        RuleActorShards shards = ruleActors.get(ruleId);
+        if (shards == null) {
+            shards = new RuleActorShards(ruleId, Math.max(1, shardCount));
+            for (int i = 0; i < shards.size(); i++) {
+                String name = i == 0 ? ruleId.toString() : ruleId.toString() + "-" + i;
+                shards.setShard(i, context.actorOf(Props.create(new RuleActor.ActorCreator(systemContext, tenantId, ruleId, shards, i))
+                        .withDispatcher(getDispatcherName()).withMailbox(DefaultActorService.RULE_MAILBOX_NAME), name));
+            }
+            ruleActors.put(ruleId, shards);
+        } else if (shards.size() != Math.max(1, shardCount)) {
+            log.info("[{}] Rule is already running with {} shards. New shard count {} requires restart.", ruleId, shards.size(), shardCount);
+        }
+        return shards;
+    }
+
+    private int getShardCount(RuleMetaData rule) {
+        if (rule.getAdditionalInfo() != null && rule.getAdditionalInfo().path(SHARDS).asInt() > 0) {
+            return rule.getAdditionalInfo().path(SHARDS).asInt();
+        }
+        return systemContext.getRuleActorShards();
     }
 
     public RuleActorChain getRuleChain(ActorContext context) {
@@ -53,7 +53,7 @@ public class StatsActor extends ContextAwareActor {
         event.setTenantId(msg.getTenantId());
         event.setType(DataConstants.STATS);
         event.setBody(toBodyJson(systemContext.getDiscoveryService().getCurrentServer().getServerAddress(), msg.getMessagesProcessed(), msg.getErrorsOccurred()));
-        systemContext.getEventService().save(event);
+        systemContext.getEventService().saveAsync(event);
     }
 
     private JsonNode toBodyJson(ServerAddress server, long messagesProcessed, long errorsOccurred) {
@@ -24,6 +24,7 @@ import org.thingsboard.server.actors.device.DeviceActor;
 import org.thingsboard.server.actors.plugin.PluginTerminationMsg;
 import org.thingsboard.server.actors.rule.ComplexRuleActorChain;
 import org.thingsboard.server.actors.rule.RuleActorChain;
+import org.thingsboard.server.actors.rule.RuleActorShards;
 import org.thingsboard.server.actors.service.ContextAwareActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.service.DefaultActorService;
@@ -57,7 +58,7 @@ public class TenantActor extends ContextAwareActor {
     private final Map<DeviceId, ActorRef> deviceActors;
 
     private TenantActor(ActorSystemContext systemContext, TenantId tenantId) {
-        super(systemContext);
+        super(systemContext, tenantId);
         this.tenantId = tenantId;
         this.ruleManager = new TenantRuleManager(systemContext, tenantId);
         this.pluginManager = new TenantPluginManager(systemContext, tenantId);
@@ -114,8 +115,7 @@ public class TenantActor extends ContextAwareActor {
     }
 
     private void onToRuleMsg(ToRuleActorMsg msg) {
-        ActorRef target = ruleManager.getOrCreateRuleActor(this.context(), msg.getRuleId());
-        target.tell(msg, ActorRef.noSender());
+        ruleManager.tellRule(this.context(), msg);
     }
 
     private void onToPluginMsg(ToPluginActorMsg msg) {
@@ -134,15 +134,12 @@ public class TenantActor extends ContextAwareActor {
             ActorRef pluginActor = pluginManager.getOrCreatePluginActor(this.context(), pluginId.get());
             pluginActor.tell(msg, ActorRef.noSender());
         } else if (ruleId.isPresent()) {
-            ActorRef target;
-            Optional<ActorRef> ref = ruleManager.update(this.context(), ruleId.get(), msg.getEvent());
+            Optional<RuleActorShards> ref = ruleManager.update(this.context(), ruleId.get(), msg.getEvent());
             if (ref.isPresent()) {
-                target = ref.get();
+                ref.get().broadcast(msg, ActorRef.noSender());
             } else {
                 logger.debug("Failed to find actor for rule: [{}]", ruleId);
-                return;
             }
-            target.tell(msg, ActorRef.noSender());
         } else {
             logger.debug("[{}] Invalid component lifecycle msg.", tenantId);
         }
@@ -162,7 +159,7 @@ public class TenantActor extends ContextAwareActor {
 
     private ActorRef getOrCreateDeviceActor(DeviceId deviceId) {
         return deviceActors.computeIfAbsent(deviceId, k -> context().actorOf(Props.create(new DeviceActor.ActorCreator(systemContext, tenantId, deviceId))
-                .withDispatcher(DefaultActorService.CORE_DISPATCHER_NAME), deviceId.toString()));
+                .withDispatcher(DefaultActorService.CORE_DISPATCHER_NAME).withMailbox(DefaultActorService.DEVICE_MAILBOX_NAME), deviceId.toString()));
     }
 
     public static class ActorCreator extends ContextBasedCreator<TenantActor> {
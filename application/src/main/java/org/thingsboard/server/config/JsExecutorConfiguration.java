@@ -0,0 +1,43 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thingsboard.server.extensions.core.filter.JsExecutorService;
+
+@Configuration
+public class JsExecutorConfiguration {
+
+    @Value("${actors.rule.js_executor.thread_pool_size}")
+    private int threadPoolSize;
+
+    @Value("${actors.rule.js_executor.queue_size}")
+    private int queueSize;
+
+    @Value("${actors.rule.js_executor.engine_pool_size}")
+    private int enginePoolSize;
+
+    @Value("${actors.rule.js_executor.max_execution_time_ms}")
+    private long maxExecutionTimeMs;
+
+    @Bean(destroyMethod = "destroy")
+    public JsExecutorService jsExecutorService() {
+        return new JsExecutorService(threadPoolSize, queueSize, enginePoolSize, maxExecutionTimeMs);
+    }
+
+}
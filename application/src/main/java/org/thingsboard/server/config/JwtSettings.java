@@ -42,6 +42,11 @@ public class JwtSettings {
      */
     private Integer refreshTokenExpTime;
 
+    /**
+     * Maximum number of parsed access {@link JwtToken}s kept in memory, 0 disables the cache.
+     */
+    private Integer tokenCacheMaxSize;
+
     public Integer getRefreshTokenExpTime() {
         return refreshTokenExpTime;
     }
@@ -65,6 +70,14 @@ public class JwtSettings {
         this.tokenIssuer = tokenIssuer;
     }
 
+    public Integer getTokenCacheMaxSize() {
+        return tokenCacheMaxSize;
+    }
+
+    public void setTokenCacheMaxSize(Integer tokenCacheMaxSize) {
+        this.tokenCacheMaxSize = tokenCacheMaxSize;
+    }
+
     public String getTokenSigningKey() {
         return tokenSigningKey;
     }
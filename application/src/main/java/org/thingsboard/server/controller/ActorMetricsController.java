@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.thingsboard.server.actors.metrics.ActorMetricsService;
+import org.thingsboard.server.actors.metrics.ActorMetricsSnapshot;
+import org.thingsboard.server.actors.metrics.DefaultBackpressureService;
+import org.thingsboard.server.actors.metrics.DefaultBackpressureService.TenantThrottleStats;
+import org.thingsboard.server.actors.rpc.RpcPendingQueueStats;
+import org.thingsboard.server.actors.rule.RuleShardStats;
+import org.thingsboard.server.dao.util.ExecutorStats;
+import org.thingsboard.server.exception.ThingsboardException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/actors")
+public class ActorMetricsController extends BaseController {
+
+    @Autowired
+    private ActorMetricsService actorMetricsService;
+
+    @Autowired
+    private DefaultBackpressureService backpressureService;
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    @ResponseBody
+    public List<ActorMetricsSnapshot> getActorMetrics(@RequestParam(required = false) String actorType,
+                                                      @RequestParam(required = false) String tenantId) throws ThingsboardException {
+        try {
+            return actorMetricsService.getActorMetrics().stream()
+                    .filter(m -> actorType == null || actorType.equals(m.getActorType()))
+                    .filter(m -> tenantId == null || tenantId.equals(m.getTenantId()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/backpressure", method = RequestMethod.GET)
+    @ResponseBody
+    public List<TenantThrottleStats> getThrottleStats() throws ThingsboardException {
+        try {
+            return backpressureService.getThrottleStats();
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/rpc/pending", method = RequestMethod.GET)
+    @ResponseBody
+    public List<RpcPendingQueueStats> getRpcPendingQueueStats() throws ThingsboardException {
+        try {
+            return actorMetricsService.getRpcPendingQueueStats();
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/rules/shards", method = RequestMethod.GET)
+    @ResponseBody
+    public List<RuleShardStats> getRuleShardStats(@RequestParam(required = false) String tenantId) throws ThingsboardException {
+        try {
+            return actorMetricsService.getRuleShardStats().stream()
+                    .filter(s -> tenantId == null || tenantId.equals(s.getTenantId()))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/executors", method = RequestMethod.GET)
+    @ResponseBody
+    public List<ExecutorStats> getExecutorStats() throws ThingsboardException {
+        try {
+            return actorMetricsService.getExecutorStats();
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+}
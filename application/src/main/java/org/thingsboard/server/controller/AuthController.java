@@ -31,6 +31,7 @@ import org.thingsboard.server.common.data.security.UserCredentials;
 import org.thingsboard.server.exception.ThingsboardErrorCode;
 import org.thingsboard.server.exception.ThingsboardException;
 import org.thingsboard.server.service.mail.MailService;
+import org.thingsboard.server.service.security.auth.jwt.JwtTokenCache;
 import org.thingsboard.server.service.security.auth.jwt.RefreshTokenRepository;
 import org.thingsboard.server.service.security.model.SecurityUser;
 import org.thingsboard.server.service.security.model.UserPrincipal;
@@ -57,6 +58,9 @@ public class AuthController extends BaseController {
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
     @Autowired
     private MailService mailService;
 
@@ -86,6 +90,7 @@ public class AuthController extends BaseController {
             }
             userCredentials.setPassword(passwordEncoder.encode(newPassword));
             userService.saveUserCredentials(userCredentials);
+            tokenCache.revoke(securityUser.getId());
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -205,6 +210,7 @@ public class AuthController extends BaseController {
                 userCredentials.setPassword(encodedPassword);
                 userCredentials.setResetToken(null);
                 userCredentials = userService.saveUserCredentials(userCredentials);
+                tokenCache.revoke(userCredentials.getUserId());
                 User user = userService.findUserById(userCredentials.getUserId());
                 UserPrincipal principal = new UserPrincipal(UserPrincipal.Type.USER_NAME, user.getEmail());
                 SecurityUser securityUser = new SecurityUser(user, userCredentials.isEnabled(), principal);
@@ -16,11 +16,13 @@
 package org.thingsboard.server.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -45,6 +47,7 @@ import org.thingsboard.server.common.data.widget.WidgetsBundle;
 import org.thingsboard.server.dao.alarm.AlarmService;
 import org.thingsboard.server.dao.asset.AssetService;
 import org.thingsboard.server.dao.audit.AuditLogService;
+import org.thingsboard.server.dao.cache.CacheEvictionTracker;
 import org.thingsboard.server.dao.customer.CustomerService;
 import org.thingsboard.server.dao.dashboard.DashboardService;
 import org.thingsboard.server.dao.device.DeviceCredentialsService;
@@ -67,6 +70,7 @@ import org.thingsboard.server.service.security.model.SecurityUser;
 import javax.mail.MessagingException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -127,6 +131,15 @@ public abstract class BaseController {
     @Autowired
     protected AuditLogService auditLogService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheEvictionTracker cacheEvictionTracker;
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+
     @ExceptionHandler(ThingsboardException.class)
     public void handleThingsboardException(ThingsboardException ex, HttpServletResponse response) {
         errorResponseHandler.handle(ex, response);
@@ -158,6 +171,24 @@ public abstract class BaseController {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    <T extends Serializable> CachedJsonResponse<T> getCachedJsonResponse(String cacheName, Object key) {
+        return cacheManager.getCache(cacheName).get(key, CachedJsonResponse.class);
+    }
+
+    long getCacheVersion(String cacheName, Object key) {
+        return cacheEvictionTracker.getVersion(cacheName, key);
+    }
+
+    /**
+     * The response is not cached if the entry was evicted after {@code version} was read by {@link #getCacheVersion}.
+     */
+    <T extends Serializable> CachedJsonResponse<T> putCachedJsonResponse(String cacheName, Object key, long version, T info, Object value) throws JsonProcessingException {
+        CachedJsonResponse<T> response = new CachedJsonResponse<>(info, jsonMapper.writeValueAsBytes(value));
+        cacheEvictionTracker.putIfNotEvicted(cacheName, key, version, response);
+        return response;
+    }
+
     <T> T checkNotNull(T reference) throws ThingsboardException {
         if (reference == null) {
             throw new ThingsboardException("Requested item wasn't found!", ThingsboardErrorCode.ITEM_NOT_FOUND);
@@ -390,12 +421,7 @@ public abstract class BaseController {
 
     private void checkWidgetsBundle(WidgetsBundle widgetsBundle, boolean modify) throws ThingsboardException {
         checkNotNull(widgetsBundle);
-        if (widgetsBundle.getTenantId() != null && !widgetsBundle.getTenantId().getId().equals(ModelConstants.NULL_UUID)) {
-            checkTenantId(widgetsBundle.getTenantId());
-        } else if (modify && getCurrentUser().getAuthority() != Authority.SYS_ADMIN) {
-            throw new ThingsboardException(YOU_DON_T_HAVE_PERMISSION_TO_PERFORM_THIS_OPERATION,
-                    ThingsboardErrorCode.PERMISSION_DENIED);
-        }
+        checkWidgetTenantId(widgetsBundle.getTenantId(), modify);
     }
 
     WidgetType checkWidgetTypeId(WidgetTypeId widgetTypeId, boolean modify) throws ThingsboardException {
@@ -411,8 +437,12 @@ public abstract class BaseController {
 
     void checkWidgetType(WidgetType widgetType, boolean modify) throws ThingsboardException {
         checkNotNull(widgetType);
-        if (widgetType.getTenantId() != null && !widgetType.getTenantId().getId().equals(ModelConstants.NULL_UUID)) {
-            checkTenantId(widgetType.getTenantId());
+        checkWidgetTenantId(widgetType.getTenantId(), modify);
+    }
+
+    void checkWidgetTenantId(TenantId tenantId, boolean modify) throws ThingsboardException {
+        if (tenantId != null && !tenantId.getId().equals(ModelConstants.NULL_UUID)) {
+            checkTenantId(tenantId);
         } else if (modify && getCurrentUser().getAuthority() != Authority.SYS_ADMIN) {
             throw new ThingsboardException(YOU_DON_T_HAVE_PERMISSION_TO_PERFORM_THIS_OPERATION,
                     ThingsboardErrorCode.PERMISSION_DENIED);
@@ -441,7 +471,7 @@ public abstract class BaseController {
         }
     }
 
-    private void checkDashboard(DashboardInfo dashboard) throws ThingsboardException {
+    void checkDashboard(DashboardInfo dashboard) throws ThingsboardException {
         checkNotNull(dashboard);
         checkTenantId(dashboard.getTenantId());
         SecurityUser authUser = getCurrentUser();
@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.io.Serializable;
+
+/**
+ * Serialized JSON body of a GET response together with its ETag and the data required to check the access permissions.
+ * The ETag is derived from the body, so it changes with every saved version of the entity.
+ */
+public final class CachedJsonResponse<T extends Serializable> implements Serializable {
+
+    private static final long serialVersionUID = 4518092341893745720L;
+
+    private final T info;
+    private final byte[] body;
+    private final String eTag;
+
+    public CachedJsonResponse(T info, byte[] body) {
+        this.info = info;
+        this.body = body;
+        // Weak, because the body may be compressed by the servlet container
+        this.eTag = "W/\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    public T getInfo() {
+        return info;
+    }
+
+    /**
+     * Spring answers with 304 Not Modified if the If-None-Match request header matches the ETag.
+     */
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(body);
+    }
+}
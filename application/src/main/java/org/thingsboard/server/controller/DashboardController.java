@@ -16,6 +16,7 @@
 package org.thingsboard.server.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.thingsboard.server.common.data.*;
@@ -31,9 +32,12 @@ import org.thingsboard.server.dao.exception.IncorrectParameterException;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.exception.ThingsboardException;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.thingsboard.server.common.data.CacheConstants.DASHBOARD_CACHE;
+
 @RestController
 @RequestMapping("/api")
 public class DashboardController extends BaseController {
@@ -63,11 +67,19 @@ public class DashboardController extends BaseController {
     @PreAuthorize("hasAnyAuthority('TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/dashboard/{dashboardId}", method = RequestMethod.GET)
     @ResponseBody
-    public Dashboard getDashboardById(@PathVariable(DASHBOARD_ID) String strDashboardId) throws ThingsboardException {
+    public ResponseEntity<byte[]> getDashboardById(@PathVariable(DASHBOARD_ID) String strDashboardId) throws ThingsboardException {
         checkParameter(DASHBOARD_ID, strDashboardId);
         try {
             DashboardId dashboardId = new DashboardId(toUUID(strDashboardId));
-            return checkDashboardId(dashboardId);
+            CachedJsonResponse<DashboardInfo> response = getCachedJsonResponse(DASHBOARD_CACHE, dashboardId);
+            if (response != null) {
+                checkDashboard(response.getInfo());
+            } else {
+                long version = getCacheVersion(DASHBOARD_CACHE, dashboardId);
+                Dashboard dashboard = checkDashboardId(dashboardId);
+                response = putCachedJsonResponse(DASHBOARD_CACHE, dashboardId, version, new DashboardInfo(dashboard), dashboard);
+            }
+            return response.toResponseEntity();
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -218,9 +230,8 @@ public class DashboardController extends BaseController {
             if (addedCustomerIds.isEmpty() && removedCustomerIds.isEmpty()) {
                 return dashboard;
             } else {
-                Dashboard savedDashboard = null;
+                Dashboard savedDashboard = checkNotNull(dashboardService.updateDashboardCustomers(dashboardId, addedCustomerIds, removedCustomerIds));
                 for (CustomerId customerId : addedCustomerIds) {
-                    savedDashboard = checkNotNull(dashboardService.assignDashboardToCustomer(dashboardId, customerId));
                     ShortCustomerInfo customerInfo = savedDashboard.getAssignedCustomerInfo(customerId);
                     logEntityAction(dashboardId, savedDashboard,
                             customerId,
@@ -228,7 +239,6 @@ public class DashboardController extends BaseController {
                 }
                 for (CustomerId customerId : removedCustomerIds) {
                     ShortCustomerInfo customerInfo = dashboard.getAssignedCustomerInfo(customerId);
-                    savedDashboard = checkNotNull(dashboardService.unassignDashboardFromCustomer(dashboardId, customerId));
                     logEntityAction(dashboardId, dashboard,
                             customerId,
                             ActionType.UNASSIGNED_FROM_CUSTOMER, null, strDashboardId, customerId.toString(), customerInfo.getTitle());
@@ -269,9 +279,8 @@ public class DashboardController extends BaseController {
             if (customerIds.isEmpty()) {
                 return dashboard;
             } else {
-                Dashboard savedDashboard = null;
+                Dashboard savedDashboard = checkNotNull(dashboardService.updateDashboardCustomers(dashboardId, customerIds, Collections.emptySet()));
                 for (CustomerId customerId : customerIds) {
-                    savedDashboard = checkNotNull(dashboardService.assignDashboardToCustomer(dashboardId, customerId));
                     ShortCustomerInfo customerInfo = savedDashboard.getAssignedCustomerInfo(customerId);
                     logEntityAction(dashboardId, savedDashboard,
                             customerId,
@@ -312,10 +321,9 @@ public class DashboardController extends BaseController {
             if (customerIds.isEmpty()) {
                 return dashboard;
             } else {
-                Dashboard savedDashboard = null;
+                Dashboard savedDashboard = checkNotNull(dashboardService.updateDashboardCustomers(dashboardId, Collections.emptySet(), customerIds));
                 for (CustomerId customerId : customerIds) {
                     ShortCustomerInfo customerInfo = dashboard.getAssignedCustomerInfo(customerId);
-                    savedDashboard = checkNotNull(dashboardService.unassignDashboardFromCustomer(dashboardId, customerId));
                     logEntityAction(dashboardId, dashboard,
                             customerId,
                             ActionType.UNASSIGNED_FROM_CUSTOMER, null, strDashboardId, customerId.toString(), customerInfo.getTitle());
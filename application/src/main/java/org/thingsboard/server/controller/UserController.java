@@ -32,6 +32,7 @@ import org.thingsboard.server.common.data.security.UserCredentials;
 import org.thingsboard.server.exception.ThingsboardErrorCode;
 import org.thingsboard.server.exception.ThingsboardException;
 import org.thingsboard.server.service.mail.MailService;
+import org.thingsboard.server.service.security.auth.jwt.JwtTokenCache;
 import org.thingsboard.server.service.security.model.SecurityUser;
 
 import javax.servlet.http.HttpServletRequest;
@@ -46,6 +47,9 @@ public class UserController extends BaseController {
     @Autowired
     private MailService mailService;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/user/{userId}", method = RequestMethod.GET)
     @ResponseBody
@@ -169,6 +173,7 @@ public class UserController extends BaseController {
             UserId userId = new UserId(toUUID(strUserId));
             User user = checkUserId(userId);
             userService.deleteUser(userId);
+            tokenCache.revoke(userId);
 
             logEntityAction(userId, user,
                     user.getCustomerId(),
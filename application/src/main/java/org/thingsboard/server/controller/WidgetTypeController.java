@@ -16,6 +16,7 @@
 package org.thingsboard.server.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -25,8 +26,11 @@ import org.thingsboard.server.common.data.widget.WidgetType;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.exception.ThingsboardException;
 
+import java.util.Arrays;
 import java.util.List;
 
+import static org.thingsboard.server.common.data.CacheConstants.WIDGET_TYPE_CACHE;
+
 @RestController
 @RequestMapping("/api")
 public class WidgetTypeController extends BaseController {
@@ -34,11 +38,19 @@ public class WidgetTypeController extends BaseController {
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN')")
     @RequestMapping(value = "/widgetType/{widgetTypeId}", method = RequestMethod.GET)
     @ResponseBody
-    public WidgetType getWidgetTypeById(@PathVariable("widgetTypeId") String strWidgetTypeId) throws ThingsboardException {
+    public ResponseEntity<byte[]> getWidgetTypeById(@PathVariable("widgetTypeId") String strWidgetTypeId) throws ThingsboardException {
         checkParameter("widgetTypeId", strWidgetTypeId);
         try {
             WidgetTypeId widgetTypeId = new WidgetTypeId(toUUID(strWidgetTypeId));
-            return checkWidgetTypeId(widgetTypeId, false);
+            CachedJsonResponse<TenantId> response = getCachedJsonResponse(WIDGET_TYPE_CACHE, widgetTypeId);
+            if (response != null) {
+                checkWidgetTenantId(response.getInfo(), false);
+            } else {
+                long version = getCacheVersion(WIDGET_TYPE_CACHE, widgetTypeId);
+                WidgetType widgetType = checkWidgetTypeId(widgetTypeId, false);
+                response = putCachedJsonResponse(WIDGET_TYPE_CACHE, widgetTypeId, version, widgetType.getTenantId(), widgetType);
+            }
+            return response.toResponseEntity();
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -77,7 +89,7 @@ public class WidgetTypeController extends BaseController {
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN')")
     @RequestMapping(value = "/widgetTypes", params = { "isSystem", "bundleAlias"}, method = RequestMethod.GET)
     @ResponseBody
-    public List<WidgetType> getBundleWidgetTypes(
+    public ResponseEntity<byte[]> getBundleWidgetTypes(
             @RequestParam boolean isSystem,
             @RequestParam String bundleAlias) throws ThingsboardException {
         try {
@@ -87,7 +99,14 @@ public class WidgetTypeController extends BaseController {
             } else {
                 tenantId = getCurrentUser().getTenantId();
             }
-            return checkNotNull(widgetTypeService.findWidgetTypesByTenantIdAndBundleAlias(tenantId, bundleAlias));
+            List<Object> key = Arrays.asList(tenantId, bundleAlias);
+            CachedJsonResponse<TenantId> response = getCachedJsonResponse(WIDGET_TYPE_CACHE, key);
+            if (response == null) {
+                long version = getCacheVersion(WIDGET_TYPE_CACHE, key);
+                List<WidgetType> widgetTypes = checkNotNull(widgetTypeService.findWidgetTypesByTenantIdAndBundleAlias(tenantId, bundleAlias));
+                response = putCachedJsonResponse(WIDGET_TYPE_CACHE, key, version, tenantId, widgetTypes);
+            }
+            return response.toResponseEntity();
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -96,7 +115,7 @@ public class WidgetTypeController extends BaseController {
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/widgetType", params = { "isSystem", "bundleAlias", "alias" }, method = RequestMethod.GET)
     @ResponseBody
-    public WidgetType getWidgetType(
+    public ResponseEntity<byte[]> getWidgetType(
             @RequestParam boolean isSystem,
             @RequestParam String bundleAlias,
             @RequestParam String alias) throws ThingsboardException {
@@ -107,9 +126,15 @@ public class WidgetTypeController extends BaseController {
             } else {
                 tenantId = getCurrentUser().getTenantId();
             }
-            WidgetType widgetType = widgetTypeService.findWidgetTypeByTenantIdBundleAliasAndAlias(tenantId, bundleAlias, alias);
-            checkWidgetType(widgetType, false);
-            return widgetType;
+            List<Object> key = Arrays.asList(tenantId, bundleAlias, alias);
+            CachedJsonResponse<TenantId> response = getCachedJsonResponse(WIDGET_TYPE_CACHE, key);
+            if (response == null) {
+                long version = getCacheVersion(WIDGET_TYPE_CACHE, key);
+                WidgetType widgetType = widgetTypeService.findWidgetTypeByTenantIdBundleAliasAndAlias(tenantId, bundleAlias, alias);
+                checkWidgetType(widgetType, false);
+                response = putCachedJsonResponse(WIDGET_TYPE_CACHE, key, version, tenantId, widgetType);
+            }
+            return response.toResponseEntity();
         } catch (Exception e) {
             throw handleException(e);
         }
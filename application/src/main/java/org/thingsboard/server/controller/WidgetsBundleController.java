@@ -16,6 +16,7 @@
 package org.thingsboard.server.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -29,6 +30,8 @@ import org.thingsboard.server.exception.ThingsboardException;
 
 import java.util.List;
 
+import static org.thingsboard.server.common.data.CacheConstants.WIDGETS_BUNDLE_CACHE;
+
 @RestController
 @RequestMapping("/api")
 public class WidgetsBundleController extends BaseController {
@@ -36,11 +39,19 @@ public class WidgetsBundleController extends BaseController {
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/widgetsBundle/{widgetsBundleId}", method = RequestMethod.GET)
     @ResponseBody
-    public WidgetsBundle getWidgetsBundleById(@PathVariable("widgetsBundleId") String strWidgetsBundleId) throws ThingsboardException {
+    public ResponseEntity<byte[]> getWidgetsBundleById(@PathVariable("widgetsBundleId") String strWidgetsBundleId) throws ThingsboardException {
         checkParameter("widgetsBundleId", strWidgetsBundleId);
         try {
             WidgetsBundleId widgetsBundleId = new WidgetsBundleId(toUUID(strWidgetsBundleId));
-            return checkWidgetsBundleId(widgetsBundleId, false);
+            CachedJsonResponse<TenantId> response = getCachedJsonResponse(WIDGETS_BUNDLE_CACHE, widgetsBundleId);
+            if (response != null) {
+                checkWidgetTenantId(response.getInfo(), false);
+            } else {
+                long version = getCacheVersion(WIDGETS_BUNDLE_CACHE, widgetsBundleId);
+                WidgetsBundle widgetsBundle = checkWidgetsBundleId(widgetsBundleId, false);
+                response = putCachedJsonResponse(WIDGETS_BUNDLE_CACHE, widgetsBundleId, version, widgetsBundle.getTenantId(), widgetsBundle);
+            }
+            return response.toResponseEntity();
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -31,19 +31,24 @@ import org.thingsboard.server.service.cluster.discovery.ServerInstance;
 import org.thingsboard.server.utils.MiscUtils;
 
 import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentNavigableMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * Cluster service implementation based on consistent hash ring
+ * Cluster service implementation based on consistent hash ring.
+ * Membership changes rebuild an immutable {@link ConsistentHashRing} snapshot that is used by lookups without locking.
  */
 
 @Service
 @Slf4j
 public class ConsistentClusterRoutingService implements ClusterRoutingService, DiscoveryServiceListener {
 
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
     @Autowired
     private DiscoveryService discoveryService;
 
@@ -51,25 +56,32 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService, D
     private String hashFunctionName;
     @Value("${cluster.vitrual_nodes_size}")
     private Integer virtualNodesSize;
+    @Value("${cluster.routing_cache_size:1024}")
+    private int routingCacheSize;
 
     private ServerInstance currentServer;
 
     private HashFunction hashFunction;
+    private boolean murmur3_128;
+
+    private final NavigableMap<Long, ServerInstance> circle = new TreeMap<>();
 
-    private final ConcurrentNavigableMap<Long, ServerInstance> circle =
-            new ConcurrentSkipListMap<>();
+    private volatile ConsistentHashRing ring = ConsistentHashRing.EMPTY;
 
     @PostConstruct
     public void init() {
         log.info("Initializing Cluster routing service!");
         hashFunction = MiscUtils.forName(hashFunctionName);
-        discoveryService.addListener(this);
+        murmur3_128 = "murmur3_128".equals(hashFunctionName);
         this.currentServer = discoveryService.getCurrentServer();
-        addNode(discoveryService.getCurrentServer());
-        for (ServerInstance instance : discoveryService.getOtherServers()) {
-            addNode(instance);
+        discoveryService.addListener(this);
+        synchronized (circle) {
+            addNode(discoveryService.getCurrentServer());
+            for (ServerInstance instance : discoveryService.getOtherServers()) {
+                addNode(instance);
+            }
+            updateRing();
         }
-        logCircle();
         log.info("Cluster routing service initialized!");
     }
 
@@ -86,30 +98,25 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService, D
     @Override
     public Optional<ServerAddress> resolveByUuid(UUID uuid) {
         Assert.notNull(uuid);
-        if (circle.isEmpty()) {
+        ConsistentHashRing ring = this.ring;
+        if (ring.isEmpty()) {
             return Optional.empty();
         }
-        Long hash = hashFunction.newHasher().putLong(uuid.getMostSignificantBits())
-                .putLong(uuid.getLeastSignificantBits()).hash().asLong();
-        if (!circle.containsKey(hash)) {
-            ConcurrentNavigableMap<Long, ServerInstance> tailMap =
-                    circle.tailMap(hash);
-            hash = tailMap.isEmpty() ?
-                    circle.firstKey() : tailMap.firstKey();
-        }
-        ServerInstance result = circle.get(hash);
-        if (!currentServer.equals(result)) {
-            return Optional.of(result.getServerAddress());
-        } else {
-            return Optional.empty();
+        Optional<ServerAddress> result = ring.getCached(uuid);
+        if (result == null) {
+            result = ring.route(hash(uuid));
+            ring.putCached(uuid, result);
         }
+        return result;
     }
 
     @Override
     public void onServerAdded(ServerInstance server) {
         log.debug("On server added event: {}", server);
-        addNode(server);
-        logCircle();
+        synchronized (circle) {
+            addNode(server);
+            updateRing();
+        }
     }
 
     @Override
@@ -120,19 +127,21 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService, D
     @Override
     public void onServerRemoved(ServerInstance server) {
         log.debug("On server removed event: {}", server);
-        removeNode(server);
-        logCircle();
+        synchronized (circle) {
+            removeNode(server);
+            updateRing();
+        }
     }
 
     private void addNode(ServerInstance instance) {
         for (int i = 0; i < virtualNodesSize; i++) {
-            circle.put(hash(instance, i).asLong(), instance);
+            circle.put(hash(instance, i).padToLong(), instance);
         }
     }
 
     private void removeNode(ServerInstance instance) {
         for (int i = 0; i < virtualNodesSize; i++) {
-            circle.remove(hash(instance, i).asLong());
+            circle.remove(hash(instance, i).padToLong());
         }
     }
 
@@ -140,10 +149,75 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService, D
         return hashFunction.newHasher().putString(instance.getHost(), MiscUtils.UTF8).putInt(instance.getPort()).putInt(i).hash();
     }
 
+    private long hash(UUID uuid) {
+        if (murmur3_128) {
+            return murmur3_128(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+        return hashFunction.newHasher().putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits()).hash().padToLong();
+    }
+
+    private void updateRing() {
+        ring = new ConsistentHashRing(circle, currentServer, routingCacheSize);
+        logCircle();
+    }
+
     private void logCircle() {
-        log.trace("Consistent Hash Circle Start");
-        circle.entrySet().forEach((e) -> log.debug("{} -> {}", e.getKey(), e.getValue().getServerAddress()));
-        log.trace("Consistent Hash Circle End");
+        if (log.isTraceEnabled()) {
+            log.trace("Consistent Hash Circle Start");
+            circle.entrySet().forEach((e) -> log.trace("{} -> {}", e.getKey(), e.getValue().getServerAddress()));
+            log.trace("Consistent Hash Circle End");
+        }
+        Map<ServerInstance, Double> ownership = ring.getOwnership();
+        if (!ownership.isEmpty()) {
+            double fairShare = 1.0 / ownership.size();
+            double maxShare = 0;
+            for (Map.Entry<ServerInstance, Double> entry : ownership.entrySet()) {
+                log.info("Server {} owns {}% of the hash ring", entry.getKey().getServerAddress(), String.format("%.2f", entry.getValue() * 100));
+                maxShare = Math.max(maxShare, entry.getValue());
+            }
+            log.info("Hash ring of {} servers and {} virtual nodes, max skew {}", ownership.size(), ring.size(), String.format("%.2f", maxShare / fairShare));
+        }
+    }
+
+    /**
+     * Same value as {@code Hashing.murmur3_128().newHasher().putLong(msb).putLong(lsb).hash().asLong()},
+     * computed without allocating a hasher and a hash code.
+     */
+    static long murmur3_128(long msb, long lsb) {
+        long h1 = 0;
+        long h2 = 0;
+        long k1 = msb * C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+        long k2 = lsb * C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        h1 ^= 16;
+        h2 ^= 16;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
     }
 
 }
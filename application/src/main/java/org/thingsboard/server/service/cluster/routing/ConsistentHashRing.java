@@ -0,0 +1,151 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.routing;
+
+import com.google.common.primitives.UnsignedLong;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the consistent hash ring. Virtual node hashes are kept in a sorted {@code long[]}
+ * and resolved by binary search; the route to every node is computed once per snapshot, so lookups don't allocate.
+ * A small direct-mapped cache of resolved entities is bound to the snapshot and is dropped together with it.
+ */
+final class ConsistentHashRing {
+
+    static final ConsistentHashRing EMPTY = new ConsistentHashRing(new TreeMap<>(), null, 0);
+
+    private static final Optional<ServerAddress> LOCAL = Optional.empty();
+
+    private final long[] hashes;
+    private final ServerInstance[] servers;
+    private final Optional<ServerAddress>[] routes;
+    private final CachedRoute[] cache;
+    private final int cacheMask;
+
+    @SuppressWarnings("unchecked")
+    ConsistentHashRing(NavigableMap<Long, ServerInstance> circle, ServerInstance currentServer, int cacheSize) {
+        int size = circle.size();
+        this.hashes = new long[size];
+        this.servers = new ServerInstance[size];
+        this.routes = new Optional[size];
+        int i = 0;
+        for (Map.Entry<Long, ServerInstance> entry : circle.entrySet()) {
+            hashes[i] = entry.getKey();
+            servers[i] = entry.getValue();
+            routes[i] = Objects.equals(currentServer, entry.getValue()) ? LOCAL : Optional.of(entry.getValue().getServerAddress());
+            i++;
+        }
+        if (cacheSize > 0) {
+            int capacity = Integer.highestOneBit(cacheSize - 1) << 1;
+            this.cache = new CachedRoute[Math.max(capacity, 1)];
+            this.cacheMask = cache.length - 1;
+        } else {
+            this.cache = null;
+            this.cacheMask = 0;
+        }
+    }
+
+    boolean isEmpty() {
+        return hashes.length == 0;
+    }
+
+    int size() {
+        return hashes.length;
+    }
+
+    /**
+     * @return cached route of the entity or null if the entity is not cached.
+     */
+    Optional<ServerAddress> getCached(UUID uuid) {
+        if (cache == null) {
+            return null;
+        }
+        CachedRoute cached = cache[cacheIndex(uuid)];
+        return cached != null && cached.uuid.equals(uuid) ? cached.route : null;
+    }
+
+    void putCached(UUID uuid, Optional<ServerAddress> route) {
+        if (cache != null) {
+            cache[cacheIndex(uuid)] = new CachedRoute(uuid, route);
+        }
+    }
+
+    /**
+     * @return empty route if the hash belongs to the current server, address of the responsible server otherwise.
+     */
+    Optional<ServerAddress> route(long hash) {
+        return routes[indexOf(hash)];
+    }
+
+    ServerInstance get(long hash) {
+        return servers[indexOf(hash)];
+    }
+
+    /**
+     * @return share of the hash space owned by every server, in the order of the first virtual node of the server.
+     */
+    Map<ServerInstance, Double> getOwnership() {
+        Map<ServerInstance, Double> result = new LinkedHashMap<>();
+        if (hashes.length == 1) {
+            result.put(servers[0], 1.0);
+            return result;
+        }
+        double space = Math.pow(2, 64);
+        for (int i = 0; i < hashes.length; i++) {
+            long previous = hashes[i == 0 ? hashes.length - 1 : i - 1];
+            double share = UnsignedLong.fromLongBits(hashes[i] - previous).doubleValue() / space;
+            result.merge(servers[i], share, Double::sum);
+        }
+        return result;
+    }
+
+    private int indexOf(long hash) {
+        int idx = Arrays.binarySearch(hashes, hash);
+        if (idx < 0) {
+            idx = -idx - 1;
+            if (idx == hashes.length) {
+                idx = 0;
+            }
+        }
+        return idx;
+    }
+
+    private int cacheIndex(UUID uuid) {
+        long bits = uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+        int h = (int) (bits ^ (bits >>> 32));
+        return (h ^ (h >>> 16)) & cacheMask;
+    }
+
+    private static final class CachedRoute {
+        private final UUID uuid;
+        private final Optional<ServerAddress> route;
+
+        private CachedRoute(UUID uuid, Optional<ServerAddress> route) {
+            this.uuid = uuid;
+            this.route = route;
+        }
+    }
+}
@@ -27,7 +27,6 @@ import org.springframework.stereotype.Component;
 import org.thingsboard.server.config.JwtSettings;
 import org.thingsboard.server.service.security.auth.JwtAuthenticationToken;
 import org.thingsboard.server.service.security.model.SecurityUser;
-import org.thingsboard.server.service.security.model.token.JwtTokenFactory;
 import org.thingsboard.server.service.security.model.token.RawAccessJwtToken;
 
 import java.util.List;
@@ -37,17 +36,17 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unchecked")
 public class JwtAuthenticationProvider implements AuthenticationProvider {
 
-    private final JwtTokenFactory tokenFactory;
+    private final JwtTokenCache tokenCache;
 
     @Autowired
-    public JwtAuthenticationProvider(JwtTokenFactory tokenFactory) {
-        this.tokenFactory = tokenFactory;
+    public JwtAuthenticationProvider(JwtTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
     }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         RawAccessJwtToken rawAccessToken = (RawAccessJwtToken) authentication.getCredentials();
-        SecurityUser securityUser = tokenFactory.parseAccessJwtToken(rawAccessToken);
+        SecurityUser securityUser = tokenCache.parseAccessJwtToken(rawAccessToken);
         return new JwtAuthenticationToken(securityUser);
     }
 
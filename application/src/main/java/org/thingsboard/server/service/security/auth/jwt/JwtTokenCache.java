@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security.auth.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.exception.JwtExpiredTokenException;
+import org.thingsboard.server.service.security.model.SecurityUser;
+import org.thingsboard.server.service.security.model.token.JwtTokenFactory;
+import org.thingsboard.server.service.security.model.token.RawAccessJwtToken;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps access tokens that were already verified together with the parsed {@link SecurityUser} until the token expires.
+ * Entries are keyed by the SHA-256 hash of the token, so raw tokens are not retained in memory.
+ * Tokens issued to a user before {@link #revoke(UserId)} are rejected as expired, which forces the client to use its refresh token.
+ */
+@Component
+@Slf4j
+public class JwtTokenCache {
+
+    private final JwtTokenFactory tokenFactory;
+    private final JwtSettings settings;
+
+    private Cache<HashCode, CachedToken> tokens;
+    private Cache<UserId, Long> revocations;
+
+    @Autowired
+    public JwtTokenCache(JwtTokenFactory tokenFactory, JwtSettings settings) {
+        this.tokenFactory = tokenFactory;
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    public void init() {
+        Integer maxSize = settings.getTokenCacheMaxSize();
+        if (maxSize != null && maxSize > 0) {
+            tokens = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(new TokenExpiry())
+                    .build();
+        }
+        revocations = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getTokenExpirationTime(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    public SecurityUser parseAccessJwtToken(RawAccessJwtToken rawAccessToken) {
+        HashCode key = null;
+        CachedToken token;
+        if (tokens != null) {
+            key = Hashing.sha256().hashString(rawAccessToken.getToken(), StandardCharsets.UTF_8);
+            token = tokens.get(key, k -> parse(rawAccessToken));
+        } else {
+            token = parse(rawAccessToken);
+        }
+        Long revocationTs = revocations.getIfPresent(token.user.getId());
+        if (revocationTs != null && token.issuedAt < revocationTs) {
+            if (key != null) {
+                tokens.invalidate(key);
+            }
+            throw new JwtExpiredTokenException(rawAccessToken, "JWT Token revoked", null);
+        }
+        return token.user;
+    }
+
+    /**
+     * Rejects access tokens issued to the user so far. Called when the user is deleted or the user credentials change.
+     */
+    public void revoke(UserId userId) {
+        log.debug("[{}] Revoking access tokens", userId);
+        // The "iat" claim has a precision of seconds, tokens issued within the same second are kept
+        revocations.put(userId, TimeUnit.SECONDS.toMillis(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())));
+        if (tokens != null) {
+            tokens.asMap().values().removeIf(token -> token.user.getId().equals(userId));
+        }
+    }
+
+    private CachedToken parse(RawAccessJwtToken rawAccessToken) {
+        Claims claims = tokenFactory.parseAccessJwtClaims(rawAccessToken);
+        SecurityUser user = tokenFactory.parseAccessJwtToken(claims);
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        long expirationTime = claims.getExpiration() != null ? claims.getExpiration().getTime() : System.currentTimeMillis();
+        return new CachedToken(user, issuedAt, expirationTime);
+    }
+
+    private static final class CachedToken {
+        private final SecurityUser user;
+        private final long issuedAt;
+        private final long expirationTime;
+
+        private CachedToken(SecurityUser user, long issuedAt, long expirationTime) {
+            this.user = user;
+            this.issuedAt = issuedAt;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<HashCode, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(HashCode key, CachedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, value.expirationTime - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(HashCode key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(HashCode key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
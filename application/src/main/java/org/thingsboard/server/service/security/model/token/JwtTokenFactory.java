@@ -96,8 +96,18 @@ public class JwtTokenFactory {
     }
 
     public SecurityUser parseAccessJwtToken(RawAccessJwtToken rawAccessToken) {
+        return parseAccessJwtToken(parseAccessJwtClaims(rawAccessToken));
+    }
+
+    /**
+     * Verifies the signature and the expiration time of the token.
+     */
+    public Claims parseAccessJwtClaims(RawAccessJwtToken rawAccessToken) {
         Jws<Claims> jwsClaims = rawAccessToken.parseClaims(settings.getTokenSigningKey());
-        Claims claims = jwsClaims.getBody();
+        return jwsClaims.getBody();
+    }
+
+    public SecurityUser parseAccessJwtToken(Claims claims) {
         String subject = claims.getSubject();
         List<String> scopes = claims.get(SCOPES, List.class);
         if (scopes == null || scopes.isEmpty()) {
@@ -23,6 +23,8 @@ import static org.mockito.Mockito.when;
 import java.util.*;
 
 import com.google.common.util.concurrent.Futures;
+import org.thingsboard.server.actors.rpc.RpcPendingQueueRegistry;
+import org.thingsboard.server.actors.rule.RuleActorShardsRegistry;
 import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.common.data.id.*;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
@@ -143,6 +145,8 @@ public class DefaultActorServiceTest {
         ReflectionTestUtils.setField(actorContext, "attributesService", attributesService);
         ReflectionTestUtils.setField(actorContext, "componentService", componentService);
         ReflectionTestUtils.setField(actorContext, "eventService", eventService);
+        ReflectionTestUtils.setField(actorContext, "rpcPendingQueueRegistry", new RpcPendingQueueRegistry());
+        ReflectionTestUtils.setField(actorContext, "ruleActorShardsRegistry", new RuleActorShardsRegistry());
 
 
         when(routingService.resolveById((EntityId) any())).thenReturn(Optional.empty());
@@ -0,0 +1,78 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import akka.actor.ActorRef;
+import akka.dispatch.Envelope;
+import org.junit.Assert;
+import org.junit.Test;
+import org.thingsboard.server.actors.metrics.InstrumentedMailbox.InstrumentedMessageQueue;
+
+public class ActorGroupMetricsTest {
+
+    @Test
+    public void testSnapshotDoesNotResetRates() {
+        ActorGroupMetrics group = new ActorGroupMetrics("RuleActor", ActorMetricsRegistry.SYSTEM_TENANT);
+        InstrumentedMessageQueue queue = new InstrumentedMessageQueue(null, 0, null);
+        group.attach(queue);
+        long ts = System.currentTimeMillis();
+        group.updateRates(ts);
+
+        for (int i = 0; i < 20; i++) {
+            queue.enqueue(ActorRef.noSender(), Envelope.apply("msg-" + i, ActorRef.noSender(), null));
+        }
+        for (int i = 0; i < 10; i++) {
+            queue.dequeue();
+            group.onProcessed(1000);
+        }
+        group.updateRates(ts + 2000);
+
+        ActorMetricsSnapshot first = group.snapshot();
+        Assert.assertEquals(10.0, first.getEnqueueRate(), 0.001);
+        Assert.assertEquals(5.0, first.getProcessingRate(), 0.001);
+        Assert.assertEquals(10, first.getQueueSize());
+        Assert.assertEquals(20, first.getEnqueued());
+        Assert.assertEquals(10, first.getProcessed());
+
+        // Another reader, e.g. the total queue size JMX attribute, must see the same rates
+        ActorMetricsSnapshot second = group.snapshot();
+        Assert.assertEquals(first.getEnqueueRate(), second.getEnqueueRate(), 0.0);
+        Assert.assertEquals(first.getProcessingRate(), second.getProcessingRate(), 0.0);
+
+        group.updateRates(ts + 3000);
+        ActorMetricsSnapshot idle = group.snapshot();
+        Assert.assertEquals(0.0, idle.getEnqueueRate(), 0.0);
+        Assert.assertEquals(0.0, idle.getProcessingRate(), 0.0);
+    }
+
+    @Test
+    public void testRatesIncludeDetachedMailboxes() {
+        ActorGroupMetrics group = new ActorGroupMetrics("DeviceActor", ActorMetricsRegistry.SYSTEM_TENANT);
+        InstrumentedMessageQueue queue = new InstrumentedMessageQueue(null, 0, null);
+        group.attach(queue);
+        long ts = System.currentTimeMillis();
+        group.updateRates(ts);
+
+        queue.enqueue(ActorRef.noSender(), Envelope.apply("msg", ActorRef.noSender(), null));
+        group.detach(queue);
+        group.updateRates(ts + 1000);
+
+        ActorMetricsSnapshot snapshot = group.snapshot();
+        Assert.assertEquals(0, snapshot.getActors());
+        Assert.assertEquals(1, snapshot.getEnqueued());
+        Assert.assertEquals(1.0, snapshot.getEnqueueRate(), 0.001);
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.metrics;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
+import org.thingsboard.server.dao.util.ExecutorStats;
+import org.thingsboard.server.dao.util.InstrumentedThreadPoolExecutor;
+import org.thingsboard.server.extensions.core.filter.JsExecutorService;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DefaultActorMetricsServiceTest {
+
+    private ActorSystemContext actorContext;
+    private DaoExecutorRegistry daoExecutorRegistry;
+    private DefaultActorMetricsService metricsService;
+    private InstrumentedThreadPoolExecutor executor;
+
+    @Before
+    public void before() {
+        actorContext = mock(ActorSystemContext.class);
+        metricsService = new DefaultActorMetricsService();
+        daoExecutorRegistry = mock(DaoExecutorRegistry.class);
+        ReflectionTestUtils.setField(metricsService, "actorContext", actorContext);
+        ReflectionTestUtils.setField(metricsService, "daoExecutorRegistry", daoExecutorRegistry);
+        executor = new InstrumentedThreadPoolExecutor("plugin-callback", 1);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPluginCallbackExecutorStats() throws InterruptedException {
+        when(actorContext.getPluginCallbackExecutor()).thenReturn(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            done.countDown();
+        });
+        executor.execute(done::countDown);
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        ExecutorStats stats = metricsService.getExecutorStats().get(0);
+        Assert.assertEquals("plugin-callback", stats.getName());
+        Assert.assertEquals(1, stats.getPoolSize());
+        Assert.assertEquals(1, stats.getActiveCount());
+        Assert.assertEquals(1, stats.getQueueSize());
+        Assert.assertEquals(0, stats.getCompletedTaskCount());
+
+        Thread.sleep(20);
+        release.countDown();
+        Assert.assertTrue(done.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        stats = metricsService.getExecutorStats().get(0);
+        Assert.assertEquals(0, stats.getActiveCount());
+        Assert.assertEquals(0, stats.getQueueSize());
+        Assert.assertEquals(2, stats.getCompletedTaskCount());
+        Assert.assertTrue(stats.getAvgExecutionTimeMs() > 0);
+        Assert.assertTrue(stats.getMaxQueueWaitMs() >= 20);
+        Assert.assertEquals(1, metricsService.getExecutors().length);
+    }
+
+    @Test
+    public void testDirectPluginCallbackExecutorHasNoStats() {
+        when(actorContext.getPluginCallbackExecutor()).thenReturn(MoreExecutors.directExecutor());
+        List<ExecutorStats> stats = metricsService.getExecutorStats();
+        Assert.assertTrue(stats.isEmpty());
+    }
+
+    @Test
+    public void testDaoExecutorStats() {
+        InstrumentedThreadPoolExecutor sqlExecutor = new InstrumentedThreadPoolExecutor(DaoExecutorRegistry.SQL, 2);
+        try {
+            when(actorContext.getPluginCallbackExecutor()).thenReturn(executor);
+            when(daoExecutorRegistry.getExecutors()).thenReturn(Collections.singletonList(sqlExecutor));
+            List<ExecutorStats> stats = metricsService.getExecutorStats();
+            Assert.assertEquals(2, stats.size());
+            Assert.assertEquals("plugin-callback", stats.get(0).getName());
+            Assert.assertEquals(DaoExecutorRegistry.SQL, stats.get(1).getName());
+            Assert.assertEquals(2, stats.get(1).getPoolSize());
+        } finally {
+            sqlExecutor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testJsExecutorStats() throws Exception {
+        JsExecutorService jsExecutor = new JsExecutorService(1, 1, 1, 200);
+        try {
+            when(actorContext.getPluginCallbackExecutor()).thenReturn(executor);
+            when(actorContext.getJsExecutorService()).thenReturn(jsExecutor);
+            Assert.assertTrue(jsExecutor.execute(() -> true));
+            try {
+                jsExecutor.execute(() -> {
+                    while (true) {
+                        Thread.sleep(10);
+                    }
+                });
+                Assert.fail("Script execution is expected to time out");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            ExecutorStats stats = metricsService.getExecutorStats().get(1);
+            Assert.assertEquals(JsExecutorService.NAME, stats.getName());
+            Assert.assertEquals(1, stats.getPoolSize());
+            Assert.assertEquals(1, stats.getTimedOutTaskCount());
+            Assert.assertEquals(0, stats.getRejectedTaskCount());
+            Assert.assertTrue(stats.getCompletedTaskCount() >= 1);
+        } finally {
+            jsExecutor.destroy();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rpc;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RpcPendingMsgQueueTest {
+
+    private static final ServerAddress ADDRESS = new ServerAddress("localhost", 9002);
+
+    private File spillDir;
+
+    @Before
+    public void before() throws IOException {
+        spillDir = Files.createTempDirectory("rpc-pending").toFile();
+    }
+
+    @After
+    public void after() {
+        File[] files = spillDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        spillDir.delete();
+    }
+
+    @Test
+    public void testDropOldest() {
+        RpcPendingMsgQueue queue = new RpcPendingMsgQueue(ADDRESS, 3, RpcPendingQueueOverflowPolicy.DROP_OLDEST, spillDir, 0);
+        for (int i = 0; i < 5; i++) {
+            queue.add(msg(i), false);
+        }
+        Assert.assertEquals(3, queue.size());
+        Assert.assertEquals(2, queue.getStats().getDropped());
+        Assert.assertEquals(ports(2, 3, 4), drain(queue));
+        Assert.assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testDropBroadcastFirst() {
+        RpcPendingMsgQueue queue = new RpcPendingMsgQueue(ADDRESS, 3, RpcPendingQueueOverflowPolicy.DROP_BROADCAST_FIRST, spillDir, 0);
+        queue.add(msg(0), false);
+        queue.add(msg(1), true);
+        queue.add(msg(2), false);
+        queue.add(msg(3), false);
+        queue.add(msg(4), true);
+        queue.add(msg(5), false);
+        RpcPendingQueueStats stats = queue.getStats();
+        Assert.assertEquals(3, stats.getDropped());
+        Assert.assertEquals(2, stats.getDroppedBroadcasts());
+        Assert.assertEquals(ports(2, 3, 5), drain(queue));
+    }
+
+    @Test
+    public void testSpillToDisk() {
+        RpcPendingMsgQueue queue = new RpcPendingMsgQueue(ADDRESS, 2, RpcPendingQueueOverflowPolicy.SPILL_TO_DISK, spillDir, 1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            queue.add(msg(i), i % 2 == 0);
+        }
+        RpcPendingQueueStats stats = queue.getStats();
+        Assert.assertEquals(2, stats.getQueueSize());
+        Assert.assertEquals(8, stats.getSpilledMsgs());
+        Assert.assertEquals(0, stats.getDropped());
+        Assert.assertEquals(ports(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), drain(queue));
+        Assert.assertEquals(0, queue.size());
+        Assert.assertEquals(0, spillDir.listFiles().length);
+    }
+
+    @Test
+    public void testSpillLimit() {
+        int msgSize = msg(1).getSerializedSize();
+        RpcPendingMsgQueue queue = new RpcPendingMsgQueue(ADDRESS, 1, RpcPendingQueueOverflowPolicy.SPILL_TO_DISK, spillDir, msgSize * 2);
+        for (int i = 0; i < 5; i++) {
+            queue.add(msg(i), false);
+        }
+        Assert.assertEquals(2, queue.getStats().getDropped());
+        Assert.assertEquals(ports(0, 1, 2), drain(queue));
+    }
+
+    private static List<Integer> drain(RpcPendingMsgQueue queue) {
+        List<Integer> result = new ArrayList<>();
+        queue.drain(msg -> result.add(msg.getConnectMsg().getServerAddress().getPort()));
+        return result;
+    }
+
+    private static List<Integer> ports(int... ports) {
+        List<Integer> result = new ArrayList<>();
+        for (int port : ports) {
+            result.add(port);
+        }
+        return result;
+    }
+
+    private static ClusterAPIProtos.ToRpcServerMessage msg(int port) {
+        return ClusterAPIProtos.ToRpcServerMessage.newBuilder()
+                .setConnectMsg(ClusterAPIProtos.ConnectRpcMessage.newBuilder()
+                        .setServerAddress(ClusterAPIProtos.ServerAddress.newBuilder().setHost("localhost").setPort(port).build()).build())
+                .build();
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.japi.Creator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class RuleActorShardsTest {
+
+    private static final int SHARD_COUNT = 4;
+
+    private ActorSystem system;
+    private RuleActorShards shards;
+    private List<BlockingQueue<Object>> received;
+
+    @Before
+    public void before() {
+        system = ActorSystem.create("RuleActorShardsTest");
+        shards = new RuleActorShards(new RuleId(UUID.randomUUID()), SHARD_COUNT);
+        received = new ArrayList<>();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+            received.add(queue);
+            shards.setShard(i, system.actorOf(Props.create(new RecordingActorCreator(queue))));
+        }
+    }
+
+    @After
+    public void after() {
+        system.terminate();
+    }
+
+    @Test
+    public void testMessagesOfDeviceGoToSameShard() throws InterruptedException {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        int index = shards.getShardIndex(deviceId);
+        Assert.assertSame(shards.getShard(index), shards.getShard(deviceId));
+        for (int i = 0; i < 10; i++) {
+            shards.tell(deviceId, i, ActorRef.noSender());
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, received.get(index).poll(1, TimeUnit.SECONDS));
+        }
+        assertNoMessages();
+    }
+
+    @Test
+    public void testDevicesAreSpreadAcrossShards() {
+        boolean[] used = new boolean[SHARD_COUNT];
+        for (int i = 0; i < 1000; i++) {
+            used[shards.getShardIndex(new DeviceId(UUID.randomUUID()))] = true;
+        }
+        for (boolean shardUsed : used) {
+            Assert.assertTrue(shardUsed);
+        }
+        Assert.assertEquals(0, shards.getShardIndex(null));
+    }
+
+    @Test
+    public void testReplyGoesToRequestingShard() throws InterruptedException {
+        UUID msgId = UUID.randomUUID();
+        shards.onReplyExpected(msgId, shards.getShard(2));
+        shards.tellReply(msgId, "reply", ActorRef.noSender());
+        Assert.assertEquals("reply", received.get(2).poll(1, TimeUnit.SECONDS));
+
+        // The reply route is removed once used, so a duplicate reply falls back to the first shard
+        shards.tellReply(msgId, "duplicate", ActorRef.noSender());
+        Assert.assertEquals("duplicate", received.get(0).poll(1, TimeUnit.SECONDS));
+
+        UUID completedId = UUID.randomUUID();
+        shards.onReplyExpected(completedId, shards.getShard(3));
+        shards.onReplyCompleted(completedId);
+        shards.tellReply(completedId, "late", ActorRef.noSender());
+        Assert.assertEquals("late", received.get(0).poll(1, TimeUnit.SECONDS));
+        assertNoMessages();
+    }
+
+    @Test
+    public void testBroadcastReachesAllShards() throws InterruptedException {
+        shards.broadcast("lifecycle", ActorRef.noSender());
+        for (BlockingQueue<Object> queue : received) {
+            Assert.assertEquals("lifecycle", queue.poll(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testStatsAreAccumulatedOnce() {
+        shards.addStats(3, 1);
+        shards.addStats(2, 0);
+        Assert.assertEquals(5, shards.drainMessagesProcessed());
+        Assert.assertEquals(1, shards.drainErrorsOccurred());
+        Assert.assertEquals(0, shards.drainMessagesProcessed());
+        Assert.assertEquals(0, shards.drainErrorsOccurred());
+    }
+
+    private void assertNoMessages() throws InterruptedException {
+        for (BlockingQueue<Object> queue : received) {
+            Assert.assertNull(queue.poll(100, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private static class RecordingActorCreator implements Creator<UntypedActor> {
+        private static final long serialVersionUID = 1L;
+
+        private final BlockingQueue<Object> queue;
+
+        RecordingActorCreator(BlockingQueue<Object> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public UntypedActor create() {
+            return new UntypedActor() {
+                @Override
+                public void onReceive(Object msg) {
+                    queue.add(msg);
+                }
+            };
+        }
+    }
+}
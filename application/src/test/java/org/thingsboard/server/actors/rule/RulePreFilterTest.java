@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.thingsboard.server.common.msg.session.MsgType;
+
+import java.io.IOException;
+
+public class RulePreFilterTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static final String MSG_TYPE_FILTER = "org.thingsboard.server.extensions.core.filter.MsgTypeFilter";
+    static final String DEVICE_TYPE_FILTER = "org.thingsboard.server.extensions.core.filter.DeviceTypeFilter";
+    static final String METHOD_NAME_FILTER = "org.thingsboard.server.extensions.core.filter.MethodNameFilter";
+    static final String JS_FILTER = "org.thingsboard.server.extensions.core.filter.DeviceTelemetryFilter";
+
+    static JsonNode filters(String json) throws IOException {
+        return mapper.readTree(json.replace('\'', '"'));
+    }
+
+    @Test
+    public void testNoFilters() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters("[]"));
+        for (MsgType msgType : MsgType.values()) {
+            Assert.assertTrue(preFilter.mayMatch(msgType, "thermostat"));
+        }
+        Assert.assertTrue(preFilter.mayMatchMethod("getTime"));
+        Assert.assertTrue(preFilter.mayMatchMethod(null));
+        Assert.assertFalse(preFilter.dependsOnMethodName());
+        Assert.assertSame(RulePreFilter.ANY, RulePreFilter.fromFilters(null));
+    }
+
+    @Test
+    public void testOtherFiltersAreIgnored() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + JS_FILTER + "','configuration':{'filter':'temperature > 20'}}]"));
+        Assert.assertTrue(preFilter.mayMatch(MsgType.POST_ATTRIBUTES_REQUEST, "thermostat"));
+        Assert.assertFalse(preFilter.dependsOnMethodName());
+    }
+
+    @Test
+    public void testMessageTypes() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + MSG_TYPE_FILTER + "','configuration':{'messageTypes':['POST_TELEMETRY','POST_ATTRIBUTES']}}]"));
+        Assert.assertTrue(preFilter.mayMatch(MsgType.POST_TELEMETRY_REQUEST, "thermostat"));
+        Assert.assertTrue(preFilter.mayMatch(MsgType.POST_ATTRIBUTES_REQUEST, null));
+        Assert.assertFalse(preFilter.mayMatch(MsgType.GET_ATTRIBUTES_REQUEST, "thermostat"));
+        Assert.assertFalse(preFilter.mayMatch(MsgType.TO_SERVER_RPC_REQUEST, "thermostat"));
+    }
+
+    @Test
+    public void testDeviceTypesAndMessageTypesAreCombined() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters("["
+                + "{'clazz':'" + MSG_TYPE_FILTER + "','configuration':{'messageTypes':['POST_TELEMETRY']}},"
+                + "{'clazz':'" + DEVICE_TYPE_FILTER + "','configuration':{'deviceTypes':[{'name':'thermostat'},{'name':'meter'}]}}"
+                + "]"));
+        Assert.assertTrue(preFilter.mayMatch(MsgType.POST_TELEMETRY_REQUEST, "thermostat"));
+        Assert.assertTrue(preFilter.mayMatch(MsgType.POST_TELEMETRY_REQUEST, "meter"));
+        Assert.assertFalse(preFilter.mayMatch(MsgType.POST_TELEMETRY_REQUEST, "camera"));
+        Assert.assertFalse(preFilter.mayMatch(MsgType.POST_ATTRIBUTES_REQUEST, "thermostat"));
+    }
+
+    @Test
+    public void testMethodNames() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + METHOD_NAME_FILTER + "','configuration':{'methodNames':[{'name':'getTime'}]}}]"));
+        Assert.assertTrue(preFilter.dependsOnMethodName());
+        Assert.assertTrue(preFilter.mayMatch(MsgType.TO_SERVER_RPC_REQUEST, "thermostat"));
+        Assert.assertFalse(preFilter.mayMatch(MsgType.POST_TELEMETRY_REQUEST, "thermostat"));
+        Assert.assertTrue(preFilter.mayMatchMethod("getTime"));
+        Assert.assertFalse(preFilter.mayMatchMethod("reboot"));
+        Assert.assertFalse(preFilter.mayMatchMethod(null));
+    }
+
+    @Test
+    public void testDisjointMessageTypesNeverMatch() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters("["
+                + "{'clazz':'" + MSG_TYPE_FILTER + "','configuration':{'messageTypes':['POST_TELEMETRY']}},"
+                + "{'clazz':'" + METHOD_NAME_FILTER + "','configuration':{'methodNames':[{'name':'getTime'}]}}"
+                + "]"));
+        for (MsgType msgType : MsgType.values()) {
+            Assert.assertFalse(preFilter.mayMatch(msgType, "thermostat"));
+        }
+    }
+
+    @Test
+    public void testInvalidConfigurationMatchesAnything() throws IOException {
+        RulePreFilter preFilter = RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + MSG_TYPE_FILTER + "','configuration':{'messageTypes':['UNKNOWN']}}]"));
+        Assert.assertSame(RulePreFilter.ANY, preFilter);
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.rule;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.RuleId;
+import org.thingsboard.server.common.msg.core.RuleEngineError;
+import org.thingsboard.server.common.msg.session.MsgType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.thingsboard.server.actors.rule.RulePreFilterTest.DEVICE_TYPE_FILTER;
+import static org.thingsboard.server.actors.rule.RulePreFilterTest.METHOD_NAME_FILTER;
+import static org.thingsboard.server.actors.rule.RulePreFilterTest.MSG_TYPE_FILTER;
+import static org.thingsboard.server.actors.rule.RulePreFilterTest.filters;
+
+public class SimpleRuleActorChainTest {
+
+    @Test
+    public void testRulesWithoutFiltersAreKept() {
+        RuleActorMetaData first = RuleActorMetaData.tenantRule(newRuleId(), 2, null);
+        RuleActorMetaData second = RuleActorMetaData.systemRule(newRuleId(), 1, null);
+        SimpleRuleActorChain chain = new SimpleRuleActorChain(new HashSet<>(Arrays.asList(second, first)));
+
+        RuleActorChain matching = chain.forMessage(MsgType.POST_TELEMETRY_REQUEST, "thermostat", null);
+        Assert.assertSame(chain, matching);
+        Assert.assertEquals(Arrays.asList(first, second), toList(matching));
+        Assert.assertEquals(RuleEngineError.NO_RULES, RuleActorChain.getInitialError(chain, matching));
+    }
+
+    @Test
+    public void testFilterByMessageAndDeviceType() throws IOException {
+        RuleActorMetaData telemetry = RuleActorMetaData.tenantRule(newRuleId(), 3, null, RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + MSG_TYPE_FILTER + "','configuration':{'messageTypes':['POST_TELEMETRY']}}]")));
+        RuleActorMetaData meters = RuleActorMetaData.tenantRule(newRuleId(), 2, null, RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + DEVICE_TYPE_FILTER + "','configuration':{'deviceTypes':[{'name':'meter'}]}}]")));
+        RuleActorMetaData any = RuleActorMetaData.tenantRule(newRuleId(), 1, null);
+        SimpleRuleActorChain chain = new SimpleRuleActorChain(new HashSet<>(Arrays.asList(telemetry, meters, any)));
+
+        Assert.assertEquals(Arrays.asList(telemetry, meters, any),
+                toList(chain.forMessage(MsgType.POST_TELEMETRY_REQUEST, "meter", null)));
+        Assert.assertEquals(Arrays.asList(telemetry, any),
+                toList(chain.forMessage(MsgType.POST_TELEMETRY_REQUEST, "thermostat", null)));
+        Assert.assertEquals(Arrays.asList(meters, any),
+                toList(chain.forMessage(MsgType.POST_ATTRIBUTES_REQUEST, "meter", null)));
+
+        RuleActorChain matching = chain.forMessage(MsgType.POST_ATTRIBUTES_REQUEST, "thermostat", null);
+        Assert.assertEquals(Arrays.asList(any), toList(matching));
+        Assert.assertEquals(RuleEngineError.NO_FILTERS_MATCHED, RuleActorChain.getInitialError(chain, matching));
+    }
+
+    @Test
+    public void testFilterByMethodName() throws IOException {
+        RuleActorMetaData getTime = RuleActorMetaData.tenantRule(newRuleId(), 2, null, RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + METHOD_NAME_FILTER + "','configuration':{'methodNames':[{'name':'getTime'}]}}]")));
+        RuleActorMetaData reboot = RuleActorMetaData.tenantRule(newRuleId(), 1, null, RulePreFilter.fromFilters(filters(
+                "[{'clazz':'" + METHOD_NAME_FILTER + "','configuration':{'methodNames':[{'name':'reboot'}]}}]")));
+        SimpleRuleActorChain chain = new SimpleRuleActorChain(new HashSet<>(Arrays.asList(getTime, reboot)));
+
+        Assert.assertEquals(Arrays.asList(getTime), toList(chain.forMessage(MsgType.TO_SERVER_RPC_REQUEST, "thermostat", "getTime")));
+        // Method names are checked on the cached chain, so the second lookup must not reuse the first result
+        Assert.assertEquals(Arrays.asList(reboot), toList(chain.forMessage(MsgType.TO_SERVER_RPC_REQUEST, "thermostat", "reboot")));
+
+        RuleActorChain matching = chain.forMessage(MsgType.POST_TELEMETRY_REQUEST, "thermostat", null);
+        Assert.assertEquals(0, matching.size());
+        Assert.assertEquals(RuleEngineError.NO_FILTERS_MATCHED, RuleActorChain.getInitialError(chain, matching));
+    }
+
+    @Test
+    public void testEmptyChain() {
+        SimpleRuleActorChain chain = new SimpleRuleActorChain(new HashSet<>());
+        RuleActorChain matching = chain.forMessage(MsgType.POST_TELEMETRY_REQUEST, "thermostat", null);
+        Assert.assertEquals(0, matching.size());
+        Assert.assertEquals(RuleEngineError.NO_RULES, RuleActorChain.getInitialError(chain, matching));
+    }
+
+    private static RuleId newRuleId() {
+        return new RuleId(UUID.randomUUID());
+    }
+
+    private static List<RuleActorMetaData> toList(RuleActorChain chain) {
+        List<RuleActorMetaData> result = new ArrayList<>(chain.size());
+        for (int i = 0; i < chain.size(); i++) {
+            result.add(chain.getRuleActorMd(i));
+        }
+        return result;
+    }
+}
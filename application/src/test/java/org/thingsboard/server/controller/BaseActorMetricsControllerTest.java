@@ -0,0 +1,72 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public abstract class BaseActorMetricsControllerTest extends AbstractControllerTest {
+
+    @Test
+    public void testGetActorMetrics() throws Exception {
+        loginSysAdmin();
+        doGet("/api/actors/metrics")
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(jsonPath("$[*].actorType", hasItem("AppActor")));
+
+        doGet("/api/actors/metrics?actorType=AppActor")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].tenantId", is("SYSTEM")))
+                .andExpect(jsonPath("$[0].actors", is(1)));
+    }
+
+    @Test
+    public void testGetThrottleStats() throws Exception {
+        loginSysAdmin();
+        doGet("/api/actors/backpressure")
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType));
+    }
+
+    @Test
+    public void testGetRpcPendingQueueStats() throws Exception {
+        loginSysAdmin();
+        doGet("/api/actors/rpc/pending")
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testGetExecutorStats() throws Exception {
+        loginSysAdmin();
+        doGet("/api/actors/executors")
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(jsonPath("$[*].name", hasItem("plugin-callback")));
+    }
+
+    @Test
+    public void testGetActorMetricsByTenantAdmin() throws Exception {
+        loginTenantAdmin();
+        doGet("/api/actors/metrics")
+                .andExpect(status().isForbidden());
+    }
+}
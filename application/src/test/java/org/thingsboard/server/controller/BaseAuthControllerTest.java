@@ -19,6 +19,8 @@ import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.thingsboard.server.common.data.security.Authority;
 import org.junit.Test;
 
@@ -76,4 +78,26 @@ public abstract class BaseAuthControllerTest extends AbstractControllerTest {
                 .andExpect(jsonPath("$.authority",is(Authority.SYS_ADMIN.name())))
                 .andExpect(jsonPath("$.email",is(SYS_ADMIN_EMAIL)));
     }
+
+    @Test
+    public void testChangePasswordRevokesToken() throws Exception {
+        loginCustomerUser();
+        doGet("/api/auth/user")
+                .andExpect(status().isOk());
+
+        // Tokens issued within the same second as the revocation are not revoked
+        Thread.sleep(1000);
+        JsonNode changePasswordRequest = new ObjectMapper().createObjectNode()
+                .put("currentPassword", "customer")
+                .put("newPassword", "customer2");
+        doPost("/api/auth/changePassword", changePasswordRequest)
+                .andExpect(status().isOk());
+        doGet("/api/auth/user")
+                .andExpect(status().isUnauthorized());
+
+        refreshToken();
+        doGet("/api/auth/user")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email",is(CUSTOMER_USER_EMAIL)));
+    }
 }
@@ -16,6 +16,9 @@
 package org.thingsboard.server.controller;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,6 +29,8 @@ import java.util.List;
 
 import com.datastax.driver.core.utils.UUIDs;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.thingsboard.server.common.data.*;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.page.TextPageData;
@@ -104,6 +109,69 @@ public abstract class BaseDashboardControllerTest extends AbstractControllerTest
         Assert.assertEquals(savedDashboard, foundDashboard);
     }
     
+    @Test
+    public void testFindDashboardByIdNotModified() throws Exception {
+        Dashboard dashboard = new Dashboard();
+        dashboard.setTitle("My dashboard");
+        Dashboard savedDashboard = doPost("/api/dashboard", dashboard, Dashboard.class);
+        String url = "/api/dashboard/" + savedDashboard.getId().getId().toString();
+
+        String eTag = doGet(url).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequestBuilder getRequest = get(url).header(HttpHeaders.IF_NONE_MATCH, eTag);
+        setJwtToken(getRequest);
+        mockMvc.perform(getRequest).andExpect(status().isNotModified());
+
+        savedDashboard.setTitle("My new dashboard");
+        doPost("/api/dashboard", savedDashboard, Dashboard.class);
+
+        getRequest = get(url).header(HttpHeaders.IF_NONE_MATCH, eTag);
+        setJwtToken(getRequest);
+        Dashboard foundDashboard = readResponse(mockMvc.perform(getRequest).andExpect(status().isOk()), Dashboard.class);
+        Assert.assertEquals(savedDashboard.getTitle(), foundDashboard.getTitle());
+    }
+
+    @Test
+    public void testFindCachedDashboardByIdByCustomerUser() throws Exception {
+        Dashboard dashboard = new Dashboard();
+        dashboard.setTitle("My dashboard");
+        Dashboard savedDashboard = doPost("/api/dashboard", dashboard, Dashboard.class);
+        String url = "/api/dashboard/" + savedDashboard.getId().getId().toString();
+
+        Customer customer = new Customer();
+        customer.setTitle("My customer");
+        Customer savedCustomer = doPost("/api/customer", customer, Customer.class);
+
+        User customerUser = new User();
+        customerUser.setAuthority(Authority.CUSTOMER_USER);
+        customerUser.setTenantId(savedTenant.getId());
+        customerUser.setCustomerId(savedCustomer.getId());
+        customerUser.setEmail("customer2@thingsboard.org");
+        createUserAndLogin(customerUser, "testPassword2");
+
+        login(tenantAdmin.getEmail(), "testPassword1");
+        doGet(url).andExpect(status().isOk());
+
+        login(customerUser.getEmail(), "testPassword2");
+        doGet(url).andExpect(status().isForbidden());
+
+        login(tenantAdmin.getEmail(), "testPassword1");
+        doPost("/api/customer/" + savedCustomer.getId().getId().toString()
+                + "/dashboard/" + savedDashboard.getId().getId().toString(), Dashboard.class);
+
+        login(customerUser.getEmail(), "testPassword2");
+        doGet(url).andExpect(status().isOk());
+
+        login(tenantAdmin.getEmail(), "testPassword1");
+        doDelete("/api/customer/" + savedCustomer.getId().getId().toString()
+                + "/dashboard/" + savedDashboard.getId().getId().toString(), Dashboard.class);
+
+        login(customerUser.getEmail(), "testPassword2");
+        doGet(url).andExpect(status().isForbidden());
+    }
+
     @Test
     public void testDeleteDashboard() throws Exception {
         Dashboard dashboard = new Dashboard();
@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.web.servlet.ResultActions;
+import org.thingsboard.server.common.data.Customer;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.Tenant;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.security.Authority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public abstract class BaseTelemetryBatchControllerTest extends AbstractControllerTest {
+
+    private static final String BATCH_URL = "/api/plugins/telemetry/batch";
+    private static final long TIMEOUT = 10000L;
+
+    @Value("${actors.plugin.batch_query.max_entities}")
+    private int maxEntities;
+
+    private Device savedDevice;
+
+    @Before
+    public void beforeTest() throws Exception {
+        loginTenantAdmin();
+
+        Device device = new Device();
+        device.setName("My device");
+        device.setType("default");
+        savedDevice = doPost("/api/device", device, Device.class);
+
+        doPostAsync("/api/plugins/telemetry/DEVICE/" + savedDevice.getId().getId().toString() + "/timeseries/values",
+                "{\"temperature\": 42, \"humidity\": 73}", TIMEOUT)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetBatchLatestTimeseries() throws Exception {
+        String deviceId = savedDevice.getId().getId().toString();
+        doBatch(batchCmd(Collections.singletonList(deviceId), "temperature"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").isEmpty())
+                .andExpect(jsonPath("$.data['" + deviceId + "'].temperature[0].value", is("42")))
+                .andExpect(jsonPath("$.data['" + deviceId + "'].humidity").doesNotExist());
+    }
+
+    @Test
+    public void testGetBatchWithoutEntityIds() throws Exception {
+        doBatch(batchCmd(Collections.emptyList(), "temperature"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetBatchExceedingMaxEntities() throws Exception {
+        List<String> entityIds = new ArrayList<>();
+        entityIds.add(savedDevice.getId().getId().toString());
+        while (entityIds.size() <= maxEntities) {
+            entityIds.add(UUID.randomUUID().toString());
+        }
+        doBatch(batchCmd(entityIds, "temperature"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("at most " + maxEntities)));
+    }
+
+    @Test
+    public void testGetBatchOfDifferentTenantEntities() throws Exception {
+        loginSysAdmin();
+
+        Tenant tenant2 = new Tenant();
+        tenant2.setTitle("Different tenant");
+        Tenant savedTenant2 = doPost("/api/tenant", tenant2, Tenant.class);
+        Assert.assertNotNull(savedTenant2);
+
+        User tenantAdmin2 = new User();
+        tenantAdmin2.setAuthority(Authority.TENANT_ADMIN);
+        tenantAdmin2.setTenantId(savedTenant2.getId());
+        tenantAdmin2.setEmail("tenant2@thingsboard.org");
+        createUserAndLogin(tenantAdmin2, "testPassword1");
+
+        Device device = new Device();
+        device.setName("Different tenant device");
+        device.setType("default");
+        Device differentTenantDevice = doPost("/api/device", device, Device.class);
+
+        loginTenantAdmin();
+        doBatch(batchCmd(Collections.singletonList(differentTenantDevice.getId().getId().toString()), "temperature"))
+                .andExpect(status().isForbidden());
+        doBatch(batchCmd(idsOf(savedDevice, differentTenantDevice), "temperature"))
+                .andExpect(status().isForbidden());
+
+        loginSysAdmin();
+        doDelete("/api/tenant/" + savedTenant2.getId().getId().toString())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetBatchOfDifferentCustomerEntities() throws Exception {
+        Customer customer = new Customer();
+        customer.setTitle("Different customer");
+        Customer savedCustomer = doPost("/api/customer", customer, Customer.class);
+
+        doPost("/api/customer/" + savedCustomer.getId().getId().toString()
+                + "/device/" + savedDevice.getId().getId().toString(), Device.class);
+
+        loginCustomerUser();
+        doBatch(batchCmd(Collections.singletonList(savedDevice.getId().getId().toString()), "temperature"))
+                .andExpect(status().isForbidden());
+    }
+
+    private ResultActions doBatch(Map<String, Object> batchCmd) throws Exception {
+        return doPostAsync(BATCH_URL, batchCmd, TIMEOUT);
+    }
+
+    private static Map<String, Object> batchCmd(List<String> entityIds, String keys) {
+        Map<String, Object> batchCmd = new HashMap<>();
+        batchCmd.put("entityType", "DEVICE");
+        batchCmd.put("entityIds", entityIds);
+        batchCmd.put("keys", keys);
+        return batchCmd;
+    }
+
+    private static List<String> idsOf(Device... devices) {
+        List<String> ids = new ArrayList<>();
+        for (Device device : devices) {
+            ids.add(device.getId().getId().toString());
+        }
+        return ids;
+    }
+}
@@ -22,6 +22,8 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.User;
 import org.thingsboard.server.common.data.security.Authority;
@@ -33,6 +35,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public abstract class BaseWidgetTypeControllerTest extends AbstractControllerTest {
@@ -112,6 +117,49 @@ public abstract class BaseWidgetTypeControllerTest extends AbstractControllerTes
         Assert.assertEquals(savedWidgetType, foundWidgetType);
     }
 
+    @Test
+    public void testFindCachedWidgetTypes() throws Exception {
+        WidgetType widgetType = new WidgetType();
+        widgetType.setBundleAlias(savedWidgetsBundle.getAlias());
+        widgetType.setName("Widget Type");
+        widgetType.setDescriptor(new ObjectMapper().readValue("{ \"someKey\": \"someValue\" }", JsonNode.class));
+        WidgetType savedWidgetType = doPost("/api/widgetType", widgetType, WidgetType.class);
+        String url = "/api/widgetType/" + savedWidgetType.getId().getId().toString();
+
+        String eTag = doGet(url).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequestBuilder getRequest = get(url).header(HttpHeaders.IF_NONE_MATCH, eTag);
+        setJwtToken(getRequest);
+        mockMvc.perform(getRequest).andExpect(status().isNotModified());
+
+        doGet("/api/widgetType?isSystem={isSystem}&bundleAlias={bundleAlias}&alias={alias}",
+                WidgetType.class, false, savedWidgetsBundle.getAlias(), savedWidgetType.getAlias());
+        doGetTyped("/api/widgetTypes?isSystem={isSystem}&bundleAlias={bundleAlias}",
+                new TypeReference<List<WidgetType>>(){}, false, savedWidgetsBundle.getAlias());
+
+        savedWidgetType.setName("New Widget Type");
+        doPost("/api/widgetType", savedWidgetType, WidgetType.class);
+
+        Assert.assertEquals(savedWidgetType.getName(), doGet(url, WidgetType.class).getName());
+        Assert.assertEquals(savedWidgetType.getName(), doGet("/api/widgetType?isSystem={isSystem}&bundleAlias={bundleAlias}&alias={alias}",
+                WidgetType.class, false, savedWidgetsBundle.getAlias(), savedWidgetType.getAlias()).getName());
+        List<WidgetType> loadedWidgetTypes = doGetTyped("/api/widgetTypes?isSystem={isSystem}&bundleAlias={bundleAlias}",
+                new TypeReference<List<WidgetType>>(){}, false, savedWidgetsBundle.getAlias());
+        Assert.assertEquals(1, loadedWidgetTypes.size());
+        Assert.assertEquals(savedWidgetType.getName(), loadedWidgetTypes.get(0).getName());
+
+        doDelete(url).andExpect(status().isOk());
+
+        doGet(url).andExpect(status().isNotFound());
+        doGet("/api/widgetType?isSystem={isSystem}&bundleAlias={bundleAlias}&alias={alias}",
+                false, savedWidgetsBundle.getAlias(), savedWidgetType.getAlias())
+                .andExpect(status().isNotFound());
+        loadedWidgetTypes = doGetTyped("/api/widgetTypes?isSystem={isSystem}&bundleAlias={bundleAlias}",
+                new TypeReference<List<WidgetType>>(){}, false, savedWidgetsBundle.getAlias());
+        Assert.assertTrue(loadedWidgetTypes.isEmpty());
+    }
+
     @Test
     public void testDeleteWidgetType() throws Exception {
         WidgetType widgetType = new WidgetType();
@@ -20,6 +20,8 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.User;
 import org.thingsboard.server.common.data.page.TextPageData;
@@ -32,6 +34,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public abstract class BaseWidgetsBundleControllerTest extends AbstractControllerTest {
@@ -98,6 +103,31 @@ public abstract class BaseWidgetsBundleControllerTest extends AbstractController
         Assert.assertEquals(savedWidgetsBundle, foundWidgetsBundle);
     }
 
+    @Test
+    public void testFindCachedWidgetsBundleById() throws Exception {
+        WidgetsBundle widgetsBundle = new WidgetsBundle();
+        widgetsBundle.setTitle("My widgets bundle");
+        WidgetsBundle savedWidgetsBundle = doPost("/api/widgetsBundle", widgetsBundle, WidgetsBundle.class);
+        String url = "/api/widgetsBundle/" + savedWidgetsBundle.getId().getId().toString();
+
+        String eTag = doGet(url).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, notNullValue()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequestBuilder getRequest = get(url).header(HttpHeaders.IF_NONE_MATCH, eTag);
+        setJwtToken(getRequest);
+        mockMvc.perform(getRequest).andExpect(status().isNotModified());
+
+        savedWidgetsBundle.setTitle("My new widgets bundle");
+        doPost("/api/widgetsBundle", savedWidgetsBundle, WidgetsBundle.class);
+
+        WidgetsBundle foundWidgetsBundle = doGet(url, WidgetsBundle.class);
+        Assert.assertEquals(savedWidgetsBundle.getTitle(), foundWidgetsBundle.getTitle());
+
+        loginTenantAdmin();
+        doGet(url).andExpect(status().isForbidden());
+    }
+
     @Test
     public void testDeleteWidgetsBundle() throws Exception {
         WidgetsBundle widgetsBundle = new WidgetsBundle();
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.routing;
+
+import com.google.common.hash.Hashing;
+import org.junit.Assert;
+import org.junit.Test;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.gen.discovery.ServerInstanceProtos.ServerInfo;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+import org.thingsboard.server.utils.MiscUtils;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+
+public class ConsistentHashRingTest {
+
+    private static final int SERVERS = 5;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    public void testMurmur3HashMatchesGuava() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            long expected = Hashing.murmur3_128().newHasher().putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits()).hash().asLong();
+            Assert.assertEquals(expected, ConsistentClusterRoutingService.murmur3_128(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        }
+    }
+
+    @Test
+    public void testLookupMatchesSortedMap() {
+        NavigableMap<Long, ServerInstance> circle = createCircle();
+        ServerInstance current = circle.firstEntry().getValue();
+        ConsistentHashRing ring = new ConsistentHashRing(circle, current, 0);
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long hash = i == 0 ? circle.firstKey() : random.nextLong();
+            Map.Entry<Long, ServerInstance> expected = circle.ceilingEntry(hash);
+            if (expected == null) {
+                expected = circle.firstEntry();
+            }
+            Assert.assertEquals(expected.getValue(), ring.get(hash));
+            Optional<ServerAddress> route = ring.route(hash);
+            Assert.assertEquals(current.equals(expected.getValue()), !route.isPresent());
+        }
+        Assert.assertEquals(circle.lastEntry().getValue(), ring.get(circle.lastKey()));
+        Assert.assertEquals(circle.firstEntry().getValue(), ring.get(circle.lastKey() + 1));
+    }
+
+    @Test
+    public void testCachedRoute() {
+        NavigableMap<Long, ServerInstance> circle = createCircle();
+        ConsistentHashRing ring = new ConsistentHashRing(circle, circle.firstEntry().getValue(), 16);
+        UUID uuid = UUID.randomUUID();
+        Assert.assertNull(ring.getCached(uuid));
+        Optional<ServerAddress> route = ring.route(uuid.getLeastSignificantBits());
+        ring.putCached(uuid, route);
+        Assert.assertSame(route, ring.getCached(uuid));
+        Assert.assertNull(new ConsistentHashRing(circle, circle.firstEntry().getValue(), 16).getCached(uuid));
+    }
+
+    @Test
+    public void testRoutesWithoutCurrentServer() {
+        NavigableMap<Long, ServerInstance> circle = createCircle();
+        ConsistentHashRing ring = new ConsistentHashRing(circle, null, 0);
+        for (Map.Entry<Long, ServerInstance> entry : circle.entrySet()) {
+            Assert.assertEquals(Optional.of(entry.getValue().getServerAddress()), ring.route(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testOwnership() {
+        ConsistentHashRing ring = new ConsistentHashRing(createCircle(), null, 0);
+        Map<ServerInstance, Double> ownership = ring.getOwnership();
+        Assert.assertEquals(SERVERS, ownership.size());
+        double total = 0;
+        for (double share : ownership.values()) {
+            Assert.assertTrue(share > 0.5 / SERVERS && share < 2.0 / SERVERS);
+            total += share;
+        }
+        Assert.assertEquals(1.0, total, 1e-9);
+    }
+
+    private static NavigableMap<Long, ServerInstance> createCircle() {
+        NavigableMap<Long, ServerInstance> circle = new TreeMap<>();
+        for (int s = 0; s < SERVERS; s++) {
+            ServerInstance instance = new ServerInstance(ServerInfo.newBuilder().setHost("10.0.0." + (s + 1)).setPort(9001).build());
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                circle.put(Hashing.murmur3_128().newHasher().putString(instance.getHost(), MiscUtils.UTF8)
+                        .putInt(instance.getPort()).putInt(i).hash().asLong(), instance);
+            }
+        }
+        return circle;
+    }
+}
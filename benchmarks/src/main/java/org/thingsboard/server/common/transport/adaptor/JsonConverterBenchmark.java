@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.adaptor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.msg.core.TelemetryUploadRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Telemetry parsing as done by the MQTT, HTTP and CoAP adaptors: raw payload to {@link TelemetryUploadRequest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+    @Param({"4", "32"})
+    private int keys;
+
+    private byte[] payload;
+    private byte[] payloadWithTs;
+
+    @Setup
+    public void setup() {
+        StringBuilder values = new StringBuilder("{");
+        for (int i = 0; i < keys; i++) {
+            if (i > 0) {
+                values.append(',');
+            }
+            switch (i % 4) {
+                case 0:
+                    values.append("\"temperature").append(i).append("\":").append(20.5 + i);
+                    break;
+                case 1:
+                    values.append("\"counter").append(i).append("\":").append(1000 + i);
+                    break;
+                case 2:
+                    values.append("\"active").append(i).append("\":").append(i % 3 == 0);
+                    break;
+                default:
+                    values.append("\"status").append(i).append("\":\"value").append(i).append('"');
+            }
+        }
+        values.append('}');
+        payload = values.toString().getBytes(StandardCharsets.UTF_8);
+        payloadWithTs = ("[{\"ts\":1451649600512,\"values\":" + values + "},{\"ts\":1451649601512,\"values\":" + values + "}]")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TelemetryUploadRequest parseValues() {
+        return JsonConverter.convertToTelemetry(parse(payload));
+    }
+
+    @Benchmark
+    public TelemetryUploadRequest parseValuesWithTs() {
+        return JsonConverter.convertToTelemetry(parse(payloadWithTs));
+    }
+
+    private static JsonElement parse(byte[] payload) {
+        return new JsonParser().parse(new String(payload, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.BooleanDataEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.KvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.data.kv.TsKvQuery;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Telemetry save path of {@link BaseTimeseriesService} against an in-memory DAO. The DAO binds every value
+ * through the primitive {@link KvEntry} accessors, as the Cassandra and SQL DAOs do,
+ * so the numbers show the service and entry overhead without any database round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseTimeseriesServiceBenchmark {
+
+    @Param({"1", "16"})
+    private int entries;
+
+    private BaseTimeseriesService service;
+    private InMemoryTimeseriesDao dao;
+    private EntityId entityId;
+    private long ts;
+
+    @Setup
+    public void setup() {
+        service = new BaseTimeseriesService();
+        dao = new InMemoryTimeseriesDao();
+        setField("timeseriesDao", dao);
+        setField("keysCacheMaxSize", 100000L);
+        setField("lastSeenResolutionMs", 60000L);
+        service.init();
+        entityId = new DeviceId(UUID.randomUUID());
+        ts = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public ListenableFuture<List<Void>> save() {
+        long curTs = ++ts;
+        List<TsKvEntry> tsKvEntries = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            tsKvEntries.add(new BasicTsKvEntry(curTs, newEntry(i)));
+        }
+        return service.save(entityId, tsKvEntries, 0L);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(BaseTimeseriesService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, service, value);
+    }
+
+    private static KvEntry newEntry(int i) {
+        switch (i % 4) {
+            case 0:
+                return new DoubleDataEntry("temperature" + i, 21.5 + i);
+            case 1:
+                return new LongDataEntry("counter" + i, 1000L + i);
+            case 2:
+                return new BooleanDataEntry("active" + i, i % 3 == 0);
+            default:
+                return new StringDataEntry("status" + i, "ok");
+        }
+    }
+
+    private static class InMemoryTimeseriesDao implements TimeseriesDao {
+
+        private static final ListenableFuture<Void> DONE = Futures.immediateFuture(null);
+
+        private final Map<String, TsKvEntry> latest = new ConcurrentHashMap<>();
+        private final Map<String, Long> partitions = new ConcurrentHashMap<>();
+        private final Map<String, TsKeyInfo> keys = new ConcurrentHashMap<>();
+        private long checksum;
+
+        @Override
+        public ListenableFuture<List<TsKvEntry>> findAllAsync(EntityId entityId, List<TsKvQuery> queries) {
+            return Futures.immediateFuture(Collections.emptyList());
+        }
+
+        @Override
+        public ListenableFuture<TsKvEntry> findLatest(EntityId entityId, String key) {
+            return Futures.immediateFuture(latest.get(key));
+        }
+
+        @Override
+        public ListenableFuture<List<TsKvEntry>> findAllLatest(EntityId entityId) {
+            return Futures.immediateFuture(new ArrayList<>(latest.values()));
+        }
+
+        @Override
+        public ListenableFuture<Void> save(EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
+            switch (tsKvEntry.getDataType()) {
+                case BOOLEAN:
+                    checksum += tsKvEntry.booleanValue() ? 1 : 0;
+                    break;
+                case LONG:
+                    checksum += tsKvEntry.longValue();
+                    break;
+                case DOUBLE:
+                    checksum += Double.doubleToRawLongBits(tsKvEntry.doubleValue());
+                    break;
+                case STRING:
+                    checksum += tsKvEntry.getStrValue().map(String::length).orElse(0);
+                    break;
+            }
+            return DONE;
+        }
+
+        @Override
+        public ListenableFuture<Void> savePartition(EntityId entityId, long tsKvEntryTs, String key, long ttl) {
+            partitions.put(key, tsKvEntryTs);
+            return DONE;
+        }
+
+        @Override
+        public ListenableFuture<Void> saveLatest(EntityId entityId, TsKvEntry tsKvEntry) {
+            latest.put(tsKvEntry.getKey(), tsKvEntry);
+            return DONE;
+        }
+
+        @Override
+        public ListenableFuture<TsKeyInfo> findKey(EntityId entityId, String key) {
+            return Futures.immediateFuture(keys.get(key));
+        }
+
+        @Override
+        public ListenableFuture<List<TsKeyInfo>> findKeys(EntityId entityId) {
+            return Futures.immediateFuture(new ArrayList<>(keys.values()));
+        }
+
+        @Override
+        public ListenableFuture<List<TsKeyInfo>> findKeys(Collection<EntityId> entityIds) {
+            return Futures.immediateFuture(new ArrayList<>(keys.values()));
+        }
+
+        @Override
+        public ListenableFuture<Void> saveKey(TsKeyInfo keyInfo) {
+            keys.put(keyInfo.getKey(), keyInfo);
+            return DONE;
+        }
+    }
+}
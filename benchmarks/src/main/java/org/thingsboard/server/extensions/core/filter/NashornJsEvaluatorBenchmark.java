@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BooleanDataEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.KvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.extensions.api.device.DeviceAttributes;
+
+import javax.script.ScriptException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter script evaluation as done by the device telemetry and device attributes filters,
+ * including the bindings conversion and the hand-off to the JS executor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NashornJsEvaluatorBenchmark {
+
+    private JsExecutorService executor;
+    private NashornJsEvaluator telemetryEvaluator;
+    private NashornJsEvaluator attributesEvaluator;
+    private List<KvEntry> telemetry;
+    private DeviceAttributes attributes;
+
+    @Setup
+    public void setup() {
+        executor = new JsExecutorService();
+        telemetryEvaluator = new NashornJsEvaluator("typeof temperature !== 'undefined' && temperature > 20 && humidity < 80");
+        attributesEvaluator = new NashornJsEvaluator("typeof cs.model !== 'undefined' && cs.model === 'A1' && shared.enabled === true");
+        telemetry = Arrays.asList(
+                new DoubleDataEntry("temperature", 25.5),
+                new DoubleDataEntry("humidity", 45.0),
+                new LongDataEntry("pressure", 1013L),
+                new StringDataEntry("status", "ok"));
+        long ts = System.currentTimeMillis();
+        List<AttributeKvEntry> clientSide = Arrays.asList(
+                new BaseAttributeKvEntry(new StringDataEntry("model", "A1"), ts),
+                new BaseAttributeKvEntry(new StringDataEntry("firmware", "1.2.3"), ts));
+        List<AttributeKvEntry> shared = Collections.singletonList(
+                new BaseAttributeKvEntry(new BooleanDataEntry("enabled", true), ts));
+        attributes = new DeviceAttributes(clientSide, Collections.emptyList(), shared);
+    }
+
+    @TearDown
+    public void tearDown() {
+        telemetryEvaluator.destroy();
+        attributesEvaluator.destroy();
+        executor.destroy();
+    }
+
+    @Benchmark
+    public Boolean telemetryFilter() throws ScriptException {
+        return telemetryEvaluator.execute(executor, NashornJsEvaluator.toBindings(telemetryEvaluator.resetBindings(), telemetry));
+    }
+
+    @Benchmark
+    public Boolean attributesFilter() throws ScriptException {
+        return attributesEvaluator.execute(executor, NashornJsEvaluator.getAttributeBindings(attributesEvaluator.resetBindings(), attributes));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.telemetry;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+import org.thingsboard.server.extensions.core.plugin.telemetry.handlers.TelemetryWebsocketMsgHandler;
+import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionState;
+import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionType;
+import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionUpdate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out of a timeseries update of a single device to its local websocket subscriptions,
+ * including the JSON encoding of every {@link SubscriptionUpdate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionManagerBenchmark {
+
+    private static final String[] KEYS = {"temperature", "humidity", "pressure", "battery"};
+
+    @Param({"1", "100", "1000"})
+    private int subscriptions;
+
+    private PluginContext ctx;
+    private SubscriptionManager manager;
+    private EncodingWebsocketHandler websocketHandler;
+    private DeviceId deviceId;
+    private long ts;
+
+    @Setup
+    public void setup() {
+        ctx = (PluginContext) Proxy.newProxyInstance(PluginContext.class.getClassLoader(), new Class<?>[]{PluginContext.class},
+                (proxy, method, args) -> "resolve".equals(method.getName()) ? Optional.empty() : null);
+        manager = new SubscriptionManager();
+        websocketHandler = new EncodingWebsocketHandler(manager);
+        manager.setWebsocketHandler(websocketHandler);
+        deviceId = new DeviceId(UUID.randomUUID());
+        for (int i = 0; i < subscriptions; i++) {
+            Map<String, Long> keyStates = new HashMap<>();
+            keyStates.put(KEYS[i % KEYS.length], 0L);
+            keyStates.put(KEYS[(i + 1) % KEYS.length], 0L);
+            SubscriptionState sub = new SubscriptionState("session" + i, i, deviceId, SubscriptionType.TIMESERIES, i % 10 == 0, keyStates, null);
+            manager.addLocalWsSubscription(ctx, sub.getWsSessionId(), deviceId, sub);
+        }
+        ts = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long onTimeseriesUpdate() {
+        long curTs = ++ts;
+        List<TsKvEntry> entries = new ArrayList<>(KEYS.length);
+        entries.add(new BasicTsKvEntry(curTs, new DoubleDataEntry(KEYS[0], 21.5)));
+        entries.add(new BasicTsKvEntry(curTs, new DoubleDataEntry(KEYS[1], 48.0)));
+        entries.add(new BasicTsKvEntry(curTs, new LongDataEntry(KEYS[2], 1013L)));
+        entries.add(new BasicTsKvEntry(curTs, new LongDataEntry(KEYS[3], 87L)));
+        manager.onTimeseriesUpdateFromServer(ctx, deviceId, entries);
+        return websocketHandler.encodedBytes;
+    }
+
+    /**
+     * Encodes updates the same way as the real handler, but drops them instead of sending to a websocket session.
+     */
+    private static class EncodingWebsocketHandler extends TelemetryWebsocketMsgHandler {
+
+        private long encodedBytes;
+
+        EncodingWebsocketHandler(SubscriptionManager subscriptionManager) {
+            super(subscriptionManager);
+        }
+
+        @Override
+        public void sendWsMsg(PluginContext ctx, String sessionId, SubscriptionUpdate update) {
+            try {
+                encodedBytes += jsonMapper.writeValueAsString(update).length();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
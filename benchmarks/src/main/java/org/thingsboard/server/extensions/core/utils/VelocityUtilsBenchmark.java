@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.utils;
+
+import org.apache.velocity.runtime.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.msg.core.BasicTelemetryUploadRequest;
+import org.thingsboard.server.extensions.api.device.DeviceAttributes;
+import org.thingsboard.server.extensions.api.device.DeviceMetaData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of plugin action templates against the lazy device context. Compares the direct substitution
+ * of simple templates with the full Velocity merge of the same template and of a template with directives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VelocityUtilsBenchmark {
+
+    private static final String SIMPLE_TEMPLATE = "{\"deviceName\":\"$deviceName\",\"deviceType\":\"${deviceType}\","
+            + "\"temperature\":${temperature.valueAsString},\"ts\":$temperature.ts,\"model\":\"$cs.model\"}";
+    private static final String DIRECTIVE_TEMPLATE = "{\"deviceName\":\"$deviceName\",\"state\":"
+            + "\"#if($temperature.value > 20)hot#{else}normal#end\",\"date\":\"$date.get('yyyy-MM-dd')\"}";
+
+    private final DeviceMetaDataContext context = new DeviceMetaDataContext();
+
+    private CompiledTemplate simpleTemplate;
+    private CompiledTemplate directiveTemplate;
+    private DeviceMetaData deviceMetaData;
+    private BasicTelemetryUploadRequest telemetry;
+
+    @Setup
+    public void setup() throws ParseException {
+        simpleTemplate = VelocityUtils.compile(SIMPLE_TEMPLATE, "simple");
+        directiveTemplate = VelocityUtils.compile(DIRECTIVE_TEMPLATE, "directive");
+        long ts = System.currentTimeMillis();
+        List<AttributeKvEntry> clientSide = Arrays.asList(
+                new BaseAttributeKvEntry(new StringDataEntry("model", "A1"), ts),
+                new BaseAttributeKvEntry(new StringDataEntry("firmware", "1.2.3"), ts));
+        DeviceAttributes attributes = new DeviceAttributes(clientSide, Collections.emptyList(), Collections.emptyList());
+        deviceMetaData = new DeviceMetaData(new DeviceId(UUID.randomUUID()), "Thermostat A1", "thermostat", attributes);
+        telemetry = new BasicTelemetryUploadRequest();
+        telemetry.add(ts, new DoubleDataEntry("temperature", 25.5));
+        telemetry.add(ts, new DoubleDataEntry("humidity", 45.0));
+        telemetry.add(ts, new LongDataEntry("pressure", 1013L));
+    }
+
+    @Benchmark
+    public String simpleTemplate() {
+        return simpleTemplate.merge(context.reset(deviceMetaData, telemetry));
+    }
+
+    @Benchmark
+    public String simpleTemplateVelocityMerge() {
+        return VelocityUtils.merge(simpleTemplate.getTemplate(), context.reset(deviceMetaData, telemetry));
+    }
+
+    @Benchmark
+    public String directiveTemplate() {
+        return directiveTemplate.merge(context.reset(deviceMetaData, telemetry));
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.routing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.gen.discovery.ServerInstanceProtos.ServerInfo;
+import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
+import org.thingsboard.server.service.cluster.discovery.DiscoveryServiceListener;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the node responsible for an entity on the consistent hash ring, with and without the routing cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsistentClusterRoutingServiceBenchmark {
+
+    private static final int ENTITIES = 1024;
+
+    @Param({"3", "10"})
+    private int servers;
+
+    @Param({"16", "128"})
+    private int virtualNodes;
+
+    @Param({"0", "1024"})
+    private int routingCacheSize;
+
+    private ConsistentClusterRoutingService service;
+    private EntityId[] entityIds;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<ServerInstance> instances = new ArrayList<>(servers);
+        for (int i = 0; i < servers; i++) {
+            instances.add(new ServerInstance(ServerInfo.newBuilder().setHost("10.0.0." + (i + 1)).setPort(9001).build()));
+        }
+        service = new ConsistentClusterRoutingService();
+        setField("discoveryService", new StaticDiscoveryService(instances.get(0), instances.subList(1, instances.size())));
+        setField("hashFunctionName", "murmur3_128");
+        setField("virtualNodesSize", virtualNodes);
+        setField("routingCacheSize", routingCacheSize);
+        service.init();
+
+        entityIds = new EntityId[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            entityIds[i] = new DeviceId(UUID.randomUUID());
+        }
+    }
+
+    @Benchmark
+    public Optional<ServerAddress> resolveById() {
+        EntityId entityId = entityIds[next];
+        next = (next + 1) % ENTITIES;
+        return service.resolveById(entityId);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(ConsistentClusterRoutingService.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, service, value);
+    }
+
+    private static class StaticDiscoveryService implements DiscoveryService {
+
+        private final ServerInstance currentServer;
+        private final List<ServerInstance> otherServers;
+
+        StaticDiscoveryService(ServerInstance currentServer, List<ServerInstance> otherServers) {
+            this.currentServer = currentServer;
+            this.otherServers = otherServers;
+        }
+
+        @Override
+        public void publishCurrentServer() {
+        }
+
+        @Override
+        public void unpublishCurrentServer() {
+        }
+
+        @Override
+        public ServerInstance getCurrentServer() {
+            return currentServer;
+        }
+
+        @Override
+        public List<ServerInstance> getOtherServers() {
+            return otherServers;
+        }
+
+        @Override
+        public boolean addListener(DiscoveryServiceListener listener) {
+            return true;
+        }
+
+        @Override
+        public boolean removeListener(DiscoveryServiceListener listener) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.rpc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+import org.thingsboard.server.actors.rpc.RpcBroadcastMsg;
+import org.thingsboard.server.actors.rpc.RpcSessionCreateRequestMsg;
+import org.thingsboard.server.actors.rpc.RpcSessionTellMsg;
+import org.thingsboard.server.common.data.DataConstants;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.PluginId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ToAllNodesMsg;
+import org.thingsboard.server.common.msg.core.ToDeviceSessionActorMsg;
+import org.thingsboard.server.common.msg.device.ToDeviceActorMsg;
+import org.thingsboard.server.extensions.api.device.DeviceAttributesEventNotificationMsg;
+import org.thingsboard.server.extensions.api.device.ToDeviceActorNotificationMsg;
+import org.thingsboard.server.extensions.api.plugins.msg.ToDeviceRpcRequest;
+import org.thingsboard.server.extensions.api.plugins.msg.ToDeviceRpcRequestBody;
+import org.thingsboard.server.extensions.api.plugins.msg.ToDeviceRpcRequestPluginMsg;
+import org.thingsboard.server.extensions.api.plugins.msg.ToPluginActorMsg;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of messages forwarded to other cluster nodes, up to the bytes written to the gRPC stream.
+ * The gRPC server is not started: the service hands the encoded message to a capturing listener instead of the RPC manager actor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClusterGrpcServiceBenchmark {
+
+    @Param({"4", "32"})
+    private int attributes;
+
+    private final ServerAddress address = new ServerAddress("localhost", 9001);
+    private ClusterGrpcService service;
+    private CapturingListener listener;
+    private DeviceAttributesEventNotificationMsg attributesMsg;
+    private ToDeviceRpcRequestPluginMsg rpcMsg;
+
+    @Setup
+    public void setup() {
+        service = new ClusterGrpcService();
+        listener = new CapturingListener();
+        Field field = ReflectionUtils.findField(ClusterGrpcService.class, "listener");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, service, listener);
+
+        TenantId tenantId = new TenantId(UUID.randomUUID());
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        long ts = System.currentTimeMillis();
+        List<AttributeKvEntry> values = new ArrayList<>(attributes);
+        for (int i = 0; i < attributes; i++) {
+            values.add(i % 2 == 0 ?
+                    new BaseAttributeKvEntry(new DoubleDataEntry("attr" + i, 42.0 + i), ts) :
+                    new BaseAttributeKvEntry(new StringDataEntry("attr" + i, "value" + i), ts));
+        }
+        attributesMsg = DeviceAttributesEventNotificationMsg.onUpdate(tenantId, deviceId, DataConstants.SHARED_SCOPE, values);
+
+        ToDeviceRpcRequest request = new ToDeviceRpcRequest(UUID.randomUUID(), null, tenantId, deviceId, false,
+                ts + TimeUnit.SECONDS.toMillis(10), new ToDeviceRpcRequestBody("setGpio", "{\"pin\":7,\"value\":1}"));
+        rpcMsg = new ToDeviceRpcRequestPluginMsg(new PluginId(UUID.randomUUID()), tenantId, request);
+    }
+
+    @Benchmark
+    public byte[] encodeAttributesNotification() {
+        service.tell(address, attributesMsg);
+        return listener.last.getMsg().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeRpcRequest() {
+        service.tell(address, rpcMsg);
+        return listener.last.getMsg().toByteArray();
+    }
+
+    private static class CapturingListener implements RpcMsgListener {
+
+        private RpcSessionTellMsg last;
+
+        @Override
+        public void onMsg(RpcSessionTellMsg rpcSessionTellMsg) {
+            last = rpcSessionTellMsg;
+        }
+
+        @Override
+        public void onMsg(ToDeviceActorMsg msg) {
+        }
+
+        @Override
+        public void onMsg(ToDeviceActorNotificationMsg msg) {
+        }
+
+        @Override
+        public void onMsg(ToDeviceSessionActorMsg msg) {
+        }
+
+        @Override
+        public void onMsg(ToAllNodesMsg nodeMsg) {
+        }
+
+        @Override
+        public void onMsg(ToPluginActorMsg msg) {
+        }
+
+        @Override
+        public void onMsg(RpcSessionCreateRequestMsg msg) {
+        }
+
+        @Override
+        public void onMsg(RpcBroadcastMsg rpcBroadcastMsg) {
+        }
+    }
+}
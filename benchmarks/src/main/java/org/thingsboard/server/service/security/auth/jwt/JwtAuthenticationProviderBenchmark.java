@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security.auth.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.security.Authority;
+import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.auth.JwtAuthenticationToken;
+import org.thingsboard.server.service.security.model.SecurityUser;
+import org.thingsboard.server.service.security.model.UserPrincipal;
+import org.thingsboard.server.service.security.model.token.JwtTokenFactory;
+import org.thingsboard.server.service.security.model.token.RawAccessJwtToken;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication of a REST call by its access token, as done by {@link JwtAuthenticationProvider} for every request.
+ * A zero cache size measures the signature verification and claims parsing on every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationProviderBenchmark {
+
+    private static final int USERS = 256;
+
+    @Param({"0", "10000"})
+    private int tokenCacheMaxSize;
+
+    private JwtAuthenticationProvider provider;
+    private RawAccessJwtToken[] tokens;
+    private int next;
+
+    @Setup
+    public void setup() {
+        JwtSettings settings = new JwtSettings();
+        settings.setTokenExpirationTime(900);
+        settings.setRefreshTokenExpTime(3600);
+        settings.setTokenIssuer("thingsboard.io");
+        settings.setTokenSigningKey("thingsboardDefaultSigningKey");
+        settings.setTokenCacheMaxSize(tokenCacheMaxSize);
+        JwtTokenFactory tokenFactory = new JwtTokenFactory(settings);
+        JwtTokenCache tokenCache = new JwtTokenCache(tokenFactory, settings);
+        tokenCache.init();
+        provider = new JwtAuthenticationProvider(tokenCache);
+
+        tokens = new RawAccessJwtToken[USERS];
+        for (int i = 0; i < USERS; i++) {
+            SecurityUser user = new SecurityUser(new UserId(UUID.randomUUID()));
+            user.setEmail("user" + i + "@thingsboard.org");
+            user.setAuthority(Authority.CUSTOMER_USER);
+            user.setTenantId(new TenantId(UUID.randomUUID()));
+            user.setCustomerId(new CustomerId(UUID.randomUUID()));
+            user.setFirstName("First");
+            user.setLastName("Last");
+            user.setEnabled(true);
+            user.setUserPrincipal(new UserPrincipal(UserPrincipal.Type.USER_NAME, user.getEmail()));
+            tokens[i] = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(user).getToken());
+        }
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        RawAccessJwtToken token = tokens[next];
+        next = (next + 1) % USERS;
+        return provider.authenticate(new JwtAuthenticationToken(token));
+    }
+}
@@ -19,4 +19,7 @@ public class CacheConstants {
     public static final String DEVICE_CREDENTIALS_CACHE = "deviceCredentials";
     public static final String RELATIONS_CACHE = "relations";
     public static final String DEVICE_CACHE = "devices";
+    public static final String DASHBOARD_CACHE = "dashboards";
+    public static final String WIDGETS_BUNDLE_CACHE = "widgetsBundles";
+    public static final String WIDGET_TYPE_CACHE = "widgetTypes";
 }
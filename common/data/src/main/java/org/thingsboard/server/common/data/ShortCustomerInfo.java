@@ -20,12 +20,16 @@ import lombok.Getter;
 import lombok.Setter;
 import org.thingsboard.server.common.data.id.CustomerId;
 
+import java.io.Serializable;
+
 /**
  * Created by igor on 2/27/18.
  */
 
 @AllArgsConstructor
-public class ShortCustomerInfo {
+public class ShortCustomerInfo implements Serializable {
+
+    private static final long serialVersionUID = -1652377632283375712L;
 
     @Getter @Setter
     private CustomerId customerId;
@@ -20,6 +20,16 @@ package org.thingsboard.server.common.data.kv;
  */
 public enum Aggregation {
 
-    MIN, MAX, AVG, SUM, COUNT, NONE;
+    MIN, MAX, AVG, SUM, COUNT, NONE,
+
+    /**
+     * Downsampling modes: the raw points of the interval are reduced to at most limit points
+     * that preserve the shape of the series, using Largest-Triangle-Three-Buckets or the min/max envelope.
+     */
+    LTTB, MIN_MAX;
+
+    public boolean isDownsampling() {
+        return this == LTTB || this == MIN_MAX;
+    }
 
 }
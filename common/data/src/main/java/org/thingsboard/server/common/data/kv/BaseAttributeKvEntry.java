@@ -65,6 +65,21 @@ public class BaseAttributeKvEntry implements AttributeKvEntry {
         return kv.getDoubleValue();
     }
 
+    @Override
+    public long longValue() {
+        return kv.longValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return kv.doubleValue();
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return kv.booleanValue();
+    }
+
     @Override
     public String getValueAsString() {
         return kv.getValueAsString();
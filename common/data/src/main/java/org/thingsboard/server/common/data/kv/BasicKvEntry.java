@@ -51,6 +51,25 @@ public abstract class BasicKvEntry implements KvEntry {
         return Optional.ofNullable(null);
     }
 
+    @Override
+    public long longValue() {
+        throw unsupportedType(DataType.LONG);
+    }
+
+    @Override
+    public double doubleValue() {
+        throw unsupportedType(DataType.DOUBLE);
+    }
+
+    @Override
+    public boolean booleanValue() {
+        throw unsupportedType(DataType.BOOLEAN);
+    }
+
+    protected IllegalStateException unsupportedType(DataType requested) {
+        return new IllegalStateException("Entry '" + key + "' of type " + getDataType() + " has no " + requested + " value");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
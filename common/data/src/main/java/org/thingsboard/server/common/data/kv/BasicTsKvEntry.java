@@ -58,6 +58,21 @@ public class BasicTsKvEntry implements TsKvEntry {
         return kv.getDoubleValue();
     }
 
+    @Override
+    public long longValue() {
+        return kv.longValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return kv.doubleValue();
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return kv.booleanValue();
+    }
+
     @Override
     public Object getValue() {
         return kv.getValue();
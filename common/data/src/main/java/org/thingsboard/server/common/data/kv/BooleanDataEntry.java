@@ -36,6 +36,11 @@ public class BooleanDataEntry extends BasicKvEntry {
         return Optional.of(value);
     }
 
+    @Override
+    public boolean booleanValue() {
+        return value;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -37,6 +37,11 @@ public class DoubleDataEntry extends BasicKvEntry {
         return Optional.of(value);
     }
 
+    @Override
+    public double doubleValue() {
+        return value;
+    }
+
     @Override
     public Object getValue() {
         return value;
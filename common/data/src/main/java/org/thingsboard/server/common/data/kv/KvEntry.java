@@ -37,6 +37,17 @@ public interface KvEntry extends Serializable {
 
     Optional<Double> getDoubleValue();
 
+    /**
+     * Primitive accessors for hot paths that already switch on {@link #getDataType()}.
+     *
+     * @throws IllegalStateException if the entry is not of the corresponding data type
+     */
+    long longValue();
+
+    double doubleValue();
+
+    boolean booleanValue();
+
     String getValueAsString();
 
     Object getValue();
@@ -37,6 +37,11 @@ public class LongDataEntry extends BasicKvEntry {
         return Optional.of(value);
     }
 
+    @Override
+    public long longValue() {
+        return value;
+    }
+
     @Override
     public Object getValue() {
         return value;
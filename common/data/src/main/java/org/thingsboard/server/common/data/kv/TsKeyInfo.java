@@ -0,0 +1,34 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.data.kv;
+
+import lombok.Data;
+import org.thingsboard.server.common.data.id.EntityId;
+
+import java.io.Serializable;
+
+/**
+ * Timeseries key known for the entity, with the type of its latest value
+ * and the timestamps of the first and the last values saved for it.
+ */
+@Data
+public class TsKeyInfo implements Serializable {
+    private final EntityId entityId;
+    private final String key;
+    private final DataType dataType;
+    private final long firstTs;
+    private final long lastTs;
+}
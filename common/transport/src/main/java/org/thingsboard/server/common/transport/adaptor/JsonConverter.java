@@ -169,13 +169,13 @@ public class JsonConverter {
             JsonPrimitive value;
             switch (de.getDataType()) {
                 case BOOLEAN:
-                    value = new JsonPrimitive(de.getBooleanValue().get());
+                    value = new JsonPrimitive(de.booleanValue());
                     break;
                 case DOUBLE:
-                    value = new JsonPrimitive(de.getDoubleValue().get());
+                    value = new JsonPrimitive(de.doubleValue());
                     break;
                 case LONG:
-                    value = new JsonPrimitive(de.getLongValue().get());
+                    value = new JsonPrimitive(de.longValue());
                     break;
                 case STRING:
                     value = new JsonPrimitive(de.getStrValue().get());
@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.backpressure;
+
+import org.thingsboard.server.common.data.id.TenantId;
+
+/**
+ * Signals transports to stop accepting device messages of a tenant while the server can't keep up with them.
+ */
+public interface BackpressureService {
+
+    /**
+     * @return true if new messages of the tenant should not be accepted until its queues drain
+     */
+    boolean isOverloaded(TenantId tenantId);
+
+    /**
+     * Called by transports that rejected a request of the tenant because of the backpressure.
+     */
+    void onRequestRejected(TenantId tenantId);
+
+    /**
+     * Called by transports that stopped reading from a connection of the tenant for the given amount of time.
+     */
+    void onReadPaused(TenantId tenantId, long pausedMs);
+
+}
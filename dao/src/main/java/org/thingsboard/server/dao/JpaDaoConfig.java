@@ -28,7 +28,7 @@ import org.thingsboard.server.dao.util.SqlDao;
  */
 @Configuration
 @EnableAutoConfiguration
-@ComponentScan("org.thingsboard.server.dao.sql")
+@ComponentScan({"org.thingsboard.server.dao.sql", "org.thingsboard.server.dao.executors"})
 @EnableJpaRepositories("org.thingsboard.server.dao.sql")
 @EntityScan("org.thingsboard.server.dao.model.sql")
 @EnableTransactionManagement
@@ -18,6 +18,7 @@ package org.thingsboard.server.dao.alarm;
 
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +36,7 @@ import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.entity.AbstractEntityService;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.exception.DataValidationException;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 import org.thingsboard.server.common.data.relation.EntityRelationsQuery;
 import org.thingsboard.server.common.data.relation.EntitySearchDirection;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
@@ -43,13 +45,12 @@ import org.thingsboard.server.dao.tenant.TenantDao;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.dao.service.Validator.validateId;
@@ -69,18 +70,14 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     @Autowired
     private EntityService entityService;
 
+    @Autowired
+    private DaoExecutorRegistry executorRegistry;
+
     protected ExecutorService readResultsProcessingExecutor;
 
     @PostConstruct
     public void startExecutor() {
-        readResultsProcessingExecutor = Executors.newCachedThreadPool();
-    }
-
-    @PreDestroy
-    public void stopExecutor() {
-        if (readResultsProcessingExecutor != null) {
-            readResultsProcessingExecutor.shutdownNow();
-        }
+        readResultsProcessingExecutor = executorRegistry.getCallbackExecutor();
     }
 
     @Override
@@ -98,7 +95,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                 if (existing == null || existing.getStatus().isCleared()) {
                     return createAlarm(alarm);
                 } else {
-                    return updateAlarm(existing, alarm);
+                    return updateAlarm(existing, alarm).get();
                 }
             } else {
                 return updateAlarm(alarm).get();
@@ -115,94 +112,86 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     private Alarm createAlarm(Alarm alarm) throws InterruptedException, ExecutionException {
         log.debug("New Alarm : {}", alarm);
         Alarm saved = alarmDao.save(alarm);
-        createAlarmRelations(saved);
+        createAlarmRelations(saved).get();
         return saved;
     }
 
-    private void createAlarmRelations(Alarm alarm) throws InterruptedException, ExecutionException {
+    private ListenableFuture<Void> createAlarmRelations(Alarm alarm) {
+        ListenableFuture<List<EntityId>> parentEntities;
         if (alarm.isPropagate()) {
             EntityRelationsQuery query = new EntityRelationsQuery();
             query.setParameters(new RelationsSearchParameters(alarm.getOriginator(), EntitySearchDirection.TO, Integer.MAX_VALUE));
-            List<EntityId> parentEntities = relationService.findByQuery(query).get().stream().map(r -> r.getFrom()).collect(Collectors.toList());
-            for (EntityId parentId : parentEntities) {
-                createAlarmRelation(parentId, alarm.getId(), alarm.getStatus(), true);
-            }
+            parentEntities = Futures.transform(relationService.findByQuery(query), (Function<List<EntityRelation>, List<EntityId>>)
+                    relations -> relations.stream().map(EntityRelation::getFrom).collect(Collectors.toList()));
+        } else {
+            parentEntities = Futures.immediateFuture(Collections.emptyList());
         }
-        createAlarmRelation(alarm.getOriginator(), alarm.getId(), alarm.getStatus(), true);
+        return Futures.transform(parentEntities, (AsyncFunction<List<EntityId>, Void>) parents -> {
+            List<ListenableFuture<Void>> futures = new ArrayList<>(parents.size() + 1);
+            for (EntityId parentId : parents) {
+                futures.add(createAlarmRelation(parentId, alarm.getId(), alarm.getStatus(), true));
+            }
+            futures.add(createAlarmRelation(alarm.getOriginator(), alarm.getId(), alarm.getStatus(), true));
+            return allDone(futures);
+        });
     }
 
     private ListenableFuture<Alarm> updateAlarm(Alarm update) {
         alarmDataValidator.validate(update);
-        return getAndUpdate(update.getId(), new Function<Alarm, Alarm>() {
-            @Nullable
-            @Override
-            public Alarm apply(@Nullable Alarm alarm) {
-                if (alarm == null) {
-                    return null;
-                } else {
-                    return updateAlarm(alarm, update);
-                }
+        return getAndUpdate(update.getId(), (AsyncFunction<Alarm, Alarm>) alarm -> {
+            if (alarm == null) {
+                return Futures.immediateFuture(null);
+            } else {
+                return updateAlarm(alarm, update);
             }
         });
     }
 
-    private Alarm updateAlarm(Alarm oldAlarm, Alarm newAlarm) {
+    private ListenableFuture<Alarm> updateAlarm(Alarm oldAlarm, Alarm newAlarm) {
         AlarmStatus oldStatus = oldAlarm.getStatus();
         AlarmStatus newStatus = newAlarm.getStatus();
         boolean oldPropagate = oldAlarm.isPropagate();
         boolean newPropagate = newAlarm.isPropagate();
         Alarm result = alarmDao.save(merge(oldAlarm, newAlarm));
+        ListenableFuture<Void> relations;
         if (!oldPropagate && newPropagate) {
-            try {
-                createAlarmRelations(result);
-            } catch (InterruptedException | ExecutionException e) {
-                log.warn("Failed to update alarm relations [{}]", result, e);
-                throw new RuntimeException(e);
-            }
+            relations = createAlarmRelations(result);
         } else if (oldStatus != newStatus) {
-            updateRelations(oldAlarm, oldStatus, newStatus);
+            relations = updateRelations(oldAlarm, oldStatus, newStatus);
+        } else {
+            return Futures.immediateFuture(result);
         }
-        return result;
+        return Futures.transform(relations, (Function<Void, Alarm>) ignored -> result);
     }
 
     @Override
     public ListenableFuture<Boolean> ackAlarm(AlarmId alarmId, long ackTime) {
-        return getAndUpdate(alarmId, new Function<Alarm, Boolean>() {
-            @Nullable
-            @Override
-            public Boolean apply(@Nullable Alarm alarm) {
-                if (alarm == null || alarm.getStatus().isAck()) {
-                    return false;
-                } else {
-                    AlarmStatus oldStatus = alarm.getStatus();
-                    AlarmStatus newStatus = oldStatus.isCleared() ? AlarmStatus.CLEARED_ACK : AlarmStatus.ACTIVE_ACK;
-                    alarm.setStatus(newStatus);
-                    alarm.setAckTs(ackTime);
-                    alarmDao.save(alarm);
-                    updateRelations(alarm, oldStatus, newStatus);
-                    return true;
-                }
+        return getAndUpdate(alarmId, (AsyncFunction<Alarm, Boolean>) alarm -> {
+            if (alarm == null || alarm.getStatus().isAck()) {
+                return Futures.immediateFuture(false);
+            } else {
+                AlarmStatus oldStatus = alarm.getStatus();
+                AlarmStatus newStatus = oldStatus.isCleared() ? AlarmStatus.CLEARED_ACK : AlarmStatus.ACTIVE_ACK;
+                alarm.setStatus(newStatus);
+                alarm.setAckTs(ackTime);
+                alarmDao.save(alarm);
+                return Futures.transform(updateRelations(alarm, oldStatus, newStatus), (Function<Void, Boolean>) ignored -> true);
             }
         });
     }
 
     @Override
     public ListenableFuture<Boolean> clearAlarm(AlarmId alarmId, long clearTime) {
-        return getAndUpdate(alarmId, new Function<Alarm, Boolean>() {
-            @Nullable
-            @Override
-            public Boolean apply(@Nullable Alarm alarm) {
-                if (alarm == null || alarm.getStatus().isCleared()) {
-                    return false;
-                } else {
-                    AlarmStatus oldStatus = alarm.getStatus();
-                    AlarmStatus newStatus = oldStatus.isAck() ? AlarmStatus.CLEARED_ACK : AlarmStatus.CLEARED_UNACK;
-                    alarm.setStatus(newStatus);
-                    alarm.setClearTs(clearTime);
-                    alarmDao.save(alarm);
-                    updateRelations(alarm, oldStatus, newStatus);
-                    return true;
-                }
+        return getAndUpdate(alarmId, (AsyncFunction<Alarm, Boolean>) alarm -> {
+            if (alarm == null || alarm.getStatus().isCleared()) {
+                return Futures.immediateFuture(false);
+            } else {
+                AlarmStatus oldStatus = alarm.getStatus();
+                AlarmStatus newStatus = oldStatus.isAck() ? AlarmStatus.CLEARED_ACK : AlarmStatus.CLEARED_UNACK;
+                alarm.setStatus(newStatus);
+                alarm.setClearTs(clearTime);
+                alarmDao.save(alarm);
+                return Futures.transform(updateRelations(alarm, oldStatus, newStatus), (Function<Void, Boolean>) ignored -> true);
             }
         });
     }
@@ -305,14 +294,14 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
         }
     }
 
-    private void deleteRelation(EntityRelation alarmRelation) throws ExecutionException, InterruptedException {
+    private ListenableFuture<Boolean> deleteRelation(EntityRelation alarmRelation) {
         log.debug("Deleting Alarm relation: {}", alarmRelation);
-        relationService.deleteRelationAsync(alarmRelation).get();
+        return relationService.deleteRelationAsync(alarmRelation);
     }
 
-    private void createRelation(EntityRelation alarmRelation) throws ExecutionException, InterruptedException {
+    private ListenableFuture<Boolean> createRelation(EntityRelation alarmRelation) {
         log.debug("Creating Alarm relation: {}", alarmRelation);
-        relationService.saveRelationAsync(alarmRelation).get();
+        return relationService.saveRelationAsync(alarmRelation);
     }
 
     private Alarm merge(Alarm existing, Alarm alarm) {
@@ -335,50 +324,63 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
         return existing;
     }
 
-    private void updateRelations(Alarm alarm, AlarmStatus oldStatus, AlarmStatus newStatus) {
-        try {
-            List<EntityRelation> relations = relationService.findByToAsync(alarm.getId(), RelationTypeGroup.ALARM).get();
-            Set<EntityId> parents = relations.stream().map(EntityRelation::getFrom).collect(Collectors.toSet());
+    /**
+     * Relation updates are chained on the relation futures instead of waiting for them, because this code runs
+     * on the DAO callback executor that completes those futures.
+     */
+    private ListenableFuture<Void> updateRelations(Alarm alarm, AlarmStatus oldStatus, AlarmStatus newStatus) {
+        ListenableFuture<List<EntityRelation>> relations = relationService.findByToAsync(alarm.getId(), RelationTypeGroup.ALARM);
+        ListenableFuture<Void> result = Futures.transform(relations, (AsyncFunction<List<EntityRelation>, Void>) input -> {
+            Set<EntityId> parents = input.stream().map(EntityRelation::getFrom).collect(Collectors.toSet());
+            List<ListenableFuture<Void>> futures = new ArrayList<>(parents.size());
             for (EntityId parentId : parents) {
-                updateAlarmRelation(parentId, alarm.getId(), oldStatus, newStatus);
+                futures.add(updateAlarmRelation(parentId, alarm.getId(), oldStatus, newStatus));
+            }
+            return allDone(futures);
+        });
+        Futures.addCallback(result, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(@Nullable Void ignored) {
             }
-        } catch (ExecutionException | InterruptedException e) {
-            log.warn("[{}] Failed to update relations. Old status: [{}], New status: [{}]", alarm.getId(), oldStatus, newStatus);
-            throw new RuntimeException(e);
-        }
-    }
 
-    private void createAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus status, boolean createAnyRelation) {
-        try {
-            if (createAnyRelation) {
-                createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + AlarmSearchStatus.ANY.name(), RelationTypeGroup.ALARM));
+            @Override
+            public void onFailure(Throwable t) {
+                log.warn("[{}] Failed to update relations. Old status: [{}], New status: [{}]", alarm.getId(), oldStatus, newStatus, t);
             }
-            createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM));
-            createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM));
-            createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM));
-        } catch (ExecutionException | InterruptedException e) {
-            log.warn("[{}] Failed to create relation. Status: [{}]", alarmId, status);
-            throw new RuntimeException(e);
-        }
+        });
+        return result;
     }
 
-    private void deleteAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus status) {
-        try {
-            deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM));
-            deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM));
-            deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM));
-        } catch (ExecutionException | InterruptedException e) {
-            log.warn("[{}] Failed to delete relation. Status: [{}]", alarmId, status);
-            throw new RuntimeException(e);
+    private ListenableFuture<Void> createAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus status, boolean createAnyRelation) {
+        List<ListenableFuture<Boolean>> futures = new ArrayList<>(4);
+        if (createAnyRelation) {
+            futures.add(createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + AlarmSearchStatus.ANY.name(), RelationTypeGroup.ALARM)));
         }
+        futures.add(createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM)));
+        futures.add(createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM)));
+        futures.add(createRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM)));
+        return allDone(futures);
+    }
+
+    private ListenableFuture<Void> deleteAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus status) {
+        List<ListenableFuture<Boolean>> futures = new ArrayList<>(3);
+        futures.add(deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.name(), RelationTypeGroup.ALARM)));
+        futures.add(deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getClearSearchStatus().name(), RelationTypeGroup.ALARM)));
+        futures.add(deleteRelation(new EntityRelation(entityId, alarmId, ALARM_RELATION_PREFIX + status.getAckSearchStatus().name(), RelationTypeGroup.ALARM)));
+        return allDone(futures);
+    }
+
+    private ListenableFuture<Void> updateAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus oldStatus, AlarmStatus newStatus) {
+        // Old and new statuses share relation types (e.g. ACTIVE for ACTIVE_UNACK and ACTIVE_ACK), so the new relations are created after the old ones are deleted.
+        return Futures.transform(deleteAlarmRelation(entityId, alarmId, oldStatus),
+                (AsyncFunction<Void, Void>) ignored -> createAlarmRelation(entityId, alarmId, newStatus, false));
     }
 
-    private void updateAlarmRelation(EntityId entityId, EntityId alarmId, AlarmStatus oldStatus, AlarmStatus newStatus) {
-        deleteAlarmRelation(entityId, alarmId, oldStatus);
-        createAlarmRelation(entityId, alarmId, newStatus, false);
+    private static <T> ListenableFuture<Void> allDone(List<ListenableFuture<T>> futures) {
+        return Futures.transform(Futures.allAsList(futures), (Function<List<T>, Void>) ignored -> null);
     }
 
-    private <T> ListenableFuture<T> getAndUpdate(AlarmId alarmId, Function<Alarm, T> function) {
+    private <T> ListenableFuture<T> getAndUpdate(AlarmId alarmId, AsyncFunction<Alarm, T> function) {
         validateId(alarmId, "Alarm id should be specified!");
         ListenableFuture<Alarm> entity = alarmDao.findAlarmByIdAsync(alarmId.getId());
         return Futures.transform(entity, function, readResultsProcessingExecutor);
@@ -26,13 +26,13 @@ import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.DataType;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.nosql.CassandraAbstractAsyncDao;
 import org.thingsboard.server.dao.timeseries.CassandraBaseTimeseriesDao;
 import org.thingsboard.server.dao.util.NoSqlDao;
 
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -58,11 +58,6 @@ public class CassandraBaseAttributesDao extends CassandraAbstractAsyncDao implem
         super.startExecutor();
     }
 
-    @PreDestroy
-    public void stop() {
-        super.stopExecutor();
-    }
-
     @Override
     public ListenableFuture<Optional<AttributeKvEntry>> find(EntityId entityId, String attributeType, String attributeKey) {
         Select.Where select = select().from(ATTRIBUTES_KV_CF)
@@ -109,21 +104,19 @@ public class CassandraBaseAttributesDao extends CassandraAbstractAsyncDao implem
         stmt.setString(3, attribute.getKey());
         stmt.setLong(4, attribute.getLastUpdateTs());
         stmt.setString(5, attribute.getStrValue().orElse(null));
-        Optional<Boolean> booleanValue = attribute.getBooleanValue();
-        if (booleanValue.isPresent()) {
-            stmt.setBool(6, booleanValue.get());
+        DataType dataType = attribute.getDataType();
+        if (dataType == DataType.BOOLEAN) {
+            stmt.setBool(6, attribute.booleanValue());
         } else {
             stmt.setToNull(6);
         }
-        Optional<Long> longValue = attribute.getLongValue();
-        if (longValue.isPresent()) {
-            stmt.setLong(7, longValue.get());
+        if (dataType == DataType.LONG) {
+            stmt.setLong(7, attribute.longValue());
         } else {
             stmt.setToNull(7);
         }
-        Optional<Double> doubleValue = attribute.getDoubleValue();
-        if (doubleValue.isPresent()) {
-            stmt.setDouble(8, doubleValue.get());
+        if (dataType == DataType.DOUBLE) {
+            stmt.setDouble(8, attribute.doubleValue());
         } else {
             stmt.setToNull(8);
         }
@@ -35,6 +35,7 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.dao.DaoUtil;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.model.nosql.AuditLogEntity;
 import org.thingsboard.server.dao.nosql.CassandraAbstractSearchTimeDao;
@@ -43,14 +44,12 @@ import org.thingsboard.server.dao.util.NoSqlDao;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
@@ -76,6 +75,9 @@ public class CassandraAuditLogDao extends CassandraAbstractSearchTimeDao<AuditLo
         return AUDIT_LOG_COLUMN_FAMILY_NAME;
     }
 
+    @Autowired
+    private DaoExecutorRegistry executorRegistry;
+
     protected ExecutorService readResultsProcessingExecutor;
 
     @Value("${audit_log.by_tenant_partitioning}")
@@ -106,14 +108,7 @@ public class CassandraAuditLogDao extends CassandraAbstractSearchTimeDao<AuditLo
                 throw new RuntimeException("Failed to parse partitioning property: " + partitioning + "!");
             }
         }
-        readResultsProcessingExecutor = Executors.newCachedThreadPool();
-    }
-
-    @PreDestroy
-    public void stopExecutor() {
-        if (readResultsProcessingExecutor != null) {
-            readResultsProcessingExecutor.shutdownNow();
-        }
+        readResultsProcessingExecutor = executorRegistry.getCallbackExecutor();
     }
 
     private <T> ListenableFuture<T> getFuture(ResultSetFuture future, java.util.function.Function<ResultSet, T> transformer) {
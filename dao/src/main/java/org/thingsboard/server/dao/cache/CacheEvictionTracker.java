@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Evicts cache entries and counts the evictions, so that a value loaded from the database is not cached
+ * if the entry was evicted while the value was being loaded. Counters are striped by the cache key,
+ * a collision only causes a value to be loaded again on the next request.
+ * The counters are local, so with a shared cache a stale value written by another node lives until it expires.
+ */
+@Component
+public class CacheEvictionTracker {
+
+    private static final int STRIPES = 1024;
+
+    private final long[] versions = new long[STRIPES];
+    private final Object[] locks = new Object[STRIPES];
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public CacheEvictionTracker() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Must be read before the value to cache is loaded.
+     */
+    public long getVersion(String cacheName, Object key) {
+        int stripe = stripe(cacheName, key);
+        synchronized (locks[stripe]) {
+            return versions[stripe];
+        }
+    }
+
+    public void evict(String cacheName, Object key) {
+        int stripe = stripe(cacheName, key);
+        synchronized (locks[stripe]) {
+            versions[stripe]++;
+            cacheManager.getCache(cacheName).evict(key);
+        }
+    }
+
+    /**
+     * @return false if the entry was evicted after {@code version} was read and the value was not cached
+     */
+    public boolean putIfNotEvicted(String cacheName, Object key, long version, Object value) {
+        int stripe = stripe(cacheName, key);
+        synchronized (locks[stripe]) {
+            if (versions[stripe] != version) {
+                return false;
+            }
+            cacheManager.getCache(cacheName).put(key, value);
+            return true;
+        }
+    }
+
+    private static int stripe(String cacheName, Object key) {
+        return (Objects.hash(cacheName, key) & Integer.MAX_VALUE) % STRIPES;
+    }
+}
@@ -44,6 +44,8 @@ public interface DashboardService {
 
     Dashboard unassignDashboardFromCustomer(DashboardId dashboardId, CustomerId customerId);
 
+    Dashboard updateDashboardCustomers(DashboardId dashboardId, Set<CustomerId> assignedCustomerIds, Set<CustomerId> unassignedCustomerIds);
+
     void deleteDashboard(DashboardId dashboardId);
 
     TextPageData<DashboardInfo> findDashboardsByTenantId(TenantId tenantId, TextPageLink pageLink);
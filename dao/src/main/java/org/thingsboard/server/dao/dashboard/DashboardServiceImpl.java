@@ -33,6 +33,7 @@ import org.thingsboard.server.common.data.page.TimePageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
+import org.thingsboard.server.dao.cache.CacheEvictionTracker;
 import org.thingsboard.server.dao.customer.CustomerDao;
 import org.thingsboard.server.dao.entity.AbstractEntityService;
 import org.thingsboard.server.dao.exception.DataValidationException;
@@ -47,11 +48,13 @@ import org.thingsboard.server.dao.tenant.TenantDao;
 import javax.annotation.Nullable;
 import java.sql.Time;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import static org.thingsboard.server.common.data.CacheConstants.DASHBOARD_CACHE;
 import static org.thingsboard.server.dao.service.Validator.validateId;
 
 @Service
@@ -72,6 +75,9 @@ public class DashboardServiceImpl extends AbstractEntityService implements Dashb
     @Autowired
     private CustomerDao customerDao;
 
+    @Autowired
+    private CacheEvictionTracker cacheEvictionTracker;
+
     @Override
     public Dashboard findDashboardById(DashboardId dashboardId) {
         log.trace("Executing findDashboardById [{}]", dashboardId);
@@ -104,7 +110,9 @@ public class DashboardServiceImpl extends AbstractEntityService implements Dashb
     public Dashboard saveDashboard(Dashboard dashboard) {
         log.trace("Executing saveDashboard [{}]", dashboard);
         dashboardValidator.validate(dashboard);
-        return dashboardDao.save(dashboard);
+        Dashboard savedDashboard = dashboardDao.save(dashboard);
+        cacheEvictionTracker.evict(DASHBOARD_CACHE, savedDashboard.getId());
+        return savedDashboard;
     }
     
     @Override
@@ -150,6 +158,67 @@ public class DashboardServiceImpl extends AbstractEntityService implements Dashb
         }
     }
 
+    @Override
+    public Dashboard updateDashboardCustomers(DashboardId dashboardId, Set<CustomerId> assignedCustomerIds, Set<CustomerId> unassignedCustomerIds) {
+        log.trace("Executing updateDashboardCustomers [{}], assignedCustomerIds [{}], unassignedCustomerIds [{}]", dashboardId, assignedCustomerIds, unassignedCustomerIds);
+        Dashboard dashboard = findDashboardById(dashboardId);
+        if (dashboard == null) {
+            throw new DataValidationException("Can't update customers of non-existent dashboard!");
+        }
+        List<Customer> assignedCustomers = findCustomers(assignedCustomerIds, "Can't assign dashboard to non-existent customer!");
+        for (Customer customer : assignedCustomers) {
+            if (!customer.getTenantId().getId().equals(dashboard.getTenantId().getId())) {
+                throw new DataValidationException("Can't assign dashboard to customer from different tenant!");
+            }
+        }
+        List<Customer> unassignedCustomers = findCustomers(unassignedCustomerIds, "Can't unassign dashboard from non-existent customer!");
+
+        List<ListenableFuture<Boolean>> relationFutures = new ArrayList<>();
+        for (Customer customer : assignedCustomers) {
+            if (dashboard.addAssignedCustomer(customer)) {
+                relationFutures.add(relationService.saveRelationAsync(
+                        new EntityRelation(customer.getId(), dashboardId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.DASHBOARD)));
+            }
+        }
+        for (Customer customer : unassignedCustomers) {
+            if (dashboard.removeAssignedCustomer(customer)) {
+                relationFutures.add(relationService.deleteRelationAsync(
+                        new EntityRelation(customer.getId(), dashboardId, EntityRelation.CONTAINS_TYPE, RelationTypeGroup.DASHBOARD)));
+            }
+        }
+        if (relationFutures.isEmpty()) {
+            return dashboard;
+        }
+        try {
+            Futures.allAsList(relationFutures).get();
+        } catch (ExecutionException | InterruptedException e) {
+            log.warn("[{}] Failed to update dashboard relations.", dashboardId);
+            throw new RuntimeException(e);
+        }
+        return saveDashboard(dashboard);
+    }
+
+    private List<Customer> findCustomers(Set<CustomerId> customerIds, String notFoundMessage) {
+        if (customerIds == null || customerIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ListenableFuture<Customer>> futures = new ArrayList<>(customerIds.size());
+        for (CustomerId customerId : customerIds) {
+            futures.add(customerDao.findByIdAsync(customerId.getId()));
+        }
+        List<Customer> customers;
+        try {
+            customers = Futures.allAsList(futures).get();
+        } catch (ExecutionException | InterruptedException e) {
+            log.warn("Failed to find customers [{}].", customerIds);
+            throw new RuntimeException(e);
+        }
+        if (customers.contains(null)) {
+            throw new DataValidationException(notFoundMessage);
+        }
+        return customers;
+    }
+
     private Dashboard updateAssignedCustomer(DashboardId dashboardId, Customer customer) {
         Dashboard dashboard = findDashboardById(dashboardId);
         if (dashboard.updateAssignedCustomer(customer)) {
@@ -175,6 +244,7 @@ public class DashboardServiceImpl extends AbstractEntityService implements Dashb
         Validator.validateId(dashboardId, INCORRECT_DASHBOARD_ID + dashboardId);
         deleteEntityRelations(dashboardId);
         dashboardDao.removeById(dashboardId.getId());
+        cacheEvictionTracker.evict(DASHBOARD_CACHE, dashboardId);
     }
 
     @Override
@@ -141,6 +141,16 @@ public class CassandraDeviceDao extends CassandraAbstractSearchTextDao<DeviceEnt
         return Optional.ofNullable(DaoUtil.getData(findOneByStatement(query)));
     }
 
+    @Override
+    public ListenableFuture<List<Device>> findDevicesByTenantIdAndNamesAsync(UUID tenantId, List<String> names) {
+        log.debug("Try to find devices by tenantId [{}] and device names [{}]", tenantId, names);
+        Select select = select().from(DEVICE_BY_TENANT_AND_NAME_VIEW_NAME);
+        Select.Where query = select.where();
+        query.and(eq(DEVICE_TENANT_ID_PROPERTY, tenantId));
+        query.and(in(DEVICE_NAME_PROPERTY, names));
+        return findListByStatementAsync(query);
+    }
+
     @Override
     public ListenableFuture<List<EntitySubtype>> findTenantDeviceTypesAsync(UUID tenantId) {
         Select select = select().from(ENTITY_SUBTYPE_COLUMN_FAMILY_NAME);
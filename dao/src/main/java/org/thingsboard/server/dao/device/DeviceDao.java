@@ -108,6 +108,15 @@ public interface DeviceDao extends Dao<Device> {
      */
     Optional<Device> findDeviceByTenantIdAndName(UUID tenantId, String name);
 
+    /**
+     * Find devices by tenantId and device names.
+     *
+     * @param tenantId the tenantId
+     * @param names the device names
+     * @return the list of device objects
+     */
+    ListenableFuture<List<Device>> findDevicesByTenantIdAndNamesAsync(UUID tenantId, List<String> names);
+
     /**
      * Find tenants device types.
      *
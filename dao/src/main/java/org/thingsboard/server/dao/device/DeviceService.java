@@ -36,6 +36,8 @@ public interface DeviceService {
 
     Device findDeviceByTenantIdAndName(TenantId tenantId, String name);
 
+    ListenableFuture<List<Device>> findDevicesByTenantIdAndNamesAsync(TenantId tenantId, List<String> names);
+
     Device saveDevice(Device device);
 
     Device assignDeviceToCustomer(DeviceId deviceId, CustomerId customerId);
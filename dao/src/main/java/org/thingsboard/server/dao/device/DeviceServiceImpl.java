@@ -24,7 +24,6 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -83,14 +82,33 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
     public Device findDeviceById(DeviceId deviceId) {
         log.trace("Executing findDeviceById [{}]", deviceId);
         validateId(deviceId, INCORRECT_DEVICE_ID + deviceId);
-        return deviceDao.findById(deviceId.getId());
+        Cache cache = cacheManager.getCache(DEVICE_CACHE);
+        Device cached = cache.get(deviceId, Device.class);
+        if (cached != null) {
+            return new Device(cached);
+        }
+        Device device = deviceDao.findById(deviceId.getId());
+        if (device != null) {
+            cache.put(deviceId, new Device(device));
+        }
+        return device;
     }
 
     @Override
     public ListenableFuture<Device> findDeviceByIdAsync(DeviceId deviceId) {
         log.trace("Executing findDeviceById [{}]", deviceId);
         validateId(deviceId, INCORRECT_DEVICE_ID + deviceId);
-        return deviceDao.findByIdAsync(deviceId.getId());
+        Cache cache = cacheManager.getCache(DEVICE_CACHE);
+        Device cached = cache.get(deviceId, Device.class);
+        if (cached != null) {
+            return Futures.immediateFuture(new Device(cached));
+        }
+        return Futures.transform(deviceDao.findByIdAsync(deviceId.getId()), (Function<Device, Device>) device -> {
+            if (device != null) {
+                cache.put(deviceId, new Device(device));
+            }
+            return device;
+        });
     }
 
     @Cacheable(cacheNames = DEVICE_CACHE, key = "{#tenantId, #name}")
@@ -102,12 +120,32 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
         return deviceOpt.orElse(null);
     }
 
-    @CacheEvict(cacheNames = DEVICE_CACHE, key = "{#device.tenantId, #device.name}")
+    @Override
+    public ListenableFuture<List<Device>> findDevicesByTenantIdAndNamesAsync(TenantId tenantId, List<String> names) {
+        log.trace("Executing findDevicesByTenantIdAndNamesAsync, tenantId [{}], names [{}]", tenantId, names);
+        validateId(tenantId, INCORRECT_TENANT_ID + tenantId);
+        if (names == null || names.isEmpty()) {
+            return Futures.immediateFuture(Collections.emptyList());
+        }
+        return deviceDao.findDevicesByTenantIdAndNamesAsync(tenantId.getId(), names);
+    }
+
     @Override
     public Device saveDevice(Device device) {
         log.trace("Executing saveDevice [{}]", device);
         deviceValidator.validate(device);
+        Cache cache = cacheManager.getCache(DEVICE_CACHE);
+        if (device.getId() != null) {
+            Device previous = cache.get(device.getId(), Device.class);
+            if (previous == null) {
+                previous = deviceDao.findById(device.getUuidId());
+            }
+            if (previous != null) {
+                evictDevice(cache, previous);
+            }
+        }
         Device savedDevice = deviceDao.save(device);
+        evictDevice(cache, savedDevice);
         if (device.getId() == null) {
             DeviceCredentials deviceCredentials = new DeviceCredentials();
             deviceCredentials.setDeviceId(new DeviceId(savedDevice.getUuidId()));
@@ -143,11 +181,16 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
         }
         deleteEntityRelations(deviceId);
         Device device = deviceDao.findById(deviceId.getId());
+        evictDevice(cache, device);
+        deviceDao.removeById(deviceId.getId());
+    }
+
+    private void evictDevice(Cache cache, Device device) {
         List<Object> list = new ArrayList<>();
         list.add(device.getTenantId());
         list.add(device.getName());
         cache.evict(list);
-        deviceDao.removeById(deviceId.getId());
+        cache.evict(device.getId());
     }
 
     @Override
@@ -37,12 +37,21 @@ public class BaseEventService implements EventService {
     @Autowired
     public EventDao eventDao;
 
+    @Autowired
+    private EventSink eventSink;
+
     @Override
     public Event save(Event event) {
         eventValidator.validate(event);
         return eventDao.save(event);
     }
 
+    @Override
+    public void saveAsync(Event event) {
+        eventValidator.validate(event);
+        eventSink.push(event);
+    }
+
     @Override
     public Optional<Event> saveIfNotExists(Event event) {
         eventValidator.validate(event);
@@ -15,11 +15,14 @@
  */
 package org.thingsboard.server.dao.event;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.util.concurrent.Futures;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
@@ -35,9 +38,13 @@ import org.thingsboard.server.dao.nosql.CassandraAbstractSearchTimeDao;
 import org.thingsboard.server.dao.util.NoSqlDao;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
@@ -63,6 +70,32 @@ public class CassandraBaseEventDao extends CassandraAbstractSearchTimeDao<EventE
     @Override
     public Event save(Event event) {
         log.debug("Save event [{}] ", event);
+        prepareNewEvent(event);
+        return save(new EventEntity(event), false).orElse(null);
+    }
+
+    @Override
+    public void saveAll(List<Event> events) {
+        log.debug("Save {} events", events.size());
+        Map<List<Object>, BatchStatement> batches = new HashMap<>();
+        for (Event event : events) {
+            prepareNewEvent(event);
+            EventEntity entity = new EventEntity(event);
+            List<Object> partition = Arrays.asList(entity.getTenantId(), entity.getEntityType(), entity.getEntityId());
+            batches.computeIfAbsent(partition, p -> new BatchStatement(BatchStatement.Type.UNLOGGED))
+                    .add(getInsert(entity, false));
+        }
+        List<ResultSetFuture> futures = batches.values().stream()
+                .map(this::executeAsyncWrite)
+                .collect(Collectors.toList());
+        try {
+            Futures.allAsList(futures).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void prepareNewEvent(Event event) {
         if (event.getTenantId() == null) {
             log.trace("Save system event with predefined id {}", systemTenantId);
             event.setTenantId(systemTenantId);
@@ -73,7 +106,6 @@ public class CassandraBaseEventDao extends CassandraAbstractSearchTimeDao<EventE
         if (StringUtils.isEmpty(event.getUid())) {
             event.setUid(event.getId().toString());
         }
-        return save(new EventEntity(event), false).orElse(null);
     }
 
     @Override
@@ -138,6 +170,15 @@ public class CassandraBaseEventDao extends CassandraAbstractSearchTimeDao<EventE
         if (entity.getId() == null) {
             entity.setId(UUIDs.timeBased());
         }
+        ResultSet rs = executeWrite(getInsert(entity, ifNotExists));
+        if (rs.wasApplied()) {
+            return Optional.of(DaoUtil.getData(entity));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    private Insert getInsert(EventEntity entity, boolean ifNotExists) {
         Insert insert = QueryBuilder.insertInto(getColumnFamilyName())
                 .value(ModelConstants.ID_PROPERTY, entity.getId())
                 .value(ModelConstants.EVENT_TENANT_ID_PROPERTY, entity.getTenantId())
@@ -149,11 +190,6 @@ public class CassandraBaseEventDao extends CassandraAbstractSearchTimeDao<EventE
         if (ifNotExists) {
             insert = insert.ifNotExists();
         }
-        ResultSet rs = executeWrite(insert);
-        if (rs.wasApplied()) {
-            return Optional.of(DaoUtil.getData(entity));
-        } else {
-            return Optional.empty();
-        }
+        return insert;
     }
 }
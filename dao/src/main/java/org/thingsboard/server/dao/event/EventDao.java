@@ -45,6 +45,13 @@ public interface EventDao extends Dao<Event> {
      */
     Optional<Event> saveIfNotExists(Event event);
 
+    /**
+     * Save new event objects using batched inserts
+     *
+     * @param events the event objects
+     */
+    void saveAll(List<Event> events);
+
     /**
      * Find event by tenantId, entityId and eventUid.
      *
@@ -27,6 +27,8 @@ public interface EventService {
 
     Event save(Event event);
 
+    void saveAsync(Event event);
+
     Optional<Event> saveIfNotExists(Event event);
 
     Optional<Event> findEvent(TenantId tenantId, EntityId entityId, String eventType, String eventUid);
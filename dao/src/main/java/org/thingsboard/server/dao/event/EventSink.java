@@ -0,0 +1,250 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.DataConstants;
+import org.thingsboard.server.common.data.Event;
+import org.thingsboard.server.common.data.id.EntityId;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists events in batches on a dedicated thread.
+ * Every entity may persist at most max_events_per_entity events per rate limit interval.
+ * Errors of an entity with the same method and the same first line of the error are persisted once per interval,
+ * the number of the suppressed errors is persisted as a separate error event when the interval ends.
+ */
+@Component
+@Slf4j
+public class EventSink {
+
+    private static final String METHOD_FIELD = "method";
+    private static final String ERROR_FIELD = "error";
+
+    @Value("${database.events.queue_size}")
+    private int queueSize;
+
+    @Value("${database.events.batch_size}")
+    private int batchSize;
+
+    @Value("${database.events.flush_interval_ms}")
+    private long flushIntervalMs;
+
+    @Value("${database.events.max_events_per_entity}")
+    private int maxEventsPerEntity;
+
+    @Value("${database.events.rate_limit_interval_ms}")
+    private long rateLimitIntervalMs;
+
+    @Autowired
+    private EventDao eventDao;
+
+    private final ConcurrentMap<EntityId, EntityEvents> entityEvents = new ConcurrentHashMap<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private BlockingQueue<Event> queue;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(queueSize);
+        executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        persistQueued();
+    }
+
+    public void push(Event event) {
+        if (maxEventsPerEntity > 0) {
+            long ts = System.currentTimeMillis();
+            List<Event> summaries = new ArrayList<>();
+            boolean[] accepted = new boolean[1];
+            // compute is atomic per entity, so flush can not remove the state while the event is being counted
+            entityEvents.compute(event.getEntityId(), (id, state) -> {
+                if (state == null) {
+                    state = new EntityEvents(ts);
+                }
+                summaries.addAll(state.rollIfExpired(ts));
+                accepted[0] = state.accept(event);
+                return state;
+            });
+            summaries.forEach(this::enqueue);
+            if (!accepted[0]) {
+                return;
+            }
+        }
+        enqueue(event);
+    }
+
+    private void enqueue(Event event) {
+        if (!queue.offer(event)) {
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    private void flush() {
+        try {
+            long ts = System.currentTimeMillis();
+            List<Event> summaries = new ArrayList<>();
+            for (EntityId entityId : entityEvents.keySet()) {
+                entityEvents.computeIfPresent(entityId, (id, state) -> {
+                    summaries.addAll(state.rollIfExpired(ts));
+                    return state.isEmpty() ? null : state;
+                });
+            }
+            summaries.forEach(this::enqueue);
+            persistQueued();
+            long dropped = droppedEvents.getAndSet(0);
+            if (dropped > 0) {
+                log.warn("Dropped {} events because the event queue is full", dropped);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to flush events", e);
+        }
+    }
+
+    private void persistQueued() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                eventDao.saveAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to persist {} events", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private static String getErrorSignature(Event event) {
+        JsonNode body = event.getBody();
+        String method = body.has(METHOD_FIELD) ? body.get(METHOD_FIELD).asText() : "";
+        String error = body.has(ERROR_FIELD) ? body.get(ERROR_FIELD).asText() : "";
+        int lineEnd = error.indexOf('\n');
+        return method + ":" + (lineEnd >= 0 ? error.substring(0, lineEnd) : error);
+    }
+
+    private class EntityEvents {
+
+        private long intervalStartTs;
+        private int persisted;
+        private final Map<String, SuppressedErrors> similarErrors = new HashMap<>();
+        private final SuppressedErrors otherErrors = new SuppressedErrors("%d errors suppressed by rate limit. Last error: %s");
+
+        EntityEvents(long ts) {
+            this.intervalStartTs = ts;
+        }
+
+        boolean accept(Event event) {
+            String signature = DataConstants.ERROR.equals(event.getType()) ? getErrorSignature(event) : null;
+            if (signature != null) {
+                SuppressedErrors similar = similarErrors.get(signature);
+                if (similar != null) {
+                    similar.add(event);
+                    return false;
+                }
+            }
+            if (persisted >= maxEventsPerEntity) {
+                if (signature != null) {
+                    otherErrors.add(event);
+                }
+                return false;
+            }
+            persisted++;
+            if (signature != null) {
+                similarErrors.put(signature, new SuppressedErrors("%d similar errors suppressed. Last error: %s"));
+            }
+            return true;
+        }
+
+        List<Event> rollIfExpired(long ts) {
+            if (ts - intervalStartTs < rateLimitIntervalMs) {
+                return Collections.emptyList();
+            }
+            List<Event> summaries = new ArrayList<>();
+            similarErrors.values().forEach(errors -> errors.drainSummary(summaries));
+            otherErrors.drainSummary(summaries);
+            similarErrors.clear();
+            persisted = 0;
+            intervalStartTs = ts;
+            return summaries;
+        }
+
+        boolean isEmpty() {
+            return persisted == 0 && similarErrors.isEmpty();
+        }
+    }
+
+    private static class SuppressedErrors {
+
+        private final String summaryFormat;
+        private int count;
+        private Event last;
+
+        SuppressedErrors(String summaryFormat) {
+            this.summaryFormat = summaryFormat;
+        }
+
+        void add(Event event) {
+            count++;
+            last = event;
+        }
+
+        void drainSummary(List<Event> summaries) {
+            if (count == 0) {
+                return;
+            }
+            Event summary = new Event();
+            summary.setTenantId(last.getTenantId());
+            summary.setEntityId(last.getEntityId());
+            summary.setType(last.getType());
+            JsonNode body = last.getBody();
+            if (body instanceof ObjectNode) {
+                ObjectNode summaryBody = ((ObjectNode) body).deepCopy();
+                String error = body.has(ERROR_FIELD) ? body.get(ERROR_FIELD).asText() : "";
+                summaryBody.put(ERROR_FIELD, String.format(summaryFormat, count, error));
+                summary.setBody(summaryBody);
+            } else {
+                summary.setBody(body);
+            }
+            summaries.add(summary);
+            count = 0;
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.executors;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.dao.util.InstrumentedThreadPoolExecutor;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns all thread pools of the DAO layer. Pools are created on first use, have a fixed number of threads
+ * and a bounded queue, and fall back to executing tasks on the submitting thread once the queue is full.
+ */
+@Component
+@Slf4j
+public class DaoExecutorRegistry {
+
+    public static final String SQL = "dao-sql";
+    public static final String SQL_RELATIONS = "dao-sql-relations";
+    public static final String SQL_ATTRIBUTES = "dao-sql-attributes";
+    public static final String SQL_TIMESERIES = "dao-sql-timeseries";
+    public static final String CALLBACK = "dao-callback";
+    public static final String AUDIT_LOG = "dao-audit-log";
+
+    private static final long TERMINATION_TIMEOUT_MS = 10000;
+
+    @Value("${database.executors.sql.pool_size}")
+    private int sqlPoolSize;
+
+    @Value("${database.executors.sql.queue_size}")
+    private int sqlQueueSize;
+
+    @Value("${database.executors.callback.pool_size}")
+    private int callbackPoolSize;
+
+    @Value("${database.executors.callback.queue_size}")
+    private int callbackQueueSize;
+
+    @Value("${database.executors.audit_log.pool_size}")
+    private int auditLogPoolSize;
+
+    @Value("${database.executors.audit_log.queue_size}")
+    private int auditLogQueueSize;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the pool of the given group of SQL DAOs. Every group gets its own pool of the configured size,
+     * so a burst of requests to one group does not starve the others.
+     */
+    public ListeningExecutorService getSqlExecutor(String group) {
+        return getExecutor(group, sqlPoolSize, sqlQueueSize);
+    }
+
+    public ListeningExecutorService getCallbackExecutor() {
+        return getExecutor(CALLBACK, callbackPoolSize, callbackQueueSize);
+    }
+
+    public ListeningExecutorService getAuditLogExecutor() {
+        return getExecutor(AUDIT_LOG, auditLogPoolSize, auditLogQueueSize);
+    }
+
+    /**
+     * Returns the pool with the given name, creating it with the given settings if it does not exist yet.
+     */
+    public ListeningExecutorService getExecutor(String name, int poolSize, int queueSize) {
+        return pools.computeIfAbsent(name, n -> {
+            int size = Math.max(1, poolSize);
+            log.info("Creating DAO executor [{}] with {} threads and queue size {}", n, size, queueSize);
+            InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor(n, size, Math.max(1, queueSize),
+                    new InstrumentedThreadPoolExecutor.CallerRunsBackpressurePolicy());
+            return new Pool(executor, MoreExecutors.listeningDecorator(executor));
+        }).listening;
+    }
+
+    public Collection<InstrumentedThreadPoolExecutor> getExecutors() {
+        Collection<InstrumentedThreadPoolExecutor> result = new ArrayList<>();
+        pools.values().forEach(pool -> result.add(pool.executor));
+        return result;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        pools.values().forEach(pool -> pool.executor.shutdown());
+        for (Pool pool : pools.values()) {
+            try {
+                if (!pool.executor.awaitTermination(TERMINATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    pool.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            log.info("Stopped DAO executor {}", pool.executor);
+        }
+        pools.clear();
+    }
+
+    private static final class Pool {
+        private final InstrumentedThreadPoolExecutor executor;
+        private final ListeningExecutorService listening;
+
+        private Pool(InstrumentedThreadPoolExecutor executor, ListeningExecutorService listening) {
+            this.executor = executor;
+            this.listening = listening;
+        }
+    }
+}
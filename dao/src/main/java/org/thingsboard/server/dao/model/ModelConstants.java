@@ -339,10 +339,14 @@ public class ModelConstants {
     public static final String TS_KV_CF = "ts_kv_cf";
     public static final String TS_KV_PARTITIONS_CF = "ts_kv_partitions_cf";
     public static final String TS_KV_LATEST_CF = "ts_kv_latest_cf";
+    public static final String TS_KV_DICTIONARY_CF = "ts_kv_dictionary_cf";
 
     public static final String PARTITION_COLUMN = "partition";
     public static final String KEY_COLUMN = "key";
     public static final String TS_COLUMN = "ts";
+    public static final String DATA_TYPE_COLUMN = "data_type";
+    public static final String FIRST_TS_COLUMN = "first_ts";
+    public static final String LAST_TS_COLUMN = "last_ts";
 
     /**
      * Main names of cassandra key-value columns storage.
@@ -383,6 +387,8 @@ public class ModelConstants {
     public static String[] getFetchColumnNames(Aggregation aggregation) {
         switch (aggregation) {
             case NONE:
+            case LTTB:
+            case MIN_MAX:
                 return NONE_AGGREGATION_COLUMNS;
             case MIN:
                 return MIN_AGGREGATION_COLUMNS;
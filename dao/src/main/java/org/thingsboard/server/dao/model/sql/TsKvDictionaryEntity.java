@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.model.sql;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.kv.DataType;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
+import org.thingsboard.server.dao.model.ToData;
+
+import javax.persistence.*;
+
+import static org.thingsboard.server.common.data.UUIDConverter.fromString;
+import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
+import static org.thingsboard.server.dao.model.ModelConstants.*;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ts_kv_dictionary")
+@IdClass(TsKvDictionaryCompositeKey.class)
+public final class TsKvDictionaryEntity implements ToData<TsKeyInfo> {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = ENTITY_TYPE_COLUMN)
+    private EntityType entityType;
+
+    @Id
+    @Column(name = ENTITY_ID_COLUMN)
+    private String entityId;
+
+    @Id
+    @Column(name = KEY_COLUMN)
+    private String key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = DATA_TYPE_COLUMN)
+    private DataType dataType;
+
+    @Column(name = FIRST_TS_COLUMN)
+    private long firstTs;
+
+    @Column(name = LAST_TS_COLUMN)
+    private long lastTs;
+
+    public TsKvDictionaryEntity(TsKeyInfo keyInfo) {
+        this.entityType = keyInfo.getEntityId().getEntityType();
+        this.entityId = fromTimeUUID(keyInfo.getEntityId().getId());
+        this.key = keyInfo.getKey();
+        this.dataType = keyInfo.getDataType();
+        this.firstTs = keyInfo.getFirstTs();
+        this.lastTs = keyInfo.getLastTs();
+    }
+
+    @Override
+    public TsKeyInfo toData() {
+        return new TsKeyInfo(EntityIdFactory.getByTypeAndUuid(entityType, fromString(entityId)), key, dataType, firstTs, lastTs);
+    }
+}
@@ -51,6 +51,12 @@ public final class TsKvEntity implements ToData<TsKvEntry> {
         this.doubleValue = doubleValue;
     }
 
+    public TsKvEntity(EntityType entityType, String entityId, String key) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.key = key;
+    }
+
     public TsKvEntity(Long booleanValueCount, Long strValueCount, Long longValueCount, Long doubleValueCount) {
         if (booleanValueCount != 0) {
             this.longValue = booleanValueCount;
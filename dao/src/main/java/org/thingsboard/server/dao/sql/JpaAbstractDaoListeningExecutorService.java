@@ -16,17 +16,24 @@
 package org.thingsboard.server.dao.sql;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 
-import javax.annotation.PreDestroy;
-import java.util.concurrent.Executors;
+import javax.annotation.PostConstruct;
 
 public abstract class JpaAbstractDaoListeningExecutorService {
 
-    protected ListeningExecutorService service = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(10));
+    @Autowired
+    protected DaoExecutorRegistry executorRegistry;
 
-    @PreDestroy
-    void onDestroy() {
-        service.shutdown();
+    protected ListeningExecutorService service;
+
+    @PostConstruct
+    void initExecutor() {
+        service = executorRegistry.getSqlExecutor(getExecutorGroup());
+    }
+
+    protected String getExecutorGroup() {
+        return DaoExecutorRegistry.SQL;
     }
 }
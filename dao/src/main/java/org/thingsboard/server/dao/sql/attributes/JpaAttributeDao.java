@@ -25,6 +25,7 @@ import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.dao.DaoUtil;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 import org.thingsboard.server.dao.attributes.AttributesDao;
 import org.thingsboard.server.dao.model.sql.AttributeKvCompositeKey;
 import org.thingsboard.server.dao.model.sql.AttributeKvEntity;
@@ -46,6 +47,11 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
     @Autowired
     private AttributeKvRepository attributeKvRepository;
 
+    @Override
+    protected String getExecutorGroup() {
+        return DaoExecutorRegistry.SQL_ATTRIBUTES;
+    }
+
     @Override
     public ListenableFuture<Optional<AttributeKvEntry>> find(EntityId entityId, String attributeType, String attributeKey) {
         AttributeKvCompositeKey compositeKey =
@@ -84,10 +90,20 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
         entity.setAttributeType(attributeType);
         entity.setAttributeKey(attribute.getKey());
         entity.setLastUpdateTs(attribute.getLastUpdateTs());
-        entity.setStrValue(attribute.getStrValue().orElse(null));
-        entity.setDoubleValue(attribute.getDoubleValue().orElse(null));
-        entity.setLongValue(attribute.getLongValue().orElse(null));
-        entity.setBooleanValue(attribute.getBooleanValue().orElse(null));
+        switch (attribute.getDataType()) {
+            case STRING:
+                entity.setStrValue((String) attribute.getValue());
+                break;
+            case DOUBLE:
+                entity.setDoubleValue((Double) attribute.getValue());
+                break;
+            case LONG:
+                entity.setLongValue((Long) attribute.getValue());
+                break;
+            case BOOLEAN:
+                entity.setBooleanValue((Boolean) attribute.getValue());
+                break;
+        }
         return service.submit(() -> {
             attributeKvRepository.save(entity);
             return null;
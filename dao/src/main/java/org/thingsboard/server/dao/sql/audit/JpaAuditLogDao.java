@@ -17,7 +17,6 @@ package org.thingsboard.server.dao.sql.audit;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,17 +32,17 @@ import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.dao.DaoUtil;
 import org.thingsboard.server.dao.audit.AuditLogDao;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 import org.thingsboard.server.dao.model.sql.AuditLogEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractDao;
 import org.thingsboard.server.dao.sql.JpaAbstractSearchTimeDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
-import javax.annotation.PreDestroy;
+import javax.annotation.PostConstruct;
 import javax.persistence.criteria.Predicate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Executors;
 
 import static org.springframework.data.jpa.domain.Specifications.where;
 import static org.thingsboard.server.dao.model.ModelConstants.ID_PROPERTY;
@@ -52,7 +51,10 @@ import static org.thingsboard.server.dao.model.ModelConstants.ID_PROPERTY;
 @SqlDao
 public class JpaAuditLogDao extends JpaAbstractDao<AuditLogEntity, AuditLog> implements AuditLogDao {
 
-    private ListeningExecutorService insertService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    @Autowired
+    private DaoExecutorRegistry executorRegistry;
+
+    private ListeningExecutorService insertService;
 
     @Autowired
     private AuditLogRepository auditLogRepository;
@@ -67,9 +69,9 @@ public class JpaAuditLogDao extends JpaAbstractDao<AuditLogEntity, AuditLog> imp
         return auditLogRepository;
     }
 
-    @PreDestroy
-    void onDestroy() {
-        insertService.shutdown();
+    @PostConstruct
+    void init() {
+        insertService = executorRegistry.getAuditLogExecutor();
     }
 
     @Override
@@ -96,6 +96,11 @@ public class JpaDeviceDao extends JpaAbstractSearchTextDao<DeviceEntity, Device>
         return Optional.ofNullable(device);
     }
 
+    @Override
+    public ListenableFuture<List<Device>> findDevicesByTenantIdAndNamesAsync(UUID tenantId, List<String> names) {
+        return service.submit(() -> DaoUtil.convertDataList(deviceRepository.findDevicesByTenantIdAndNameIn(fromTimeUUID(tenantId), names)));
+    }
+
     @Override
     public List<Device> findDevicesByTenantIdAndType(UUID tenantId, String type, TextPageLink pageLink) {
         return DaoUtil.convertDataList(
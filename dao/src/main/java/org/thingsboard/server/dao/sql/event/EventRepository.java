@@ -32,8 +32,4 @@ public interface EventRepository extends CrudRepository<EventEntity, String>, Jp
                                                                               String entityId,
                                                                               String eventType,
                                                                               String eventUid);
-
-    EventEntity findByTenantIdAndEntityTypeAndEntityId(String tenantId,
-                                                       EntityType entityType,
-                                                       String entityId);
 }
@@ -25,6 +25,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.thingsboard.server.common.data.Event;
 import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -36,6 +38,9 @@ import org.thingsboard.server.dao.model.sql.EventEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractSearchTimeDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
@@ -62,6 +67,19 @@ public class JpaBaseEventDao extends JpaAbstractSearchTimeDao<EventEntity, Event
     @Autowired
     private EventRepository eventRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     protected Class<EventEntity> getEntityClass() {
         return EventEntity.class;
@@ -89,6 +107,36 @@ public class JpaBaseEventDao extends JpaAbstractSearchTimeDao<EventEntity, Event
         return save(new EventEntity(event), true);
     }
 
+    /**
+     * Persists the events in one transaction. If the transaction fails, e.g. because of a duplicate event,
+     * the events are saved one by one, so a single bad event does not discard the whole batch.
+     */
+    @Override
+    public void saveAll(List<Event> events) {
+        log.debug("Save {} events", events.size());
+        List<EventEntity> entities = new ArrayList<>(events.size());
+        for (Event event : events) {
+            EventEntity entity = new EventEntity(event);
+            prepareNewEntity(entity);
+            entities.add(entity);
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                entities.forEach(entityManager::persist);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to save batch of {} events, saving them one by one", entities.size(), e);
+            for (EventEntity entity : entities) {
+                try {
+                    eventRepository.save(entity);
+                } catch (Exception ex) {
+                    log.warn("Failed to save event [{}]", entity, ex);
+                }
+            }
+        }
+    }
+
     @Override
     public Event findEvent(UUID tenantId, EntityId entityId, String eventType, String eventUid) {
         return DaoUtil.getData(eventRepository.findByTenantIdAndEntityTypeAndEntityIdAndEventTypeAndEventUid(
@@ -111,6 +159,16 @@ public class JpaBaseEventDao extends JpaAbstractSearchTimeDao<EventEntity, Event
 
     public Optional<Event> save(EventEntity entity, boolean ifNotExists) {
         log.debug("Save event [{}] ", entity);
+        prepareNewEntity(entity);
+        if (ifNotExists &&
+                eventRepository.findByTenantIdAndEntityTypeAndEntityIdAndEventTypeAndEventUid(entity.getTenantId(),
+                        entity.getEntityType(), entity.getEntityId(), entity.getEventType(), entity.getEventUid()) != null) {
+            return Optional.empty();
+        }
+        return Optional.of(DaoUtil.getData(eventRepository.save(entity)));
+    }
+
+    private void prepareNewEntity(EventEntity entity) {
         if (entity.getTenantId() == null) {
             log.trace("Save system event with predefined id {}", systemTenantId);
             entity.setTenantId(UUIDConverter.fromTimeUUID(systemTenantId));
@@ -121,11 +179,6 @@ public class JpaBaseEventDao extends JpaAbstractSearchTimeDao<EventEntity, Event
         if (StringUtils.isEmpty(entity.getEventUid())) {
             entity.setEventUid(entity.getId().toString());
         }
-        if (ifNotExists &&
-                eventRepository.findByTenantIdAndEntityTypeAndEntityId(entity.getTenantId(), entity.getEntityType(), entity.getEntityId()) != null) {
-            return Optional.empty();
-        }
-        return Optional.of(DaoUtil.getData(eventRepository.save(entity)));
     }
 
     private Specification<EventEntity> getEntityFieldsSpec(UUID tenantId, EntityId entityId, String eventType) {
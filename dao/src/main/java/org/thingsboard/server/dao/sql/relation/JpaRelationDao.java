@@ -31,6 +31,7 @@ import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.DaoUtil;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
 import org.thingsboard.server.dao.model.sql.RelationCompositeKey;
 import org.thingsboard.server.dao.model.sql.RelationEntity;
 import org.thingsboard.server.dao.relation.RelationDao;
@@ -60,6 +61,11 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
     @Autowired
     private RelationRepository relationRepository;
 
+    @Override
+    protected String getExecutorGroup() {
+        return DaoExecutorRegistry.SQL_RELATIONS;
+    }
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByFrom(EntityId from, RelationTypeGroup typeGroup) {
         return service.submit(() -> DaoUtil.convertDataList(
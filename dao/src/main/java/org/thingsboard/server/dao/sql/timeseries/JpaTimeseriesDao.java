@@ -23,27 +23,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.*;
 import org.thingsboard.server.dao.DaoUtil;
+import org.thingsboard.server.dao.executors.DaoExecutorRegistry;
+import org.thingsboard.server.dao.model.sql.TsKvDictionaryCompositeKey;
+import org.thingsboard.server.dao.model.sql.TsKvDictionaryEntity;
 import org.thingsboard.server.dao.model.sql.TsKvEntity;
 import org.thingsboard.server.dao.model.sql.TsKvLatestCompositeKey;
 import org.thingsboard.server.dao.model.sql.TsKvLatestEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractDaoListeningExecutorService;
 import org.thingsboard.server.dao.timeseries.TimeseriesDao;
+import org.thingsboard.server.dao.timeseries.TsKvDownsampler;
 import org.thingsboard.server.dao.timeseries.TsInsertExecutorType;
 import org.thingsboard.server.dao.util.SqlDao;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
@@ -54,12 +58,18 @@ import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 @SqlDao
 public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService implements TimeseriesDao {
 
+    private static final String TS_INSERTS_EXECUTOR = "dao-sql-ts-inserts";
+    private static final int DOWNSAMPLING_FETCH_SIZE = 1000;
+
     @Value("${sql.ts_inserts_executor_type}")
     private String insertExecutorType;
 
     @Value("${sql.ts_inserts_fixed_thread_pool_size}")
     private int insertFixedThreadPoolSize;
 
+    @Value("${sql.ts_inserts_queue_size}")
+    private int insertQueueSize;
+
     private ListeningExecutorService insertService;
 
     @Autowired
@@ -68,6 +78,9 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
     @Autowired
     private TsKvLatestRepository tsKvLatestRepository;
 
+    @Autowired
+    private TsKvDictionaryRepository tsKvDictionaryRepository;
+
     @PostConstruct
     public void init() {
         Optional<TsInsertExecutorType> executorTypeOptional = TsInsertExecutorType.parse(insertExecutorType);
@@ -77,21 +90,24 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
         } else {
             executorType = TsInsertExecutorType.FIXED;
         }
+        int poolSize = insertFixedThreadPoolSize;
+        if (poolSize <= 0) {
+            poolSize = 10;
+        }
         switch (executorType) {
             case SINGLE:
-                insertService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
-                break;
-            case FIXED:
-                int poolSize = insertFixedThreadPoolSize;
-                if (poolSize <= 0) {
-                    poolSize = 10;
-                }
-                insertService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(poolSize));
+                poolSize = 1;
                 break;
             case CACHED:
-                insertService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+                log.warn("Unbounded timeseries insert executor is not supported, using {} threads instead", poolSize);
                 break;
         }
+        insertService = executorRegistry.getExecutor(TS_INSERTS_EXECUTOR, poolSize, insertQueueSize);
+    }
+
+    @Override
+    protected String getExecutorGroup() {
+        return DaoExecutorRegistry.SQL_TIMESERIES;
     }
 
     @Override
@@ -117,6 +133,8 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
     private ListenableFuture<List<TsKvEntry>> findAllAsync(EntityId entityId, TsKvQuery query) {
         if (query.getAggregation() == Aggregation.NONE) {
             return findAllAsyncWithLimit(entityId, query);
+        } else if (query.getAggregation().isDownsampling()) {
+            return service.submit(() -> findAllDownsampled(entityId, query));
         } else {
             long stepTs = query.getStartTs();
             List<ListenableFuture<Optional<TsKvEntry>>> futures = new ArrayList<>();
@@ -233,6 +251,29 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
                                 new PageRequest(0, query.getLimit()))));
     }
 
+    private List<TsKvEntry> findAllDownsampled(EntityId entityId, TsKvQuery query) {
+        TsKvDownsampler downsampler = TsKvDownsampler.create(query);
+        String entityIdStr = fromTimeUUID(entityId.getId());
+        long startTs = query.getStartTs();
+        List<TsKvEntity> chunk;
+        do {
+            chunk = tsKvRepository.findAllAsc(
+                    entityIdStr,
+                    entityId.getEntityType(),
+                    query.getKey(),
+                    startTs,
+                    query.getEndTs(),
+                    new PageRequest(0, DOWNSAMPLING_FETCH_SIZE));
+            for (TsKvEntity entity : chunk) {
+                downsampler.add(entity.toData());
+            }
+            if (!chunk.isEmpty()) {
+                startTs = chunk.get(chunk.size() - 1).getTs();
+            }
+        } while (chunk.size() == DOWNSAMPLING_FETCH_SIZE);
+        return downsampler.getResult();
+    }
+
     @Override
     public ListenableFuture<TsKvEntry> findLatest(EntityId entityId, String key) {
         TsKvLatestCompositeKey compositeKey =
@@ -266,10 +307,20 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
         entity.setEntityId(fromTimeUUID(entityId.getId()));
         entity.setTs(tsKvEntry.getTs());
         entity.setKey(tsKvEntry.getKey());
-        entity.setStrValue(tsKvEntry.getStrValue().orElse(null));
-        entity.setDoubleValue(tsKvEntry.getDoubleValue().orElse(null));
-        entity.setLongValue(tsKvEntry.getLongValue().orElse(null));
-        entity.setBooleanValue(tsKvEntry.getBooleanValue().orElse(null));
+        switch (tsKvEntry.getDataType()) {
+            case STRING:
+                entity.setStrValue((String) tsKvEntry.getValue());
+                break;
+            case DOUBLE:
+                entity.setDoubleValue((Double) tsKvEntry.getValue());
+                break;
+            case LONG:
+                entity.setLongValue((Long) tsKvEntry.getValue());
+                break;
+            case BOOLEAN:
+                entity.setBooleanValue((Boolean) tsKvEntry.getValue());
+                break;
+        }
         log.trace("Saving entity: {}", entity);
         return insertService.submit(() -> {
             tsKvRepository.save(entity);
@@ -289,21 +340,64 @@ public class JpaTimeseriesDao extends JpaAbstractDaoListeningExecutorService imp
         latestEntity.setEntityId(fromTimeUUID(entityId.getId()));
         latestEntity.setTs(tsKvEntry.getTs());
         latestEntity.setKey(tsKvEntry.getKey());
-        latestEntity.setStrValue(tsKvEntry.getStrValue().orElse(null));
-        latestEntity.setDoubleValue(tsKvEntry.getDoubleValue().orElse(null));
-        latestEntity.setLongValue(tsKvEntry.getLongValue().orElse(null));
-        latestEntity.setBooleanValue(tsKvEntry.getBooleanValue().orElse(null));
+        switch (tsKvEntry.getDataType()) {
+            case STRING:
+                latestEntity.setStrValue((String) tsKvEntry.getValue());
+                break;
+            case DOUBLE:
+                latestEntity.setDoubleValue((Double) tsKvEntry.getValue());
+                break;
+            case LONG:
+                latestEntity.setLongValue((Long) tsKvEntry.getValue());
+                break;
+            case BOOLEAN:
+                latestEntity.setBooleanValue((Boolean) tsKvEntry.getValue());
+                break;
+        }
         return insertService.submit(() -> {
             tsKvLatestRepository.save(latestEntity);
             return null;
         });
     }
 
-    @PreDestroy
-    void onDestroy() {
-        if (insertService != null) {
-            insertService.shutdown();
-        }
+    @Override
+    public ListenableFuture<TsKeyInfo> findKey(EntityId entityId, String key) {
+        TsKvDictionaryCompositeKey compositeKey =
+                new TsKvDictionaryCompositeKey(
+                        entityId.getEntityType(),
+                        fromTimeUUID(entityId.getId()),
+                        key);
+        return service.submit(() -> DaoUtil.getData(tsKvDictionaryRepository.findOne(compositeKey)));
+    }
+
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(EntityId entityId) {
+        return service.submit(() -> DaoUtil.convertDataList(
+                tsKvDictionaryRepository.findAllByEntityTypeAndEntityId(
+                        entityId.getEntityType(),
+                        fromTimeUUID(entityId.getId()))));
+    }
+
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(Collection<EntityId> entityIds) {
+        Map<EntityType, List<String>> idsByType = entityIds.stream()
+                .collect(Collectors.groupingBy(EntityId::getEntityType,
+                        Collectors.mapping(entityId -> fromTimeUUID(entityId.getId()), Collectors.toList())));
+        return service.submit(() -> {
+            List<TsKeyInfo> keys = new ArrayList<>();
+            idsByType.forEach((entityType, ids) -> keys.addAll(DaoUtil.convertDataList(
+                    tsKvDictionaryRepository.findAllByEntityTypeAndEntityIdIn(entityType, ids))));
+            return keys;
+        });
+    }
+
+    @Override
+    public ListenableFuture<Void> saveKey(TsKeyInfo keyInfo) {
+        TsKvDictionaryEntity entity = new TsKvDictionaryEntity(keyInfo);
+        return insertService.submit(() -> {
+            tsKvDictionaryRepository.save(entity);
+            return null;
+        });
     }
 
 }
@@ -0,0 +1,215 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.timeseries;
+
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.Customer;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.UUIDConverter;
+import org.thingsboard.server.common.data.asset.Asset;
+import org.thingsboard.server.dao.asset.AssetDao;
+import org.thingsboard.server.dao.customer.CustomerDao;
+import org.thingsboard.server.dao.device.DeviceDao;
+import org.thingsboard.server.dao.model.sql.TsKvEntity;
+import org.thingsboard.server.dao.util.SqlDao;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically removes the telemetry that is older than its retention period.
+ * Timeseries are read from ts_kv with keyset paging on (entity_id, key) per entity type, and every
+ * timeseries is cleaned up separately, in batches of at most batch_size rows.
+ * The total delete rate is limited by max_rows_per_second.
+ */
+@Component
+@Slf4j
+@SqlDao
+public class JpaTimeseriesRetentionService {
+
+    private static final int SERIES_PAGE_SIZE = 1000;
+
+    @Autowired
+    private TsKvRetentionProperties properties;
+
+    @Autowired
+    private TsKvRepository tsKvRepository;
+
+    @Autowired
+    private DeviceDao deviceDao;
+
+    @Autowired
+    private AssetDao assetDao;
+
+    @Autowired
+    private CustomerDao customerDao;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (properties.isEnabled()) {
+            long interval = properties.getExecutionIntervalMs();
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(this::removeExpiredTelemetrySafely, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void removeExpiredTelemetrySafely() {
+        try {
+            removeExpiredTelemetry();
+        } catch (Exception e) {
+            log.warn("Failed to remove expired telemetry", e);
+        }
+    }
+
+    long removeExpiredTelemetry() {
+        long startTs = System.currentTimeMillis();
+        RetentionPolicies policies = new RetentionPolicies(properties);
+        RateLimiter rateLimiter = properties.getMaxRowsPerSecond() > 0 ? RateLimiter.create(properties.getMaxRowsPerSecond()) : null;
+        int batchSize = properties.getBatchSize() > 0 ? properties.getBatchSize() : 10000;
+        long removed = 0;
+        int series = 0;
+        String lastEntityId = null;
+        UUID lastTenantId = null;
+        for (EntityType entityType : EntityType.values()) {
+            String entityId = "";
+            String key = "";
+            List<TsKvEntity> page;
+            do {
+                page = tsKvRepository.findSeriesAfter(entityType, entityId, key, new PageRequest(0, SERIES_PAGE_SIZE));
+                for (TsKvEntity entry : page) {
+                    if (policies.hasTenantPolicies() && !entry.getEntityId().equals(lastEntityId)) {
+                        lastEntityId = entry.getEntityId();
+                        lastTenantId = findTenantId(entityType, entry.getEntityId());
+                    }
+                    long ttl = policies.getTtl(lastTenantId, entry.getKey());
+                    if (ttl > 0) {
+                        series++;
+                        removed += removeExpired(entry, startTs - TimeUnit.SECONDS.toMillis(ttl), batchSize, rateLimiter);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    TsKvEntity last = page.get(page.size() - 1);
+                    entityId = last.getEntityId();
+                    key = last.getKey();
+                }
+            } while (page.size() == SERIES_PAGE_SIZE);
+        }
+        log.info("Removed {} expired telemetry rows of {} timeseries in {} ms", removed, series, System.currentTimeMillis() - startTs);
+        return removed;
+    }
+
+    /**
+     * Deletes the expired rows of the timeseries by ts ranges. Each range ends at the ts of the batch_size-th oldest
+     * expired row, the last one at the expiration time.
+     */
+    private long removeExpired(TsKvEntity series, long expirationTs, int batchSize, RateLimiter rateLimiter) {
+        long removed = 0;
+        boolean hasMore;
+        do {
+            List<Long> batchEnd = tsKvRepository.findExpiredTs(series.getEntityId(), series.getEntityType(), series.getKey(),
+                    expirationTs, new PageRequest(batchSize - 1, 1));
+            hasMore = !batchEnd.isEmpty();
+            long maxTs = hasMore ? batchEnd.get(0) : expirationTs - 1;
+            int deleted = tsKvRepository.deleteUpTo(series.getEntityId(), series.getEntityType(), series.getKey(), maxTs);
+            removed += deleted;
+            if (rateLimiter != null && deleted > 0) {
+                rateLimiter.acquire(deleted);
+            }
+        } while (hasMore);
+        return removed;
+    }
+
+    private UUID findTenantId(EntityType entityType, String entityId) {
+        UUID id = UUIDConverter.fromString(entityId);
+        switch (entityType) {
+            case TENANT:
+                return id;
+            case CUSTOMER:
+                Customer customer = customerDao.findById(id);
+                return customer != null ? customer.getTenantId().getId() : null;
+            case DEVICE:
+                Device device = deviceDao.findById(id);
+                return device != null ? device.getTenantId().getId() : null;
+            case ASSET:
+                Asset asset = assetDao.findById(id);
+                return asset != null ? asset.getTenantId().getId() : null;
+            default:
+                return null;
+        }
+    }
+
+    private static class RetentionPolicies {
+
+        private final long defaultTtl;
+        private final Map<String, Long> keyTtls = new HashMap<>();
+        private final Map<UUID, Long> tenantTtls = new HashMap<>();
+        private final Map<UUID, Map<String, Long>> tenantKeyTtls = new HashMap<>();
+
+        RetentionPolicies(TsKvRetentionProperties properties) {
+            this.defaultTtl = properties.getTsKeyValueTtl();
+            for (TsKvRetentionProperties.Policy policy : properties.getPolicies()) {
+                boolean hasTenant = policy.getTenantId() != null && !policy.getTenantId().isEmpty();
+                boolean hasKey = policy.getKey() != null && !policy.getKey().isEmpty();
+                if (hasTenant && hasKey) {
+                    tenantKeyTtls.computeIfAbsent(UUID.fromString(policy.getTenantId()), t -> new HashMap<>())
+                            .put(policy.getKey(), policy.getTtl());
+                } else if (hasTenant) {
+                    tenantTtls.put(UUID.fromString(policy.getTenantId()), policy.getTtl());
+                } else if (hasKey) {
+                    keyTtls.put(policy.getKey(), policy.getTtl());
+                }
+            }
+        }
+
+        boolean hasTenantPolicies() {
+            return !tenantTtls.isEmpty() || !tenantKeyTtls.isEmpty();
+        }
+
+        long getTtl(UUID tenantId, String key) {
+            if (tenantId != null) {
+                Map<String, Long> keys = tenantKeyTtls.get(tenantId);
+                if (keys != null && keys.containsKey(key)) {
+                    return keys.get(key);
+                }
+                if (tenantTtls.containsKey(tenantId)) {
+                    return tenantTtls.get(tenantId);
+                }
+            }
+            return keyTtls.getOrDefault(key, defaultTtl);
+        }
+    }
+}
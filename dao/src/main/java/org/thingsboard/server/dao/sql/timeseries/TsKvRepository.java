@@ -16,10 +16,12 @@
 package org.thingsboard.server.dao.sql.timeseries;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.dao.model.sql.TsKvCompositeKey;
 import org.thingsboard.server.dao.model.sql.TsKvEntity;
@@ -41,6 +43,16 @@ public interface TsKvRepository extends CrudRepository<TsKvEntity, TsKvComposite
                                       @Param("endTs") long endTs,
                                       Pageable pageable);
 
+    @Query("SELECT tskv FROM TsKvEntity tskv WHERE tskv.entityId = :entityId " +
+            "AND tskv.entityType = :entityType AND tskv.key = :entityKey " +
+            "AND tskv.ts > :startTs AND tskv.ts <= :endTs ORDER BY tskv.ts ASC")
+    List<TsKvEntity> findAllAsc(@Param("entityId") String entityId,
+                                @Param("entityType") EntityType entityType,
+                                @Param("entityKey") String key,
+                                @Param("startTs") long startTs,
+                                @Param("endTs") long endTs,
+                                Pageable pageable);
+
     @Async
     @Query("SELECT new TsKvEntity(MAX(tskv.strValue), MAX(tskv.longValue), MAX(tskv.doubleValue)) FROM TsKvEntity tskv " +
             "WHERE tskv.entityId = :entityId AND tskv.entityType = :entityType " +
@@ -91,4 +103,34 @@ public interface TsKvRepository extends CrudRepository<TsKvEntity, TsKvComposite
                        @Param("entityKey") String entityKey,
                        @Param("startTs") long startTs,
                        @Param("endTs") long endTs);
+
+    /**
+     * Keyset page of the distinct timeseries of the given entity type that follow the given entity id and key.
+     */
+    @Query("SELECT DISTINCT new TsKvEntity(tskv.entityType, tskv.entityId, tskv.key) FROM TsKvEntity tskv " +
+            "WHERE tskv.entityType = :entityType AND (tskv.entityId > :entityId " +
+            "OR (tskv.entityId = :entityId AND tskv.key > :entityKey)) ORDER BY tskv.entityId, tskv.key")
+    List<TsKvEntity> findSeriesAfter(@Param("entityType") EntityType entityType,
+                                     @Param("entityId") String entityId,
+                                     @Param("entityKey") String key,
+                                     Pageable pageable);
+
+    @Query("SELECT tskv.ts FROM TsKvEntity tskv WHERE tskv.entityId = :entityId " +
+            "AND tskv.entityType = :entityType AND tskv.key = :entityKey " +
+            "AND tskv.ts < :expirationTs ORDER BY tskv.ts ASC")
+    List<Long> findExpiredTs(@Param("entityId") String entityId,
+                             @Param("entityType") EntityType entityType,
+                             @Param("entityKey") String key,
+                             @Param("expirationTs") long expirationTs,
+                             Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TsKvEntity tskv WHERE tskv.entityId = :entityId " +
+            "AND tskv.entityType = :entityType AND tskv.key = :entityKey " +
+            "AND tskv.ts <= :maxTs")
+    int deleteUpTo(@Param("entityId") String entityId,
+                   @Param("entityType") EntityType entityType,
+                   @Param("entityKey") String key,
+                   @Param("maxTs") long maxTs);
 }
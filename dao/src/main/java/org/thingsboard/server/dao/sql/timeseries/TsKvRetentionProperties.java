@@ -0,0 +1,47 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.timeseries;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retention settings of the telemetry stored in the SQL database.
+ * All ttl values are in seconds, 0 keeps telemetry forever.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sql.ttl")
+@Data
+public class TsKvRetentionProperties {
+
+    private boolean enabled;
+    private long executionIntervalMs = 86400000;
+    private long tsKeyValueTtl;
+    private int batchSize = 10000;
+    private int maxRowsPerSecond = 50000;
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+        private String tenantId;
+        private String key;
+        private long ttl;
+    }
+}
@@ -15,20 +15,37 @@
  */
 package org.thingsboard.server.dao.timeseries;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Function;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.common.data.kv.TsKvQuery;
 import org.thingsboard.server.dao.exception.IncorrectParameterException;
 import org.thingsboard.server.dao.service.Validator;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -44,6 +61,22 @@ public class BaseTimeseriesService implements TimeseriesService {
     @Autowired
     private TimeseriesDao timeseriesDao;
 
+    @Value("${database.ts_keys.cache_max_size}")
+    private long keysCacheMaxSize;
+
+    @Value("${database.ts_keys.last_seen_resolution_ms}")
+    private long lastSeenResolutionMs;
+
+    private Cache<TsKeyRef, TsKeyInfo> keysCache;
+
+    // Dictionary entries being persisted, with the updates received in the meantime merged in
+    private final ConcurrentMap<TsKeyRef, TsKeyInfo> pendingKeys = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        keysCache = Caffeine.newBuilder().maximumSize(keysCacheMaxSize).build();
+    }
+
     @Override
     public ListenableFuture<List<TsKvEntry>> findAll(EntityId entityId, List<TsKvQuery> queries) {
         validate(entityId);
@@ -74,6 +107,7 @@ public class BaseTimeseriesService implements TimeseriesService {
         }
         List<ListenableFuture<Void>> futures = Lists.newArrayListWithExpectedSize(INSERTS_PER_ENTRY);
         saveAndRegisterFutures(futures, entityId, tsKvEntry, 0L);
+        registerKey(toKeyInfo(entityId, tsKvEntry));
         return Futures.allAsList(futures);
     }
 
@@ -86,9 +120,123 @@ public class BaseTimeseriesService implements TimeseriesService {
             }
             saveAndRegisterFutures(futures, entityId, tsKvEntry, ttl);
         }
+        registerKeys(entityId, tsKvEntries);
         return Futures.allAsList(futures);
     }
 
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(EntityId entityId) {
+        validate(entityId);
+        return Futures.transform(timeseriesDao.findKeys(entityId), (AsyncFunction<List<TsKeyInfo>, List<TsKeyInfo>>) keys -> {
+            if (keys != null && !keys.isEmpty()) {
+                return Futures.immediateFuture(keys);
+            }
+            return findKeysByLatest(entityId);
+        });
+    }
+
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(Collection<EntityId> entityIds) {
+        entityIds.forEach(BaseTimeseriesService::validate);
+        if (entityIds.isEmpty()) {
+            return Futures.immediateFuture(new ArrayList<>());
+        }
+        return Futures.transform(timeseriesDao.findKeys(entityIds), (AsyncFunction<List<TsKeyInfo>, List<TsKeyInfo>>) keys -> {
+            Set<EntityId> missing = new HashSet<>(entityIds);
+            keys.forEach(keyInfo -> missing.remove(keyInfo.getEntityId()));
+            if (missing.isEmpty()) {
+                return Futures.immediateFuture(keys);
+            }
+            List<ListenableFuture<List<TsKeyInfo>>> futures = new ArrayList<>(missing.size());
+            missing.forEach(entityId -> futures.add(findKeysByLatest(entityId)));
+            return Futures.transform(Futures.allAsList(futures), (Function<List<List<TsKeyInfo>>, List<TsKeyInfo>>) latestKeys -> {
+                List<TsKeyInfo> result = new ArrayList<>(keys);
+                latestKeys.forEach(result::addAll);
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Keys of entities that have no dictionary entries yet, e.g. written before the dictionary was introduced.
+     */
+    private ListenableFuture<List<TsKeyInfo>> findKeysByLatest(EntityId entityId) {
+        return Futures.transform(timeseriesDao.findAllLatest(entityId), (Function<List<TsKvEntry>, List<TsKeyInfo>>) latest -> latest.stream()
+                .map(entry -> toKeyInfo(entityId, entry))
+                .collect(Collectors.toList()));
+    }
+
+    private void registerKeys(EntityId entityId, List<TsKvEntry> tsKvEntries) {
+        if (tsKvEntries.size() == 1) {
+            registerKey(toKeyInfo(entityId, tsKvEntries.get(0)));
+            return;
+        }
+        Map<String, TsKeyInfo> updates = new HashMap<>();
+        tsKvEntries.forEach(tsKvEntry -> updates.merge(tsKvEntry.getKey(), toKeyInfo(entityId, tsKvEntry), BaseTimeseriesService::merge));
+        updates.values().forEach(this::registerKey);
+    }
+
+    /**
+     * Persists the dictionary entry only when the cached one is missing or outdated,
+     * so repeated telemetry of the known keys does not add writes.
+     * The dictionary is written in the background and does not affect the result of the telemetry save.
+     */
+    private void registerKey(TsKeyInfo update) {
+        TsKeyRef ref = new TsKeyRef(update.getEntityId(), update.getKey());
+        TsKeyInfo cached = keysCache.getIfPresent(ref);
+        if (cached != null && !isChanged(cached, update)) {
+            return;
+        }
+        // merge returns the update itself only if no write of the key is in progress, otherwise the write in progress picks it up
+        if (pendingKeys.merge(ref, update, BaseTimeseriesService::merge) == update) {
+            persistKey(ref, update, cached);
+        }
+    }
+
+    private void persistKey(TsKeyRef ref, TsKeyInfo update, TsKeyInfo cached) {
+        ListenableFuture<TsKeyInfo> storedFuture = cached != null ? Futures.immediateFuture(cached) : timeseriesDao.findKey(ref.getEntityId(), ref.getKey());
+        ListenableFuture<TsKeyInfo> savedFuture = Futures.transform(storedFuture, (AsyncFunction<TsKeyInfo, TsKeyInfo>) stored -> {
+            if (stored != null && !isChanged(stored, update)) {
+                return Futures.immediateFuture(stored);
+            }
+            TsKeyInfo merged = stored != null ? merge(stored, update) : update;
+            return Futures.transform(timeseriesDao.saveKey(merged), (Function<Void, TsKeyInfo>) v -> merged);
+        });
+        Futures.addCallback(savedFuture, new FutureCallback<TsKeyInfo>() {
+            @Override
+            public void onSuccess(TsKeyInfo persisted) {
+                keysCache.put(ref, persisted);
+                if (!pendingKeys.remove(ref, update)) {
+                    persistKey(ref, pendingKeys.get(ref), persisted);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // Not cached, so the key is registered again with the next telemetry
+                pendingKeys.remove(ref);
+                log.warn("[{}] Failed to save timeseries key [{}]", ref.getEntityId(), ref.getKey(), t);
+            }
+        });
+    }
+
+    private boolean isChanged(TsKeyInfo stored, TsKeyInfo update) {
+        return update.getFirstTs() < stored.getFirstTs()
+                || update.getLastTs() > stored.getLastTs() + lastSeenResolutionMs
+                || (update.getLastTs() >= stored.getLastTs() && update.getDataType() != stored.getDataType());
+    }
+
+    private static TsKeyInfo merge(TsKeyInfo stored, TsKeyInfo update) {
+        return new TsKeyInfo(stored.getEntityId(), stored.getKey(),
+                update.getLastTs() >= stored.getLastTs() ? update.getDataType() : stored.getDataType(),
+                Math.min(stored.getFirstTs(), update.getFirstTs()),
+                Math.max(stored.getLastTs(), update.getLastTs()));
+    }
+
+    private static TsKeyInfo toKeyInfo(EntityId entityId, TsKvEntry tsKvEntry) {
+        return new TsKeyInfo(entityId, tsKvEntry.getKey(), tsKvEntry.getDataType(), tsKvEntry.getTs(), tsKvEntry.getTs());
+    }
+
     private void saveAndRegisterFutures(List<ListenableFuture<Void>> futures, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
         futures.add(timeseriesDao.savePartition(entityId, tsKvEntry.getTs(), tsKvEntry.getKey(), ttl));
         futures.add(timeseriesDao.saveLatest(entityId, tsKvEntry));
@@ -106,6 +254,14 @@ public class BaseTimeseriesService implements TimeseriesService {
             throw new IncorrectParameterException("Incorrect TsKvQuery. Key can't be empty");
         } else if (query.getAggregation() == null) {
             throw new IncorrectParameterException("Incorrect TsKvQuery. Aggregation can't be empty");
+        } else if (query.getAggregation().isDownsampling() && query.getLimit() < 3) {
+            throw new IncorrectParameterException("Incorrect TsKvQuery. Limit of the downsampled series can't be less than 3");
         }
     }
+
+    @Data
+    private static class TsKeyRef {
+        private final EntityId entityId;
+        private final String key;
+    }
 }
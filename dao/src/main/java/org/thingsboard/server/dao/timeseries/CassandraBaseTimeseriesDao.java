@@ -28,7 +28,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.kv.*;
 import org.thingsboard.server.common.data.kv.DataType;
 import org.thingsboard.server.dao.model.ModelConstants;
@@ -37,14 +39,17 @@ import org.thingsboard.server.dao.util.NoSqlDao;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
@@ -58,6 +63,7 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implements TimeseriesDao {
 
     private static final int MIN_AGGREGATION_STEP_MS = 1000;
+    private static final int DOWNSAMPLING_FETCH_SIZE = 1000;
     public static final String INSERT_INTO = "INSERT INTO ";
     public static final String GENERATED_QUERY_FOR_ENTITY_TYPE_AND_ENTITY_ID = "Generated query [{}] for entityType {} and entityId {}";
     public static final String SELECT_PREFIX = "SELECT ";
@@ -79,6 +85,9 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     private PreparedStatement[] fetchStmts;
     private PreparedStatement findLatestStmt;
     private PreparedStatement findAllLatestStmt;
+    private PreparedStatement findKeyStmt;
+    private PreparedStatement findKeysStmt;
+    private PreparedStatement saveKeyStmt;
 
     private boolean isInstall() {
         return environment.acceptsProfiles("install");
@@ -99,11 +108,6 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         }
     }
 
-    @PreDestroy
-    public void stop() {
-        super.stopExecutor();
-    }
-
     @Override
     public ListenableFuture<List<TsKvEntry>> findAllAsync(EntityId entityId, List<TsKvQuery> queries) {
         List<ListenableFuture<List<TsKvEntry>>> futures = queries.stream().map(query -> findAllAsync(entityId, query)).collect(Collectors.toList());
@@ -125,6 +129,8 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     private ListenableFuture<List<TsKvEntry>> findAllAsync(EntityId entityId, TsKvQuery query) {
         if (query.getAggregation() == Aggregation.NONE) {
             return findAllAsyncWithLimit(entityId, query);
+        } else if (query.getAggregation().isDownsampling()) {
+            return findAllAsyncDownsampled(entityId, query);
         } else {
             long step = Math.max(query.getInterval(), MIN_AGGREGATION_STEP_MS);
             long stepTs = query.getStartTs();
@@ -172,6 +178,74 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return resultFuture;
     }
 
+    private ListenableFuture<List<TsKvEntry>> findAllAsyncDownsampled(EntityId entityId, TsKvQuery query) {
+        long minPartition = toPartitionTs(query.getStartTs());
+        long maxPartition = toPartitionTs(query.getEndTs());
+
+        ResultSetFuture partitionsFuture = fetchPartitions(entityId, query.getKey(), minPartition, maxPartition);
+
+        final SimpleListenableFuture<List<TsKvEntry>> resultFuture = new SimpleListenableFuture<>();
+        final ListenableFuture<List<Long>> partitionsListFuture = Futures.transform(partitionsFuture, getPartitionsArrayFunction(), readResultsProcessingExecutor);
+
+        Futures.addCallback(partitionsListFuture, new FutureCallback<List<Long>>() {
+            @Override
+            public void onSuccess(@Nullable List<Long> partitions) {
+                List<Long> partitionsList = partitions == null ? Collections.emptyList() : partitions;
+                downsampleSequentially(entityId, query, partitionsList.iterator(), TsKvDownsampler.create(query), resultFuture);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("[{}][{}] Failed to fetch partitions for interval {}-{}", entityId.getEntityType().name(), entityId.getId(), minPartition, maxPartition, t);
+                resultFuture.setException(t);
+            }
+        }, readResultsProcessingExecutor);
+
+        return resultFuture;
+    }
+
+    private void downsampleSequentially(EntityId entityId, TsKvQuery query, Iterator<Long> partitions, TsKvDownsampler downsampler,
+                                        SimpleListenableFuture<List<TsKvEntry>> resultFuture) {
+        if (!partitions.hasNext()) {
+            resultFuture.set(downsampler.getResult());
+            return;
+        }
+        BoundStatement stmt = getFetchStmt(query.getAggregation()).bind();
+        stmt.setString(0, entityId.getEntityType().name());
+        stmt.setUUID(1, entityId.getId());
+        stmt.setString(2, query.getKey());
+        stmt.setLong(3, partitions.next());
+        stmt.setLong(4, query.getStartTs());
+        stmt.setLong(5, query.getEndTs());
+        stmt.setFetchSize(DOWNSAMPLING_FETCH_SIZE);
+
+        Futures.addCallback(executeAsyncRead(stmt), new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(@Nullable ResultSet result) {
+                if (result == null) {
+                    downsampleSequentially(entityId, query, partitions, downsampler, resultFuture);
+                    return;
+                }
+                int available = result.getAvailableWithoutFetching();
+                for (int i = 0; i < available; i++) {
+                    Row row = result.one();
+                    downsampler.add(new BasicTsKvEntry(row.getLong(ModelConstants.TS_COLUMN), toKvEntry(row, query.getKey())));
+                }
+                if (result.isFullyFetched()) {
+                    downsampleSequentially(entityId, query, partitions, downsampler, resultFuture);
+                } else {
+                    Futures.addCallback(result.fetchMoreResults(), this, readResultsProcessingExecutor);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("[{}][{}] Failed to fetch data for query {}", entityId.getEntityType().name(), entityId.getId(), stmt, t);
+                resultFuture.setException(t);
+            }
+        }, readResultsProcessingExecutor);
+    }
+
     private long toPartitionTs(long ts) {
         LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(ts), ZoneOffset.UTC);
         return tsFormat.truncatedTo(time).toInstant(ZoneOffset.UTC).toEpochMilli();
@@ -316,6 +390,83 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return getFuture(executeAsyncWrite(stmt), rs -> null);
     }
 
+    @Override
+    public ListenableFuture<TsKeyInfo> findKey(EntityId entityId, String key) {
+        BoundStatement stmt = getFindKeyStmt().bind()
+                .setString(0, entityId.getEntityType().name())
+                .setUUID(1, entityId.getId())
+                .setString(2, key);
+        log.debug(GENERATED_QUERY_FOR_ENTITY_TYPE_AND_ENTITY_ID, stmt, entityId.getEntityType(), entityId.getId());
+        return getFuture(executeAsyncRead(stmt), rs -> {
+            Row row = rs.one();
+            return row != null ? convertResultToTsKeyInfo(entityId, row) : null;
+        });
+    }
+
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(EntityId entityId) {
+        BoundStatement stmt = getFindKeysStmt().bind()
+                .setString(0, entityId.getEntityType().name())
+                .setUUID(1, entityId.getId());
+        log.debug(GENERATED_QUERY_FOR_ENTITY_TYPE_AND_ENTITY_ID, stmt, entityId.getEntityType(), entityId.getId());
+        return getFuture(executeAsyncRead(stmt), rs -> convertResultToTsKeyInfoList(entityId.getEntityType(), rs.all()));
+    }
+
+    @Override
+    public ListenableFuture<List<TsKeyInfo>> findKeys(Collection<EntityId> entityIds) {
+        Map<EntityType, List<UUID>> idsByType = entityIds.stream()
+                .collect(Collectors.groupingBy(EntityId::getEntityType,
+                        Collectors.mapping(EntityId::getId, Collectors.toList())));
+        List<ListenableFuture<List<TsKeyInfo>>> futures = new ArrayList<>(idsByType.size());
+        idsByType.forEach((entityType, ids) -> {
+            Select.Where select = QueryBuilder.select(ModelConstants.ENTITY_ID_COLUMN,
+                    ModelConstants.KEY_COLUMN,
+                    ModelConstants.DATA_TYPE_COLUMN,
+                    ModelConstants.FIRST_TS_COLUMN,
+                    ModelConstants.LAST_TS_COLUMN)
+                    .from(ModelConstants.TS_KV_DICTIONARY_CF)
+                    .where(eq(ModelConstants.ENTITY_TYPE_COLUMN, entityType.name()))
+                    .and(QueryBuilder.in(ModelConstants.ENTITY_ID_COLUMN, ids));
+            futures.add(getFuture(executeAsyncRead(select), rs -> convertResultToTsKeyInfoList(entityType, rs.all())));
+        });
+        return Futures.transform(Futures.allAsList(futures), new Function<List<List<TsKeyInfo>>, List<TsKeyInfo>>() {
+            @Nullable
+            @Override
+            public List<TsKeyInfo> apply(@Nullable List<List<TsKeyInfo>> results) {
+                return results == null ? Collections.emptyList() : results.stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList());
+            }
+        }, readResultsProcessingExecutor);
+    }
+
+    @Override
+    public ListenableFuture<Void> saveKey(TsKeyInfo keyInfo) {
+        BoundStatement stmt = getSaveKeyStmt().bind()
+                .setString(0, keyInfo.getEntityId().getEntityType().name())
+                .setUUID(1, keyInfo.getEntityId().getId())
+                .setString(2, keyInfo.getKey())
+                .setString(3, keyInfo.getDataType().name())
+                .setLong(4, keyInfo.getFirstTs())
+                .setLong(5, keyInfo.getLastTs());
+        return getFuture(executeAsyncWrite(stmt), rs -> null);
+    }
+
+    private List<TsKeyInfo> convertResultToTsKeyInfoList(EntityType entityType, List<Row> rows) {
+        List<TsKeyInfo> keys = new ArrayList<>(rows.size());
+        rows.forEach(row -> keys.add(convertResultToTsKeyInfo(
+                EntityIdFactory.getByTypeAndUuid(entityType, row.getUUID(ModelConstants.ENTITY_ID_COLUMN)), row)));
+        return keys;
+    }
+
+    private TsKeyInfo convertResultToTsKeyInfo(EntityId entityId, Row row) {
+        return new TsKeyInfo(entityId,
+                row.getString(ModelConstants.KEY_COLUMN),
+                DataType.valueOf(row.getString(ModelConstants.DATA_TYPE_COLUMN)),
+                row.getLong(ModelConstants.FIRST_TS_COLUMN),
+                row.getLong(ModelConstants.LAST_TS_COLUMN));
+    }
+
     private List<TsKvEntry> convertResultToTsKvEntryList(List<Row> rows) {
         List<TsKvEntry> entries = new ArrayList<>(rows.size());
         if (!rows.isEmpty()) {
@@ -419,6 +570,8 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                     fetchStmts[type.ordinal()] = fetchStmts[Aggregation.AVG.ordinal()];
                 } else if (type == Aggregation.AVG && fetchStmts[Aggregation.SUM.ordinal()] != null) {
                     fetchStmts[type.ordinal()] = fetchStmts[Aggregation.SUM.ordinal()];
+                } else if (type == Aggregation.MIN_MAX && fetchStmts[Aggregation.LTTB.ordinal()] != null) {
+                    fetchStmts[type.ordinal()] = fetchStmts[Aggregation.LTTB.ordinal()];
                 } else {
                     fetchStmts[type.ordinal()] = getSession().prepare(SELECT_PREFIX +
                             String.join(", ", ModelConstants.getFetchColumnNames(type)) + " FROM " + ModelConstants.TS_KV_CF
@@ -428,7 +581,8 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                             + "AND " + ModelConstants.PARTITION_COLUMN + EQUALS_PARAM
                             + "AND " + ModelConstants.TS_COLUMN + " > ? "
                             + "AND " + ModelConstants.TS_COLUMN + " <= ?"
-                            + (type == Aggregation.NONE ? " ORDER BY " + ModelConstants.TS_COLUMN + " DESC LIMIT ?" : ""));
+                            + (type == Aggregation.NONE ? " ORDER BY " + ModelConstants.TS_COLUMN + " DESC LIMIT ?" : "")
+                            + (type.isDownsampling() ? " ORDER BY " + ModelConstants.TS_COLUMN + " ASC" : ""));
                 }
             }
         }
@@ -510,6 +664,51 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return findAllLatestStmt;
     }
 
+    private PreparedStatement getFindKeyStmt() {
+        if (findKeyStmt == null) {
+            findKeyStmt = getSession().prepare(SELECT_PREFIX +
+                    ModelConstants.ENTITY_ID_COLUMN + "," +
+                    ModelConstants.KEY_COLUMN + "," +
+                    ModelConstants.DATA_TYPE_COLUMN + "," +
+                    ModelConstants.FIRST_TS_COLUMN + "," +
+                    ModelConstants.LAST_TS_COLUMN + " " +
+                    "FROM " + ModelConstants.TS_KV_DICTIONARY_CF + " " +
+                    "WHERE " + ModelConstants.ENTITY_TYPE_COLUMN + EQUALS_PARAM +
+                    "AND " + ModelConstants.ENTITY_ID_COLUMN + EQUALS_PARAM +
+                    "AND " + ModelConstants.KEY_COLUMN + EQUALS_PARAM);
+        }
+        return findKeyStmt;
+    }
+
+    private PreparedStatement getFindKeysStmt() {
+        if (findKeysStmt == null) {
+            findKeysStmt = getSession().prepare(SELECT_PREFIX +
+                    ModelConstants.ENTITY_ID_COLUMN + "," +
+                    ModelConstants.KEY_COLUMN + "," +
+                    ModelConstants.DATA_TYPE_COLUMN + "," +
+                    ModelConstants.FIRST_TS_COLUMN + "," +
+                    ModelConstants.LAST_TS_COLUMN + " " +
+                    "FROM " + ModelConstants.TS_KV_DICTIONARY_CF + " " +
+                    "WHERE " + ModelConstants.ENTITY_TYPE_COLUMN + EQUALS_PARAM +
+                    "AND " + ModelConstants.ENTITY_ID_COLUMN + EQUALS_PARAM);
+        }
+        return findKeysStmt;
+    }
+
+    private PreparedStatement getSaveKeyStmt() {
+        if (saveKeyStmt == null) {
+            saveKeyStmt = getSession().prepare(INSERT_INTO + ModelConstants.TS_KV_DICTIONARY_CF +
+                    "(" + ModelConstants.ENTITY_TYPE_COLUMN +
+                    "," + ModelConstants.ENTITY_ID_COLUMN +
+                    "," + ModelConstants.KEY_COLUMN +
+                    "," + ModelConstants.DATA_TYPE_COLUMN +
+                    "," + ModelConstants.FIRST_TS_COLUMN +
+                    "," + ModelConstants.LAST_TS_COLUMN + ")" +
+                    " VALUES(?, ?, ?, ?, ?, ?)");
+        }
+        return saveKeyStmt;
+    }
+
     private static String getColumnName(DataType type) {
         switch (type) {
             case BOOLEAN:
@@ -528,10 +727,7 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     private static void addValue(KvEntry kvEntry, BoundStatement stmt, int column) {
         switch (kvEntry.getDataType()) {
             case BOOLEAN:
-                Optional<Boolean> booleanValue = kvEntry.getBooleanValue();
-                if (booleanValue.isPresent()) {
-                    stmt.setBool(column, booleanValue.get().booleanValue());
-                }
+                stmt.setBool(column, kvEntry.booleanValue());
                 break;
             case STRING:
                 Optional<String> stringValue = kvEntry.getStrValue();
@@ -540,16 +736,10 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                 }
                 break;
             case LONG:
-                Optional<Long> longValue = kvEntry.getLongValue();
-                if (longValue.isPresent()) {
-                    stmt.setLong(column, longValue.get().longValue());
-                }
+                stmt.setLong(column, kvEntry.longValue());
                 break;
             case DOUBLE:
-                Optional<Double> doubleValue = kvEntry.getDoubleValue();
-                if (doubleValue.isPresent()) {
-                    stmt.setDouble(column, doubleValue.get().doubleValue());
-                }
+                stmt.setDouble(column, kvEntry.doubleValue());
                 break;
         }
     }
@@ -0,0 +1,105 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.data.kv.TsKvQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling. The first and the last points are always kept,
+ * and one point is selected from every other bucket: the one that forms the largest triangle with
+ * the previously selected point and the average point of the next bucket.
+ * Only the points of the two most recent buckets are buffered.
+ */
+final class LttbDownsampler extends TsKvDownsampler {
+
+    private final List<TsKvEntry> result = new ArrayList<>();
+    private TsKvEntry selected;
+    private List<TsKvEntry> current = new ArrayList<>();
+    private List<TsKvEntry> next = new ArrayList<>();
+    private int nextBucket = -1;
+    private double nextXSum;
+    private double nextYSum;
+
+    LttbDownsampler(TsKvQuery query) {
+        super(query, query.getLimit() - 2);
+    }
+
+    @Override
+    public void add(TsKvEntry entry) {
+        if (!isNumeric(entry)) {
+            return;
+        }
+        if (selected == null) {
+            selected = entry;
+            result.add(entry);
+            return;
+        }
+        int bucket = getBucket(entry.getTs());
+        if (bucket != nextBucket) {
+            if (!next.isEmpty()) {
+                select(current, nextXSum / next.size(), nextYSum / next.size());
+                current = next;
+                next = new ArrayList<>();
+                nextXSum = 0;
+                nextYSum = 0;
+            }
+            nextBucket = bucket;
+        }
+        next.add(entry);
+        nextXSum += toX(entry);
+        nextYSum += toY(entry);
+    }
+
+    @Override
+    public List<TsKvEntry> getResult() {
+        if (!next.isEmpty()) {
+            TsKvEntry last = next.remove(next.size() - 1);
+            if (next.isEmpty()) {
+                select(current, toX(last), toY(last));
+            } else {
+                select(current, (nextXSum - toX(last)) / next.size(), (nextYSum - toY(last)) / next.size());
+                select(next, toX(last), toY(last));
+            }
+            result.add(last);
+            current = new ArrayList<>();
+            next = new ArrayList<>();
+        }
+        return result;
+    }
+
+    private void select(List<TsKvEntry> bucket, double cx, double cy) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        double ax = toX(selected);
+        double ay = toY(selected);
+        TsKvEntry max = null;
+        double maxArea = -1;
+        for (TsKvEntry entry : bucket) {
+            double area = Math.abs((ax - cx) * (toY(entry) - ay) - (ax - toX(entry)) * (cy - ay));
+            if (area > maxArea) {
+                maxArea = area;
+                max = entry;
+            }
+        }
+        selected = max;
+        result.add(max);
+    }
+}
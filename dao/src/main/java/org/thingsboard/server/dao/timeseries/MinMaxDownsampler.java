@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.data.kv.TsKvQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Min/max envelope downsampling: the points with the minimum and the maximum value of every bucket are kept.
+ */
+final class MinMaxDownsampler extends TsKvDownsampler {
+
+    private final List<TsKvEntry> result = new ArrayList<>();
+    private int bucket = -1;
+    private TsKvEntry min;
+    private TsKvEntry max;
+
+    MinMaxDownsampler(TsKvQuery query) {
+        super(query, query.getLimit() / 2);
+    }
+
+    @Override
+    public void add(TsKvEntry entry) {
+        if (!isNumeric(entry)) {
+            return;
+        }
+        int entryBucket = getBucket(entry.getTs());
+        if (entryBucket != bucket) {
+            flush();
+            bucket = entryBucket;
+            min = entry;
+            max = entry;
+        } else {
+            double value = toY(entry);
+            if (value < toY(min)) {
+                min = entry;
+            }
+            if (value > toY(max)) {
+                max = entry;
+            }
+        }
+    }
+
+    @Override
+    public List<TsKvEntry> getResult() {
+        flush();
+        return result;
+    }
+
+    private void flush() {
+        if (min == null) {
+            return;
+        }
+        if (min == max) {
+            result.add(min);
+        } else if (min.getTs() < max.getTs()) {
+            result.add(min);
+            result.add(max);
+        } else {
+            result.add(max);
+            result.add(min);
+        }
+        min = null;
+        max = null;
+    }
+}
@@ -17,9 +17,11 @@ package org.thingsboard.server.dao.timeseries;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.common.data.kv.TsKvQuery;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -38,4 +40,12 @@ public interface TimeseriesDao {
     ListenableFuture<Void> savePartition(EntityId entityId, long tsKvEntryTs, String key, long ttl);
 
     ListenableFuture<Void> saveLatest(EntityId entityId, TsKvEntry tsKvEntry);
+
+    ListenableFuture<TsKeyInfo> findKey(EntityId entityId, String key);
+
+    ListenableFuture<List<TsKeyInfo>> findKeys(EntityId entityId);
+
+    ListenableFuture<List<TsKeyInfo>> findKeys(Collection<EntityId> entityIds);
+
+    ListenableFuture<Void> saveKey(TsKeyInfo keyInfo);
 }
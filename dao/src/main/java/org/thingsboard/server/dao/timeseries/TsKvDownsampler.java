@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.data.kv.TsKvQuery;
+
+import java.util.List;
+
+/**
+ * Reduces the raw points of a timeseries query to at most {@link TsKvQuery#getLimit()} points.
+ * Points are consumed one by one in ascending order of their timestamps, so the whole series is never kept in memory.
+ * The query interval is split into equal time buckets; only numeric and boolean points are downsampled, string points are skipped.
+ */
+public abstract class TsKvDownsampler {
+
+    private final long startTs;
+    private final int buckets;
+    private final long bucketInterval;
+
+    protected TsKvDownsampler(TsKvQuery query, int buckets) {
+        this.startTs = query.getStartTs();
+        this.buckets = Math.max(buckets, 1);
+        this.bucketInterval = Math.max((query.getEndTs() - query.getStartTs() + this.buckets - 1) / this.buckets, 1);
+    }
+
+    public static TsKvDownsampler create(TsKvQuery query) {
+        switch (query.getAggregation()) {
+            case LTTB:
+                return new LttbDownsampler(query);
+            case MIN_MAX:
+                return new MinMaxDownsampler(query);
+            default:
+                throw new IllegalArgumentException("Not supported downsampling type: " + query.getAggregation());
+        }
+    }
+
+    public abstract void add(TsKvEntry entry);
+
+    /**
+     * @return downsampled points in ascending order of their timestamps
+     */
+    public abstract List<TsKvEntry> getResult();
+
+    protected int getBucket(long ts) {
+        long bucket = (ts - startTs) / bucketInterval;
+        return (int) Math.min(Math.max(bucket, 0), buckets - 1);
+    }
+
+    protected double toX(TsKvEntry entry) {
+        return entry.getTs() - startTs;
+    }
+
+    protected static boolean isNumeric(TsKvEntry entry) {
+        switch (entry.getDataType()) {
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    protected static double toY(TsKvEntry entry) {
+        switch (entry.getDataType()) {
+            case LONG:
+                return entry.longValue();
+            case DOUBLE:
+                return entry.doubleValue();
+            case BOOLEAN:
+                return entry.booleanValue() ? 1 : 0;
+            default:
+                throw new IllegalArgumentException("Not supported data type: " + entry.getDataType());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import lombok.Data;
+
+@Data
+public class ExecutorStats {
+
+    private final String name;
+    private final int poolSize;
+    private final int activeCount;
+    private final int queueSize;
+    private final long completedTaskCount;
+    private final long callerRunsTaskCount;
+    private final double avgQueueWaitMs;
+    private final double maxQueueWaitMs;
+    private final double avgExecutionTimeMs;
+    private final long rejectedTaskCount;
+    private final long timedOutTaskCount;
+    private final long killedTaskCount;
+
+    public static ExecutorStats of(InstrumentedThreadPoolExecutor executor) {
+        return new ExecutorStats(executor.getName(), executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueueSize(), executor.getExecutedTaskCount(), executor.getCallerRunsTaskCount(),
+                executor.getAvgQueueWaitMs(), executor.getMaxQueueWaitMs(), executor.getAvgExecutionTimeMs(), 0, 0, 0);
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size thread pool that keeps track of the time tasks spend in the queue and in execution.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong executionNanos = new AtomicLong();
+    private final AtomicLong executedTasks = new AtomicLong();
+    private final AtomicLong callerRunsTasks = new AtomicLong();
+
+    /**
+     * @param queueCapacity max number of queued tasks, 0 for unbounded queue
+     */
+    public InstrumentedThreadPoolExecutor(String name, int poolSize, int queueCapacity, RejectedExecutionHandler rejectionHandler) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, newQueue(queueCapacity), new NamedThreadFactory(name), rejectionHandler);
+        this.name = name;
+    }
+
+    public InstrumentedThreadPoolExecutor(String name, int poolSize) {
+        this(name, poolSize, 0, new AbortPolicy());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedTask) {
+            TimedTask task = (TimedTask) r;
+            task.startTime = System.nanoTime();
+            long wait = task.startTime - task.enqueueTime;
+            queueWaitNanos.addAndGet(wait);
+            maxQueueWaitNanos.accumulateAndGet(wait, Math::max);
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (r instanceof TimedTask) {
+            executionNanos.addAndGet(System.nanoTime() - ((TimedTask) r).startTime);
+            executedTasks.incrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueSize() {
+        return getQueue().size();
+    }
+
+    public long getExecutedTaskCount() {
+        return executedTasks.get();
+    }
+
+    /**
+     * @return number of tasks executed by the submitting thread because the queue was full
+     */
+    public long getCallerRunsTaskCount() {
+        return callerRunsTasks.get();
+    }
+
+    public double getAvgQueueWaitMs() {
+        long count = executedTasks.get();
+        return count > 0 ? queueWaitNanos.get() / (double) count / 1000000 : 0;
+    }
+
+    public double getMaxQueueWaitMs() {
+        return maxQueueWaitNanos.get() / 1000000.0;
+    }
+
+    public double getAvgExecutionTimeMs() {
+        long count = executedTasks.get();
+        return count > 0 ? executionNanos.get() / (double) count / 1000000 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[active=%d, queued=%d, completed=%d, callerRuns=%d, avgQueueWaitMs=%.2f, maxQueueWaitMs=%.2f, avgExecutionTimeMs=%.2f]",
+                name, getActiveCount(), getQueueSize(), getExecutedTaskCount(), getCallerRunsTaskCount(),
+                getAvgQueueWaitMs(), getMaxQueueWaitMs(), getAvgExecutionTimeMs());
+    }
+
+    private static BlockingQueue<Runnable> newQueue(int capacity) {
+        return capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Runs rejected tasks on the submitting thread, so producers are slowed down to the pace of the pool.
+     * Unlike {@link CallerRunsPolicy} tasks submitted after shutdown are rejected instead of silently discarded.
+     */
+    public static class CallerRunsBackpressurePolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor " + executor + " is shut down");
+            }
+            if (executor instanceof InstrumentedThreadPoolExecutor) {
+                ((InstrumentedThreadPoolExecutor) executor).callerRunsTasks.incrementAndGet();
+            }
+            r.run();
+        }
+    }
+
+    private static final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long enqueueTime = System.nanoTime();
+        private long startTime;
+
+        private TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
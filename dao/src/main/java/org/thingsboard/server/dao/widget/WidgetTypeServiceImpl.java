@@ -24,14 +24,18 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.WidgetTypeId;
 import org.thingsboard.server.common.data.widget.WidgetType;
 import org.thingsboard.server.common.data.widget.WidgetsBundle;
+import org.thingsboard.server.dao.cache.CacheEvictionTracker;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.service.DataValidator;
 import org.thingsboard.server.dao.service.Validator;
 import org.thingsboard.server.dao.tenant.TenantDao;
 
+import java.util.Arrays;
 import java.util.List;
 
+import static org.thingsboard.server.common.data.CacheConstants.WIDGET_TYPE_CACHE;
+
 @Service
 @Slf4j
 public class WidgetTypeServiceImpl implements WidgetTypeService {
@@ -47,6 +51,9 @@ public class WidgetTypeServiceImpl implements WidgetTypeService {
     @Autowired
     private WidgetsBundleDao widgetsBundleService;
 
+    @Autowired
+    private CacheEvictionTracker cacheEvictionTracker;
+
     @Override
     public WidgetType findWidgetTypeById(WidgetTypeId widgetTypeId) {
         log.trace("Executing findWidgetTypeById [{}]", widgetTypeId);
@@ -58,14 +65,30 @@ public class WidgetTypeServiceImpl implements WidgetTypeService {
     public WidgetType saveWidgetType(WidgetType widgetType) {
         log.trace("Executing saveWidgetType [{}]", widgetType);
         widgetTypeValidator.validate(widgetType);
-        return widgetTypeDao.save(widgetType);
+        WidgetType oldWidgetType = widgetType.getId() != null ? widgetTypeDao.findById(widgetType.getId().getId()) : null;
+        WidgetType savedWidgetType = widgetTypeDao.save(widgetType);
+        if (oldWidgetType != null) {
+            evictWidgetType(oldWidgetType);
+        }
+        evictWidgetType(savedWidgetType);
+        return savedWidgetType;
     }
 
     @Override
     public void deleteWidgetType(WidgetTypeId widgetTypeId) {
         log.trace("Executing deleteWidgetType [{}]", widgetTypeId);
         Validator.validateId(widgetTypeId, "Incorrect widgetTypeId " + widgetTypeId);
+        WidgetType widgetType = widgetTypeDao.findById(widgetTypeId.getId());
         widgetTypeDao.removeById(widgetTypeId.getId());
+        if (widgetType != null) {
+            evictWidgetType(widgetType);
+        }
+    }
+
+    private void evictWidgetType(WidgetType widgetType) {
+        cacheEvictionTracker.evict(WIDGET_TYPE_CACHE, widgetType.getId());
+        cacheEvictionTracker.evict(WIDGET_TYPE_CACHE, Arrays.asList(widgetType.getTenantId(), widgetType.getBundleAlias(), widgetType.getAlias()));
+        cacheEvictionTracker.evict(WIDGET_TYPE_CACHE, Arrays.asList(widgetType.getTenantId(), widgetType.getBundleAlias()));
     }
 
     @Override
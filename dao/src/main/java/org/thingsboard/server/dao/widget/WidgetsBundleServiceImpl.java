@@ -25,6 +25,7 @@ import org.thingsboard.server.common.data.id.WidgetsBundleId;
 import org.thingsboard.server.common.data.page.TextPageData;
 import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.common.data.widget.WidgetsBundle;
+import org.thingsboard.server.dao.cache.CacheEvictionTracker;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.exception.IncorrectParameterException;
 import org.thingsboard.server.dao.model.ModelConstants;
@@ -36,6 +37,8 @@ import org.thingsboard.server.dao.tenant.TenantDao;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.thingsboard.server.common.data.CacheConstants.WIDGETS_BUNDLE_CACHE;
+
 @Service
 @Slf4j
 public class WidgetsBundleServiceImpl implements WidgetsBundleService {
@@ -53,6 +56,9 @@ public class WidgetsBundleServiceImpl implements WidgetsBundleService {
     @Autowired
     private WidgetTypeService widgetTypeService;
 
+    @Autowired
+    private CacheEvictionTracker cacheEvictionTracker;
+
     @Override
     public WidgetsBundle findWidgetsBundleById(WidgetsBundleId widgetsBundleId) {
         log.trace("Executing findWidgetsBundleById [{}]", widgetsBundleId);
@@ -64,7 +70,9 @@ public class WidgetsBundleServiceImpl implements WidgetsBundleService {
     public WidgetsBundle saveWidgetsBundle(WidgetsBundle widgetsBundle) {
         log.trace("Executing saveWidgetsBundle [{}]", widgetsBundle);
         widgetsBundleValidator.validate(widgetsBundle);
-        return widgetsBundleDao.save(widgetsBundle);
+        WidgetsBundle savedWidgetsBundle = widgetsBundleDao.save(widgetsBundle);
+        cacheEvictionTracker.evict(WIDGETS_BUNDLE_CACHE, savedWidgetsBundle.getId());
+        return savedWidgetsBundle;
     }
 
     @Override
@@ -77,6 +85,7 @@ public class WidgetsBundleServiceImpl implements WidgetsBundleService {
         }
         widgetTypeService.deleteWidgetTypesByTenantIdAndBundleAlias(widgetsBundle.getTenantId(), widgetsBundle.getAlias());
         widgetsBundleDao.removeById(widgetsBundleId.getId());
+        cacheEvictionTracker.evict(WIDGETS_BUNDLE_CACHE, widgetsBundleId);
     }
 
     @Override
@@ -230,6 +230,16 @@ CREATE TABLE IF NOT EXISTS ts_kv_latest (
     CONSTRAINT ts_kv_latest_unq_key UNIQUE (entity_type, entity_id, key)
 );
 
+CREATE TABLE IF NOT EXISTS ts_kv_dictionary (
+    entity_type varchar(255) NOT NULL,
+    entity_id varchar(31) NOT NULL,
+    key varchar(255) NOT NULL,
+    data_type varchar(255),
+    first_ts bigint NOT NULL,
+    last_ts bigint NOT NULL,
+    CONSTRAINT ts_kv_dictionary_unq_key UNIQUE (entity_type, entity_id, key)
+);
+
 CREATE TABLE IF NOT EXISTS user_credentials (
     id varchar(31) NOT NULL CONSTRAINT user_credentials_pkey PRIMARY KEY,
     activate_token varchar(255) UNIQUE,
@@ -31,6 +31,8 @@ import org.thingsboard.server.common.data.page.TextPageData;
 import org.thingsboard.server.common.data.page.TextPageLink;
 import org.thingsboard.server.common.data.page.TimePageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.model.ModelConstants;
 
@@ -38,7 +40,9 @@ import java.io.IOException;
 import java.sql.Time;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public abstract class BaseDashboardServiceTest extends AbstractServiceTest {
@@ -138,6 +142,38 @@ public abstract class BaseDashboardServiceTest extends AbstractServiceTest {
             tenantService.deleteTenant(tenant.getId());
         }
     }
+
+    @Test
+    public void testUpdateDashboardCustomers() throws Exception {
+        Dashboard dashboard = new Dashboard();
+        dashboard.setTitle("My dashboard");
+        dashboard.setTenantId(tenantId);
+        dashboard = dashboardService.saveDashboard(dashboard);
+        Set<CustomerId> customerIds = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer();
+            customer.setTenantId(tenantId);
+            customer.setTitle("Customer " + i);
+            customerIds.add(customerService.saveCustomer(customer).getId());
+        }
+
+        Dashboard savedDashboard = dashboardService.updateDashboardCustomers(dashboard.getId(), customerIds, Collections.emptySet());
+        Assert.assertEquals(5, savedDashboard.getAssignedCustomers().size());
+        for (CustomerId customerId : customerIds) {
+            Assert.assertTrue(savedDashboard.isAssignedToCustomer(customerId));
+            Assert.assertTrue(relationService.checkRelation(customerId, dashboard.getId(), EntityRelation.CONTAINS_TYPE, RelationTypeGroup.DASHBOARD).get());
+        }
+
+        CustomerId unassignedCustomerId = customerIds.iterator().next();
+        savedDashboard = dashboardService.updateDashboardCustomers(dashboard.getId(), Collections.emptySet(), Collections.singleton(unassignedCustomerId));
+        Dashboard foundDashboard = dashboardService.findDashboardById(dashboard.getId());
+        Assert.assertEquals(savedDashboard, foundDashboard);
+        Assert.assertEquals(4, foundDashboard.getAssignedCustomers().size());
+        Assert.assertFalse(foundDashboard.isAssignedToCustomer(unassignedCustomerId));
+        Assert.assertFalse(relationService.checkRelation(unassignedCustomerId, dashboard.getId(), EntityRelation.CONTAINS_TYPE, RelationTypeGroup.DASHBOARD).get());
+
+        dashboardService.deleteDashboard(dashboard.getId());
+    }
     
     @Test
     public void testFindDashboardById() {
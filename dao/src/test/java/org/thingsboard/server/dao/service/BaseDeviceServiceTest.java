@@ -34,6 +34,7 @@ import org.thingsboard.server.common.data.security.DeviceCredentialsType;
 import org.thingsboard.server.dao.exception.DataValidationException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -166,6 +167,67 @@ public abstract class BaseDeviceServiceTest extends AbstractServiceTest {
         deviceService.deleteDevice(savedDevice.getId());
     }
 
+    @Test
+    public void testFindDeviceByIdAfterUpdate() throws Exception {
+        Device device = new Device();
+        device.setTenantId(tenantId);
+        device.setName("My device");
+        device.setType("default");
+        Device savedDevice = deviceService.saveDevice(device);
+
+        Device foundDevice = deviceService.findDeviceById(savedDevice.getId());
+        foundDevice.setName("My renamed device");
+        Assert.assertEquals("My device", deviceService.findDeviceById(savedDevice.getId()).getName());
+
+        deviceService.saveDevice(foundDevice);
+        Assert.assertEquals("My renamed device", deviceService.findDeviceById(savedDevice.getId()).getName());
+        Assert.assertEquals("My renamed device", deviceService.findDeviceByIdAsync(savedDevice.getId()).get().getName());
+        Assert.assertNull(deviceService.findDeviceByTenantIdAndName(tenantId, "My device"));
+
+        deviceService.deleteDevice(savedDevice.getId());
+        Assert.assertNull(deviceService.findDeviceById(savedDevice.getId()));
+    }
+
+    @Test
+    public void testFindDeviceByTenantIdAndNameAfterRename() {
+        Device device = new Device();
+        device.setTenantId(tenantId);
+        device.setName("My device");
+        device.setType("default");
+        Device savedDevice = deviceService.saveDevice(device);
+        Assert.assertEquals(savedDevice.getId(), deviceService.findDeviceByTenantIdAndName(tenantId, "My device").getId());
+
+        Device renamedDevice = new Device(savedDevice);
+        renamedDevice.setName("My renamed device");
+        deviceService.saveDevice(renamedDevice);
+        Assert.assertNull(deviceService.findDeviceByTenantIdAndName(tenantId, "My device"));
+        Assert.assertEquals(savedDevice.getId(), deviceService.findDeviceByTenantIdAndName(tenantId, "My renamed device").getId());
+
+        deviceService.deleteDevice(savedDevice.getId());
+    }
+
+    @Test
+    public void testFindDevicesByTenantIdAndNames() throws Exception {
+        List<Device> devices = new ArrayList<>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                Device device = new Device();
+                device.setTenantId(tenantId);
+                device.setName("Gateway device " + i);
+                device.setType("default");
+                devices.add(deviceService.saveDevice(device));
+            }
+            List<Device> found = deviceService.findDevicesByTenantIdAndNamesAsync(tenantId,
+                    Arrays.asList("Gateway device 1", "Gateway device 3", "Missing device")).get();
+            Assert.assertEquals(2, found.size());
+            Assert.assertTrue(found.contains(devices.get(1)));
+            Assert.assertTrue(found.contains(devices.get(3)));
+            Assert.assertTrue(deviceService.findDevicesByTenantIdAndNamesAsync(tenantId, Collections.emptyList()).get().isEmpty());
+        } finally {
+            devices.forEach((device) -> { deviceService.deleteDevice(device.getId()); });
+        }
+    }
+
     @Test
     public void testFindDeviceTypesByTenantId() throws Exception {
         List<Device> devices = new ArrayList<>();
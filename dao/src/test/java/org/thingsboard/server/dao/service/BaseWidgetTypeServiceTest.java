@@ -22,22 +22,35 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.widget.WidgetType;
 import org.thingsboard.server.common.data.widget.WidgetsBundle;
+import org.thingsboard.server.dao.cache.CacheEvictionTracker;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.model.ModelConstants;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.thingsboard.server.common.data.CacheConstants.WIDGET_TYPE_CACHE;
+
 public abstract class BaseWidgetTypeServiceTest extends AbstractServiceTest {
 
     private IdComparator<WidgetType> idComparator = new IdComparator<>();
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheEvictionTracker cacheEvictionTracker;
+
     private TenantId tenantId;
 
     @Before
@@ -87,6 +100,40 @@ public abstract class BaseWidgetTypeServiceTest extends AbstractServiceTest {
         widgetsBundleService.deleteWidgetsBundle(savedWidgetsBundle.getId());
     }
 
+    @Test
+    public void testEvictWidgetType() throws IOException {
+        WidgetsBundle widgetsBundle = new WidgetsBundle();
+        widgetsBundle.setTenantId(tenantId);
+        widgetsBundle.setTitle("Widgets bundle");
+        WidgetsBundle savedWidgetsBundle = widgetsBundleService.saveWidgetsBundle(widgetsBundle);
+
+        WidgetType widgetType = new WidgetType();
+        widgetType.setTenantId(tenantId);
+        widgetType.setBundleAlias(savedWidgetsBundle.getAlias());
+        widgetType.setName("Widget Type");
+        widgetType.setDescriptor(new ObjectMapper().readValue("{ \"someKey\": \"someValue\" }", JsonNode.class));
+        WidgetType savedWidgetType = widgetTypeService.saveWidgetType(widgetType);
+
+        Cache cache = cacheManager.getCache(WIDGET_TYPE_CACHE);
+        List<Object> keys = Arrays.asList(savedWidgetType.getId(),
+                Arrays.asList(tenantId, savedWidgetType.getBundleAlias(), savedWidgetType.getAlias()),
+                Arrays.asList(tenantId, savedWidgetType.getBundleAlias()));
+        long version = cacheEvictionTracker.getVersion(WIDGET_TYPE_CACHE, savedWidgetType.getId());
+        keys.forEach(key -> cache.put(key, "cached"));
+
+        savedWidgetType.setName("New Widget Type");
+        widgetTypeService.saveWidgetType(savedWidgetType);
+        keys.forEach(key -> Assert.assertNull(cache.get(key)));
+        Assert.assertFalse(cacheEvictionTracker.putIfNotEvicted(WIDGET_TYPE_CACHE, savedWidgetType.getId(), version, "stale"));
+        Assert.assertNull(cache.get(savedWidgetType.getId()));
+
+        keys.forEach(key -> cache.put(key, "cached"));
+        widgetTypeService.deleteWidgetType(savedWidgetType.getId());
+        keys.forEach(key -> Assert.assertNull(cache.get(key)));
+
+        widgetsBundleService.deleteWidgetsBundle(savedWidgetsBundle.getId());
+    }
+
     @Test(expected = DataValidationException.class)
     public void testSaveWidgetTypeWithEmptyName() throws IOException {
         WidgetsBundle widgetsBundle = new WidgetsBundle();
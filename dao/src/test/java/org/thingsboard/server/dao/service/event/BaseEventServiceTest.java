@@ -18,6 +18,8 @@ package org.thingsboard.server.dao.service.event;
 import com.datastax.driver.core.utils.UUIDs;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Event;
 import org.thingsboard.server.common.data.id.DeviceId;
@@ -27,16 +29,27 @@ import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.TimePageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.dao.event.EventDao;
+import org.thingsboard.server.dao.event.EventSink;
 import org.thingsboard.server.dao.service.AbstractServiceTest;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public abstract class BaseEventServiceTest extends AbstractServiceTest {
 
+    @Autowired
+    private EventDao eventDao;
+
+    @Autowired
+    private EventSink eventSink;
+
     @Test
     public void saveEvent() throws Exception {
         DeviceId devId = new DeviceId(UUIDs.timeBased());
@@ -58,6 +71,104 @@ public abstract class BaseEventServiceTest extends AbstractServiceTest {
         Assert.assertFalse(saved.isPresent());
     }
 
+    @Test
+    public void saveAllSavesValidEventsOfFailedBatch() throws Exception {
+        TenantId tenantId = new TenantId(UUIDs.timeBased());
+        DeviceId devId = new DeviceId(UUIDs.timeBased());
+        String duplicateUid = UUIDs.timeBased().toString();
+        eventService.save(generateEvent(tenantId, devId, "ALARM", duplicateUid));
+
+        List<Event> batch = Arrays.asList(
+                generateEvent(tenantId, devId, "ALARM", UUIDs.timeBased().toString()),
+                generateEvent(tenantId, devId, "ALARM", duplicateUid),
+                generateEvent(tenantId, devId, "ALARM", UUIDs.timeBased().toString()));
+        eventDao.saveAll(batch);
+
+        for (Event event : batch) {
+            Assert.assertTrue(eventService.findEvent(tenantId, devId, "ALARM", event.getUid()).isPresent());
+        }
+    }
+
+    @Test
+    public void saveAsyncSuppressesSimilarErrors() throws Exception {
+        RuleId ruleId = new RuleId(UUIDs.timeBased());
+        TenantId tenantId = new TenantId(UUIDs.timeBased());
+        for (int i = 0; i < 5; i++) {
+            eventService.saveAsync(generateErrorEvent(tenantId, ruleId, "onDeviceMsg", "java.lang.RuntimeException: Failed\n\tat line " + i));
+        }
+        eventService.saveAsync(generateErrorEvent(tenantId, ruleId, "onPluginMsg", "java.lang.RuntimeException: Failed"));
+
+        Assert.assertEquals(2, waitForErrorEvents(tenantId, ruleId, 2).size());
+    }
+
+    @Test
+    public void saveAsyncPersistsSummaryOfSimilarErrors() throws Exception {
+        long rateLimitIntervalMs = (long) ReflectionTestUtils.getField(eventSink, "rateLimitIntervalMs");
+        ReflectionTestUtils.setField(eventSink, "rateLimitIntervalMs", 500L);
+        try {
+            RuleId ruleId = new RuleId(UUIDs.timeBased());
+            TenantId tenantId = new TenantId(UUIDs.timeBased());
+            for (int i = 0; i < 5; i++) {
+                eventService.saveAsync(generateErrorEvent(tenantId, ruleId, "onDeviceMsg", "java.lang.RuntimeException: Failed\n\tat line " + i));
+            }
+
+            List<String> errors = waitForErrorEvents(tenantId, ruleId, 2);
+            Assert.assertEquals(2, errors.size());
+            Assert.assertTrue(errors.contains("java.lang.RuntimeException: Failed\n\tat line 0"));
+            Assert.assertTrue(errors.contains("4 similar errors suppressed. Last error: java.lang.RuntimeException: Failed\n\tat line 4"));
+        } finally {
+            ReflectionTestUtils.setField(eventSink, "rateLimitIntervalMs", rateLimitIntervalMs);
+        }
+    }
+
+    @Test
+    public void saveAsyncPersistsSummaryOfRateLimitedErrors() throws Exception {
+        long rateLimitIntervalMs = (long) ReflectionTestUtils.getField(eventSink, "rateLimitIntervalMs");
+        int maxEventsPerEntity = (int) ReflectionTestUtils.getField(eventSink, "maxEventsPerEntity");
+        ReflectionTestUtils.setField(eventSink, "rateLimitIntervalMs", 500L);
+        ReflectionTestUtils.setField(eventSink, "maxEventsPerEntity", 3);
+        try {
+            RuleId ruleId = new RuleId(UUIDs.timeBased());
+            TenantId tenantId = new TenantId(UUIDs.timeBased());
+            for (int i = 0; i < 6; i++) {
+                eventService.saveAsync(generateErrorEvent(tenantId, ruleId, "onDeviceMsg", "java.lang.RuntimeException: Failed " + i));
+            }
+
+            List<String> errors = waitForErrorEvents(tenantId, ruleId, 4);
+            Assert.assertEquals(4, errors.size());
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(errors.contains("java.lang.RuntimeException: Failed " + i));
+            }
+            Assert.assertTrue(errors.contains("3 errors suppressed by rate limit. Last error: java.lang.RuntimeException: Failed 5"));
+        } finally {
+            ReflectionTestUtils.setField(eventSink, "rateLimitIntervalMs", rateLimitIntervalMs);
+            ReflectionTestUtils.setField(eventSink, "maxEventsPerEntity", maxEventsPerEntity);
+        }
+    }
+
+    private List<String> waitForErrorEvents(TenantId tenantId, EntityId entityId, int count) throws InterruptedException {
+        TimePageData<Event> events = null;
+        for (int i = 0; i < 50; i++) {
+            events = eventService.findEvents(tenantId, entityId, DataConstants.ERROR, new TimePageLink(10));
+            if (events.getData().size() >= count) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        return events.getData().stream()
+                .map(event -> event.getBody().get("error").asText())
+                .collect(Collectors.toList());
+    }
+
+    private Event generateErrorEvent(TenantId tenantId, EntityId entityId, String method, String error) {
+        Event event = new Event();
+        event.setTenantId(tenantId);
+        event.setEntityId(entityId);
+        event.setType(DataConstants.ERROR);
+        event.setBody(mapper.createObjectNode().put("method", method).put("error", error));
+        return event;
+    }
+
     @Test
     public void findEventsByTypeAndTimeAscOrder() throws Exception {
         long timeBeforeStartTime = LocalDateTime.of(2016, Month.NOVEMBER, 1, 11, 30).toEpochSecond(ZoneOffset.UTC);
@@ -26,7 +26,9 @@ import org.thingsboard.server.dao.service.AbstractServiceTest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
@@ -45,6 +47,7 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
     private static final String BOOLEAN_KEY = "booleanKey";
 
     private static final long TS = 42L;
+    private static final long KEYS_TIMEOUT_MS = 5000;
 
     KvEntry stringKvEntry = new StringDataEntry(STRING_KEY, "value");
     KvEntry longKvEntry = new LongDataEntry(LONG_KEY, Long.MAX_VALUE);
@@ -92,6 +95,39 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
         Assert.assertEquals(toTsEntry(TS, stringKvEntry), entries.get(0));
     }
 
+    @Test
+    public void testFindKeys() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+
+        saveEntries(deviceId, TS - 1);
+        saveEntries(deviceId, TS - 2);
+        saveEntries(deviceId, TS);
+
+        List<TsKeyInfo> expected = Arrays.asList(
+                new TsKeyInfo(deviceId, BOOLEAN_KEY, DataType.BOOLEAN, TS - 2, TS),
+                new TsKeyInfo(deviceId, DOUBLE_KEY, DataType.DOUBLE, TS - 2, TS),
+                new TsKeyInfo(deviceId, LONG_KEY, DataType.LONG, TS - 2, TS),
+                new TsKeyInfo(deviceId, STRING_KEY, DataType.STRING, TS - 2, TS));
+        assertEquals(expected, awaitKeys(() -> tsService.findKeys(deviceId).get(), expected));
+    }
+
+    @Test
+    public void testFindKeysOfEntities() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        DeviceId otherDeviceId = new DeviceId(UUIDs.timeBased());
+        DeviceId emptyDeviceId = new DeviceId(UUIDs.timeBased());
+
+        tsService.save(deviceId, Arrays.asList(
+                toTsEntry(TS - 1, stringKvEntry),
+                toTsEntry(TS, new LongDataEntry(STRING_KEY, 1L))), 0).get();
+        tsService.save(otherDeviceId, toTsEntry(TS, booleanKvEntry)).get();
+
+        List<TsKeyInfo> expected = Arrays.asList(
+                new TsKeyInfo(otherDeviceId, BOOLEAN_KEY, DataType.BOOLEAN, TS, TS),
+                new TsKeyInfo(deviceId, STRING_KEY, DataType.LONG, TS - 1, TS));
+        assertEquals(expected, awaitKeys(() -> tsService.findKeys(Arrays.asList(deviceId, otherDeviceId, emptyDeviceId)).get(), expected));
+    }
+
     @Test
     public void testFindDeviceTsData() throws Exception {
         DeviceId deviceId = new DeviceId(UUIDs.timeBased());
@@ -183,12 +219,69 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
         assertEquals(java.util.Optional.of(2L), list.get(2).getLongValue());
     }
 
+    @Test
+    public void testFindDeviceTsDataDownsampled() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        for (int i = 0; i < 12; i++) {
+            long value = i == 5 ? 1000 : (i == 8 ? -500 : i * 10);
+            save(deviceId, 2500 + i * 5000, value);
+        }
+
+        List<TsKvEntry> list = tsService.findAll(deviceId, Collections.singletonList(new BaseTsKvQuery(LONG_KEY, 0,
+                60000, 20000, 5, Aggregation.LTTB))).get();
+        assertEquals(5, list.size());
+        assertEquals(2500, list.get(0).getTs());
+        assertEquals(27500, list.get(2).getTs());
+        assertEquals(java.util.Optional.of(1000L), list.get(2).getLongValue());
+        assertEquals(42500, list.get(3).getTs());
+        assertEquals(java.util.Optional.of(-500L), list.get(3).getLongValue());
+        assertEquals(57500, list.get(4).getTs());
+
+        list = tsService.findAll(deviceId, Collections.singletonList(new BaseTsKvQuery(LONG_KEY, 0,
+                60000, 20000, 6, Aggregation.MIN_MAX))).get();
+        long[] expected = {0, 30, 40, 1000, -500, 110};
+        assertEquals(expected.length, list.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(java.util.Optional.of(expected[i]), list.get(i).getLongValue());
+        }
+    }
+
+    @Test
+    public void testFindDeviceTsDataDownsampledBoundaries() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        for (int i = 0; i <= 10; i++) {
+            save(deviceId, i * 1000, i);
+        }
+
+        for (Aggregation aggregation : Arrays.asList(Aggregation.LTTB, Aggregation.MIN_MAX)) {
+            List<TsKvEntry> list = tsService.findAll(deviceId, Collections.singletonList(new BaseTsKvQuery(LONG_KEY, 0,
+                    10000, 10000, 4, aggregation))).get();
+            assertEquals(aggregation.name(), 1000, list.get(0).getTs());
+            assertEquals(aggregation.name(), 10000, list.get(list.size() - 1).getTs());
+        }
+    }
+
     private TsKvEntry save(DeviceId deviceId, long ts, long value) throws Exception {
         TsKvEntry entry = new BasicTsKvEntry(ts, new LongDataEntry(LONG_KEY, value));
         tsService.save(deviceId, entry).get();
         return entry;
     }
 
+    /**
+     * Keys are registered in the background, so waits until the found keys, sorted by name, match the expected ones.
+     */
+    private List<TsKeyInfo> awaitKeys(Callable<List<TsKeyInfo>> finder, List<TsKeyInfo> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + KEYS_TIMEOUT_MS;
+        List<TsKeyInfo> keys = finder.call();
+        keys.sort(Comparator.comparing(TsKeyInfo::getKey));
+        while (!expected.equals(keys) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            keys = finder.call();
+            keys.sort(Comparator.comparing(TsKeyInfo::getKey));
+        }
+        return keys;
+    }
+
     private void saveEntries(DeviceId deviceId, long ts) throws ExecutionException, InterruptedException {
         tsService.save(deviceId, toTsEntry(ts, stringKvEntry)).get();
         tsService.save(deviceId, toTsEntry(ts, longKvEntry)).get();
@@ -0,0 +1,125 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.timeseries;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.model.sql.TsKvEntity;
+import org.thingsboard.server.dao.timeseries.TimeseriesDao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
+
+public class JpaTimeseriesRetentionServiceTest extends AbstractJpaDaoTest {
+
+    @Autowired
+    private TimeseriesDao timeseriesDao;
+
+    @Autowired
+    private TsKvRepository tsKvRepository;
+
+    @Autowired
+    private TsKvRetentionProperties properties;
+
+    @Autowired
+    private JpaTimeseriesRetentionService retentionService;
+
+    @After
+    public void after() {
+        properties.setPolicies(new ArrayList<>());
+        properties.setBatchSize(10000);
+    }
+
+    @Test
+    public void testRemoveExpiredTelemetry() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        String expiringKey = "expiring" + UUIDs.timeBased();
+        String keptKey = "kept" + UUIDs.timeBased();
+        long now = System.currentTimeMillis();
+        for (int days = 0; days < 10; days++) {
+            long ts = now - TimeUnit.DAYS.toMillis(days);
+            save(deviceId, new BasicTsKvEntry(ts, new LongDataEntry(expiringKey, (long) days)));
+            save(deviceId, new BasicTsKvEntry(ts, new LongDataEntry(keptKey, (long) days)));
+        }
+
+        TsKvRetentionProperties.Policy policy = new TsKvRetentionProperties.Policy();
+        policy.setKey(expiringKey);
+        policy.setTtl(TimeUnit.DAYS.toSeconds(3) - 60);
+        List<TsKvRetentionProperties.Policy> policies = new ArrayList<>();
+        policies.add(policy);
+        properties.setPolicies(policies);
+        properties.setBatchSize(2);
+
+        assertTrue(retentionService.removeExpiredTelemetry() >= 7);
+
+        List<TsKvEntity> expiring = findAll(deviceId, expiringKey);
+        assertEquals(3, expiring.size());
+        assertEquals(now - TimeUnit.DAYS.toMillis(2), expiring.get(expiring.size() - 1).getTs());
+        assertEquals(10, findAll(deviceId, keptKey).size());
+    }
+
+    @Test
+    public void testRemoveExpiredTelemetryOfAllSeries() throws Exception {
+        String key = "expiring" + UUIDs.timeBased();
+        long now = System.currentTimeMillis();
+        List<DeviceId> deviceIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+            deviceIds.add(deviceId);
+            for (int days = 0; days < 5; days++) {
+                save(deviceId, new BasicTsKvEntry(now - TimeUnit.DAYS.toMillis(days), new LongDataEntry(key, (long) days)));
+            }
+        }
+
+        TsKvRetentionProperties.Policy policy = new TsKvRetentionProperties.Policy();
+        policy.setKey(key);
+        policy.setTtl(TimeUnit.DAYS.toSeconds(1) + 60);
+        List<TsKvRetentionProperties.Policy> policies = new ArrayList<>();
+        policies.add(policy);
+        properties.setPolicies(policies);
+        properties.setBatchSize(3);
+
+        assertTrue(retentionService.removeExpiredTelemetry() >= 9);
+
+        for (DeviceId deviceId : deviceIds) {
+            List<TsKvEntity> entries = findAll(deviceId, key);
+            assertEquals(2, entries.size());
+            assertEquals(now - TimeUnit.DAYS.toMillis(1), entries.get(entries.size() - 1).getTs());
+        }
+    }
+
+    private void save(DeviceId deviceId, TsKvEntry entry) throws Exception {
+        timeseriesDao.save(deviceId, entry, 0).get();
+    }
+
+    private List<TsKvEntity> findAll(DeviceId deviceId, String key) {
+        return tsKvRepository.findAllWithLimit(fromTimeUUID(deviceId.getId()), deviceId.getEntityType(), key,
+                0, Long.MAX_VALUE, new PageRequest(0, 100));
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.api.plugins;
+
+import org.thingsboard.server.common.data.id.EntityId;
+
+/**
+ * Receives the results of a multi-entity request as soon as the data of each entity is loaded.
+ * {@link #onFailure} is called instead of any other method if the request was rejected as a whole.
+ */
+public interface PluginBatchCallback<T> {
+
+    void onEntitySuccess(PluginContext ctx, EntityId entityId, T value);
+
+    void onEntityFailure(PluginContext ctx, EntityId entityId, Exception e);
+
+    void onComplete(PluginContext ctx);
+
+    void onFailure(PluginContext ctx, Exception e);
+}
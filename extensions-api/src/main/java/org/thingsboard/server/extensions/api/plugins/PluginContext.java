@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.*;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.TsKeyInfo;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.common.data.kv.TsKvQuery;
 import org.thingsboard.server.common.data.relation.EntityRelation;
@@ -91,6 +92,14 @@ public interface PluginContext {
 
     void loadLatestTimeseries(EntityId entityId, PluginCallback<List<TsKvEntry>> callback);
 
+    void loadTimeseriesKeys(EntityId entityId, PluginCallback<List<TsKeyInfo>> callback);
+
+    void loadTimeseriesKeys(List<EntityId> entityIds, PluginCallback<List<TsKeyInfo>> callback);
+
+    void loadTimeseries(List<EntityId> entityIds, List<TsKvQuery> queries, PluginBatchCallback<List<TsKvEntry>> callback);
+
+    void loadLatestTimeseries(List<EntityId> entityIds, Collection<String> keys, PluginBatchCallback<List<TsKvEntry>> callback);
+
     /*
         Attributes API
      */
@@ -115,6 +124,8 @@ public interface PluginContext {
 
     void loadAttributes(EntityId entityId, Collection<String> attributeTypes, Collection<String> attributeKeys, PluginCallback<List<AttributeKvEntry>> callback);
 
+    void loadAttributes(List<EntityId> entityIds, Collection<String> attributeTypes, Collection<String> attributeKeys, PluginBatchCallback<List<AttributeKvEntry>> callback);
+
     void getCustomerDevices(TenantId tenantId, CustomerId customerId, int limit, PluginCallback<List<Device>> callback);
 
 
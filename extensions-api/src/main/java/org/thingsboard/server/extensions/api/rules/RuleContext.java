@@ -42,4 +42,6 @@ public interface RuleContext {
     Alarm createOrUpdateAlarm(Alarm alarm);
 
     ListenableFuture<Boolean> clearAlarm(AlarmId id, long clearTs);
+
+    ScriptExecutor getScriptExecutor();
 }
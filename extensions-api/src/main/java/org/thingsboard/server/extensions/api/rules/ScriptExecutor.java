@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.api.rules;
+
+import javax.script.ScriptException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs user scripts of rule filters and processors outside of the rule actor threads.
+ */
+public interface ScriptExecutor {
+
+    /**
+     * Runs the task and waits for its result within the configured execution timeout.
+     * A timed out task is stopped by the executor and its thread is replaced.
+     *
+     * @throws ScriptException  if the task failed or was rejected because the executor queue is full
+     * @throws TimeoutException if the task did not complete in time
+     */
+    <T> T execute(Callable<T> task) throws ScriptException, TimeoutException;
+
+    /**
+     * @return maximum number of script engines compiled per script for concurrent evaluation
+     */
+    int getEnginePoolSize();
+
+}
@@ -16,8 +16,6 @@
 package org.thingsboard.server.extensions.core.action.template;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.velocity.Template;
-import org.apache.velocity.VelocityContext;
 import org.apache.velocity.runtime.parser.ParseException;
 import org.thingsboard.server.common.msg.device.ToDeviceActorMsg;
 import org.thingsboard.server.common.msg.session.FromDeviceRequestMsg;
@@ -29,6 +27,8 @@ import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
 import org.thingsboard.server.extensions.api.rules.RuleContext;
 import org.thingsboard.server.extensions.api.rules.RuleProcessingMetaData;
 import org.thingsboard.server.extensions.api.rules.SimpleRuleLifecycleComponent;
+import org.thingsboard.server.extensions.core.utils.CompiledTemplate;
+import org.thingsboard.server.extensions.core.utils.DeviceMetaDataContext;
 import org.thingsboard.server.extensions.core.utils.VelocityUtils;
 
 import java.util.Optional;
@@ -39,13 +39,14 @@ import java.util.Optional;
 @Slf4j
 public abstract class AbstractTemplatePluginAction<T extends TemplateActionConfiguration> extends SimpleRuleLifecycleComponent implements PluginAction<T> {
     protected T configuration;
-    protected Template template;
+    protected CompiledTemplate template;
+    private final DeviceMetaDataContext context = new DeviceMetaDataContext();
 
     @Override
     public void init(T configuration) {
         this.configuration = configuration;
         try {
-            this.template = VelocityUtils.create(configuration.getTemplate(), "Template");
+            this.template = VelocityUtils.compile(configuration.getTemplate(), "Template");
         } catch (ParseException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -72,8 +73,7 @@ public abstract class AbstractTemplatePluginAction<T extends TemplateActionConfi
 
     protected String getMsgBody(RuleContext ctx, ToDeviceActorMsg msg) {
         log.trace("Creating context for: {} and payload {}", ctx.getDeviceMetaData(), msg.getPayload());
-        VelocityContext context = VelocityUtils.createContext(ctx.getDeviceMetaData(), msg.getPayload());
-        return VelocityUtils.merge(template, context);
+        return template.merge(context.reset(ctx.getDeviceMetaData(), msg.getPayload()));
     }
 
     abstract protected Optional<RuleToPluginMsg> buildRuleToPluginMsg(RuleContext ctx,
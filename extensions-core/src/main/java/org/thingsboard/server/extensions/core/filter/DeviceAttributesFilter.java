@@ -35,11 +35,11 @@ public class DeviceAttributesFilter extends BasicJsFilter {
 
     @Override
     protected boolean doFilter(RuleContext ctx, ToDeviceActorMsg msg) throws ScriptException {
-        return evaluator.execute(toBindings(ctx.getDeviceMetaData().getDeviceAttributes(), msg != null ? msg.getPayload() : null));
+        return evaluator.execute(ctx.getScriptExecutor(), toBindings(ctx.getDeviceMetaData().getDeviceAttributes(), msg != null ? msg.getPayload() : null));
     }
 
     private Bindings toBindings(DeviceAttributes attributes, FromDeviceMsg msg) {
-        Bindings bindings = NashornJsEvaluator.getAttributeBindings(attributes);
+        Bindings bindings = NashornJsEvaluator.getAttributeBindings(evaluator.resetBindings(), attributes);
 
         if (msg != null) {
             switch (msg.getMsgType()) {
@@ -0,0 +1,270 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.extensions.api.rules.ScriptExecutor;
+
+import javax.script.ScriptException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of threads used to run user scripts outside of the rule dispatcher threads.
+ * <p>
+ * Nashorn does not check the interrupt flag inside script loops, so cancelling a timed out
+ * script is not enough to release its thread. The thread running a timed out script is
+ * stopped instead, and the pool replaces it, so a script that never returns does not
+ * permanently reduce the capacity of the pool. Pending scripts wait in a bounded queue and
+ * are rejected once it is full.
+ */
+@Slf4j
+public class JsExecutorService implements ScriptExecutor {
+
+    public static final String NAME = "js-executor";
+    public static final int DEFAULT_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+    public static final int DEFAULT_ENGINE_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final long DEFAULT_MAX_EXECUTION_TIME_MS = 1000;
+
+    private static final long KILL_RETRY_INTERVAL_MS = 100;
+    private static final int KILL_MAX_ATTEMPTS = 50;
+
+    private final int enginePoolSize;
+    private final long maxExecutionTimeMs;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService reaper;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong killed = new AtomicLong();
+    private final AtomicLong executedTasks = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicLong executionNanos = new AtomicLong();
+
+    public JsExecutorService() {
+        this(DEFAULT_THREAD_POOL_SIZE, DEFAULT_QUEUE_SIZE, DEFAULT_ENGINE_POOL_SIZE, DEFAULT_MAX_EXECUTION_TIME_MS);
+    }
+
+    public JsExecutorService(int threadPoolSize, int queueSize, int enginePoolSize, long maxExecutionTimeMs) {
+        this.enginePoolSize = Math.max(1, enginePoolSize);
+        this.maxExecutionTimeMs = maxExecutionTimeMs;
+        int poolSize = Math.max(1, threadPoolSize);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new JsThreadFactory(NAME + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.reaper = Executors.newSingleThreadExecutor(new JsThreadFactory(NAME + "-reaper-"));
+        log.info("Initialized JS executor with {} threads, queue size {}, {} engines per script and {} ms execution timeout",
+                poolSize, queueSize, this.enginePoolSize, maxExecutionTimeMs);
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+        reaper.shutdownNow();
+    }
+
+    @Override
+    public int getEnginePoolSize() {
+        return enginePoolSize;
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    public long getKilledCount() {
+        return killed.get();
+    }
+
+    public long getExecutedTaskCount() {
+        return executedTasks.get();
+    }
+
+    public double getAvgQueueWaitMs() {
+        long count = executedTasks.get();
+        return count > 0 ? queueWaitNanos.get() / (double) count / 1000000 : 0;
+    }
+
+    public double getMaxQueueWaitMs() {
+        return maxQueueWaitNanos.get() / 1000000.0;
+    }
+
+    public double getAvgExecutionTimeMs() {
+        long count = executedTasks.get();
+        return count > 0 ? executionNanos.get() / (double) count / 1000000 : 0;
+    }
+
+    @Override
+    public <T> T execute(Callable<T> task) throws ScriptException, TimeoutException {
+        ScriptTask<T> scriptTask = new ScriptTask<>(task);
+        Future<T> future;
+        try {
+            future = executor.submit(scriptTask);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new ScriptException("Script execution rejected: JS executor queue is full");
+        }
+        try {
+            return maxExecutionTimeMs > 0 ? future.get(maxExecutionTimeMs, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            future.cancel(true);
+            scriptTask.kill();
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            scriptTask.kill();
+            Thread.currentThread().interrupt();
+            throw new ScriptException("Script execution was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ScriptException) {
+                throw (ScriptException) cause;
+            }
+            throw new ScriptException(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JsExecutorService{active=" + getActiveCount() + ", queued=" + getQueueSize()
+                + ", rejected=" + getRejectedCount() + ", timedOut=" + getTimedOutCount() + ", killed=" + getKilledCount() + '}';
+    }
+
+    /**
+     * Remembers the thread that runs the script, so that the script can be stopped after the caller gave up on it.
+     */
+    private class ScriptTask<T> implements Callable<T> {
+
+        private final Callable<T> task;
+        private final long enqueueTime = System.nanoTime();
+        private Thread runner;
+        private boolean abandoned;
+
+        ScriptTask(Callable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            synchronized (this) {
+                if (abandoned) {
+                    throw new CancellationException();
+                }
+                runner = Thread.currentThread();
+            }
+            long startTime = System.nanoTime();
+            long wait = startTime - enqueueTime;
+            queueWaitNanos.addAndGet(wait);
+            maxQueueWaitNanos.accumulateAndGet(wait, Math::max);
+            try {
+                return task.call();
+            } finally {
+                executionNanos.addAndGet(System.nanoTime() - startTime);
+                executedTasks.incrementAndGet();
+                synchronized (this) {
+                    runner = null;
+                }
+            }
+        }
+
+        void kill() {
+            synchronized (this) {
+                abandoned = true;
+                if (runner == null) {
+                    return;
+                }
+            }
+            try {
+                reaper.execute(this::stopRunner);
+            } catch (RejectedExecutionException e) {
+                log.debug("JS executor is stopped, skipping termination of the timed out script");
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        private void stopRunner() {
+            for (int attempt = 0; attempt < KILL_MAX_ATTEMPTS; attempt++) {
+                synchronized (this) {
+                    if (runner == null) {
+                        return;
+                    }
+                    if (attempt == 0) {
+                        log.warn("[{}] Stopping timed out script", runner.getName());
+                        killed.incrementAndGet();
+                    }
+                    try {
+                        runner.stop();
+                    } catch (UnsupportedOperationException e) {
+                        log.error("[{}] Unable to stop timed out script, thread remains busy", runner.getName());
+                        return;
+                    }
+                }
+                try {
+                    Thread.sleep(KILL_RETRY_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            log.error("Failed to stop timed out script after {} attempts", KILL_MAX_ATTEMPTS);
+        }
+    }
+
+    private static class JsThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        JsThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -39,20 +39,22 @@ public class MsgTypeFilter extends SimpleRuleLifecycleComponent implements RuleF
 
     @Override
     public void init(MsgTypeFilterConfiguration configuration) {
-        msgTypes = Arrays.stream(configuration.getMessageTypes()).map(type -> {
-            switch (type) {
-                case "GET_ATTRIBUTES":
-                    return MsgType.GET_ATTRIBUTES_REQUEST;
-                case "POST_ATTRIBUTES":
-                    return MsgType.POST_ATTRIBUTES_REQUEST;
-                case "POST_TELEMETRY":
-                    return MsgType.POST_TELEMETRY_REQUEST;
-                case "RPC_REQUEST":
-                    return MsgType.TO_SERVER_RPC_REQUEST;
-                default:
-                    throw new InvalidParameterException("Can't map " + type + " to " + MsgType.class.getName() + "!");
-            }
-        }).collect(Collectors.toList());
+        msgTypes = Arrays.stream(configuration.getMessageTypes()).map(MsgTypeFilter::toMsgType).collect(Collectors.toList());
+    }
+
+    public static MsgType toMsgType(String type) {
+        switch (type) {
+            case "GET_ATTRIBUTES":
+                return MsgType.GET_ATTRIBUTES_REQUEST;
+            case "POST_ATTRIBUTES":
+                return MsgType.POST_ATTRIBUTES_REQUEST;
+            case "POST_TELEMETRY":
+                return MsgType.POST_TELEMETRY_REQUEST;
+            case "RPC_REQUEST":
+                return MsgType.TO_SERVER_RPC_REQUEST;
+            default:
+                throw new InvalidParameterException("Can't map " + type + " to " + MsgType.class.getName() + "!");
+        }
     }
 
     @Override
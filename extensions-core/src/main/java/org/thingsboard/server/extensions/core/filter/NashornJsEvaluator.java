@@ -21,12 +21,18 @@ import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.KvEntry;
 import org.thingsboard.server.common.msg.core.UpdateAttributesRequest;
 import org.thingsboard.server.extensions.api.device.DeviceAttributes;
+import org.thingsboard.server.extensions.api.rules.ScriptExecutor;
 
 import javax.script.*;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Andrew Shvayka
@@ -37,12 +43,19 @@ public class NashornJsEvaluator {
     public static final String CLIENT_SIDE = "cs";
     public static final String SERVER_SIDE = "ss";
     public static final String SHARED = "shared";
+    private static final long ENGINE_WAIT_INTERVAL_MS = 100;
     private static NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
 
-    private CompiledScript engine;
+    private final String script;
+    private final AtomicInteger created = new AtomicInteger();
+    private final ThreadLocal<Bindings> threadBindings = ThreadLocal.withInitial(SimpleBindings::new);
+    private volatile BlockingQueue<CompiledScript> engines;
 
     public NashornJsEvaluator(String script) {
-        engine = compileScript(script);
+        this.script = script;
+        this.engines = new LinkedBlockingQueue<>();
+        this.engines.add(compileScript(script));
+        this.created.set(1);
     }
 
     private static CompiledScript compileScript(String script) {
@@ -83,21 +96,7 @@ public class NashornJsEvaluator {
     }
 
     protected static Object getValue(KvEntry attr) {
-        switch (attr.getDataType()) {
-            case STRING:
-                return attr.getStrValue().orElse(null);
-            case LONG:
-                return attr.getLongValue().orElse(null);
-            case DOUBLE:
-                return attr.getDoubleValue().orElse(null);
-            case BOOLEAN:
-                return attr.getBooleanValue().orElse(null);
-        }
-        return null;
-    }
-
-    public static Bindings toBindings(List<KvEntry> entries) {
-        return toBindings(new SimpleBindings(), entries);
+        return attr.getValue();
     }
 
     public static Bindings toBindings(Bindings bindings, List<KvEntry> entries) {
@@ -107,16 +106,48 @@ public class NashornJsEvaluator {
         return bindings;
     }
 
-    public static Bindings getAttributeBindings(DeviceAttributes attributes) {
-        Bindings bindings = new SimpleBindings();
+    public static Bindings getAttributeBindings(Bindings bindings, DeviceAttributes attributes) {
         convertListEntries(bindings, CLIENT_SIDE, attributes.getClientSideAttributes());
         convertListEntries(bindings, SERVER_SIDE, attributes.getServerSideAttributes());
         convertListEntries(bindings, SHARED, attributes.getServerSidePublicAttributes());
         return bindings;
     }
 
-    public Boolean execute(Bindings bindings) throws ScriptException {
-        Object eval = engine.eval(bindings);
+    /**
+     * Returns the cleared bindings of the calling thread, so that a message does not allocate new bindings.
+     * The bindings are only valid until the next call made by the same thread.
+     */
+    public Bindings resetBindings() {
+        Bindings bindings = threadBindings.get();
+        bindings.clear();
+        return bindings;
+    }
+
+    public Boolean execute(ScriptExecutor executor, Bindings bindings) throws ScriptException {
+        BlockingQueue<CompiledScript> pool = engines;
+        if (pool == null) {
+            throw new ScriptException("Script evaluator is destroyed");
+        }
+        CompiledScript engine = acquire(pool, executor.getEnginePoolSize());
+        Object eval;
+        boolean release = true;
+        try {
+            eval = executor.execute(() -> engine.eval(bindings));
+        } catch (TimeoutException e) {
+            // The engine state is undefined after its script was stopped, so it is never returned to the pool.
+            release = false;
+            created.decrementAndGet();
+            // The timed out script may still read the bindings until it is stopped, so they are not reused.
+            if (threadBindings.get() == bindings) {
+                threadBindings.remove();
+            }
+            log.warn("Script execution timeout");
+            throw new ScriptException("Script execution timeout");
+        } finally {
+            if (release) {
+                pool.offer(engine);
+            }
+        }
         if (eval instanceof Boolean) {
             return (Boolean) eval;
         } else {
@@ -126,6 +157,23 @@ public class NashornJsEvaluator {
     }
 
     public void destroy() {
-        engine = null;
+        engines = null;
+    }
+
+    private CompiledScript acquire(BlockingQueue<CompiledScript> pool, int poolSize) throws ScriptException {
+        try {
+            CompiledScript engine = pool.poll();
+            while (engine == null) {
+                if (created.incrementAndGet() <= poolSize) {
+                    return compileScript(script);
+                }
+                created.decrementAndGet();
+                engine = pool.poll(ENGINE_WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            return engine;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptException("Interrupted while waiting for script engine");
+        }
     }
 }
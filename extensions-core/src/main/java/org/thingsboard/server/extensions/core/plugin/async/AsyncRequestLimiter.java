@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.async;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Limits the number of in-flight asynchronous plugin requests without blocking the caller.
+ * Requests over the limit wait in a bounded FIFO queue and are started from the completion
+ * callback of a previous request; once the queue is full new requests are rejected.
+ * With a limit of one request, requests are sent strictly one after another in submission order.
+ */
+@Slf4j
+public class AsyncRequestLimiter {
+
+    public static final int DEFAULT_MAX_PENDING_REQUESTS = 1000;
+
+    private final int maxConcurrentRequests;
+    private final int maxPendingRequests;
+    private final Queue<Consumer<Runnable>> pending = new ArrayDeque<>();
+    private int inFlight;
+
+    public AsyncRequestLimiter(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, DEFAULT_MAX_PENDING_REQUESTS);
+    }
+
+    public AsyncRequestLimiter(int maxConcurrentRequests, int maxPendingRequests) {
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.maxPendingRequests = Math.max(0, maxPendingRequests);
+    }
+
+    /**
+     * Starts the request now or queues it until a running request completes.
+     * The request receives a callback that it must invoke once the asynchronous call completes,
+     * successfully or not. The request must report its own failures instead of throwing,
+     * because queued requests are started from the completion thread of another request.
+     *
+     * @return false if the request was rejected because too many requests are pending
+     */
+    public boolean submit(Consumer<Runnable> request) {
+        synchronized (this) {
+            if (inFlight >= maxConcurrentRequests) {
+                if (pending.size() >= maxPendingRequests) {
+                    return false;
+                }
+                pending.add(request);
+                return true;
+            }
+            inFlight++;
+        }
+        start(request);
+        return true;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    private void start(Consumer<Runnable> request) {
+        AtomicBoolean completed = new AtomicBoolean();
+        Runnable onComplete = () -> {
+            if (completed.compareAndSet(false, true)) {
+                startNext();
+            }
+        };
+        try {
+            request.accept(onComplete);
+        } catch (RuntimeException e) {
+            log.warn("Failed to start request", e);
+            onComplete.run();
+        }
+    }
+
+    private void startNext() {
+        Consumer<Runnable> next;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        start(next);
+    }
+}
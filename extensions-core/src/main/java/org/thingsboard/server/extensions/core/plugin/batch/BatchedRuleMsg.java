@@ -0,0 +1,57 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.batch;
+
+import lombok.Data;
+import org.thingsboard.server.common.data.id.RuleId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.core.BasicStatusCodeResponse;
+import org.thingsboard.server.common.msg.session.MsgType;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
+import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
+
+/**
+ * Outgoing plugin message, possibly waiting in a {@link MessageBatcher}, together with everything required to reply to the originating rule.
+ */
+@Data
+public class BatchedRuleMsg<P> {
+
+    private final PluginContext ctx;
+    private final TenantId tenantId;
+    private final RuleId ruleId;
+    private final RuleToPluginMsg<?> msg;
+    private final boolean sync;
+    private final MsgType msgType;
+    private final Integer requestId;
+    private final P payload;
+
+    public void onSuccess() {
+        if (sync) {
+            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                    BasicStatusCodeResponse.onSuccess(msgType, requestId)));
+        }
+    }
+
+    public void onFailure(String method, Exception e) {
+        if (sync) {
+            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                    BasicStatusCodeResponse.onError(msgType, requestId, e)));
+        } else {
+            ctx.persistError(method, e);
+        }
+    }
+}
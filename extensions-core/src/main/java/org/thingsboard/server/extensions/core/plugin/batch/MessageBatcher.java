@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Accumulates outgoing plugin messages per destination and hands them to the sender
+ * once the batch reaches the max size or the linger time of its first message expires.
+ * Each batch has its own linger timer, which is cancelled when the batch is sent because it is full.
+ * Batches are always sent from the batcher's own thread.
+ */
+@Slf4j
+public class MessageBatcher<K, T> {
+
+    private static final long TERMINATION_TIMEOUT_MS = 5000;
+
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final BiConsumer<K, List<T>> sender;
+    private final ScheduledExecutorService executor;
+    private final Map<K, Batch<T>> pending = new HashMap<>();
+
+    public MessageBatcher(String name, int maxBatchSize, long lingerMs, BiConsumer<K, List<T>> sender) {
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.sender = sender;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void add(K destination, T msg) {
+        Batch<T> fullBatch = null;
+        synchronized (pending) {
+            Batch<T> batch = pending.get(destination);
+            if (batch == null) {
+                batch = new Batch<>(maxBatchSize);
+                pending.put(destination, batch);
+                Batch<T> lingering = batch;
+                batch.lingerFuture = executor.schedule(() -> flush(destination, lingering), lingerMs, TimeUnit.MILLISECONDS);
+            }
+            batch.msgs.add(msg);
+            if (batch.msgs.size() >= maxBatchSize) {
+                fullBatch = pending.remove(destination);
+                fullBatch.lingerFuture.cancel(false);
+            }
+        }
+        if (fullBatch != null) {
+            List<T> msgs = fullBatch.msgs;
+            executor.execute(() -> send(destination, msgs));
+        }
+    }
+
+    public void destroy() {
+        executor.execute(this::flushAll);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(TERMINATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Failed to flush pending batches in {} ms", TERMINATION_TIMEOUT_MS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void flush(K destination, Batch<T> batch) {
+        synchronized (pending) {
+            // The batch may already be sent because it became full; a newer batch to the same destination has its own timer.
+            if (!pending.remove(destination, batch)) {
+                return;
+            }
+        }
+        send(destination, batch.msgs);
+    }
+
+    private void flushAll() {
+        Map<K, Batch<T>> batches;
+        synchronized (pending) {
+            batches = new HashMap<>(pending);
+            pending.clear();
+        }
+        batches.forEach((destination, batch) -> {
+            batch.lingerFuture.cancel(false);
+            send(destination, batch.msgs);
+        });
+    }
+
+    private void send(K destination, List<T> batch) {
+        try {
+            sender.accept(destination, batch);
+        } catch (Exception e) {
+            log.warn("Failed to send batch of {} messages to {}", batch.size(), destination, e);
+        }
+    }
+
+    private static class Batch<T> {
+        private final List<T> msgs;
+        private ScheduledFuture<?> lingerFuture;
+
+        Batch(int maxBatchSize) {
+            this.msgs = new ArrayList<>(maxBatchSize);
+        }
+    }
+}
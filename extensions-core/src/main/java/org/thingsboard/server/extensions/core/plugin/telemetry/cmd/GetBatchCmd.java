@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.telemetry.cmd;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Fetches telemetry or attributes of several entities of the same type.
+ * Timeseries history is fetched when {@code endTs} is set, latest values otherwise.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class GetBatchCmd implements TelemetryPluginCmd {
+
+    private int cmdId;
+    private String entityType;
+    private List<String> entityIds;
+    private String feature;
+    private String scope;
+    private String keys;
+    private long startTs;
+    private long endTs;
+    private long interval;
+    private int limit;
+    private String agg;
+}
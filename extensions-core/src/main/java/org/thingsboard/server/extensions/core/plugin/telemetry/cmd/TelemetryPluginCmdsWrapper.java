@@ -28,6 +28,8 @@ public class TelemetryPluginCmdsWrapper {
 
     private List<GetHistoryCmd> historyCmds;
 
+    private List<GetBatchCmd> batchCmds;
+
     public TelemetryPluginCmdsWrapper() {
         super();
     }
@@ -55,4 +57,12 @@ public class TelemetryPluginCmdsWrapper {
     public void setHistoryCmds(List<GetHistoryCmd> historyCmds) {
         this.historyCmds = historyCmds;
     }
+
+    public List<GetBatchCmd> getBatchCmds() {
+        return batchCmds;
+    }
+
+    public void setBatchCmds(List<GetBatchCmd> batchCmds) {
+        this.batchCmds = batchCmds;
+    }
 }
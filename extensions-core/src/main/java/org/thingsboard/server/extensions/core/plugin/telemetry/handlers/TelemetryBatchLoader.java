@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.telemetry.handlers;
+
+import org.springframework.util.StringUtils;
+import org.thingsboard.server.common.data.DataConstants;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.kv.*;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+import org.thingsboard.server.extensions.core.plugin.telemetry.cmd.GetBatchCmd;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Executes {@link GetBatchCmd} for the REST and websocket handlers.
+ * Attributes are reported as timeseries entries with the last update time as timestamp.
+ */
+final class TelemetryBatchLoader {
+
+    private TelemetryBatchLoader() {
+    }
+
+    static List<EntityId> getEntityIds(GetBatchCmd cmd) {
+        if (StringUtils.isEmpty(cmd.getEntityType()) || cmd.getEntityIds() == null || cmd.getEntityIds().isEmpty()) {
+            throw new IllegalArgumentException("Entity type and entity ids can't be empty!");
+        }
+        return cmd.getEntityIds().stream()
+                .map(entityId -> EntityIdFactory.getByTypeAndId(cmd.getEntityType(), entityId))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    static void load(PluginContext ctx, GetBatchCmd cmd, List<EntityId> entityIds, PluginBatchCallback<List<TsKvEntry>> callback) {
+        TelemetryFeature feature = StringUtils.isEmpty(cmd.getFeature()) ? TelemetryFeature.TIMESERIES : TelemetryFeature.forName(cmd.getFeature());
+        List<String> keys = new ArrayList<>(TelemetryWebsocketMsgHandler.getKeys(cmd).orElse(Collections.emptySet()));
+        if (feature == TelemetryFeature.ATTRIBUTES) {
+            Collection<String> scopes = StringUtils.isEmpty(cmd.getScope()) ? Arrays.asList(DataConstants.allScopes()) : Collections.singletonList(cmd.getScope());
+            ctx.loadAttributes(entityIds, scopes, keys, new AttributesToTsCallback(callback));
+        } else if (cmd.getEndTs() > 0) {
+            if (keys.isEmpty()) {
+                throw new IllegalArgumentException("Keys can't be empty!");
+            }
+            int limit = cmd.getLimit() == 0 ? TelemetryWebsocketMsgHandler.DEFAULT_LIMIT : cmd.getLimit();
+            Aggregation agg = StringUtils.isEmpty(cmd.getAgg()) ? TelemetryWebsocketMsgHandler.DEFAULT_AGGREGATION : Aggregation.valueOf(cmd.getAgg());
+            List<TsKvQuery> queries = keys.stream()
+                    .map(key -> new BaseTsKvQuery(key, cmd.getStartTs(), cmd.getEndTs(), cmd.getInterval(), limit, agg))
+                    .collect(Collectors.toList());
+            ctx.loadTimeseries(entityIds, queries, callback);
+        } else {
+            ctx.loadLatestTimeseries(entityIds, keys, callback);
+        }
+    }
+
+    private static class AttributesToTsCallback implements PluginBatchCallback<List<AttributeKvEntry>> {
+
+        private final PluginBatchCallback<List<TsKvEntry>> callback;
+
+        AttributesToTsCallback(PluginBatchCallback<List<TsKvEntry>> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onEntitySuccess(PluginContext ctx, EntityId entityId, List<AttributeKvEntry> value) {
+            callback.onEntitySuccess(ctx, entityId, value.stream()
+                    .map(attribute -> new BasicTsKvEntry(attribute.getLastUpdateTs(), attribute))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void onEntityFailure(PluginContext ctx, EntityId entityId, Exception e) {
+            callback.onEntityFailure(ctx, entityId, e);
+        }
+
+        @Override
+        public void onComplete(PluginContext ctx) {
+            callback.onComplete(ctx);
+        }
+
+        @Override
+        public void onFailure(PluginContext ctx, Exception e) {
+            callback.onFailure(ctx, e);
+        }
+    }
+}
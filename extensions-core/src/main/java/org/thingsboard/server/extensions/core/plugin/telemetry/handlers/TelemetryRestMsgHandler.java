@@ -35,6 +35,7 @@ import org.thingsboard.server.common.transport.adaptor.JsonConverter;
 import org.thingsboard.server.extensions.api.exception.InvalidParametersException;
 import org.thingsboard.server.extensions.api.exception.ToErrorResponseEntity;
 import org.thingsboard.server.extensions.api.exception.UncheckedApiException;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
 import org.thingsboard.server.extensions.api.plugins.handlers.DefaultRestMsgHandler;
@@ -43,6 +44,7 @@ import org.thingsboard.server.extensions.api.plugins.rest.RestRequest;
 import org.thingsboard.server.extensions.core.plugin.telemetry.AttributeData;
 import org.thingsboard.server.extensions.core.plugin.telemetry.SubscriptionManager;
 import org.thingsboard.server.extensions.core.plugin.telemetry.TsData;
+import org.thingsboard.server.extensions.core.plugin.telemetry.cmd.GetBatchCmd;
 
 import javax.servlet.ServletException;
 import java.io.IOException;
@@ -62,6 +64,10 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
     public void handleHttpGetRequest(PluginContext ctx, PluginRestMsg msg) throws ServletException {
         RestRequest request = msg.getRequest();
         String[] pathParams = request.getPathParams();
+        if (pathParams.length == 2 && "keys".equals(pathParams[0]) && TelemetryFeature.forName(pathParams[1]) == TelemetryFeature.TIMESERIES) {
+            handleHttpGetEntitiesKeysMethod(ctx, msg, request);
+            return;
+        }
         if (pathParams.length < 4) {
             msg.getResponseHolder().setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
             return;
@@ -88,10 +94,10 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
 
     private void handleHttpGetKeysMethod(PluginContext ctx, PluginRestMsg msg, TelemetryFeature feature, String scope, EntityId entityId) {
         if (feature == TelemetryFeature.TIMESERIES) {
-            ctx.loadLatestTimeseries(entityId, new PluginCallback<List<TsKvEntry>>() {
+            ctx.loadTimeseriesKeys(entityId, new PluginCallback<List<TsKeyInfo>>() {
                 @Override
-                public void onSuccess(PluginContext ctx, List<TsKvEntry> value) {
-                    List<String> keys = value.stream().map(KvEntry::getKey).collect(Collectors.toList());
+                public void onSuccess(PluginContext ctx, List<TsKeyInfo> value) {
+                    List<String> keys = value.stream().map(TsKeyInfo::getKey).collect(Collectors.toList());
                     msg.getResponseHolder().setResult(new ResponseEntity<>(keys, HttpStatus.OK));
                 }
 
@@ -110,6 +116,36 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
         }
     }
 
+    private void handleHttpGetEntitiesKeysMethod(PluginContext ctx, PluginRestMsg msg, RestRequest request) throws ServletException {
+        String entityType = request.getParameter("entityType", "");
+        String entityIdsStr = request.getParameter("entityIds", "");
+        if (StringUtils.isEmpty(entityType) || StringUtils.isEmpty(entityIdsStr)) {
+            msg.getResponseHolder().setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            return;
+        }
+        List<EntityId> entityIds;
+        try {
+            entityIds = Arrays.stream(entityIdsStr.split(","))
+                    .map(entityIdStr -> EntityIdFactory.getByTypeAndId(entityType, entityIdStr.trim()))
+                    .distinct()
+                    .collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            handleError(e, msg, HttpStatus.BAD_REQUEST);
+            return;
+        }
+        ctx.loadTimeseriesKeys(entityIds, new PluginCallback<List<TsKeyInfo>>() {
+            @Override
+            public void onSuccess(PluginContext ctx, List<TsKeyInfo> value) {
+                msg.getResponseHolder().setResult(new ResponseEntity<>(value, HttpStatus.OK));
+            }
+
+            @Override
+            public void onFailure(PluginContext ctx, Exception e) {
+                handleError(e, msg, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
     private void handleHttpGetValuesMethod(PluginContext ctx, PluginRestMsg msg,
                                            RestRequest request, TelemetryFeature feature,
                                            String scope, EntityId entityId) throws ServletException {
@@ -177,6 +213,10 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
         Exception error = null;
         try {
             String[] pathParams = request.getPathParams();
+            if (pathParams.length == 1 && "batch".equals(pathParams[0])) {
+                handleHttpPostBatch(ctx, msg, request);
+                return;
+            }
             EntityId entityId;
             String scope;
             long ttl = 0L;
@@ -217,6 +257,41 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
         handleError(error, msg, HttpStatus.BAD_REQUEST);
     }
 
+    private void handleHttpPostBatch(PluginContext ctx, PluginRestMsg msg, RestRequest request) throws IOException {
+        GetBatchCmd cmd = jsonMapper.readValue(request.getRequestBody(), GetBatchCmd.class);
+        List<EntityId> entityIds = TelemetryBatchLoader.getEntityIds(cmd);
+        Map<String, Map<String, List<TsData>>> data = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        TelemetryBatchLoader.load(ctx, cmd, entityIds, new PluginBatchCallback<List<TsKvEntry>>() {
+            @Override
+            public void onEntitySuccess(PluginContext ctx, EntityId entityId, List<TsKvEntry> value) {
+                data.put(entityId.getId().toString(), toTsData(value));
+            }
+
+            @Override
+            public void onEntityFailure(PluginContext ctx, EntityId entityId, Exception e) {
+                errors.put(entityId.getId().toString(), e.getMessage());
+            }
+
+            @Override
+            public void onComplete(PluginContext ctx) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("data", data);
+                result.put("errors", errors);
+                msg.getResponseHolder().setResult(new ResponseEntity<>(result, HttpStatus.OK));
+            }
+
+            @Override
+            public void onFailure(PluginContext ctx, Exception e) {
+                if (e instanceof IllegalArgumentException) {
+                    msg.getResponseHolder().setResult(new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST));
+                } else {
+                    handleError(e, msg, HttpStatus.INTERNAL_SERVER_ERROR);
+                }
+            }
+        });
+    }
+
     private boolean handleHttpPostAttributes(PluginContext ctx, PluginRestMsg msg, RestRequest request,
                                           EntityId entityId, String scope) throws ServletException, IOException {
         if (DataConstants.SERVER_SCOPE.equals(scope) ||
@@ -406,16 +481,7 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
         return new PluginCallback<List<TsKvEntry>>() {
             @Override
             public void onSuccess(PluginContext ctx, List<TsKvEntry> data) {
-                Map<String, List<TsData>> result = new LinkedHashMap<>();
-                for (TsKvEntry entry : data) {
-                    List<TsData> vList = result.get(entry.getKey());
-                    if (vList == null) {
-                        vList = new ArrayList<>();
-                        result.put(entry.getKey(), vList);
-                    }
-                    vList.add(new TsData(entry.getTs(), entry.getValueAsString()));
-                }
-                msg.getResponseHolder().setResult(new ResponseEntity<>(result, HttpStatus.OK));
+                msg.getResponseHolder().setResult(new ResponseEntity<>(toTsData(data), HttpStatus.OK));
             }
 
             @Override
@@ -426,6 +492,19 @@ public class TelemetryRestMsgHandler extends DefaultRestMsgHandler {
         };
     }
 
+    private static Map<String, List<TsData>> toTsData(List<TsKvEntry> data) {
+        Map<String, List<TsData>> result = new LinkedHashMap<>();
+        for (TsKvEntry entry : data) {
+            List<TsData> vList = result.get(entry.getKey());
+            if (vList == null) {
+                vList = new ArrayList<>();
+                result.put(entry.getKey(), vList);
+            }
+            vList.add(new TsData(entry.getTs(), entry.getValueAsString()));
+        }
+        return result;
+    }
+
     private void handleError(Exception e, PluginRestMsg msg, HttpStatus defaultErrorStatus) {
         ResponseEntity responseEntity;
         if (e != null && e instanceof ToErrorResponseEntity) {
@@ -242,22 +242,13 @@ public class TelemetryRpcMsgHandler implements RpcMsgHandler {
         dataBuilder.setValueType(attr.getDataType().ordinal());
         switch (attr.getDataType()) {
             case BOOLEAN:
-                Optional<Boolean> booleanValue = attr.getBooleanValue();
-                if (booleanValue.isPresent()) {
-                    dataBuilder.setBoolValue(booleanValue.get());
-                }
+                dataBuilder.setBoolValue(attr.booleanValue());
                 break;
             case LONG:
-                Optional<Long> longValue = attr.getLongValue();
-                if (longValue.isPresent()) {
-                    dataBuilder.setLongValue(longValue.get());
-                }
+                dataBuilder.setLongValue(attr.longValue());
                 break;
             case DOUBLE:
-                Optional<Double> doubleValue = attr.getDoubleValue();
-                if (doubleValue.isPresent()) {
-                    dataBuilder.setDoubleValue(doubleValue.get());
-                }
+                dataBuilder.setDoubleValue(attr.doubleValue());
                 break;
             case STRING:
                 Optional<String> stringValue = attr.getStrValue();
@@ -22,7 +22,9 @@ import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.kv.*;
+import org.thingsboard.server.extensions.api.exception.AccessDeniedException;
 import org.thingsboard.server.extensions.api.exception.UnauthorizedException;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginCallback;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
 import org.thingsboard.server.extensions.api.plugins.handlers.DefaultWebsocketMsgHandler;
@@ -33,6 +35,7 @@ import org.thingsboard.server.extensions.api.plugins.ws.msg.PluginWebsocketMsg;
 import org.thingsboard.server.extensions.api.plugins.ws.msg.TextPluginWebSocketMsg;
 import org.thingsboard.server.extensions.core.plugin.telemetry.SubscriptionManager;
 import org.thingsboard.server.extensions.core.plugin.telemetry.cmd.*;
+import org.thingsboard.server.extensions.core.plugin.telemetry.sub.BatchUpdate;
 import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionErrorCode;
 import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionState;
 import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionType;
@@ -83,6 +86,9 @@ public class TelemetryWebsocketMsgHandler extends DefaultWebsocketMsgHandler {
                 if (cmdsWrapper.getHistoryCmds() != null) {
                     cmdsWrapper.getHistoryCmds().forEach(cmd -> handleWsHistoryCmd(ctx, sessionRef, cmd));
                 }
+                if (cmdsWrapper.getBatchCmds() != null) {
+                    cmdsWrapper.getBatchCmds().forEach(cmd -> handleWsBatchCmd(ctx, sessionRef, cmd));
+                }
             }
         } catch (IOException e) {
             log.warn("Failed to decode subscription cmd: {}", e.getMessage(), e);
@@ -323,6 +329,54 @@ public class TelemetryWebsocketMsgHandler extends DefaultWebsocketMsgHandler {
         });
     }
 
+    private void handleWsBatchCmd(PluginContext ctx, PluginWebsocketSessionRef sessionRef, GetBatchCmd cmd) {
+        String sessionId = sessionRef.getSessionId();
+        WsSessionMetaData sessionMD = wsSessionsMap.get(sessionId);
+        if (sessionMD == null) {
+            log.warn("[{}] Session meta data not found. ", sessionId);
+            SubscriptionUpdate update = new SubscriptionUpdate(cmd.getCmdId(), SubscriptionErrorCode.INTERNAL_ERROR,
+                    SESSION_META_DATA_NOT_FOUND);
+            sendWsMsg(ctx, sessionRef, update);
+            return;
+        }
+        try {
+            List<EntityId> entityIds = TelemetryBatchLoader.getEntityIds(cmd);
+            TelemetryBatchLoader.load(ctx, cmd, entityIds, new PluginBatchCallback<List<TsKvEntry>>() {
+                @Override
+                public void onEntitySuccess(PluginContext ctx, EntityId entityId, List<TsKvEntry> data) {
+                    sendWsMsg(ctx, sessionRef, BatchUpdate.data(cmd.getCmdId(), entityId, data));
+                }
+
+                @Override
+                public void onEntityFailure(PluginContext ctx, EntityId entityId, Exception e) {
+                    sendWsMsg(ctx, sessionRef, BatchUpdate.error(cmd.getCmdId(), entityId, SubscriptionErrorCode.INTERNAL_ERROR, FAILED_TO_FETCH_DATA));
+                }
+
+                @Override
+                public void onComplete(PluginContext ctx) {
+                    sendWsMsg(ctx, sessionRef, BatchUpdate.completed(cmd.getCmdId()));
+                }
+
+                @Override
+                public void onFailure(PluginContext ctx, Exception e) {
+                    SubscriptionUpdate update;
+                    if (UnauthorizedException.class.isInstance(e) || AccessDeniedException.class.isInstance(e)) {
+                        update = new SubscriptionUpdate(cmd.getCmdId(), SubscriptionErrorCode.UNAUTHORIZED,
+                                SubscriptionErrorCode.UNAUTHORIZED.getDefaultMsg());
+                    } else if (IllegalArgumentException.class.isInstance(e)) {
+                        update = new SubscriptionUpdate(cmd.getCmdId(), SubscriptionErrorCode.BAD_REQUEST, e.getMessage());
+                    } else {
+                        update = new SubscriptionUpdate(cmd.getCmdId(), SubscriptionErrorCode.INTERNAL_ERROR,
+                                FAILED_TO_FETCH_DATA);
+                    }
+                    sendWsMsg(ctx, sessionRef, update);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            sendWsMsg(ctx, sessionRef, new SubscriptionUpdate(cmd.getCmdId(), SubscriptionErrorCode.BAD_REQUEST, e.getMessage()));
+        }
+    }
+
     private static Aggregation getAggregation(String agg) {
         return StringUtils.isEmpty(agg) ? DEFAULT_AGGREGATION : Aggregation.valueOf(agg);
     }
@@ -362,7 +416,7 @@ public class TelemetryWebsocketMsgHandler extends DefaultWebsocketMsgHandler {
         return true;
     }
 
-    private void sendWsMsg(PluginContext ctx, PluginWebsocketSessionRef sessionRef, SubscriptionUpdate update) {
+    private void sendWsMsg(PluginContext ctx, PluginWebsocketSessionRef sessionRef, Object update) {
         TextPluginWebSocketMsg reply;
         try {
             reply = new TextPluginWebSocketMsg(sessionRef, jsonMapper.writeValueAsString(update));
@@ -0,0 +1,52 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.telemetry.sub;
+
+import lombok.Data;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data of a single entity requested by the batch command, or the final message of the command when {@code completed} is set.
+ */
+@Data
+public class BatchUpdate {
+
+    private final int cmdId;
+    private final String entityType;
+    private final String entityId;
+    private final int errorCode;
+    private final String errorMsg;
+    private final Map<String, List<Object>> data;
+    private final boolean completed;
+
+    public static BatchUpdate data(int cmdId, EntityId entityId, List<TsKvEntry> data) {
+        return new BatchUpdate(cmdId, entityId.getEntityType().name(), entityId.getId().toString(),
+                SubscriptionErrorCode.NO_ERROR.getCode(), null, new SubscriptionUpdate(cmdId, data).getData(), false);
+    }
+
+    public static BatchUpdate error(int cmdId, EntityId entityId, SubscriptionErrorCode errorCode, String errorMsg) {
+        return new BatchUpdate(cmdId, entityId.getEntityType().name(), entityId.getId().toString(),
+                errorCode.getCode(), errorMsg != null ? errorMsg : errorCode.getDefaultMsg(), null, false);
+    }
+
+    public static BatchUpdate completed(int cmdId) {
+        return new BatchUpdate(cmdId, null, null, SubscriptionErrorCode.NO_ERROR.getCode(), null, null, true);
+    }
+}
@@ -17,14 +17,14 @@ package org.thingsboard.server.extensions.core.processor;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.velocity.Template;
-import org.apache.velocity.VelocityContext;
 import org.apache.velocity.runtime.parser.ParseException;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Event;
 import org.thingsboard.server.common.msg.device.ToDeviceActorMsg;
 import org.thingsboard.server.extensions.api.component.Processor;
 import org.thingsboard.server.extensions.api.rules.*;
+import org.thingsboard.server.extensions.core.utils.CompiledTemplate;
+import org.thingsboard.server.extensions.core.utils.DeviceMetaDataContext;
 import org.thingsboard.server.extensions.core.utils.VelocityUtils;
 
 import java.util.Optional;
@@ -41,15 +41,16 @@ public class AlarmDeduplicationProcessor extends SimpleRuleLifecycleComponent
     public static final String IS_NEW_ALARM = "isNewAlarm";
     private ObjectMapper mapper = new ObjectMapper();
     private AlarmDeduplicationProcessorConfiguration configuration;
-    private Template alarmIdTemplate;
-    private Template alarmBodyTemplate;
+    private final DeviceMetaDataContext context = new DeviceMetaDataContext();
+    private CompiledTemplate alarmIdTemplate;
+    private CompiledTemplate alarmBodyTemplate;
 
     @Override
     public void init(AlarmDeduplicationProcessorConfiguration configuration) {
         this.configuration = configuration;
         try {
-            this.alarmIdTemplate = VelocityUtils.create(configuration.getAlarmIdTemplate(), "Alarm Id Template");
-            this.alarmBodyTemplate = VelocityUtils.create(configuration.getAlarmBodyTemplate(), "Alarm Body Template");
+            this.alarmIdTemplate = VelocityUtils.compile(configuration.getAlarmIdTemplate(), "Alarm Id Template");
+            this.alarmBodyTemplate = VelocityUtils.compile(configuration.getAlarmBodyTemplate(), "Alarm Body Template");
         } catch (ParseException e) {
             log.error("Failed to create templates based on provided configuration!", e);
             throw new RuntimeException("Failed to create templates based on provided configuration!", e);
@@ -59,9 +60,9 @@ public class AlarmDeduplicationProcessor extends SimpleRuleLifecycleComponent
     @Override
     public RuleProcessingMetaData process(RuleContext ctx, ToDeviceActorMsg msg) throws RuleException {
         RuleProcessingMetaData md = new RuleProcessingMetaData();
-        VelocityContext context = VelocityUtils.createContext(ctx.getDeviceMetaData(), msg.getPayload());
-        String alarmId = VelocityUtils.merge(alarmIdTemplate, context);
-        String alarmBody = VelocityUtils.merge(alarmBodyTemplate, context);
+        context.reset(ctx.getDeviceMetaData(), msg.getPayload());
+        String alarmId = alarmIdTemplate.merge(context);
+        String alarmBody = alarmBodyTemplate.merge(context);
         Optional<Event> existingEvent = ctx.findEvent(DataConstants.ALARM, alarmId);
         if (!existingEvent.isPresent()) {
             Event event = new Event();
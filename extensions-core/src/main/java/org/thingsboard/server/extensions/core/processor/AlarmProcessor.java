@@ -18,8 +18,6 @@ package org.thingsboard.server.extensions.core.processor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.velocity.Template;
-import org.apache.velocity.VelocityContext;
 import org.springframework.util.StringUtils;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
@@ -35,6 +33,8 @@ import org.thingsboard.server.extensions.api.rules.RuleException;
 import org.thingsboard.server.extensions.api.rules.RuleProcessingMetaData;
 import org.thingsboard.server.extensions.api.rules.RuleProcessor;
 import org.thingsboard.server.extensions.core.filter.NashornJsEvaluator;
+import org.thingsboard.server.extensions.core.utils.CompiledTemplate;
+import org.thingsboard.server.extensions.core.utils.DeviceMetaDataContext;
 import org.thingsboard.server.extensions.core.utils.VelocityUtils;
 
 import javax.script.Bindings;
@@ -64,16 +64,17 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
     private AlarmProcessorConfiguration configuration;
     private AlarmStatus status;
     private AlarmSeverity severity;
-    private Template alarmTypeTemplate;
-    private Template alarmDetailsTemplate;
+    private final DeviceMetaDataContext context = new DeviceMetaDataContext();
+    private CompiledTemplate alarmTypeTemplate;
+    private CompiledTemplate alarmDetailsTemplate;
 
 
     @Override
     public void init(AlarmProcessorConfiguration configuration) {
         this.configuration = configuration;
         try {
-            this.alarmTypeTemplate = VelocityUtils.create(configuration.getAlarmTypeTemplate(), "Alarm Type Template");
-            this.alarmDetailsTemplate = VelocityUtils.create(configuration.getAlarmDetailsTemplate(), "Alarm Details Template");
+            this.alarmTypeTemplate = VelocityUtils.compile(configuration.getAlarmTypeTemplate(), "Alarm Type Template");
+            this.alarmDetailsTemplate = VelocityUtils.compile(configuration.getAlarmDetailsTemplate(), "Alarm Details Template");
             this.status = AlarmStatus.valueOf(configuration.getAlarmStatus());
             this.severity = AlarmSeverity.valueOf(configuration.getAlarmSeverity());
             initEvaluators();
@@ -111,14 +112,14 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
         boolean isActiveAlarm;
         boolean isClearedAlarm;
 
-        VelocityContext context = VelocityUtils.createContext(ctx.getDeviceMetaData(), msg);
+        context.reset(ctx.getDeviceMetaData(), msg);
         for (Object key : context.getKeys()) {
             md.put(key.toString(), context.get(key.toString()));
         }
 
         try {
-            isActiveAlarm = newAlarmEvaluator.execute(bindings);
-            isClearedAlarm = clearAlarmEvaluator.execute(bindings);
+            isActiveAlarm = newAlarmEvaluator.execute(ctx.getScriptExecutor(), bindings);
+            isClearedAlarm = clearAlarmEvaluator.execute(ctx.getScriptExecutor(), bindings);
         } catch (ScriptException e) {
             log.debug("[{}] Failed to evaluate alarm expressions!", ctx.getRuleId(), e);
             throw new RuleException("Failed to evaluate alarm expressions!", e);
@@ -133,7 +134,7 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
         if (isActiveAlarm) {
             existing = processActiveAlarm(ctx, msg, md);
         } else {
-            existing = processInactiveAlarm(ctx, md, context);
+            existing = processInactiveAlarm(ctx, md);
         }
 
         if (existing != null) {
@@ -178,9 +179,9 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
         return existing;
     }
 
-    private Alarm processInactiveAlarm(RuleContext ctx, RuleProcessingMetaData md, VelocityContext context) throws RuleException {
+    private Alarm processInactiveAlarm(RuleContext ctx, RuleProcessingMetaData md) throws RuleException {
         Alarm existing = null;
-        String alarmType = VelocityUtils.merge(alarmTypeTemplate, context);
+        String alarmType = alarmTypeTemplate.merge(context);
         Optional<Alarm> alarm = ctx.findLatestAlarm(ctx.getDeviceMetaData().getDeviceId(), alarmType);
         if (alarm.isPresent()) {
             ctx.clearAlarm(alarm.get().getId(), System.currentTimeMillis());
@@ -193,9 +194,8 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
     }
 
     private Alarm buildAlarm(RuleContext ctx, FromDeviceMsg msg) throws RuleException {
-        VelocityContext context = VelocityUtils.createContext(ctx.getDeviceMetaData(), msg);
-        String alarmType = VelocityUtils.merge(alarmTypeTemplate, context);
-        String alarmDetails = VelocityUtils.merge(alarmDetailsTemplate, context);
+        String alarmType = alarmTypeTemplate.merge(context);
+        String alarmDetails = alarmDetailsTemplate.merge(context);
 
         Alarm alarm = new Alarm();
         alarm.setOriginator(ctx.getDeviceMetaData().getDeviceId());
@@ -215,7 +215,8 @@ public class AlarmProcessor implements RuleProcessor<AlarmProcessorConfiguration
     }
 
     private Bindings buildBindings(RuleContext ctx, FromDeviceMsg msg) {
-        Bindings bindings = NashornJsEvaluator.getAttributeBindings(ctx.getDeviceMetaData().getDeviceAttributes());
+        Bindings bindings = NashornJsEvaluator.getAttributeBindings(newAlarmEvaluator.resetBindings(),
+                ctx.getDeviceMetaData().getDeviceAttributes());
         if (msg != null) {
             switch (msg.getMsgType()) {
                 case POST_ATTRIBUTES_REQUEST:
@@ -0,0 +1,226 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.utils;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.thingsboard.server.common.data.kv.KvEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-compiled Velocity template. Templates that consist only of literal text and simple
+ * {@code ${name}} / {@code ${name.property}} references (the typical JSON body of a plugin action)
+ * are rendered by direct substitution, everything else is merged by Velocity.
+ */
+public class CompiledTemplate {
+
+    private final Template template;
+    private final List<Segment> segments;
+
+    CompiledTemplate(Template template, String source) {
+        this.template = template;
+        this.segments = parseSimpleTemplate(source);
+    }
+
+    public Template getTemplate() {
+        return template;
+    }
+
+    public boolean isSimple() {
+        return segments != null;
+    }
+
+    public String merge(Context context) {
+        if (segments != null) {
+            StringBuilder sb = VelocityUtils.acquireBuffer();
+            boolean resolved = true;
+            for (Segment segment : segments) {
+                if (!segment.append(sb, context)) {
+                    resolved = false;
+                    break;
+                }
+            }
+            if (resolved) {
+                return sb.toString();
+            }
+        }
+        return VelocityUtils.merge(template, context);
+    }
+
+    /**
+     * @return list of segments or null if template uses any Velocity feature besides simple references.
+     */
+    static List<Segment> parseSimpleTemplate(String source) {
+        List<Segment> result = new ArrayList<>();
+        int length = source.length();
+        int literalStart = 0;
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '#' || c == '\\') {
+                return null;
+            } else if (c == '$') {
+                int refStart = i;
+                int pos = i + 1;
+                boolean quiet = false;
+                if (pos < length && source.charAt(pos) == '!') {
+                    quiet = true;
+                    pos++;
+                }
+                boolean braced = pos < length && source.charAt(pos) == '{';
+                if (braced) {
+                    pos++;
+                }
+                int nameStart = pos;
+                pos = scanIdentifier(source, pos);
+                if (pos == nameStart) {
+                    return null;
+                }
+                String name = source.substring(nameStart, pos);
+                String property = null;
+                if (pos + 1 < length && source.charAt(pos) == '.' && isIdentifierStart(source.charAt(pos + 1))) {
+                    int propertyStart = pos + 1;
+                    pos = scanIdentifier(source, propertyStart);
+                    property = source.substring(propertyStart, pos);
+                }
+                if (braced) {
+                    if (pos >= length || source.charAt(pos) != '}') {
+                        return null;
+                    }
+                    pos++;
+                } else if (pos < length && (source.charAt(pos) == '(' || source.charAt(pos) == '[' || source.charAt(pos) == '.')) {
+                    return null;
+                }
+                if ("class".equals(property)) {
+                    return null;
+                }
+                if (refStart > literalStart) {
+                    result.add(new Literal(source.substring(literalStart, refStart)));
+                }
+                result.add(new Reference(source.substring(refStart, pos), name, property, quiet));
+                literalStart = pos;
+                i = pos;
+            } else {
+                i++;
+            }
+        }
+        if (literalStart < length) {
+            result.add(new Literal(source.substring(literalStart)));
+        }
+        return result;
+    }
+
+    private static int scanIdentifier(String source, int pos) {
+        if (pos >= source.length() || !isIdentifierStart(source.charAt(pos))) {
+            return pos;
+        }
+        pos++;
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '-') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    interface Segment {
+        /**
+         * @return false if the segment can't be rendered without Velocity.
+         */
+        boolean append(StringBuilder sb, Context context);
+    }
+
+    static class Literal implements Segment {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean append(StringBuilder sb, Context context) {
+            sb.append(text);
+            return true;
+        }
+    }
+
+    static class Reference implements Segment {
+        private static final Object UNRESOLVED = new Object();
+
+        private final String text;
+        private final String name;
+        private final String property;
+        private final boolean quiet;
+
+        Reference(String text, String name, String property, boolean quiet) {
+            this.text = text;
+            this.name = name;
+            this.property = property;
+            this.quiet = quiet;
+        }
+
+        @Override
+        public boolean append(StringBuilder sb, Context context) {
+            Object value = context.get(name);
+            if (value != null && property != null) {
+                value = getProperty(value, property);
+                if (value == UNRESOLVED) {
+                    return false;
+                }
+            }
+            if (value != null) {
+                sb.append(value.toString());
+            } else if (!quiet) {
+                sb.append(text);
+            }
+            return true;
+        }
+
+        private static Object getProperty(Object value, String property) {
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).get(property);
+            } else if (value instanceof KvEntry) {
+                KvEntry entry = (KvEntry) value;
+                switch (property) {
+                    case "key":
+                        return entry.getKey();
+                    case "value":
+                        return entry.getValue();
+                    case "valueAsString":
+                        return entry.getValueAsString();
+                    case "dataType":
+                        return entry.getDataType();
+                    case "ts":
+                        return value instanceof TsKvEntry ? ((TsKvEntry) value).getTs() : UNRESOLVED;
+                    default:
+                        return UNRESOLVED;
+                }
+            }
+            return UNRESOLVED;
+        }
+    }
+}
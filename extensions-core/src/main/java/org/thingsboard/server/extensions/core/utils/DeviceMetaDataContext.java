@@ -0,0 +1,222 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.utils;
+
+import org.apache.velocity.context.AbstractContext;
+import org.apache.velocity.tools.generic.DateTool;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.KvEntry;
+import org.thingsboard.server.common.msg.core.TelemetryUploadRequest;
+import org.thingsboard.server.common.msg.session.FromDeviceMsg;
+import org.thingsboard.server.common.msg.session.MsgType;
+import org.thingsboard.server.extensions.api.device.DeviceAttributes;
+import org.thingsboard.server.extensions.api.device.DeviceMetaData;
+import org.thingsboard.server.extensions.core.filter.NashornJsEvaluator;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Velocity context that resolves device attributes and telemetry of the incoming message on demand,
+ * instead of copying all of them into a new {@link org.apache.velocity.VelocityContext} for every message.
+ * Not thread safe: each rule component keeps its own instance and {@link #reset(DeviceMetaData, FromDeviceMsg) resets} it per message.
+ */
+public class DeviceMetaDataContext extends AbstractContext {
+
+    static final String DATE = "date";
+    static final String DEVICE_ID = "deviceId";
+    static final String DEVICE_NAME = "deviceName";
+    static final String DEVICE_TYPE = "deviceType";
+
+    private static final DateTool DATE_TOOL = new DateTool();
+
+    private DeviceMetaData deviceMetaData;
+    private FromDeviceMsg payload;
+    private Map<String, Object> locals;
+
+    public DeviceMetaDataContext() {
+    }
+
+    public DeviceMetaDataContext(DeviceMetaData deviceMetaData, FromDeviceMsg payload) {
+        reset(deviceMetaData, payload);
+    }
+
+    public DeviceMetaDataContext reset(DeviceMetaData deviceMetaData, FromDeviceMsg payload) {
+        this.deviceMetaData = deviceMetaData;
+        this.payload = payload;
+        if (locals != null) {
+            locals.clear();
+        }
+        return this;
+    }
+
+    @Override
+    public Object internalGet(String key) {
+        if (locals != null && locals.containsKey(key)) {
+            return locals.get(key);
+        }
+        switch (key) {
+            case DATE:
+                return DATE_TOOL;
+            case DEVICE_ID:
+                return deviceMetaData.getDeviceId().getId().toString();
+            case DEVICE_NAME:
+                return deviceMetaData.getDeviceName();
+            case DEVICE_TYPE:
+                return deviceMetaData.getDeviceType();
+            case NashornJsEvaluator.CLIENT_SIDE:
+                DeviceAttributes cs = deviceMetaData.getDeviceAttributes();
+                return new AttributesView(cs.getClientSideAttributes(), cs::getClientSideAttribute);
+            case NashornJsEvaluator.SERVER_SIDE:
+                DeviceAttributes ss = deviceMetaData.getDeviceAttributes();
+                return new AttributesView(ss.getServerSideAttributes(), ss::getServerPrivateAttribute);
+            case NashornJsEvaluator.SHARED:
+                DeviceAttributes shared = deviceMetaData.getDeviceAttributes();
+                return new AttributesView(shared.getServerSidePublicAttributes(), shared::getServerPublicAttribute);
+            default:
+                return findTsEntry(key);
+        }
+    }
+
+    @Override
+    public Object internalPut(String key, Object value) {
+        if (locals == null) {
+            locals = new HashMap<>();
+        }
+        return locals.put(key, value);
+    }
+
+    @Override
+    public boolean internalContainsKey(Object key) {
+        return key instanceof String && internalGet((String) key) != null;
+    }
+
+    @Override
+    public Object[] internalGetKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(DATE);
+        keys.add(NashornJsEvaluator.CLIENT_SIDE);
+        keys.add(NashornJsEvaluator.SERVER_SIDE);
+        keys.add(NashornJsEvaluator.SHARED);
+        if (isTelemetry()) {
+            for (List<KvEntry> entries : ((TelemetryUploadRequest) payload).getData().values()) {
+                for (KvEntry entry : entries) {
+                    keys.add(entry.getKey());
+                }
+            }
+        }
+        keys.add(DEVICE_ID);
+        keys.add(DEVICE_NAME);
+        keys.add(DEVICE_TYPE);
+        if (locals != null) {
+            keys.addAll(locals.keySet());
+        }
+        return keys.toArray();
+    }
+
+    @Override
+    public Object internalRemove(Object key) {
+        return locals != null ? locals.remove(key) : null;
+    }
+
+    private BasicTsKvEntry findTsEntry(String key) {
+        if (!isTelemetry()) {
+            return null;
+        }
+        BasicTsKvEntry result = null;
+        for (Map.Entry<Long, List<KvEntry>> tsEntries : ((TelemetryUploadRequest) payload).getData().entrySet()) {
+            for (KvEntry entry : tsEntries.getValue()) {
+                if (key.equals(entry.getKey())) {
+                    result = new BasicTsKvEntry(tsEntries.getKey(), entry);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isTelemetry() {
+        return payload != null && payload.getMsgType() == MsgType.POST_TELEMETRY_REQUEST;
+    }
+
+    /**
+     * Read-only map view of device attributes of a single scope, rendered as strings.
+     */
+    static class AttributesView extends AbstractMap<String, String> {
+
+        private final Collection<AttributeKvEntry> attributes;
+        private final Function<String, Optional<AttributeKvEntry>> lookup;
+
+        AttributesView(Collection<AttributeKvEntry> attributes, Function<String, Optional<AttributeKvEntry>> lookup) {
+            this.attributes = attributes;
+            this.lookup = lookup;
+        }
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            return lookup.apply((String) key).map(AttributeKvEntry::getValueAsString).orElse(null);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && lookup.apply((String) key).isPresent();
+        }
+
+        @Override
+        public int size() {
+            return attributes.size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<AttributeKvEntry> it = attributes.iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            AttributeKvEntry attr = it.next();
+                            return new SimpleImmutableEntry<>(attr.getKey(), attr.getValueAsString());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return attributes.size();
+                }
+            };
+        }
+    }
+}
@@ -17,31 +17,27 @@ package org.thingsboard.server.extensions.core.utils;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.Context;
 import org.apache.velocity.runtime.RuntimeServices;
 import org.apache.velocity.runtime.RuntimeSingleton;
 import org.apache.velocity.runtime.parser.ParseException;
 import org.apache.velocity.runtime.parser.node.SimpleNode;
-import org.apache.velocity.tools.generic.DateTool;
-import org.thingsboard.server.common.data.kv.AttributeKvEntry;
-import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
-import org.thingsboard.server.common.msg.core.TelemetryUploadRequest;
 import org.thingsboard.server.common.msg.session.FromDeviceMsg;
-import org.thingsboard.server.extensions.api.device.DeviceAttributes;
 import org.thingsboard.server.extensions.api.device.DeviceMetaData;
 import org.thingsboard.server.extensions.api.rules.RuleProcessingMetaData;
-import org.thingsboard.server.extensions.core.filter.NashornJsEvaluator;
 
 import java.io.StringReader;
-import java.io.StringWriter;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.Writer;
 
 /**
  * @author Andrew Shvayka
  */
 public class VelocityUtils {
 
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
     public static Template create(String source, String templateName) throws ParseException {
         RuntimeServices runtimeServices = RuntimeSingleton.getRuntimeServices();
         StringReader reader = new StringReader(source);
@@ -53,10 +49,14 @@ public class VelocityUtils {
         return template;
     }
 
-    public static String merge(Template template, VelocityContext context) {
-        StringWriter writer = new StringWriter();
-        template.merge(context, writer);
-        return writer.toString();
+    public static CompiledTemplate compile(String source, String templateName) throws ParseException {
+        return new CompiledTemplate(create(source, templateName), source);
+    }
+
+    public static String merge(Template template, Context context) {
+        StringBuilder sb = acquireBuffer();
+        template.merge(context, new StringBuilderWriter(sb));
+        return sb.toString();
     }
 
     public static VelocityContext createContext(RuleProcessingMetaData metadata) {
@@ -65,41 +65,52 @@ public class VelocityUtils {
         return context;
     }
 
-    public static VelocityContext createContext(DeviceMetaData deviceMetaData, FromDeviceMsg payload) {
-        VelocityContext context = new VelocityContext();
-        context.put("date", new DateTool());
-        DeviceAttributes deviceAttributes = deviceMetaData.getDeviceAttributes();
-
-        pushAttributes(context, deviceAttributes.getClientSideAttributes(), NashornJsEvaluator.CLIENT_SIDE);
-        pushAttributes(context, deviceAttributes.getServerSideAttributes(), NashornJsEvaluator.SERVER_SIDE);
-        pushAttributes(context, deviceAttributes.getServerSidePublicAttributes(), NashornJsEvaluator.SHARED);
-
-        switch (payload.getMsgType()) {
-            case POST_TELEMETRY_REQUEST:
-                pushTsEntries(context, (TelemetryUploadRequest) payload);
-                break;
-            default:
-                break;
+    public static DeviceMetaDataContext createContext(DeviceMetaData deviceMetaData, FromDeviceMsg payload) {
+        return new DeviceMetaDataContext(deviceMetaData, payload);
+    }
+
+    /**
+     * Returns an empty per-thread buffer for template output. The buffer is valid until the next call on the same thread.
+     */
+    static StringBuilder acquireBuffer() {
+        StringBuilder sb = BUFFER.get();
+        if (sb.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            sb = new StringBuilder(INITIAL_BUFFER_SIZE);
+            BUFFER.set(sb);
+        } else {
+            sb.setLength(0);
         }
+        return sb;
+    }
 
-        context.put("deviceId", deviceMetaData.getDeviceId().getId().toString());
-        context.put("deviceName", deviceMetaData.getDeviceName());
-        context.put("deviceType", deviceMetaData.getDeviceType());
+    private static class StringBuilderWriter extends Writer {
+        private final StringBuilder sb;
 
-        return context;
-    }
+        StringBuilderWriter(StringBuilder sb) {
+            this.sb = sb;
+        }
 
-    private static void pushTsEntries(VelocityContext context, TelemetryUploadRequest payload) {
-        payload.getData().forEach((k, vList) -> {
-            vList.forEach(v -> {
-                context.put(v.getKey(), new BasicTsKvEntry(k, v));
-            });
-        });
-    }
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
 
-    private static void pushAttributes(VelocityContext context, Collection<AttributeKvEntry> deviceAttributes, String prefix) {
-        Map<String, String> values = new HashMap<>();
-        deviceAttributes.forEach(v -> values.put(v.getKey(), v.getValueAsString()));
-        context.put(prefix, values);
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
     }
 }
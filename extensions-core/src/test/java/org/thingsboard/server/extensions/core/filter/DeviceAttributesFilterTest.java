@@ -23,13 +23,16 @@ import org.thingsboard.server.common.data.kv.DoubleDataEntry;
 import org.thingsboard.server.extensions.api.device.DeviceAttributes;
 import org.thingsboard.server.extensions.api.device.DeviceMetaData;
 import org.thingsboard.server.extensions.api.rules.RuleContext;
+import org.junit.After;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import javax.script.ScriptException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -43,6 +46,19 @@ public class DeviceAttributesFilterTest {
     @Mock
     RuleContext ruleCtx;
 
+    private JsExecutorService executor;
+
+    @Before
+    public void before() {
+        executor = new JsExecutorService();
+        Mockito.when(ruleCtx.getScriptExecutor()).thenReturn(executor);
+    }
+
+    @After
+    public void after() {
+        executor.destroy();
+    }
+
     private static JsFilterConfiguration wrap(String filterBody) {
         return new JsFilterConfiguration(filterBody);
     }
@@ -126,4 +142,52 @@ public class DeviceAttributesFilterTest {
         filter.stop();
     }
 
+    @Test
+    public void reusedBindingsDoNotKeepAttributesOfPreviousMessageTest() {
+        DeviceAttributesFilter filter = new DeviceAttributesFilter();
+        filter.init(wrap("typeof doubleValue === 'undefined'"));
+
+        List<AttributeKvEntry> clientAttributes = new ArrayList<>();
+        clientAttributes.add(new BaseAttributeKvEntry(new DoubleDataEntry("doubleValue", 1.0), 42));
+        DeviceAttributes attributes = new DeviceAttributes(clientAttributes, new ArrayList<>(), new ArrayList<>());
+        DeviceAttributes emptyAttributes = new DeviceAttributes(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        Mockito.when(ruleCtx.getDeviceMetaData()).thenReturn(new DeviceMetaData(new DeviceId(UUID.randomUUID()), "A", "A", attributes));
+        Assert.assertFalse(filter.filter(ruleCtx, null));
+        Mockito.when(ruleCtx.getDeviceMetaData()).thenReturn(new DeviceMetaData(new DeviceId(UUID.randomUUID()), "A", "A", emptyAttributes));
+        Assert.assertTrue(filter.filter(ruleCtx, null));
+        Assert.assertSame(filter.evaluator.resetBindings(), filter.evaluator.resetBindings());
+        filter.stop();
+    }
+
+    @Test(timeout = 30000)
+    public void timedOutScriptsReleaseExecutorThreadsTest() {
+        int threadPoolSize = 2;
+        JsExecutorService limitedExecutor = new JsExecutorService(threadPoolSize, 1, 1, 500);
+        Mockito.when(ruleCtx.getScriptExecutor()).thenReturn(limitedExecutor);
+        DeviceAttributes attributes = new DeviceAttributes(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Mockito.when(ruleCtx.getDeviceMetaData()).thenReturn(new DeviceMetaData(new DeviceId(UUID.randomUUID()), "A", "A", attributes));
+
+        DeviceAttributesFilter loopFilter = new DeviceAttributesFilter();
+        loopFilter.init(wrap("while (true) {}; true"));
+        DeviceAttributesFilter filter = new DeviceAttributesFilter();
+        filter.init(wrap("true"));
+        try {
+            for (int i = 0; i < threadPoolSize + 1; i++) {
+                try {
+                    loopFilter.filter(ruleCtx, null);
+                    Assert.fail("Script execution is expected to time out");
+                } catch (RuntimeException e) {
+                    Assert.assertTrue(e.getCause() instanceof ScriptException);
+                }
+            }
+            Assert.assertEquals(threadPoolSize + 1, limitedExecutor.getTimedOutCount());
+            Assert.assertTrue(filter.filter(ruleCtx, null));
+        } finally {
+            loopFilter.stop();
+            filter.stop();
+            limitedExecutor.destroy();
+        }
+    }
+
 }
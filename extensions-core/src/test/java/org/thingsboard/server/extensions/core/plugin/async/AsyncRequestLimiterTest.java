@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.async;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AsyncRequestLimiterTest {
+
+    @Test
+    public void requestsOverLimitAreQueuedAndRejectedTest() {
+        AsyncRequestLimiter limiter = new AsyncRequestLimiter(2, 1);
+        List<Runnable> callbacks = new ArrayList<>();
+
+        Assert.assertTrue(limiter.submit(callbacks::add));
+        Assert.assertTrue(limiter.submit(callbacks::add));
+        Assert.assertTrue(limiter.submit(callbacks::add));
+        Assert.assertFalse(limiter.submit(callbacks::add));
+        Assert.assertEquals(2, callbacks.size());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getPending());
+
+        callbacks.get(0).run();
+        Assert.assertEquals(3, callbacks.size());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(0, limiter.getPending());
+
+        callbacks.get(1).run();
+        callbacks.get(2).run();
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void singleRequestLimitPreservesOrderTest() {
+        AsyncRequestLimiter limiter = new AsyncRequestLimiter(1);
+        List<Integer> started = new ArrayList<>();
+        List<Runnable> callbacks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            Assert.assertTrue(limiter.submit(onComplete -> {
+                started.add(id);
+                callbacks.add(onComplete);
+            }));
+        }
+        Assert.assertEquals(Arrays.asList(0), started);
+
+        for (int i = 0; i < 4; i++) {
+            callbacks.get(i).run();
+            Assert.assertEquals(Math.min(i + 2, 4), started.size());
+        }
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), started);
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void callbackIsCountedOnceTest() {
+        AsyncRequestLimiter limiter = new AsyncRequestLimiter(1);
+        List<Runnable> callbacks = new ArrayList<>();
+        limiter.submit(callbacks::add);
+        limiter.submit(callbacks::add);
+
+        callbacks.get(0).run();
+        callbacks.get(0).run();
+        Assert.assertEquals(1, limiter.getInFlight());
+        Assert.assertEquals(2, callbacks.size());
+    }
+
+    @Test
+    public void failedStartReleasesLimitTest() {
+        AsyncRequestLimiter limiter = new AsyncRequestLimiter(1);
+        Assert.assertTrue(limiter.submit(onComplete -> {
+            throw new IllegalStateException("Connection refused");
+        }));
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+}
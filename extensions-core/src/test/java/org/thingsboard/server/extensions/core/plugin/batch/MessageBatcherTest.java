@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.batch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MessageBatcherTest {
+
+    @Test
+    public void fullBatchIsSentImmediatelyTest() throws Exception {
+        List<List<Integer>> sent = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1);
+        MessageBatcher<String, Integer> batcher = new MessageBatcher<>("test", 3, TimeUnit.HOURS.toMillis(1), (queue, batch) -> {
+            sent.add(batch);
+            latch.countDown();
+        });
+        try {
+            batcher.add("q1", 1);
+            batcher.add("q1", 2);
+            batcher.add("q1", 3);
+            Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+            Assert.assertEquals(Collections.singletonList(Arrays.asList(1, 2, 3)), sent);
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    public void partialBatchIsSentAfterLingerTest() throws Exception {
+        List<String> destinations = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(2);
+        MessageBatcher<String, Integer> batcher = new MessageBatcher<>("test", 10, 50, (queue, batch) -> {
+            destinations.add(queue + ":" + batch.size());
+            latch.countDown();
+        });
+        try {
+            batcher.add("q1", 1);
+            batcher.add("q2", 2);
+            batcher.add("q1", 3);
+            Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+            Assert.assertTrue(destinations.contains("q1:2"));
+            Assert.assertTrue(destinations.contains("q2:1"));
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    public void lingerTimerOfFullBatchDoesNotFlushNextBatchTest() throws Exception {
+        List<List<Integer>> sent = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(2);
+        MessageBatcher<String, Integer> batcher = new MessageBatcher<>("test", 2, 300, (queue, batch) -> {
+            sent.add(batch);
+            latch.countDown();
+        });
+        try {
+            batcher.add("q1", 1);
+            batcher.add("q1", 2);
+            Thread.sleep(200);
+            batcher.add("q1", 3);
+            Thread.sleep(200);
+            Assert.assertEquals(Collections.singletonList(Arrays.asList(1, 2)), sent);
+            Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), sent);
+        } finally {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    public void pendingMessagesAreFlushedOnDestroyTest() {
+        List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+        MessageBatcher<String, Integer> batcher = new MessageBatcher<>("test", 10, TimeUnit.HOURS.toMillis(1),
+                (queue, batch) -> sent.addAll(batch));
+        batcher.add("q1", 1);
+        batcher.add("q1", 2);
+        batcher.destroy();
+        Assert.assertEquals(Arrays.asList(1, 2), sent);
+    }
+}
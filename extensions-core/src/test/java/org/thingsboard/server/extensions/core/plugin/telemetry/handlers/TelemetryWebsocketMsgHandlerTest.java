@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.plugin.telemetry.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.extensions.api.exception.AccessDeniedException;
+import org.thingsboard.server.extensions.api.plugins.PluginBatchCallback;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+import org.thingsboard.server.extensions.api.plugins.ws.PluginWebsocketSessionRef;
+import org.thingsboard.server.extensions.api.plugins.ws.SessionEvent;
+import org.thingsboard.server.extensions.api.plugins.ws.msg.PluginWebsocketMsg;
+import org.thingsboard.server.extensions.api.plugins.ws.msg.SessionEventPluginWebSocketMsg;
+import org.thingsboard.server.extensions.api.plugins.ws.msg.TextPluginWebSocketMsg;
+import org.thingsboard.server.extensions.core.plugin.telemetry.SubscriptionManager;
+import org.thingsboard.server.extensions.core.plugin.telemetry.sub.SubscriptionErrorCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TelemetryWebsocketMsgHandlerTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Mock
+    private PluginContext ctx;
+    @Mock
+    private SubscriptionManager subscriptionManager;
+    @Mock
+    private PluginWebsocketSessionRef sessionRef;
+
+    private TelemetryWebsocketMsgHandler handler;
+
+    @Before
+    public void before() {
+        Mockito.when(sessionRef.getSessionId()).thenReturn("session");
+        handler = new TelemetryWebsocketMsgHandler(subscriptionManager);
+        handler.process(ctx, new SessionEventPluginWebSocketMsg(sessionRef, SessionEvent.onEstablished()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchCmdSendsEntityUpdatesFollowedByCompletion() throws Exception {
+        DeviceId deviceA = new DeviceId(UUID.randomUUID());
+        DeviceId deviceB = new DeviceId(UUID.randomUUID());
+        Mockito.doAnswer(invocation -> {
+            List<EntityId> entityIds = (List<EntityId>) invocation.getArguments()[0];
+            PluginBatchCallback<List<TsKvEntry>> callback = (PluginBatchCallback<List<TsKvEntry>>) invocation.getArguments()[2];
+            callback.onEntitySuccess(ctx, entityIds.get(0), Collections.singletonList(new BasicTsKvEntry(42L, new LongDataEntry("temperature", 21L))));
+            callback.onEntityFailure(ctx, entityIds.get(1), new RuntimeException("Timeout"));
+            callback.onComplete(ctx);
+            return null;
+        }).when(ctx).loadLatestTimeseries(Matchers.anyList(), Matchers.anyCollection(), Matchers.any(PluginBatchCallback.class));
+
+        handler.process(ctx, batchMsg(1, deviceA.getId().toString(), deviceB.getId().toString()));
+
+        List<JsonNode> replies = getReplies(3);
+        Assert.assertEquals(deviceA.getId().toString(), replies.get(0).get("entityId").asText());
+        Assert.assertEquals(SubscriptionErrorCode.NO_ERROR.getCode(), replies.get(0).get("errorCode").asInt());
+        Assert.assertEquals("21", replies.get(0).get("data").get("temperature").get(0).get(1).asText());
+        Assert.assertEquals(deviceB.getId().toString(), replies.get(1).get("entityId").asText());
+        Assert.assertEquals(SubscriptionErrorCode.INTERNAL_ERROR.getCode(), replies.get(1).get("errorCode").asInt());
+        Assert.assertTrue(replies.get(2).get("completed").asBoolean());
+        for (JsonNode reply : replies) {
+            Assert.assertEquals(1, reply.get("cmdId").asInt());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchCmdReportsDeniedEntitiesAsUnauthorized() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ((PluginBatchCallback<List<TsKvEntry>>) invocation.getArguments()[2])
+                    .onFailure(ctx, new AccessDeniedException("Some of the requested entities don't belong to the current Tenant!"));
+            return null;
+        }).when(ctx).loadLatestTimeseries(Matchers.anyList(), Matchers.anyCollection(), Matchers.any(PluginBatchCallback.class));
+
+        handler.process(ctx, batchMsg(2, UUID.randomUUID().toString()));
+
+        JsonNode reply = getReplies(1).get(0);
+        Assert.assertEquals(2, reply.get("subscriptionId").asInt());
+        Assert.assertEquals(SubscriptionErrorCode.UNAUTHORIZED.getCode(), reply.get("errorCode").asInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void batchCmdReportsRejectedRequestAsBadRequest() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ((PluginBatchCallback<List<TsKvEntry>>) invocation.getArguments()[2])
+                    .onFailure(ctx, new IllegalArgumentException("Requested 2 entities, but at most 1 are allowed!"));
+            return null;
+        }).when(ctx).loadLatestTimeseries(Matchers.anyList(), Matchers.anyCollection(), Matchers.any(PluginBatchCallback.class));
+
+        handler.process(ctx, batchMsg(3, UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+
+        JsonNode reply = getReplies(1).get(0);
+        Assert.assertEquals(SubscriptionErrorCode.BAD_REQUEST.getCode(), reply.get("errorCode").asInt());
+        Assert.assertEquals("Requested 2 entities, but at most 1 are allowed!", reply.get("errorMsg").asText());
+    }
+
+    @Test
+    public void batchCmdWithoutEntityIdsIsBadRequest() throws Exception {
+        handler.process(ctx, batchMsg(4));
+
+        JsonNode reply = getReplies(1).get(0);
+        Assert.assertEquals(SubscriptionErrorCode.BAD_REQUEST.getCode(), reply.get("errorCode").asInt());
+        Mockito.verify(ctx, Mockito.never()).loadLatestTimeseries(Matchers.anyList(), Matchers.anyCollection(), Matchers.any());
+    }
+
+    private TextPluginWebSocketMsg batchMsg(int cmdId, String... entityIds) throws Exception {
+        String ids = entityIds.length == 0 ? "" : "\"" + String.join("\",\"", entityIds) + "\"";
+        return new TextPluginWebSocketMsg(sessionRef, "{\"batchCmds\":[{\"cmdId\":" + cmdId
+                + ",\"entityType\":\"DEVICE\",\"entityIds\":[" + ids + "],\"keys\":\"temperature\"}]}");
+    }
+
+    private List<JsonNode> getReplies(int count) throws Exception {
+        ArgumentCaptor<PluginWebsocketMsg> captor = ArgumentCaptor.forClass(PluginWebsocketMsg.class);
+        Mockito.verify(ctx, Mockito.times(count)).send(captor.capture());
+        List<JsonNode> replies = new ArrayList<>();
+        for (PluginWebsocketMsg msg : captor.getAllValues()) {
+            replies.add(mapper.readTree((String) msg.getPayload()));
+        }
+        return replies;
+    }
+}
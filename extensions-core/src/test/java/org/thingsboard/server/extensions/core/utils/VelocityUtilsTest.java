@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.core.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.msg.core.BasicTelemetryUploadRequest;
+import org.thingsboard.server.extensions.api.device.DeviceAttributes;
+import org.thingsboard.server.extensions.api.device.DeviceMetaData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class VelocityUtilsTest {
+
+    private DeviceMetaData deviceMetaData;
+    private BasicTelemetryUploadRequest telemetry;
+
+    @Before
+    public void before() {
+        List<AttributeKvEntry> clientAttributes = new ArrayList<>();
+        clientAttributes.add(new BaseAttributeKvEntry(new StringDataEntry("serialNumber", "SN-001"), 42));
+        List<AttributeKvEntry> serverAttributes = new ArrayList<>();
+        serverAttributes.add(new BaseAttributeKvEntry(new LongDataEntry("threshold", 25L), 42));
+        DeviceAttributes attributes = new DeviceAttributes(clientAttributes, serverAttributes, Collections.emptyList());
+        deviceMetaData = new DeviceMetaData(new DeviceId(UUID.randomUUID()), "Thermostat A", "thermostat", attributes);
+
+        telemetry = new BasicTelemetryUploadRequest();
+        telemetry.add(1000L, new DoubleDataEntry("temperature", 22.5));
+        telemetry.add(1000L, new LongDataEntry("humidity", 40L));
+    }
+
+    @Test
+    public void simpleJsonTemplateMatchesVelocityTest() throws Exception {
+        assertSameAsVelocity("{\"deviceName\":\"${deviceName}\",\"type\":\"$deviceType\",\"temperature\":${temperature.valueAsString}," +
+                "\"ts\":${temperature.ts},\"serial\":\"${cs.serialNumber}\",\"threshold\":${ss.threshold}}", true);
+    }
+
+    @Test
+    public void unresolvedReferencesMatchVelocityTest() throws Exception {
+        assertSameAsVelocity("{\"missing\":\"${missing}\",\"quiet\":\"$!{missing}\",\"attr\":\"${cs.missing}\",\"price\":\"$5\"}", false);
+        assertSameAsVelocity("{\"missing\":\"${missing}\",\"quiet\":\"$!{missing}\",\"attr\":\"${cs.missing}\"}", true);
+    }
+
+    @Test
+    public void templateWithDirectivesIsMergedByVelocityTest() throws Exception {
+        assertSameAsVelocity("#if($temperature.value > 20)hot#{else}cold#end ${date.get('yyyy')}", false);
+    }
+
+    private void assertSameAsVelocity(String source, boolean simple) throws Exception {
+        CompiledTemplate template = VelocityUtils.compile(source, "Test Template");
+        Assert.assertEquals(simple, template.isSimple());
+        DeviceMetaDataContext context = VelocityUtils.createContext(deviceMetaData, telemetry);
+        String expected = VelocityUtils.merge(template.getTemplate(), context);
+        Assert.assertEquals(expected, template.merge(context));
+    }
+}
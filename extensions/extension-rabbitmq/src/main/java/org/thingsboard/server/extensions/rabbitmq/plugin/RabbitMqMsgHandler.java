@@ -18,7 +18,8 @@ package org.thingsboard.server.extensions.rabbitmq.plugin;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.MessageProperties;
-import lombok.RequiredArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.core.BasicStatusCodeResponse;
@@ -27,20 +28,49 @@ import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
 import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
 import org.thingsboard.server.extensions.api.rules.RuleException;
+import org.thingsboard.server.extensions.core.plugin.batch.BatchedRuleMsg;
+import org.thingsboard.server.extensions.core.plugin.batch.MessageBatcher;
 import org.thingsboard.server.extensions.rabbitmq.action.RabbitMqActionMsg;
 import org.thingsboard.server.extensions.rabbitmq.action.RabbitMqActionPayload;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.List;
 
 /**
  * @author Andrew Shvayka
  */
-@RequiredArgsConstructor
+@Slf4j
 public class RabbitMqMsgHandler implements RuleMsgHandler {
     private static final Charset UTF8 = Charset.forName("UTF-8");
+    static final long CONFIRM_TIMEOUT_MS = 10000;
 
     private final Channel channel;
+    private final MessageBatcher<Destination, BatchedRuleMsg<RabbitMqActionPayload>> batcher;
+
+    public RabbitMqMsgHandler(Channel channel) throws IOException {
+        this(channel, 1, 0);
+    }
+
+    /**
+     * With batch size greater than one messages are published by the batcher thread only,
+     * and each batch is acknowledged by a single wait for publisher confirms.
+     */
+    public RabbitMqMsgHandler(Channel channel, int batchSize, long lingerMs) throws IOException {
+        this.channel = channel;
+        if (batchSize > 1) {
+            channel.confirmSelect();
+            this.batcher = new MessageBatcher<>("rabbitmq", batchSize, lingerMs, this::publishBatch);
+        } else {
+            this.batcher = null;
+        }
+    }
+
+    public void destroy() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
 
     @Override
     public void process(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
@@ -49,6 +79,11 @@ public class RabbitMqMsgHandler implements RuleMsgHandler {
         }
         RabbitMqActionPayload payload = ((RabbitMqActionMsg) msg).getPayload();
         AMQP.BasicProperties properties = convert(payload.getMessageProperties());
+        if (batcher != null) {
+            batcher.add(new Destination(payload.getExchange() != null ? payload.getExchange() : "", payload.getQueueName()),
+                    new BatchedRuleMsg<>(ctx, tenantId, ruleId, msg, payload.isSync(), payload.getMsgType(), payload.getRequestId(), payload));
+            return;
+        }
         try {
             channel.basicPublish(
                     payload.getExchange() != null ? payload.getExchange() : "",
@@ -64,6 +99,21 @@ public class RabbitMqMsgHandler implements RuleMsgHandler {
         }
     }
 
+    private void publishBatch(Destination destination, List<BatchedRuleMsg<RabbitMqActionPayload>> batch) {
+        try {
+            for (BatchedRuleMsg<RabbitMqActionPayload> msg : batch) {
+                RabbitMqActionPayload payload = msg.getPayload();
+                channel.basicPublish(destination.getExchange(), destination.getQueueName(),
+                        convert(payload.getMessageProperties()), payload.getPayload().getBytes(UTF8));
+            }
+            channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+            batch.forEach(BatchedRuleMsg::onSuccess);
+        } catch (Exception e) {
+            log.debug("Failed to publish batch of {} messages to {}", batch.size(), destination, e);
+            batch.forEach(msg -> msg.onFailure("Publish batch to " + destination, e));
+        }
+    }
+
     private static AMQP.BasicProperties convert(String name) throws RuleException {
         switch (name) {
             case "BASIC":
@@ -83,4 +133,10 @@ public class RabbitMqMsgHandler implements RuleMsgHandler {
         }
     }
 
+    @Data
+    private static final class Destination {
+        private final String exchange;
+        private final String queueName;
+    }
+
 }
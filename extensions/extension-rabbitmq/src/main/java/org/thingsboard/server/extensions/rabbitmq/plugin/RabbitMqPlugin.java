@@ -38,12 +38,14 @@ descriptor = "RabbitMqPluginDescriptor.json", configuration = RabbitMqPluginConf
 @Slf4j
 public class RabbitMqPlugin extends AbstractPlugin<RabbitMqPluginConfiguration> {
 
+    private RabbitMqPluginConfiguration configuration;
     private ConnectionFactory factory;
     private Connection connection;
     private RabbitMqMsgHandler handler;
 
     @Override
     public void init(RabbitMqPluginConfiguration configuration) {
+        this.configuration = configuration;
         factory = new ConnectionFactory();
         factory.setHost(configuration.getHost());
         factory.setPort(configuration.getPort());
@@ -71,7 +73,8 @@ public class RabbitMqPlugin extends AbstractPlugin<RabbitMqPluginConfiguration>
     private void init() {
         try {
             this.connection = factory.newConnection();
-            this.handler = new RabbitMqMsgHandler(connection.createChannel());
+            this.handler = new RabbitMqMsgHandler(connection.createChannel(),
+                    configuration.getBatchSize(), configuration.getLinger());
         } catch (IOException | TimeoutException e) {
             throw new RuntimeException(e);
         }
@@ -79,6 +82,9 @@ public class RabbitMqPlugin extends AbstractPlugin<RabbitMqPluginConfiguration>
 
     private void destroy() {
         try {
+            if (this.handler != null) {
+                this.handler.destroy();
+            }
             this.handler = null;
             this.connection.close();
         } catch (Exception e) {
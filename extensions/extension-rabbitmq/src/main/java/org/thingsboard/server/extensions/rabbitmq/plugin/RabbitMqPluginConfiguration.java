@@ -38,6 +38,9 @@ public class RabbitMqPluginConfiguration {
 
     private List<RabbitMqPluginProperties> clientProperties;
 
+    private int batchSize;
+    private int linger;
+
     @Data
     public static class RabbitMqPluginProperties {
         private String key;
@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.extensions.rabbitmq.plugin;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.core.BasicStatusCodeResponse;
+import org.thingsboard.server.common.msg.session.MsgType;
+import org.thingsboard.server.extensions.api.plugins.PluginContext;
+import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
+import org.thingsboard.server.extensions.rabbitmq.action.RabbitMqActionMsg;
+import org.thingsboard.server.extensions.rabbitmq.action.RabbitMqActionPayload;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RabbitMqMsgHandlerTest {
+
+    private static final long LINGER_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    private final RuleId ruleId = new RuleId(UUID.randomUUID());
+    private Channel channel;
+    private PluginContext ctx;
+
+    @Before
+    public void before() {
+        channel = mock(Channel.class);
+        ctx = mock(PluginContext.class);
+    }
+
+    @Test
+    public void publishesWithoutConfirmsWhenBatchingIsDisabled() throws Exception {
+        RabbitMqMsgHandler handler = new RabbitMqMsgHandler(channel);
+        handler.process(ctx, tenantId, ruleId, msg("queue", 1));
+
+        verify(channel, never()).confirmSelect();
+        verify(channel).basicPublish(eq(""), eq("queue"), any(AMQP.BasicProperties.class), any(byte[].class));
+        verify(channel, never()).waitForConfirmsOrDie(anyLong());
+        verify(ctx).reply(any(ResponsePluginToRuleMsg.class));
+    }
+
+    @Test
+    public void publishesFullBatchAndWaitsForConfirmsOnce() throws Exception {
+        RabbitMqMsgHandler handler = new RabbitMqMsgHandler(channel, 2, LINGER_MS);
+        try {
+            verify(channel).confirmSelect();
+            handler.process(ctx, tenantId, ruleId, msg("queue", 1));
+            verify(channel, never()).basicPublish(any(String.class), any(String.class), any(AMQP.BasicProperties.class), any(byte[].class));
+
+            handler.process(ctx, tenantId, ruleId, msg("queue", 2));
+            verify(ctx, timeout(1000).times(2)).reply(any(ResponsePluginToRuleMsg.class));
+
+            InOrder inOrder = Mockito.inOrder(channel);
+            inOrder.verify(channel, times(2)).basicPublish(eq(""), eq("queue"), any(AMQP.BasicProperties.class), any(byte[].class));
+            inOrder.verify(channel).waitForConfirmsOrDie(RabbitMqMsgHandler.CONFIRM_TIMEOUT_MS);
+            assertReplies(true);
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void failsWholeBatchWhenConfirmsAreNotReceived() throws Exception {
+        doThrow(new IOException("nack")).when(channel).waitForConfirmsOrDie(anyLong());
+        RabbitMqMsgHandler handler = new RabbitMqMsgHandler(channel, 2, LINGER_MS);
+        try {
+            handler.process(ctx, tenantId, ruleId, msg("queue", 1));
+            handler.process(ctx, tenantId, ruleId, msg("queue", 2));
+            verify(ctx, timeout(1000).times(2)).reply(any(ResponsePluginToRuleMsg.class));
+            assertReplies(false);
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void destroyPublishesPendingBatch() throws Exception {
+        RabbitMqMsgHandler handler = new RabbitMqMsgHandler(channel, 10, LINGER_MS);
+        handler.process(ctx, tenantId, ruleId, msg("queue", 1));
+        handler.destroy();
+
+        verify(channel).basicPublish(eq(""), eq("queue"), any(AMQP.BasicProperties.class), any(byte[].class));
+        verify(channel).waitForConfirmsOrDie(RabbitMqMsgHandler.CONFIRM_TIMEOUT_MS);
+        verify(ctx).reply(any(ResponsePluginToRuleMsg.class));
+    }
+
+    private void assertReplies(boolean success) {
+        ArgumentCaptor<ResponsePluginToRuleMsg> captor = ArgumentCaptor.forClass(ResponsePluginToRuleMsg.class);
+        verify(ctx, times(2)).reply(captor.capture());
+        List<ResponsePluginToRuleMsg> replies = captor.getAllValues();
+        for (ResponsePluginToRuleMsg reply : replies) {
+            Assert.assertEquals(success, ((BasicStatusCodeResponse) reply.getPayload()).isSuccess());
+        }
+    }
+
+    private RabbitMqActionMsg msg(String queueName, int requestId) {
+        RabbitMqActionPayload payload = RabbitMqActionPayload.builder()
+                .queueName(queueName)
+                .messageProperties("TEXT_PLAIN")
+                .payload("{\"requestId\":" + requestId + "}")
+                .sync(true)
+                .requestId(requestId)
+                .msgType(MsgType.POST_TELEMETRY_REQUEST)
+                .build();
+        return new RabbitMqActionMsg(tenantId, null, new DeviceId(UUID.randomUUID()), payload);
+    }
+}
@@ -15,12 +15,16 @@
  */
 package org.thingsboard.server.extensions.rest.plugin;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.core.BasicStatusCodeResponse;
@@ -29,39 +33,158 @@ import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
 import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
 import org.thingsboard.server.extensions.api.rules.RuleException;
+import org.thingsboard.server.extensions.core.plugin.async.AsyncRequestLimiter;
+import org.thingsboard.server.extensions.core.plugin.batch.BatchedRuleMsg;
+import org.thingsboard.server.extensions.core.plugin.batch.MessageBatcher;
 import org.thingsboard.server.extensions.rest.action.RestApiCallActionMsg;
 import org.thingsboard.server.extensions.rest.action.RestApiCallActionPayload;
 
-@RequiredArgsConstructor
+import java.util.List;
+
+@Slf4j
 public class RestApiCallMsgHandler implements RuleMsgHandler {
 
     private final String baseUrl;
     private final HttpHeaders headers;
+    private final AsyncRestTemplate restTemplate;
+    private final AsyncRequestLimiter limiter;
+    private final MessageBatcher<Endpoint, BatchedRuleMsg<String>> batcher;
+
+    public RestApiCallMsgHandler(String baseUrl, HttpHeaders headers, AsyncRestTemplate restTemplate, int maxConcurrentRequests) {
+        this(baseUrl, headers, restTemplate, maxConcurrentRequests, 1, 0);
+    }
+
+    /**
+     * With batch size greater than one, message bodies sent to the same endpoint are combined
+     * into a single request with a JSON array body, so the endpoint has to accept arrays.
+     */
+    public RestApiCallMsgHandler(String baseUrl, HttpHeaders headers, AsyncRestTemplate restTemplate, int maxConcurrentRequests,
+                                 int batchSize, long lingerMs) {
+        this.baseUrl = baseUrl;
+        this.headers = headers;
+        this.restTemplate = restTemplate;
+        this.limiter = new AsyncRequestLimiter(maxConcurrentRequests);
+        if (batchSize > 1) {
+            this.batcher = new MessageBatcher<>("rest-api-call", batchSize, lingerMs, this::sendBatch);
+        } else {
+            this.batcher = null;
+        }
+    }
+
+    public void destroy() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
 
     @Override
     public void process(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
         if (!(msg instanceof RestApiCallActionMsg)) {
             throw new RuleException("Unsupported message type " + msg.getClass().getName() + "!");
         }
-        RestApiCallActionPayload payload = ((RestApiCallActionMsg)msg).getPayload();
+        RestApiCallActionPayload payload = ((RestApiCallActionMsg) msg).getPayload();
+        if (batcher != null) {
+            batcher.add(new Endpoint(payload.getHttpMethod(), payload.getActionPath(), payload.getExpectedResultCode()),
+                    new BatchedRuleMsg<>(ctx, tenantId, ruleId, msg, payload.isSync(), payload.getMsgType(), payload.getRequestId(),
+                            payload.getMsgBody()));
+            return;
+        }
+        if (!limiter.submit(onComplete -> call(ctx, tenantId, ruleId, msg, payload, onComplete))) {
+            throw new RuleException("Too many pending calls to REST API " + payload.getActionPath() + "!");
+        }
+    }
+
+    private void call(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg,
+                      RestApiCallActionPayload payload, Runnable onComplete) {
         try {
-            ResponseEntity<String> exchangeResponse = new RestTemplate().exchange(
+            ListenableFuture<ResponseEntity<String>> future = restTemplate.exchange(
                     baseUrl + payload.getActionPath(),
                     payload.getHttpMethod(),
                     new HttpEntity<>(payload.getMsgBody(), headers),
                     String.class);
-            if (exchangeResponse.getStatusCode().equals(payload.getExpectedResultCode()) && payload.isSync()) {
-                ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
-                        BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
-            } else if(!exchangeResponse.getStatusCode().equals(payload.getExpectedResultCode())) {
-                throw new RuntimeException("Response Status Code '"
-                        + exchangeResponse.getStatusCode()
-                        + "' doesn't equals to Expected Status Code '"
-                        + payload.getExpectedResultCode() + "'");
+            future.addCallback(exchangeResponse -> {
+                onComplete.run();
+                if (!exchangeResponse.getStatusCode().equals(payload.getExpectedResultCode())) {
+                    onFailure(ctx, tenantId, ruleId, msg, payload, new RuntimeException("Response Status Code '"
+                            + exchangeResponse.getStatusCode()
+                            + "' doesn't equals to Expected Status Code '"
+                            + payload.getExpectedResultCode() + "'"));
+                } else if (payload.isSync()) {
+                    ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                            BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
+                }
+            }, e -> {
+                onComplete.run();
+                onFailure(ctx, tenantId, ruleId, msg, payload, e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            });
+        } catch (RestClientException e) {
+            onComplete.run();
+            onFailure(ctx, tenantId, ruleId, msg, payload, e);
+        }
+    }
+
+    private void sendBatch(Endpoint endpoint, List<BatchedRuleMsg<String>> batch) {
+        String method = "REST API call to " + endpoint.getActionPath();
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                body.append(',');
             }
+            body.append(batch.get(i).getPayload());
+        }
+        body.append(']');
+        if (!limiter.submit(onComplete -> callBatch(endpoint, batch, body.toString(), onComplete))) {
+            RuleException e = new RuleException("Too many pending calls to REST API " + endpoint.getActionPath() + "!");
+            batch.forEach(m -> m.onFailure(method, e));
+        }
+    }
 
+    private void callBatch(Endpoint endpoint, List<BatchedRuleMsg<String>> batch, String body, Runnable onComplete) {
+        String method = "REST API call to " + endpoint.getActionPath();
+        try {
+            ListenableFuture<ResponseEntity<String>> future = restTemplate.exchange(
+                    baseUrl + endpoint.getActionPath(),
+                    endpoint.getHttpMethod(),
+                    new HttpEntity<>(body, headers),
+                    String.class);
+            future.addCallback(exchangeResponse -> {
+                onComplete.run();
+                if (!exchangeResponse.getStatusCode().equals(endpoint.getExpectedResultCode())) {
+                    Exception e = new RuntimeException("Response Status Code '"
+                            + exchangeResponse.getStatusCode()
+                            + "' doesn't equals to Expected Status Code '"
+                            + endpoint.getExpectedResultCode() + "'");
+                    batch.forEach(m -> m.onFailure(method, e));
+                } else {
+                    batch.forEach(BatchedRuleMsg::onSuccess);
+                }
+            }, e -> {
+                onComplete.run();
+                log.debug("Failed to call REST API {} with batch of {} messages", endpoint.getActionPath(), batch.size(), e);
+                Exception error = e instanceof Exception ? (Exception) e : new RuntimeException(e);
+                batch.forEach(m -> m.onFailure(method, error));
+            });
         } catch (RestClientException e) {
-            throw new RuleException(e.getMessage(), e);
+            onComplete.run();
+            batch.forEach(m -> m.onFailure(method, e));
+        }
+    }
+
+    private void onFailure(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg,
+                           RestApiCallActionPayload payload, Exception e) {
+        log.debug("[{}] Failed to call REST API {}", ruleId, payload.getActionPath(), e);
+        if (payload.isSync()) {
+            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                    BasicStatusCodeResponse.onError(payload.getMsgType(), payload.getRequestId(), e)));
+        } else {
+            ctx.persistError("REST API call to " + payload.getActionPath(), e);
         }
     }
+
+    @Data
+    private static final class Endpoint {
+        private final HttpMethod httpMethod;
+        private final String actionPath;
+        private final HttpStatus expectedResultCode;
+    }
 }
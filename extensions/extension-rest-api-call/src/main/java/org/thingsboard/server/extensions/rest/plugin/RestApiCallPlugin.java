@@ -16,7 +16,11 @@
 package org.thingsboard.server.extensions.rest.plugin;
 
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.thingsboard.server.extensions.api.component.Plugin;
 import org.thingsboard.server.extensions.api.plugins.AbstractPlugin;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
@@ -35,9 +39,14 @@ public class RestApiCallPlugin extends AbstractPlugin<RestApiCallPluginConfigura
     private static final String AUTHORIZATION_HEADER_FORMAT = "Basic %s";
     private static final String CREDENTIALS_TEMPLATE = "%s:%s";
     private static final String BASE_URL_TEMPLATE = "%s%s:%d%s";
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 100;
     private RestApiCallMsgHandler handler;
+    private HttpComponentsAsyncClientHttpRequestFactory requestFactory;
     private String baseUrl;
     private HttpHeaders headers = new HttpHeaders();
+    private int maxConcurrentRequests;
+    private int batchSize;
+    private int linger;
 
     @Override
     public void init(RestApiCallPluginConfiguration configuration) {
@@ -69,11 +78,43 @@ public class RestApiCallPlugin extends AbstractPlugin<RestApiCallPluginConfigura
             });
         }
 
+        if (configuration.isPreserveOrder()) {
+            this.maxConcurrentRequests = 1;
+        } else if (configuration.getMaxConcurrentRequests() > 0) {
+            this.maxConcurrentRequests = configuration.getMaxConcurrentRequests();
+        } else {
+            this.maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        }
+
+        this.batchSize = configuration.getBatchSize();
+        this.linger = configuration.getLinger();
+
         init();
     }
 
     private void init() {
-        this.handler = new RestApiCallMsgHandler(baseUrl, headers);
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setMaxConnTotal(maxConcurrentRequests)
+                .setMaxConnPerRoute(maxConcurrentRequests)
+                .build();
+        this.requestFactory = new HttpComponentsAsyncClientHttpRequestFactory(httpClient);
+        this.handler = new RestApiCallMsgHandler(baseUrl, headers, new AsyncRestTemplate(requestFactory),
+                maxConcurrentRequests, batchSize, linger);
+    }
+
+    private void destroy() {
+        if (handler != null) {
+            handler.destroy();
+        }
+        if (requestFactory != null) {
+            try {
+                requestFactory.destroy();
+            } catch (Exception e) {
+                log.warn("Failed to close HTTP client", e);
+            }
+            requestFactory = null;
+        }
+        this.handler = null;
     }
 
     @Override
@@ -88,11 +129,11 @@ public class RestApiCallPlugin extends AbstractPlugin<RestApiCallPluginConfigura
 
     @Override
     public void suspend(PluginContext ctx) {
-        log.debug("Suspend method was called, but no impl provided!");
+        destroy();
     }
 
     @Override
     public void stop(PluginContext ctx) {
-        log.debug("Stop method was called, but no impl provided!");
+        destroy();
     }
 }
@@ -34,4 +34,10 @@ public class RestApiCallPluginConfiguration {
     private String password;
 
     private List<KeyValuePluginProperties> headers;
+
+    private int maxConcurrentRequests;
+    private boolean preserveOrder;
+
+    private int batchSize;
+    private int linger;
 }
@@ -15,12 +15,10 @@
  */
 package org.thingsboard.server.extensions.sns.plugin;
 
-import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.sns.AmazonSNSAsync;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.amazonaws.services.sns.model.PublishResult;
-import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.model.SendMessageRequest;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -30,17 +28,23 @@ import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
 import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
 import org.thingsboard.server.extensions.api.rules.RuleException;
+import org.thingsboard.server.extensions.core.plugin.async.AsyncRequestLimiter;
 import org.thingsboard.server.extensions.sns.action.SnsTopicActionMsg;
 import org.thingsboard.server.extensions.sns.action.SnsTopicActionPayload;
 
 /**
  * Created by Valerii Sosliuk on 11/6/2017.
  */
-@RequiredArgsConstructor
 @Slf4j
 public class SnsMessageHandler implements RuleMsgHandler {
 
-    private final AmazonSNS sns;
+    private final AmazonSNSAsync sns;
+    private final AsyncRequestLimiter limiter;
+
+    public SnsMessageHandler(AmazonSNSAsync sns, int maxConcurrentRequests) {
+        this.sns = sns;
+        this.limiter = new AsyncRequestLimiter(maxConcurrentRequests);
+    }
 
     @Override
     public void process(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
@@ -49,15 +53,49 @@ public class SnsMessageHandler implements RuleMsgHandler {
             PublishRequest publishRequest = new PublishRequest()
                     .withTopicArn(payload.getTopicArn())
                     .withMessage(payload.getMsgBody());
-            sns.publish(publishRequest);
-            if (payload.isSync()) {
-                ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
-                        BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
+            if (!limiter.submit(onComplete -> publish(ctx, tenantId, ruleId, msg, payload, publishRequest, onComplete))) {
+                throw new RuleException("Too many pending requests to topic " + payload.getTopicArn() + "!");
             }
-           return;
+            return;
         }
         throw new RuleException("Unsupported message type " + msg.getClass().getName() + "!");
 
     }
 
+    private void publish(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg, SnsTopicActionPayload payload,
+                         PublishRequest publishRequest, Runnable onComplete) {
+        try {
+            sns.publishAsync(publishRequest, new AsyncHandler<PublishRequest, PublishResult>() {
+                @Override
+                public void onError(Exception e) {
+                    onComplete.run();
+                    onFailure(ctx, tenantId, ruleId, msg, payload, e);
+                }
+
+                @Override
+                public void onSuccess(PublishRequest request, PublishResult result) {
+                    onComplete.run();
+                    if (payload.isSync()) {
+                        ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                                BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            onComplete.run();
+            onFailure(ctx, tenantId, ruleId, msg, payload, e);
+        }
+    }
+
+    private void onFailure(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg,
+                           SnsTopicActionPayload payload, Exception e) {
+        log.debug("[{}] Failed to publish message to topic {}", ruleId, payload.getTopicArn(), e);
+        if (payload.isSync()) {
+            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
+                    BasicStatusCodeResponse.onError(payload.getMsgType(), payload.getRequestId(), e)));
+        } else {
+            ctx.persistError("Publish message to " + payload.getTopicArn(), e);
+        }
+    }
+
 }
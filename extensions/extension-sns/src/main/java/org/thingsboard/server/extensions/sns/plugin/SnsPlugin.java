@@ -18,14 +18,16 @@ package org.thingsboard.server.extensions.sns.plugin;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.sns.AmazonSNS;
-import com.amazonaws.services.sns.AmazonSNSClient;
+import com.amazonaws.services.sns.AmazonSNSAsync;
+import com.amazonaws.services.sns.AmazonSNSAsyncClientBuilder;
 import org.thingsboard.server.extensions.api.component.Plugin;
 import org.thingsboard.server.extensions.api.plugins.AbstractPlugin;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
 import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
 import org.thingsboard.server.extensions.sns.action.SnsTopicPluginAction;
 
+import java.util.concurrent.Executors;
+
 /**
  * Created by Valerii Sosliuk on 11/15/2017.
  */
@@ -33,6 +35,9 @@ import org.thingsboard.server.extensions.sns.action.SnsTopicPluginAction;
         descriptor = "SnsPluginDescriptor.json", configuration = SnsPluginConfiguration.class)
 public class SnsPlugin extends AbstractPlugin<SnsPluginConfiguration> {
 
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 50;
+
+    private AmazonSNSAsync sns;
     private SnsMessageHandler snsMessageHandler;
     private SnsPluginConfiguration configuration;
 
@@ -45,15 +50,31 @@ public class SnsPlugin extends AbstractPlugin<SnsPluginConfiguration> {
     private void init() {
         AWSCredentials awsCredentials = new BasicAWSCredentials(configuration.getAccessKeyId(), configuration.getSecretAccessKey());
         AWSStaticCredentialsProvider credProvider = new AWSStaticCredentialsProvider(awsCredentials);
-        AmazonSNS sns = AmazonSNSClient.builder()
+        int maxConcurrentRequests = getMaxConcurrentRequests();
+        this.sns = AmazonSNSAsyncClientBuilder.standard()
                 .withCredentials(credProvider)
                 .withRegion(configuration.getRegion())
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(maxConcurrentRequests))
                 .build();
-        this.snsMessageHandler = new SnsMessageHandler(sns);
+        this.snsMessageHandler = new SnsMessageHandler(sns, maxConcurrentRequests);
+
+    }
 
+    private int getMaxConcurrentRequests() {
+        if (configuration.isPreserveOrder()) {
+            return 1;
+        } else if (configuration.getMaxConcurrentRequests() > 0) {
+            return configuration.getMaxConcurrentRequests();
+        } else {
+            return DEFAULT_MAX_CONCURRENT_REQUESTS;
+        }
     }
 
     private void destroy() {
+        if (this.sns != null) {
+            this.sns.shutdown();
+            this.sns = null;
+        }
         this.snsMessageHandler = null;
     }
 
@@ -27,4 +27,7 @@ public class SnsPluginConfiguration {
     private String secretAccessKey;
     private String region;
 
+    private int maxConcurrentRequests;
+    private boolean preserveOrder;
+
 }
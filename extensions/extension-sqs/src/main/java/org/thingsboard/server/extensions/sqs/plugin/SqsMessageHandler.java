@@ -15,33 +15,65 @@
  */
 package org.thingsboard.server.extensions.sqs.plugin;
 
-import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.amazonaws.services.sqs.model.SendMessageResult;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.RuleId;
 import org.thingsboard.server.common.data.id.TenantId;
-import org.thingsboard.server.common.msg.core.BasicStatusCodeResponse;
+import org.thingsboard.server.common.msg.session.MsgType;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
 import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
-import org.thingsboard.server.extensions.api.plugins.msg.AbstractRuleToPluginMsg;
-import org.thingsboard.server.extensions.api.plugins.msg.ResponsePluginToRuleMsg;
 import org.thingsboard.server.extensions.api.plugins.msg.RuleToPluginMsg;
 import org.thingsboard.server.extensions.api.rules.RuleException;
+import org.thingsboard.server.extensions.core.plugin.async.AsyncRequestLimiter;
+import org.thingsboard.server.extensions.core.plugin.batch.BatchedRuleMsg;
+import org.thingsboard.server.extensions.core.plugin.batch.MessageBatcher;
 import org.thingsboard.server.extensions.sqs.action.fifo.SqsFifoQueueActionMsg;
 import org.thingsboard.server.extensions.sqs.action.fifo.SqsFifoQueueActionPayload;
 import org.thingsboard.server.extensions.sqs.action.standard.SqsStandardQueueActionMsg;
 import org.thingsboard.server.extensions.sqs.action.standard.SqsStandardQueueActionPayload;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Created by Valerii Sosliuk on 11/15/2017.
  */
-@RequiredArgsConstructor
 @Slf4j
 public class SqsMessageHandler implements RuleMsgHandler {
 
-    private final AmazonSQS sqs;
+    public static final int MAX_BATCH_SIZE = 10;
+
+    private final AmazonSQSAsync sqs;
+    private final AsyncRequestLimiter limiter;
+    private final MessageBatcher<String, BatchedRuleMsg<SendMessageBatchRequestEntry>> batcher;
+
+    public SqsMessageHandler(AmazonSQSAsync sqs, int maxConcurrentRequests) {
+        this(sqs, maxConcurrentRequests, 1, 0);
+    }
+
+    public SqsMessageHandler(AmazonSQSAsync sqs, int maxConcurrentRequests, int batchSize, long lingerMs) {
+        this.sqs = sqs;
+        this.limiter = new AsyncRequestLimiter(maxConcurrentRequests);
+        if (batchSize > 1) {
+            this.batcher = new MessageBatcher<>("sqs", Math.min(batchSize, MAX_BATCH_SIZE), lingerMs, this::sendBatch);
+        } else {
+            this.batcher = null;
+        }
+    }
+
+    public void destroy() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
 
     @Override
     public void process(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
@@ -56,29 +88,112 @@ public class SqsMessageHandler implements RuleMsgHandler {
         throw new RuleException("Unsupported message type " + msg.getClass().getName() + "!");
     }
 
-    private void sendMessageToStandardQueue(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) {
+    private void sendMessageToStandardQueue(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
         SqsStandardQueueActionPayload payload = ((SqsStandardQueueActionMsg) msg).getPayload();
+        if (batcher != null) {
+            SendMessageBatchRequestEntry entry = new SendMessageBatchRequestEntry()
+                    .withDelaySeconds(payload.getDelaySeconds())
+                    .withMessageBody(payload.getMsgBody());
+            batcher.add(payload.getQueue(), new BatchedRuleMsg<>(ctx, tenantId, ruleId, msg,
+                    payload.isSync(), payload.getMsgType(), payload.getRequestId(), entry));
+            return;
+        }
         SendMessageRequest sendMsgRequest = new SendMessageRequest()
                 .withDelaySeconds(payload.getDelaySeconds())
                 .withQueueUrl(payload.getQueue())
                 .withMessageBody(payload.getMsgBody());
-        sqs.sendMessage(sendMsgRequest);
-        if (payload.isSync()) {
-            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
-                    BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
-        }
+        sendMessage(ctx, tenantId, ruleId, msg, sendMsgRequest, payload.isSync(), payload.getMsgType(), payload.getRequestId());
     }
 
-    private void sendMessageToFifoQueue(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) {
+    private void sendMessageToFifoQueue(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg) throws RuleException {
         SqsFifoQueueActionPayload payload = ((SqsFifoQueueActionMsg) msg).getPayload();
+        if (batcher != null) {
+            SendMessageBatchRequestEntry entry = new SendMessageBatchRequestEntry()
+                    .withMessageBody(payload.getMsgBody())
+                    .withMessageGroupId(payload.getDeviceId());
+            batcher.add(payload.getQueue(), new BatchedRuleMsg<>(ctx, tenantId, ruleId, msg,
+                    payload.isSync(), payload.getMsgType(), payload.getRequestId(), entry));
+            return;
+        }
         SendMessageRequest sendMsgRequest =  new SendMessageRequest()
                 .withQueueUrl(payload.getQueue())
                 .withMessageBody(payload.getMsgBody())
                 .withMessageGroupId(payload.getDeviceId());
-        sqs.sendMessage(sendMsgRequest);
-        if (payload.isSync()) {
-            ctx.reply(new ResponsePluginToRuleMsg(msg.getUid(), tenantId, ruleId,
-                    BasicStatusCodeResponse.onSuccess(payload.getMsgType(), payload.getRequestId())));
+        sendMessage(ctx, tenantId, ruleId, msg, sendMsgRequest, payload.isSync(), payload.getMsgType(), payload.getRequestId());
+    }
+
+    private void sendMessage(PluginContext ctx, TenantId tenantId, RuleId ruleId, RuleToPluginMsg<?> msg, SendMessageRequest request,
+                             boolean sync, MsgType msgType, Integer requestId) throws RuleException {
+        BatchedRuleMsg<SendMessageRequest> ruleMsg = new BatchedRuleMsg<>(ctx, tenantId, ruleId, msg, sync, msgType, requestId, request);
+        if (!limiter.submit(onComplete -> sendMessage(ruleMsg, onComplete))) {
+            throw new RuleException("Too many pending requests to queue " + request.getQueueUrl() + "!");
+        }
+    }
+
+    private void sendMessage(BatchedRuleMsg<SendMessageRequest> ruleMsg, Runnable onComplete) {
+        SendMessageRequest request = ruleMsg.getPayload();
+        String method = "Send message to " + request.getQueueUrl();
+        try {
+            sqs.sendMessageAsync(request, new AsyncHandler<SendMessageRequest, SendMessageResult>() {
+                @Override
+                public void onError(Exception e) {
+                    onComplete.run();
+                    log.debug("[{}] Failed to send message to queue {}", ruleMsg.getRuleId(), request.getQueueUrl(), e);
+                    ruleMsg.onFailure(method, e);
+                }
+
+                @Override
+                public void onSuccess(SendMessageRequest sentRequest, SendMessageResult result) {
+                    onComplete.run();
+                    ruleMsg.onSuccess();
+                }
+            });
+        } catch (Exception e) {
+            onComplete.run();
+            ruleMsg.onFailure(method, e);
+        }
+    }
+
+    private void sendBatch(String queueUrl, List<BatchedRuleMsg<SendMessageBatchRequestEntry>> batch) {
+        String method = "Send message batch to " + queueUrl;
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(batch.get(i).getPayload().withId(Integer.toString(i)));
+        }
+        SendMessageBatchRequest request = new SendMessageBatchRequest(queueUrl, entries);
+        if (!limiter.submit(onComplete -> sendBatch(request, batch, onComplete))) {
+            RuleException e = new RuleException("Too many pending requests to queue " + queueUrl + "!");
+            batch.forEach(m -> m.onFailure(method, e));
+        }
+    }
+
+    private void sendBatch(SendMessageBatchRequest request, List<BatchedRuleMsg<SendMessageBatchRequestEntry>> batch, Runnable onComplete) {
+        String queueUrl = request.getQueueUrl();
+        String method = "Send message batch to " + queueUrl;
+        try {
+            sqs.sendMessageBatchAsync(request, new AsyncHandler<SendMessageBatchRequest, SendMessageBatchResult>() {
+                @Override
+                public void onError(Exception e) {
+                    onComplete.run();
+                    log.debug("Failed to send batch of {} messages to queue {}", batch.size(), queueUrl, e);
+                    batch.forEach(m -> m.onFailure(method, e));
+                }
+
+                @Override
+                public void onSuccess(SendMessageBatchRequest sentRequest, SendMessageBatchResult result) {
+                    onComplete.run();
+                    for (SendMessageBatchResultEntry entry : result.getSuccessful()) {
+                        batch.get(Integer.parseInt(entry.getId())).onSuccess();
+                    }
+                    for (BatchResultErrorEntry entry : result.getFailed()) {
+                        batch.get(Integer.parseInt(entry.getId())).onFailure(method,
+                                new RuntimeException(entry.getCode() + ": " + entry.getMessage()));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            onComplete.run();
+            batch.forEach(m -> m.onFailure(method, e));
         }
     }
 }
@@ -19,8 +19,8 @@ import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.regions.Regions;
-import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQSAsync;
+import com.amazonaws.services.sqs.AmazonSQSAsyncClientBuilder;
 import org.thingsboard.server.extensions.api.component.Plugin;
 import org.thingsboard.server.extensions.api.plugins.AbstractPlugin;
 import org.thingsboard.server.extensions.api.plugins.PluginContext;
@@ -28,6 +28,8 @@ import org.thingsboard.server.extensions.api.plugins.handlers.RuleMsgHandler;
 import org.thingsboard.server.extensions.sqs.action.fifo.SqsFifoQueuePluginAction;
 import org.thingsboard.server.extensions.sqs.action.standard.SqsStandardQueuePluginAction;
 
+import java.util.concurrent.Executors;
+
 /**
  * Created by Valerii Sosliuk on 11/6/2017.
  */
@@ -35,6 +37,9 @@ import org.thingsboard.server.extensions.sqs.action.standard.SqsStandardQueuePlu
         descriptor = "SqsPluginDescriptor.json", configuration = SqsPluginConfiguration.class)
 public class SqsPlugin extends AbstractPlugin<SqsPluginConfiguration> {
 
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 50;
+
+    private AmazonSQSAsync sqs;
     private SqsMessageHandler sqsMessageHandler;
     private SqsPluginConfiguration configuration;
 
@@ -46,13 +51,34 @@ public class SqsPlugin extends AbstractPlugin<SqsPluginConfiguration> {
 
     private void init() {
         AWSCredentials awsCredentials = new BasicAWSCredentials(configuration.getAccessKeyId(), configuration.getSecretAccessKey());
-        AmazonSQS sqs = AmazonSQSClientBuilder.standard().withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
-                .withRegion(Regions.fromName(configuration.getRegion())).build();
-        this.sqsMessageHandler = new SqsMessageHandler(sqs);
+        int maxConcurrentRequests = getMaxConcurrentRequests();
+        this.sqs = AmazonSQSAsyncClientBuilder.standard().withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
+                .withRegion(Regions.fromName(configuration.getRegion()))
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(maxConcurrentRequests))
+                .build();
+        this.sqsMessageHandler = new SqsMessageHandler(sqs, maxConcurrentRequests,
+                configuration.getBatchSize(), configuration.getLinger());
+
+    }
 
+    private int getMaxConcurrentRequests() {
+        if (configuration.isPreserveOrder()) {
+            return 1;
+        } else if (configuration.getMaxConcurrentRequests() > 0) {
+            return configuration.getMaxConcurrentRequests();
+        } else {
+            return DEFAULT_MAX_CONCURRENT_REQUESTS;
+        }
     }
 
     private void destroy() {
+        if (this.sqsMessageHandler != null) {
+            this.sqsMessageHandler.destroy();
+        }
+        if (this.sqs != null) {
+            this.sqs.shutdown();
+            this.sqs = null;
+        }
         this.sqsMessageHandler = null;
     }
 
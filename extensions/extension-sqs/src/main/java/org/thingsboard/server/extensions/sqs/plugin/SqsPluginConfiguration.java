@@ -27,4 +27,10 @@ public class SqsPluginConfiguration {
     private String secretAccessKey;
     private String region;
 
+    private int maxConcurrentRequests;
+    private boolean preserveOrder;
+
+    private int batchSize;
+    private int linger;
+
 }
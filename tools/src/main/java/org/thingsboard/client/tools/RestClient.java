@@ -114,9 +114,14 @@ public class RestClient implements ClientHttpRequestInterceptor {
     }
 
     public Device createDevice(String name, String type) {
+        return createDevice(name, type, null);
+    }
+
+    public Device createDevice(String name, String type, JsonNode additionalInfo) {
         Device device = new Device();
         device.setName(name);
         device.setType(type);
+        device.setAdditionalInfo(additionalInfo);
         return restTemplate.postForEntity(baseURL + "/api/device", device, Device.class).getBody();
     }
 
@@ -0,0 +1,140 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.core.CoapClient;
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapObserveRelation;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.MediaTypeRegistry;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Device that posts telemetry over the CoAP device API. All clients share the default CoAP endpoint.
+ * When RPC is enabled, the device observes RPC requests and answers them by echoing their params.
+ */
+@Slf4j
+public class CoapDeviceClient implements DeviceClient {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String deviceName;
+    private final String baseUrl;
+    private final TelemetryFactory telemetryFactory;
+    private final LatencyStats.Metric publishMetric;
+    private final boolean rpcEnabled;
+    private final CoapClient telemetryClient;
+    private CoapObserveRelation rpcRelation;
+
+    public CoapDeviceClient(LoadGeneratorConfig config, LatencyStats stats, TelemetryFactory telemetryFactory,
+                            String deviceName, String accessToken) {
+        this.deviceName = deviceName;
+        this.baseUrl = "coap://" + config.getCoapHost() + ":" + config.getCoapPort() + "/api/v1/" + accessToken;
+        this.telemetryFactory = telemetryFactory;
+        this.publishMetric = stats.metric("publish.coap");
+        this.rpcEnabled = config.getRpcIntervalMs() > 0;
+        this.telemetryClient = new CoapClient(baseUrl + "/telemetry");
+    }
+
+    @Override
+    public String getTransport() {
+        return "coap";
+    }
+
+    @Override
+    public List<String> getDeviceNames() {
+        return Collections.singletonList(deviceName);
+    }
+
+    @Override
+    public ListenableFuture<Void> connect() {
+        if (rpcEnabled) {
+            rpcRelation = new CoapClient(baseUrl + "/rpc").observe(new CoapHandler() {
+                @Override
+                public void onLoad(CoapResponse response) {
+                    respond(response.getResponseText());
+                }
+
+                @Override
+                public void onError() {
+                    log.warn("[{}] RPC observe request failed", deviceName);
+                }
+            });
+        }
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public void publishTelemetry(long ts) {
+        long startNs = System.nanoTime();
+        telemetryClient.post(new CoapHandler() {
+            @Override
+            public void onLoad(CoapResponse response) {
+                if (response.isSuccess()) {
+                    publishMetric.recordNanos(System.nanoTime() - startNs);
+                } else {
+                    publishMetric.onError();
+                }
+            }
+
+            @Override
+            public void onError() {
+                publishMetric.onError();
+            }
+        }, telemetryFactory.createDevicePayload(ts), MediaTypeRegistry.APPLICATION_JSON);
+    }
+
+    @Override
+    public void disconnect() {
+        if (rpcRelation != null) {
+            rpcRelation.proactiveCancel();
+        }
+    }
+
+    private void respond(String body) {
+        if (body == null || body.isEmpty()) {
+            return;
+        }
+        try {
+            JsonNode request = mapper.readTree(body);
+            if (!request.has("id")) {
+                return;
+            }
+            ObjectNode response = mapper.createObjectNode();
+            response.set("response", request.get("params"));
+            new CoapClient(baseUrl + "/rpc/" + request.get("id").asInt()).post(new CoapHandler() {
+                @Override
+                public void onLoad(CoapResponse coapResponse) {
+                }
+
+                @Override
+                public void onError() {
+                    log.warn("[{}] Failed to send RPC response", deviceName);
+                }
+            }, mapper.writeValueAsBytes(response), MediaTypeRegistry.APPLICATION_JSON);
+        } catch (IOException e) {
+            log.warn("[{}] Failed to process RPC request: {}", deviceName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+/**
+ * Simulated device, or a gateway with its devices, connected over one of the device transports.
+ */
+public interface DeviceClient {
+
+    /**
+     * Transport label used in metric names, e.g. {@code mqtt} or {@code gateway}.
+     */
+    String getTransport();
+
+    /**
+     * Names of the devices that publish telemetry through this client.
+     */
+    List<String> getDeviceNames();
+
+    ListenableFuture<Void> connect();
+
+    /**
+     * Sends one telemetry message stamped with the given time. Must not block the caller.
+     */
+    void publishTelemetry(long ts);
+
+    void disconnect();
+}
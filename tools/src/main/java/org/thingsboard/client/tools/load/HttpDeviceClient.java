@@ -0,0 +1,149 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device that posts telemetry over the HTTP device API. When RPC is enabled, the device long-polls
+ * for RPC requests and answers them by echoing their params.
+ */
+@Slf4j
+public class HttpDeviceClient implements DeviceClient {
+
+    private static final long RPC_RETRY_DELAY_MS = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AsyncRestTemplate restTemplate;
+    private final ScheduledExecutorService scheduler;
+    private final String deviceName;
+    private final String baseUrl;
+    private final TelemetryFactory telemetryFactory;
+    private final LatencyStats.Metric publishMetric;
+    private final boolean rpcEnabled;
+    private final long rpcPollTimeoutMs;
+    private final HttpHeaders headers = new HttpHeaders();
+    private volatile boolean stopped;
+
+    public HttpDeviceClient(LoadGeneratorConfig config, LatencyStats stats, TelemetryFactory telemetryFactory,
+                            AsyncRestTemplate restTemplate, ScheduledExecutorService scheduler, String deviceName, String accessToken) {
+        this.restTemplate = restTemplate;
+        this.scheduler = scheduler;
+        this.deviceName = deviceName;
+        this.baseUrl = config.getHttpUrl() + "/api/v1/" + accessToken;
+        this.telemetryFactory = telemetryFactory;
+        this.publishMetric = stats.metric("publish.http");
+        this.rpcEnabled = config.getRpcIntervalMs() > 0;
+        this.rpcPollTimeoutMs = Math.max(config.getRpcTimeoutMs(), TimeUnit.SECONDS.toMillis(30));
+        this.headers.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public String getTransport() {
+        return "http";
+    }
+
+    @Override
+    public List<String> getDeviceNames() {
+        return Collections.singletonList(deviceName);
+    }
+
+    @Override
+    public ListenableFuture<Void> connect() {
+        if (rpcEnabled) {
+            pollRpc();
+        }
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    public void publishTelemetry(long ts) {
+        long startNs = System.nanoTime();
+        HttpEntity<byte[]> entity = new HttpEntity<>(telemetryFactory.createDevicePayload(ts), headers);
+        restTemplate.exchange(baseUrl + "/telemetry", HttpMethod.POST, entity, Void.class).addCallback(new ListenableFutureCallback<ResponseEntity<Void>>() {
+            @Override
+            public void onSuccess(ResponseEntity<Void> result) {
+                publishMetric.recordNanos(System.nanoTime() - startNs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                publishMetric.onError();
+            }
+        });
+    }
+
+    @Override
+    public void disconnect() {
+        stopped = true;
+    }
+
+    private void pollRpc() {
+        if (stopped) {
+            return;
+        }
+        restTemplate.getForEntity(baseUrl + "/rpc?timeout={timeout}", String.class, rpcPollTimeoutMs)
+                .addCallback(new ListenableFutureCallback<ResponseEntity<String>>() {
+                    @Override
+                    public void onSuccess(ResponseEntity<String> result) {
+                        if (result.getBody() != null) {
+                            respond(result.getBody());
+                        }
+                        pollRpc();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        if (!stopped) {
+                            scheduler.schedule(HttpDeviceClient.this::pollRpc, RPC_RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                        }
+                    }
+                });
+    }
+
+    private void respond(String body) {
+        try {
+            JsonNode request = mapper.readTree(body);
+            if (!request.has("id")) {
+                return;
+            }
+            ObjectNode response = mapper.createObjectNode();
+            response.set("response", request.get("params"));
+            HttpEntity<byte[]> entity = new HttpEntity<>(mapper.writeValueAsBytes(response), headers);
+            restTemplate.exchange(baseUrl + "/rpc/{requestId}", HttpMethod.POST, entity, Void.class, request.get("id").asInt());
+        } catch (IOException e) {
+            log.warn("[{}] Failed to process RPC request: {}", deviceName, e.getMessage());
+        }
+    }
+}
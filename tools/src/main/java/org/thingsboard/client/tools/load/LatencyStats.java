@@ -0,0 +1,131 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named latency histograms of a load generator run. Latencies are recorded in microseconds and reported in milliseconds.
+ */
+public class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_US = TimeUnit.MINUTES.toMicros(10);
+    private static final double US_PER_MS = 1000.0;
+
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+    private volatile long intervalStartMs = System.currentTimeMillis();
+    private volatile long totalStartMs = intervalStartMs;
+
+    public Metric metric(String name) {
+        return metrics.computeIfAbsent(name, Metric::new);
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. at the end of the warm-up.
+     */
+    public synchronized void reset() {
+        metrics.values().forEach(Metric::reset);
+        intervalStartMs = System.currentTimeMillis();
+        totalStartMs = intervalStartMs;
+    }
+
+    public synchronized void printInterval(PrintStream out) {
+        long now = System.currentTimeMillis();
+        double seconds = Math.max(1, now - intervalStartMs) / 1000.0;
+        intervalStartMs = now;
+        for (Metric metric : metrics.values()) {
+            Histogram interval = metric.drain();
+            out.printf("%-24s count=%-9d rate=%-10.1f p50=%-8.2f p99=%-8.2f p99.9=%-8.2f max=%-8.2f errors=%d%n",
+                    metric.name, interval.getTotalCount(), interval.getTotalCount() / seconds,
+                    interval.getValueAtPercentile(50) / US_PER_MS, interval.getValueAtPercentile(99) / US_PER_MS,
+                    interval.getValueAtPercentile(99.9) / US_PER_MS, interval.getMaxValue() / US_PER_MS, metric.errors.get());
+        }
+    }
+
+    /**
+     * Prints the summary of the whole run and writes the percentile distribution of every metric to {@code <name>.hgrm}.
+     */
+    public synchronized void writeReport(File dir, PrintStream out) throws FileNotFoundException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new FileNotFoundException("Can't create report directory " + dir.getAbsolutePath());
+        }
+        double seconds = Math.max(1, System.currentTimeMillis() - totalStartMs) / 1000.0;
+        out.println("Latency, ms:");
+        for (Metric metric : metrics.values()) {
+            metric.drain();
+            Histogram total = metric.total;
+            out.printf("%-24s count=%-9d rate=%-10.1f mean=%-8.2f p50=%-8.2f p90=%-8.2f p99=%-8.2f p99.9=%-8.2f max=%-8.2f errors=%d%n",
+                    metric.name, total.getTotalCount(), total.getTotalCount() / seconds, total.getMean() / US_PER_MS,
+                    total.getValueAtPercentile(50) / US_PER_MS, total.getValueAtPercentile(90) / US_PER_MS,
+                    total.getValueAtPercentile(99) / US_PER_MS, total.getValueAtPercentile(99.9) / US_PER_MS,
+                    total.getMaxValue() / US_PER_MS, metric.errors.get());
+            try (PrintStream file = new PrintStream(new File(dir, metric.name + ".hgrm"))) {
+                total.outputPercentileDistribution(file, US_PER_MS);
+            }
+        }
+        out.println("Percentile distributions written to " + dir.getAbsolutePath());
+    }
+
+    public static class Metric {
+
+        private final String name;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_US, 3);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_US, 3);
+        private final AtomicLong errors = new AtomicLong();
+        private Histogram interval;
+
+        private Metric(String name) {
+            this.name = name;
+        }
+
+        public void recordNanos(long latencyNs) {
+            recordMicros(TimeUnit.NANOSECONDS.toMicros(latencyNs));
+        }
+
+        public void recordMillis(long latencyMs) {
+            recordMicros(TimeUnit.MILLISECONDS.toMicros(latencyMs));
+        }
+
+        private void recordMicros(long latencyUs) {
+            recorder.recordValue(Math.max(0, Math.min(latencyUs, HIGHEST_TRACKABLE_US)));
+        }
+
+        public void onError() {
+            errors.incrementAndGet();
+        }
+
+        private Histogram drain() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return interval;
+        }
+
+        private void reset() {
+            recorder.reset();
+            total.reset();
+            errors.set(0);
+        }
+    }
+}
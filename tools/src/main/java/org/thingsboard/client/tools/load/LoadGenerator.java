@@ -0,0 +1,233 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.Netty4ClientHttpRequestFactory;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.thingsboard.client.tools.RestClient;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load generator. Provisions MQTT, gateway, HTTP and CoAP devices through the REST API,
+ * publishes telemetry at a fixed rate, sends server-side RPC and subscribes to the telemetry of a sample
+ * of devices over websocket. Reports publish, RPC and end-to-end latency percentiles per transport.
+ * <p>
+ * Usage: {@code java -cp tools.jar org.thingsboard.client.tools.load.LoadGenerator [config.properties]}.
+ * Every property can be overridden with a system property, see {@code load-generator.properties}.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final int GATEWAY_DEVICE_LOOKUP_ATTEMPTS = 10;
+    private static final long GATEWAY_DEVICE_LOOKUP_DELAY_MS = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LoadGeneratorConfig config;
+    private final LatencyStats stats = new LatencyStats();
+    private final TelemetryFactory telemetryFactory;
+    private final RestClient restClient;
+    private final EventLoopGroup eventLoopGroup;
+    private final ScheduledExecutorService scheduler;
+    private final AsyncRestTemplate asyncRestTemplate;
+    private final List<DeviceClient> clients = new ArrayList<>();
+    private final Map<DeviceId, String> deviceTransports = new LinkedHashMap<>();
+    private final List<ScheduledFuture<?>> publishSchedules = new ArrayList<>();
+
+    public LoadGenerator(LoadGeneratorConfig config) {
+        this.config = config;
+        this.telemetryFactory = new TelemetryFactory(config);
+        this.restClient = new RestClient(config.getRestUrl());
+        this.eventLoopGroup = new NioEventLoopGroup(config.getMqttIoThreads());
+        this.scheduler = Executors.newScheduledThreadPool(config.getSchedulerThreads());
+        this.asyncRestTemplate = new AsyncRestTemplate(new Netty4ClientHttpRequestFactory(eventLoopGroup));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorConfig config = LoadGeneratorConfig.load(args.length > 0 ? args[0] : null);
+        new LoadGenerator(config).run();
+    }
+
+    public void run() throws Exception {
+        restClient.login(config.getUsername(), config.getPassword());
+        try {
+            createClients();
+            connectClients();
+            resolveGatewayDevices();
+
+            TelemetrySubscriber subscriber = new TelemetrySubscriber(config, restClient.getToken(), stats, sample(config.getSubscribedDevices()));
+            subscriber.start();
+            startPublishing();
+            RpcLoadSender rpcSender = new RpcLoadSender(config, restClient.getRestTemplate(), scheduler, stats, sample(deviceTransports.size()));
+            rpcSender.start();
+
+            log.info("Warming up for {} sec", config.getWarmupSec());
+            TimeUnit.SECONDS.sleep(config.getWarmupSec());
+            stats.reset();
+            long endMs = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(config.getDurationSec());
+            while (System.currentTimeMillis() < endMs) {
+                TimeUnit.SECONDS.sleep(Math.min(config.getReportIntervalSec(), Math.max(1, (endMs - System.currentTimeMillis()) / 1000)));
+                stats.printInterval(System.out);
+            }
+
+            publishSchedules.forEach(schedule -> schedule.cancel(false));
+            rpcSender.stop();
+            subscriber.stop();
+            stats.writeReport(new File(config.getReportDir()), System.out);
+        } finally {
+            clients.forEach(DeviceClient::disconnect);
+            scheduler.shutdownNow();
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    private void createClients() {
+        String prefix = config.getDevicePrefix();
+        for (int i = 0; i < config.getMqttDevices(); i++) {
+            String name = prefix + "MQTT-" + i;
+            clients.add(new MqttDeviceClient(config, stats, telemetryFactory, eventLoopGroup, name, provision(name, "mqtt", false)));
+        }
+        for (int i = 0; i < config.getMqttGateways(); i++) {
+            String name = prefix + "GW-" + i;
+            List<String> deviceNames = new ArrayList<>(config.getMqttDevicesPerGateway());
+            for (int j = 0; j < config.getMqttDevicesPerGateway(); j++) {
+                deviceNames.add(name + "-" + j);
+            }
+            clients.add(new MqttGatewayClient(config, stats, telemetryFactory, eventLoopGroup, name, provision(name, null, true), deviceNames));
+        }
+        for (int i = 0; i < config.getHttpDevices(); i++) {
+            String name = prefix + "HTTP-" + i;
+            clients.add(new HttpDeviceClient(config, stats, telemetryFactory, asyncRestTemplate, scheduler, name, provision(name, "http", false)));
+        }
+        for (int i = 0; i < config.getCoapDevices(); i++) {
+            String name = prefix + "COAP-" + i;
+            clients.add(new CoapDeviceClient(config, stats, telemetryFactory, name, provision(name, "coap", false)));
+        }
+        log.info("Provisioned {} clients", clients.size());
+    }
+
+    /**
+     * Finds or creates the device and returns its access token. Gateways are not added to the sampled
+     * devices since their telemetry is published on behalf of the connected devices.
+     */
+    private String provision(String name, String transport, boolean gateway) {
+        Optional<Device> existing = restClient.findDevice(name);
+        Device device;
+        if (existing.isPresent()) {
+            device = existing.get();
+        } else {
+            ObjectNode additionalInfo = null;
+            if (gateway) {
+                additionalInfo = mapper.createObjectNode();
+                additionalInfo.put("gateway", true);
+            }
+            device = restClient.createDevice(name, "load-generator", additionalInfo);
+        }
+        if (transport != null) {
+            deviceTransports.put(device.getId(), transport);
+        }
+        return restClient.getCredentials(device.getId()).getCredentialsId();
+    }
+
+    private void connectClients() throws InterruptedException {
+        Semaphore permits = new Semaphore(config.getMaxConcurrentConnects());
+        AtomicInteger failed = new AtomicInteger();
+        for (DeviceClient client : clients) {
+            permits.acquire();
+            Futures.addCallback(client.connect(), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    permits.release();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    log.warn("[{}] Failed to connect: {}", client.getDeviceNames(), t.getMessage());
+                    failed.incrementAndGet();
+                    permits.release();
+                }
+            });
+        }
+        permits.acquire(config.getMaxConcurrentConnects());
+        log.info("Connected {} clients, {} failed", clients.size() - failed.get(), failed.get());
+    }
+
+    /**
+     * Devices behind gateways are created by the server when the gateway connects them.
+     */
+    private void resolveGatewayDevices() throws InterruptedException {
+        for (DeviceClient client : clients) {
+            if (!(client instanceof MqttGatewayClient)) {
+                continue;
+            }
+            for (String name : client.getDeviceNames()) {
+                Optional<Device> device = Optional.empty();
+                for (int attempt = 0; attempt < GATEWAY_DEVICE_LOOKUP_ATTEMPTS && !device.isPresent(); attempt++) {
+                    if (attempt > 0) {
+                        TimeUnit.MILLISECONDS.sleep(GATEWAY_DEVICE_LOOKUP_DELAY_MS);
+                    }
+                    device = restClient.findDevice(name);
+                }
+                if (device.isPresent()) {
+                    deviceTransports.put(device.get().getId(), client.getTransport());
+                } else {
+                    log.warn("[{}] Gateway device is not created", name);
+                }
+            }
+        }
+    }
+
+    private void startPublishing() {
+        long intervalMs = config.getPublishIntervalMs();
+        for (DeviceClient client : clients) {
+            long initialDelayMs = ThreadLocalRandom.current().nextLong(intervalMs);
+            publishSchedules.add(scheduler.scheduleAtFixedRate(() -> client.publishTelemetry(System.currentTimeMillis()),
+                    initialDelayMs, intervalMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private Map<DeviceId, String> sample(int count) {
+        List<DeviceId> ids = new ArrayList<>(deviceTransports.keySet());
+        Collections.shuffle(ids);
+        Map<DeviceId, String> result = new LinkedHashMap<>();
+        for (DeviceId id : ids.subList(0, Math.min(count, ids.size()))) {
+            result.put(id, deviceTransports.get(id));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import lombok.Data;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Settings of a load generator run. Values are read from an optional properties file and can be overridden
+ * with system properties of the same name, e.g. {@code -Dmqtt.devices=5000}.
+ */
+@Data
+public class LoadGeneratorConfig {
+
+    private String restUrl;
+    private String username;
+    private String password;
+    private String devicePrefix;
+
+    private String mqttHost;
+    private int mqttPort;
+    private int mqttDevices;
+    private int mqttQos;
+    private int mqttGateways;
+    private int mqttDevicesPerGateway;
+    private int mqttIoThreads;
+    private int maxConcurrentConnects;
+
+    private String httpUrl;
+    private int httpDevices;
+
+    private String coapHost;
+    private int coapPort;
+    private int coapDevices;
+
+    private long publishIntervalMs;
+    private int telemetryKeys;
+    private String[] telemetryTypes;
+    private int telemetryValuesPerMsg;
+
+    private long rpcIntervalMs;
+    private long rpcTimeoutMs;
+    private int rpcThreads;
+
+    private int subscribedDevices;
+    private int schedulerThreads;
+    private long warmupSec;
+    private long durationSec;
+    private long reportIntervalSec;
+    private String reportDir;
+
+    public static LoadGeneratorConfig load(String path) throws IOException {
+        Properties properties = new Properties();
+        if (path != null) {
+            try (InputStream in = new FileInputStream(path)) {
+                properties.load(in);
+            }
+        }
+        properties.putAll(System.getProperties());
+        return load(properties);
+    }
+
+    public static LoadGeneratorConfig load(Properties properties) {
+        LoadGeneratorConfig config = new LoadGeneratorConfig();
+        config.setRestUrl(properties.getProperty("rest.url", "http://localhost:8080"));
+        config.setUsername(properties.getProperty("rest.username", "tenant@thingsboard.org"));
+        config.setPassword(properties.getProperty("rest.password", "tenant"));
+        config.setDevicePrefix(properties.getProperty("device.prefix", "LG-"));
+
+        config.setMqttHost(properties.getProperty("mqtt.host", "localhost"));
+        config.setMqttPort(getInt(properties, "mqtt.port", 1883));
+        config.setMqttDevices(getInt(properties, "mqtt.devices", 1000));
+        config.setMqttQos(getInt(properties, "mqtt.qos", 1));
+        config.setMqttGateways(getInt(properties, "mqtt.gateways", 0));
+        config.setMqttDevicesPerGateway(getInt(properties, "mqtt.devices_per_gateway", 100));
+        config.setMqttIoThreads(getInt(properties, "mqtt.io_threads", 0));
+        config.setMaxConcurrentConnects(getInt(properties, "connect.max_concurrent", 100));
+
+        config.setHttpUrl(properties.getProperty("http.url", config.getRestUrl()));
+        config.setHttpDevices(getInt(properties, "http.devices", 0));
+
+        config.setCoapHost(properties.getProperty("coap.host", "localhost"));
+        config.setCoapPort(getInt(properties, "coap.port", 5683));
+        config.setCoapDevices(getInt(properties, "coap.devices", 0));
+
+        config.setPublishIntervalMs(getLong(properties, "telemetry.publish_interval_ms", 1000));
+        config.setTelemetryKeys(getInt(properties, "telemetry.keys", 4));
+        config.setTelemetryTypes(properties.getProperty("telemetry.types", "double,long,boolean,string").split(","));
+        config.setTelemetryValuesPerMsg(getInt(properties, "telemetry.values_per_msg", 1));
+
+        config.setRpcIntervalMs(getLong(properties, "rpc.interval_ms", 0));
+        config.setRpcTimeoutMs(getLong(properties, "rpc.timeout_ms", 5000));
+        config.setRpcThreads(getInt(properties, "rpc.threads", 8));
+
+        config.setSubscribedDevices(getInt(properties, "ws.subscribed_devices", 100));
+        config.setSchedulerThreads(getInt(properties, "scheduler.threads", Runtime.getRuntime().availableProcessors()));
+        config.setWarmupSec(getLong(properties, "run.warmup_sec", 10));
+        config.setDurationSec(getLong(properties, "run.duration_sec", 60));
+        config.setReportIntervalSec(getLong(properties, "run.report_interval_sec", 10));
+        config.setReportDir(properties.getProperty("run.report_dir", "load-report"));
+        return config;
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+}
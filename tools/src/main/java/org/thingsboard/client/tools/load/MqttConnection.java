@@ -0,0 +1,227 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.mqtt.MqttConnAckMessage;
+import io.netty.handler.codec.mqtt.MqttConnectMessage;
+import io.netty.handler.codec.mqtt.MqttConnectPayload;
+import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
+import io.netty.handler.codec.mqtt.MqttConnectVariableHeader;
+import io.netty.handler.codec.mqtt.MqttDecoder;
+import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessage;
+import io.netty.handler.codec.mqtt.MqttMessageIdVariableHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPubAckMessage;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.handler.codec.mqtt.MqttSubscribeMessage;
+import io.netty.handler.codec.mqtt.MqttSubscribePayload;
+import io.netty.handler.codec.mqtt.MqttTopicSubscription;
+import io.netty.handler.codec.mqtt.MqttVersion;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Minimal MQTT 3.1.1 client connection on a shared Netty event loop, so thousands of simulated devices
+ * don't need a thread or a Paho client each. Supports QoS 0 and 1 publishing and subscriptions.
+ */
+@Slf4j
+class MqttConnection extends SimpleChannelInboundHandler<MqttMessage> {
+
+    private static final int KEEP_ALIVE_SEC = 60;
+    private static final int MAX_MSG_ID = 0xFFFF;
+
+    private final EventLoopGroup eventLoopGroup;
+    private final String host;
+    private final int port;
+    private final String accessToken;
+    private final BiConsumer<String, byte[]> publishListener;
+    private final AtomicInteger msgIdSeq = new AtomicInteger();
+    private final Map<Integer, SettableFuture<Void>> pendingAcks = new ConcurrentHashMap<>();
+    private final SettableFuture<Void> connectFuture = SettableFuture.create();
+    private volatile Channel channel;
+
+    MqttConnection(EventLoopGroup eventLoopGroup, String host, int port, String accessToken, BiConsumer<String, byte[]> publishListener) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.host = host;
+        this.port = port;
+        this.accessToken = accessToken;
+        this.publishListener = publishListener;
+    }
+
+    ListenableFuture<Void> connect() {
+        Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new MqttDecoder(), MqttEncoder.INSTANCE,
+                                new IdleStateHandler(0, KEEP_ALIVE_SEC / 2, 0), MqttConnection.this);
+                    }
+                });
+        bootstrap.connect(host, port).addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                connectFuture.setException(f.cause());
+            }
+        });
+        return connectFuture;
+    }
+
+    ListenableFuture<Void> publish(String topic, byte[] payload, MqttQoS qos) {
+        SettableFuture<Void> result = SettableFuture.create();
+        Channel ch = channel;
+        if (ch == null || !ch.isActive()) {
+            result.setException(new ClosedChannelException());
+            return result;
+        }
+        int msgId = nextMsgId();
+        if (qos == MqttQoS.AT_LEAST_ONCE) {
+            pendingAcks.put(msgId, result);
+        }
+        MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.PUBLISH, false, qos, false, 0);
+        MqttPublishMessage msg = new MqttPublishMessage(header, new MqttPublishVariableHeader(topic, msgId), Unpooled.wrappedBuffer(payload));
+        ch.writeAndFlush(msg).addListener((ChannelFuture f) -> {
+            if (!f.isSuccess()) {
+                pendingAcks.remove(msgId);
+                result.setException(f.cause());
+            } else if (qos == MqttQoS.AT_MOST_ONCE) {
+                result.set(null);
+            }
+        });
+        return result;
+    }
+
+    ListenableFuture<Void> subscribe(String topic, MqttQoS qos) {
+        SettableFuture<Void> result = SettableFuture.create();
+        Channel ch = channel;
+        if (ch == null || !ch.isActive()) {
+            result.setException(new ClosedChannelException());
+            return result;
+        }
+        int msgId = nextMsgId();
+        pendingAcks.put(msgId, result);
+        MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.SUBSCRIBE, false, MqttQoS.AT_LEAST_ONCE, false, 0);
+        MqttSubscribePayload payload = new MqttSubscribePayload(Collections.singletonList(new MqttTopicSubscription(topic, qos)));
+        ch.writeAndFlush(new MqttSubscribeMessage(header, MqttMessageIdVariableHeader.from(msgId), payload));
+        return result;
+    }
+
+    void close() {
+        Channel ch = channel;
+        if (ch != null) {
+            ch.writeAndFlush(new MqttMessage(new MqttFixedHeader(MqttMessageType.DISCONNECT, false, MqttQoS.AT_MOST_ONCE, false, 0)));
+            ch.close();
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        channel = ctx.channel();
+        MqttFixedHeader header = new MqttFixedHeader(MqttMessageType.CONNECT, false, MqttQoS.AT_MOST_ONCE, false, 0);
+        MqttConnectVariableHeader variableHeader = new MqttConnectVariableHeader(MqttVersion.MQTT_3_1_1.protocolName(),
+                MqttVersion.MQTT_3_1_1.protocolLevel(), true, false, false, 0, false, true, KEEP_ALIVE_SEC);
+        MqttConnectPayload payload = new MqttConnectPayload(accessToken, null, (byte[]) null, accessToken, (byte[]) null);
+        ctx.writeAndFlush(new MqttConnectMessage(header, variableHeader, payload));
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, MqttMessage msg) {
+        switch (msg.fixedHeader().messageType()) {
+            case CONNACK:
+                MqttConnectReturnCode returnCode = ((MqttConnAckMessage) msg).variableHeader().connectReturnCode();
+                if (returnCode == MqttConnectReturnCode.CONNECTION_ACCEPTED) {
+                    connectFuture.set(null);
+                } else {
+                    connectFuture.setException(new IOException("Connection refused: " + returnCode));
+                    ctx.close();
+                }
+                break;
+            case PUBACK:
+            case SUBACK:
+                SettableFuture<Void> ack = pendingAcks.remove(((MqttMessageIdVariableHeader) msg.variableHeader()).messageId());
+                if (ack != null) {
+                    ack.set(null);
+                }
+                break;
+            case PUBLISH:
+                MqttPublishMessage publish = (MqttPublishMessage) msg;
+                if (publish.fixedHeader().qosLevel() == MqttQoS.AT_LEAST_ONCE) {
+                    ctx.writeAndFlush(new MqttPubAckMessage(
+                            new MqttFixedHeader(MqttMessageType.PUBACK, false, MqttQoS.AT_MOST_ONCE, false, 0),
+                            MqttMessageIdVariableHeader.from(publish.variableHeader().messageId())));
+                }
+                publishListener.accept(publish.variableHeader().topicName(), ByteBufUtil.getBytes(publish.payload()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            ctx.writeAndFlush(new MqttMessage(new MqttFixedHeader(MqttMessageType.PINGREQ, false, MqttQoS.AT_MOST_ONCE, false, 0)));
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        ClosedChannelException e = new ClosedChannelException();
+        connectFuture.setException(e);
+        pendingAcks.values().forEach(f -> f.setException(e));
+        pendingAcks.clear();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.warn("[{}] MQTT connection failure: {}", accessToken, cause.getMessage());
+        ctx.close();
+    }
+
+    private int nextMsgId() {
+        return msgIdSeq.updateAndGet(id -> id >= MAX_MSG_ID ? 1 : id + 1);
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Device connected over MQTT with its own access token. Answers RPC requests by echoing their params.
+ */
+@Slf4j
+public class MqttDeviceClient implements DeviceClient {
+
+    private static final String TELEMETRY_TOPIC = "v1/devices/me/telemetry";
+    private static final String RPC_REQUEST_TOPIC_PREFIX = "v1/devices/me/rpc/request/";
+    private static final String RPC_RESPONSE_TOPIC_PREFIX = "v1/devices/me/rpc/response/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String deviceName;
+    private final TelemetryFactory telemetryFactory;
+    private final LatencyStats.Metric publishMetric;
+    private final MqttQoS qos;
+    private final boolean rpcEnabled;
+    private final MqttConnection connection;
+
+    public MqttDeviceClient(LoadGeneratorConfig config, LatencyStats stats, TelemetryFactory telemetryFactory,
+                            EventLoopGroup eventLoopGroup, String deviceName, String accessToken) {
+        this.deviceName = deviceName;
+        this.telemetryFactory = telemetryFactory;
+        this.publishMetric = stats.metric("publish.mqtt");
+        this.qos = MqttQoS.valueOf(config.getMqttQos());
+        this.rpcEnabled = config.getRpcIntervalMs() > 0;
+        this.connection = new MqttConnection(eventLoopGroup, config.getMqttHost(), config.getMqttPort(), accessToken, this::onPublish);
+    }
+
+    @Override
+    public String getTransport() {
+        return "mqtt";
+    }
+
+    @Override
+    public List<String> getDeviceNames() {
+        return Collections.singletonList(deviceName);
+    }
+
+    @Override
+    public ListenableFuture<Void> connect() {
+        ListenableFuture<Void> future = connection.connect();
+        if (rpcEnabled) {
+            future = Futures.transform(future, (AsyncFunction<Void, Void>) v ->
+                    connection.subscribe(RPC_REQUEST_TOPIC_PREFIX + "+", MqttQoS.AT_MOST_ONCE));
+        }
+        return future;
+    }
+
+    @Override
+    public void publishTelemetry(long ts) {
+        long startNs = System.nanoTime();
+        Futures.addCallback(connection.publish(TELEMETRY_TOPIC, telemetryFactory.createDevicePayload(ts), qos), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                publishMetric.recordNanos(System.nanoTime() - startNs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                publishMetric.onError();
+            }
+        });
+    }
+
+    @Override
+    public void disconnect() {
+        connection.close();
+    }
+
+    private void onPublish(String topic, byte[] payload) {
+        if (topic.startsWith(RPC_REQUEST_TOPIC_PREFIX)) {
+            String requestId = topic.substring(RPC_REQUEST_TOPIC_PREFIX.length());
+            try {
+                JsonNode request = mapper.readTree(payload);
+                ObjectNode response = mapper.createObjectNode();
+                response.set("response", request.get("params"));
+                connection.publish(RPC_RESPONSE_TOPIC_PREFIX + requestId, mapper.writeValueAsBytes(response), MqttQoS.AT_MOST_ONCE);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to process RPC request: {}", deviceName, e.getMessage());
+            }
+        }
+    }
+}
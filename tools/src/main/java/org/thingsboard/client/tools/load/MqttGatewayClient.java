@@ -0,0 +1,131 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gateway connected over MQTT that publishes the telemetry of all its devices in one message per interval
+ * and answers RPC requests to its devices by echoing their params.
+ */
+@Slf4j
+public class MqttGatewayClient implements DeviceClient {
+
+    private static final String CONNECT_TOPIC = "v1/gateway/connect";
+    private static final String TELEMETRY_TOPIC = "v1/gateway/telemetry";
+    private static final String RPC_TOPIC = "v1/gateway/rpc";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String gatewayName;
+    private final List<String> deviceNames;
+    private final TelemetryFactory telemetryFactory;
+    private final LatencyStats.Metric publishMetric;
+    private final MqttQoS qos;
+    private final boolean rpcEnabled;
+    private final MqttConnection connection;
+
+    public MqttGatewayClient(LoadGeneratorConfig config, LatencyStats stats, TelemetryFactory telemetryFactory,
+                             EventLoopGroup eventLoopGroup, String gatewayName, String accessToken, List<String> deviceNames) {
+        this.gatewayName = gatewayName;
+        this.deviceNames = deviceNames;
+        this.telemetryFactory = telemetryFactory;
+        this.publishMetric = stats.metric("publish.gateway");
+        this.qos = MqttQoS.valueOf(config.getMqttQos());
+        this.rpcEnabled = config.getRpcIntervalMs() > 0;
+        this.connection = new MqttConnection(eventLoopGroup, config.getMqttHost(), config.getMqttPort(), accessToken, this::onPublish);
+    }
+
+    @Override
+    public String getTransport() {
+        return "gateway";
+    }
+
+    @Override
+    public List<String> getDeviceNames() {
+        return deviceNames;
+    }
+
+    @Override
+    public ListenableFuture<Void> connect() {
+        ListenableFuture<Void> future = connection.connect();
+        if (rpcEnabled) {
+            future = Futures.transform(future, (AsyncFunction<Void, Void>) v -> connection.subscribe(RPC_TOPIC, MqttQoS.AT_MOST_ONCE));
+        }
+        return Futures.transform(future, (AsyncFunction<Void, Void>) v -> {
+            List<ListenableFuture<Void>> connects = new ArrayList<>(deviceNames.size());
+            for (String deviceName : deviceNames) {
+                ObjectNode msg = mapper.createObjectNode();
+                msg.put("device", deviceName);
+                connects.add(connection.publish(CONNECT_TOPIC, mapper.writeValueAsBytes(msg), MqttQoS.AT_LEAST_ONCE));
+            }
+            return Futures.transform(Futures.allAsList(connects), (Function<List<Void>, Void>) l -> null);
+        });
+    }
+
+    @Override
+    public void publishTelemetry(long ts) {
+        long startNs = System.nanoTime();
+        Futures.addCallback(connection.publish(TELEMETRY_TOPIC, telemetryFactory.createGatewayPayload(deviceNames, ts), qos), new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                publishMetric.recordNanos(System.nanoTime() - startNs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                publishMetric.onError();
+            }
+        });
+    }
+
+    @Override
+    public void disconnect() {
+        connection.close();
+    }
+
+    private void onPublish(String topic, byte[] payload) {
+        if (RPC_TOPIC.equals(topic)) {
+            try {
+                JsonNode request = mapper.readTree(payload);
+                JsonNode data = request.get("data");
+                if (data == null || !request.has("device")) {
+                    return;
+                }
+                ObjectNode response = mapper.createObjectNode();
+                response.put("device", request.get("device").asText());
+                response.put("id", data.get("id").asInt());
+                response.set("data", data.get("params"));
+                connection.publish(RPC_TOPIC, mapper.writeValueAsBytes(response), MqttQoS.AT_MOST_ONCE);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to process RPC request: {}", gatewayName, e.getMessage());
+            }
+        }
+    }
+}
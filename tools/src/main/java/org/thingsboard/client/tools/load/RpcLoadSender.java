@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestTemplate;
+import org.thingsboard.server.common.data.id.DeviceId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends two-way server-side RPC requests to random devices through the REST API and records the
+ * round trip latency per transport of the target device as {@code rpc.<transport>}.
+ */
+@Slf4j
+public class RpcLoadSender {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RestTemplate restTemplate;
+    private final String rpcUrl;
+    private final long intervalMs;
+    private final long timeoutMs;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService rpcExecutor;
+    private final List<DeviceId> deviceIds = new ArrayList<>();
+    private final List<LatencyStats.Metric> metrics = new ArrayList<>();
+    private ScheduledFuture<?> schedule;
+
+    /**
+     * @param devices target device ids mapped to the name of the transport the device uses.
+     */
+    public RpcLoadSender(LoadGeneratorConfig config, RestTemplate restTemplate, ScheduledExecutorService scheduler,
+                         LatencyStats stats, Map<DeviceId, String> devices) {
+        this.restTemplate = restTemplate;
+        this.rpcUrl = config.getRestUrl() + "/api/plugins/rpc/twoway/{deviceId}";
+        this.intervalMs = config.getRpcIntervalMs();
+        this.timeoutMs = config.getRpcTimeoutMs();
+        this.scheduler = scheduler;
+        this.rpcExecutor = Executors.newFixedThreadPool(config.getRpcThreads());
+        devices.forEach((deviceId, transport) -> {
+            deviceIds.add(deviceId);
+            metrics.add(stats.metric("rpc." + transport));
+        });
+    }
+
+    public void start() {
+        if (intervalMs > 0 && !deviceIds.isEmpty()) {
+            schedule = scheduler.scheduleAtFixedRate(() -> rpcExecutor.submit(this::sendRpc), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+        rpcExecutor.shutdownNow();
+    }
+
+    private void sendRpc() {
+        int idx = ThreadLocalRandom.current().nextInt(deviceIds.size());
+        ObjectNode request = mapper.createObjectNode();
+        request.put("method", "echo");
+        request.putObject("params").put("ts", System.currentTimeMillis());
+        request.put("timeout", timeoutMs);
+        long startNs = System.nanoTime();
+        try {
+            restTemplate.postForEntity(rpcUrl, request, String.class, deviceIds.get(idx).getId().toString());
+            metrics.get(idx).recordNanos(System.nanoTime() - startNs);
+        } catch (Exception e) {
+            log.debug("[{}] RPC request failed: {}", deviceIds.get(idx), e.getMessage());
+            metrics.get(idx).onError();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds telemetry payloads of the configured shape. Every value set carries an explicit timestamp equal to the publish time,
+ * so the latency of a value can be measured when it comes back in a websocket subscription update.
+ */
+public class TelemetryFactory {
+
+    private final String[] keys;
+    private final String[] types;
+    private final int valuesPerMsg;
+
+    public TelemetryFactory(LoadGeneratorConfig config) {
+        this.keys = new String[config.getTelemetryKeys()];
+        this.types = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            types[i] = config.getTelemetryTypes()[i % config.getTelemetryTypes().length].trim();
+            keys[i] = types[i] + i;
+        }
+        this.valuesPerMsg = Math.max(1, config.getTelemetryValuesPerMsg());
+    }
+
+    /**
+     * Device API payload: {@code [{"ts":..., "values":{...}}, ...]}.
+     */
+    public byte[] createDevicePayload(long ts) {
+        StringBuilder sb = new StringBuilder(64 * keys.length * valuesPerMsg);
+        appendValueSets(sb, ts);
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gateway API payload: {@code {"device A":[{"ts":..., "values":{...}}], ...}}.
+     */
+    public byte[] createGatewayPayload(List<String> deviceNames, long ts) {
+        StringBuilder sb = new StringBuilder(64 * keys.length * valuesPerMsg * deviceNames.size());
+        sb.append('{');
+        for (int i = 0; i < deviceNames.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(deviceNames.get(i)).append("\":");
+            appendValueSets(sb, ts);
+        }
+        sb.append('}');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendValueSets(StringBuilder sb, long ts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sb.append('[');
+        for (int i = 0; i < valuesPerMsg; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            // Older value sets first, the last one is stamped with the publish time.
+            sb.append("{\"ts\":").append(ts - (valuesPerMsg - 1 - i)).append(",\"values\":{");
+            for (int k = 0; k < keys.length; k++) {
+                if (k > 0) {
+                    sb.append(',');
+                }
+                sb.append('"').append(keys[k]).append("\":");
+                appendValue(sb, types[k], random);
+            }
+            sb.append("}}");
+        }
+        sb.append(']');
+    }
+
+    private static void appendValue(StringBuilder sb, String type, ThreadLocalRandom random) {
+        switch (type) {
+            case "long":
+                sb.append(random.nextLong(1000000));
+                break;
+            case "boolean":
+                sb.append(random.nextBoolean());
+                break;
+            case "string":
+                sb.append("\"value").append(random.nextInt(100)).append('"');
+                break;
+            default:
+                sb.append(Math.round(random.nextDouble(-50, 50) * 100) / 100.0);
+        }
+    }
+}
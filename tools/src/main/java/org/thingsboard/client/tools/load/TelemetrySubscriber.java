@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.client.tools.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.thingsboard.server.common.data.id.DeviceId;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes to the latest telemetry of the sampled devices over the telemetry websocket and records
+ * the end-to-end latency: the time between the timestamp set by the device and the websocket update.
+ * Latency is recorded per transport as {@code e2e.<transport>}.
+ */
+@Slf4j
+public class TelemetrySubscriber extends TextWebSocketHandler {
+
+    private static final int CMDS_PER_MSG = 10;
+    private static final long CONNECT_TIMEOUT_SEC = 30;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String wsUrl;
+    private final List<DeviceId> deviceIds = new ArrayList<>();
+    private final List<LatencyStats.Metric> metrics = new ArrayList<>();
+    private volatile long startTs;
+    private WebSocketSession session;
+
+    /**
+     * @param devices sampled device ids mapped to the name of the transport the device uses.
+     */
+    public TelemetrySubscriber(LoadGeneratorConfig config, String token, LatencyStats stats, Map<DeviceId, String> devices) {
+        this.wsUrl = config.getRestUrl().replaceFirst("^http", "ws") + "/api/ws/plugins/telemetry?token=" + token;
+        devices.forEach((deviceId, transport) -> {
+            deviceIds.add(deviceId);
+            metrics.add(stats.metric("e2e." + transport));
+        });
+    }
+
+    public void start() throws Exception {
+        startTs = System.currentTimeMillis();
+        session = new StandardWebSocketClient().doHandshake(this, wsUrl).get(CONNECT_TIMEOUT_SEC, TimeUnit.SECONDS);
+        Iterator<DeviceId> it = deviceIds.iterator();
+        int cmdId = 0;
+        while (it.hasNext()) {
+            ObjectNode cmds = mapper.createObjectNode();
+            ArrayNode tsSubCmds = cmds.putArray("tsSubCmds");
+            cmds.putArray("historyCmds");
+            cmds.putArray("attrSubCmds");
+            for (int i = 0; i < CMDS_PER_MSG && it.hasNext(); i++) {
+                ObjectNode cmd = tsSubCmds.addObject();
+                cmd.put("cmdId", cmdId++);
+                cmd.put("entityType", "DEVICE");
+                cmd.put("entityId", it.next().getId().toString());
+                cmd.put("scope", "LATEST_TELEMETRY");
+            }
+            session.sendMessage(new TextMessage(mapper.writeValueAsString(cmds)));
+        }
+        log.info("Subscribed to telemetry of {} devices", deviceIds.size());
+    }
+
+    public void stop() {
+        if (session != null && session.isOpen()) {
+            try {
+                session.close();
+            } catch (IOException e) {
+                log.warn("Failed to close websocket session: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        long now = System.currentTimeMillis();
+        JsonNode update = mapper.readTree(message.getPayload());
+        int cmdId = update.path("subscriptionId").asInt(-1);
+        JsonNode data = update.get("data");
+        if (cmdId < 0 || cmdId >= metrics.size() || data == null || !data.isObject()) {
+            return;
+        }
+        long maxTs = 0;
+        for (JsonNode values : data) {
+            for (JsonNode value : values) {
+                maxTs = Math.max(maxTs, value.path(0).asLong());
+            }
+        }
+        // The initial update of a subscription contains values published before the run.
+        if (maxTs >= startTs) {
+            metrics.get(cmdId).recordMillis(now - maxTs);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Websocket transport error: {}", exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        log.info("Websocket session closed: {}", status);
+    }
+}
@@ -28,12 +28,14 @@ import org.eclipse.californium.core.network.ExchangeObserver;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.core.server.resources.Resource;
 import org.thingsboard.server.common.data.id.SessionId;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.DeviceCredentialsFilter;
 import org.thingsboard.server.common.data.security.DeviceTokenCredentials;
 import org.thingsboard.server.common.msg.session.*;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.adaptor.AdaptorException;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
 import org.thingsboard.server.common.transport.quota.QuotaService;
 import org.thingsboard.server.transport.coap.adaptors.CoapTransportAdaptor;
 import org.thingsboard.server.transport.coap.session.CoapExchangeObserverProxy;
@@ -53,15 +55,17 @@ public class CoapTransportResource extends CoapResource {
     private final SessionMsgProcessor processor;
     private final DeviceAuthService authService;
     private final QuotaService quotaService;
+    private final BackpressureService backpressureService;
     private final Field observerField;
     private final long timeout;
 
     public CoapTransportResource(SessionMsgProcessor processor, DeviceAuthService authService, CoapTransportAdaptor adaptor, String name,
-                                 long timeout, QuotaService quotaService) {
+                                 long timeout, QuotaService quotaService, BackpressureService backpressureService) {
         super(name);
         this.processor = processor;
         this.authService = authService;
         this.quotaService = quotaService;
+        this.backpressureService = backpressureService;
         this.adaptor = adaptor;
         this.timeout = timeout;
         // This is important to turn off existing observable logic in
@@ -158,6 +162,13 @@ public class CoapTransportResource extends CoapResource {
             return Optional.empty();
         }
 
+        TenantId tenantId = ctx.getDevice() != null ? ctx.getDevice().getTenantId() : null;
+        if (backpressureService != null && tenantId != null && backpressureService.isOverloaded(tenantId)) {
+            backpressureService.onRequestRejected(tenantId);
+            exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+            return Optional.empty();
+        }
+
         AdaptorToSessionActorMsg msg;
         try {
             switch (type) {
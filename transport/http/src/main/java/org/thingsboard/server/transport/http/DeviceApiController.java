@@ -26,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.DeviceTokenCredentials;
 import org.thingsboard.server.common.msg.core.*;
 import org.thingsboard.server.common.msg.session.AdaptorToSessionActorMsg;
@@ -35,6 +36,7 @@ import org.thingsboard.server.common.msg.session.FromDeviceMsg;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.adaptor.JsonConverter;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
 import org.thingsboard.server.common.transport.quota.QuotaService;
 import org.thingsboard.server.transport.http.session.HttpSessionCtx;
 
@@ -63,6 +65,9 @@ public class DeviceApiController {
     @Autowired(required = false)
     private QuotaService quotaService;
 
+    @Autowired(required = false)
+    private BackpressureService backpressureService;
+
     @RequestMapping(value = "/{deviceToken}/attributes", method = RequestMethod.GET, produces = "application/json")
     public DeferredResult<ResponseEntity> getDeviceAttributes(@PathVariable("deviceToken") String deviceToken,
                                                               @RequestParam(value = "clientKeys", required = false, defaultValue = "") String clientKeys,
@@ -82,7 +87,7 @@ public class DeviceApiController {
                 Set<String> sharedKeySet = !StringUtils.isEmpty(sharedKeys) ? new HashSet<>(Arrays.asList(sharedKeys.split(","))) : null;
                 request = new BasicGetAttributesRequest(0, clientKeySet, sharedKeySet);
             }
-            process(ctx, request);
+            process(ctx, responseWriter, request);
         } else {
             responseWriter.setResult(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
         }
@@ -100,7 +105,7 @@ public class DeviceApiController {
         HttpSessionCtx ctx = getHttpSessionCtx(responseWriter);
         if (ctx.login(new DeviceTokenCredentials(deviceToken))) {
             try {
-                process(ctx, JsonConverter.convertToAttributes(new JsonParser().parse(json)));
+                process(ctx, responseWriter, JsonConverter.convertToAttributes(new JsonParser().parse(json)));
             } catch (IllegalStateException | JsonSyntaxException ex) {
                 responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
             }
@@ -120,7 +125,7 @@ public class DeviceApiController {
         HttpSessionCtx ctx = getHttpSessionCtx(responseWriter);
         if (ctx.login(new DeviceTokenCredentials(deviceToken))) {
             try {
-                process(ctx, JsonConverter.convertToTelemetry(new JsonParser().parse(json)));
+                process(ctx, responseWriter, JsonConverter.convertToTelemetry(new JsonParser().parse(json)));
             } catch (IllegalStateException | JsonSyntaxException ex) {
                 responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
             }
@@ -150,7 +155,7 @@ public class DeviceApiController {
         if (ctx.login(new DeviceTokenCredentials(deviceToken))) {
             try {
                 JsonObject response = new JsonParser().parse(json).getAsJsonObject();
-                process(ctx, new ToDeviceRpcResponseMsg(requestId, response.toString()));
+                process(ctx, responseWriter, new ToDeviceRpcResponseMsg(requestId, response.toString()));
             } catch (IllegalStateException | JsonSyntaxException ex) {
                 responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
             }
@@ -171,7 +176,7 @@ public class DeviceApiController {
         if (ctx.login(new DeviceTokenCredentials(deviceToken))) {
             try {
                 JsonObject request = new JsonParser().parse(json).getAsJsonObject();
-                process(ctx, new ToServerRpcRequestMsg(0,
+                process(ctx, responseWriter, new ToServerRpcRequestMsg(0,
                         request.get("method").getAsString(),
                         request.get("params").toString()));
             } catch (IllegalStateException | JsonSyntaxException ex) {
@@ -199,7 +204,7 @@ public class DeviceApiController {
         HttpSessionCtx ctx = getHttpSessionCtx(responseWriter, timeout);
         if (ctx.login(new DeviceTokenCredentials(deviceToken))) {
             try {
-                process(ctx, msg);
+                process(ctx, responseWriter, msg);
             } catch (IllegalStateException | JsonSyntaxException ex) {
                 responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
             }
@@ -217,7 +222,13 @@ public class DeviceApiController {
         return new HttpSessionCtx(processor, authService, responseWriter, timeout != 0 ? timeout : defaultTimeout);
     }
 
-    private void process(HttpSessionCtx ctx, FromDeviceMsg request) {
+    private void process(HttpSessionCtx ctx, DeferredResult<ResponseEntity> responseWriter, FromDeviceMsg request) {
+        TenantId tenantId = ctx.getDevice() != null ? ctx.getDevice().getTenantId() : null;
+        if (backpressureService != null && tenantId != null && backpressureService.isOverloaded(tenantId)) {
+            backpressureService.onRequestRejected(tenantId);
+            responseWriter.setResult(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+            return;
+        }
         AdaptorToSessionActorMsg msg = new BasicAdaptorToSessionActorMsg(ctx, request);
         processor.process(new BasicToDeviceActorSessionMsg(ctx.getDevice(), msg));
     }
@@ -0,0 +1,254 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.dao.exception.DataValidationException;
+import org.thingsboard.server.dao.relation.RelationService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves and creates devices connected through gateways off the MQTT event loop.
+ * Requests are queued and processed in batches by a small pool of workers: devices of a tenant are looked up
+ * with one query per batch and the missing ones are created. Concurrent requests for the same device share a single future.
+ */
+@Service
+@ConditionalOnProperty(prefix = "mqtt", value = "enabled", havingValue = "true", matchIfMissing = false)
+@ManagedResource(objectName = "org.thingsboard.server:type=GatewayProvisioning", description = "Provisioning of devices connected through gateways")
+@Slf4j
+public class GatewayDeviceProvisioningService {
+
+    private static final String CREATED_RELATION = "Created";
+    private static final long POLL_TIMEOUT_MS = 1000;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private RelationService relationService;
+
+    @Value("${mqtt.gateway.provisioning.pool_size}")
+    private int poolSize;
+    @Value("${mqtt.gateway.provisioning.batch_size}")
+    private int batchSize;
+
+    private final BlockingQueue<ProvisioningRequest> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentMap<DeviceKey, ProvisioningRequest> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DeviceId, GatewayProvisioningStats> gatewayStats = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            executor.submit(this::processQueue);
+        }
+        log.info("Started gateway device provisioning with {} workers and batch size {}", poolSize, batchSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return future of the existing or created device with the given name in the tenant of the gateway.
+     */
+    public ListenableFuture<Device> provision(Device gateway, String deviceName, String deviceType) {
+        DeviceKey key = new DeviceKey(gateway.getTenantId(), deviceName);
+        ProvisioningRequest request = new ProvisioningRequest(key, gateway, deviceType);
+        ProvisioningRequest existing = pending.putIfAbsent(key, request);
+        if (existing != null) {
+            return existing.future;
+        }
+        queue.add(request);
+        return request.future;
+    }
+
+    /**
+     * Records the latency of a provisioning batch of the gateway, see {@link GatewayProvisioningStats}.
+     */
+    public void onBatchProvisioned(Device gateway, int devices, long batchTimeMs, long maxDeviceLatencyMs) {
+        gatewayStats.computeIfAbsent(gateway.getId(), id -> new GatewayProvisioningStats(gateway.getName()))
+                .onBatchProvisioned(devices, batchTimeMs, maxDeviceLatencyMs);
+    }
+
+    public void onGatewayDisconnected(Device gateway) {
+        gatewayStats.remove(gateway.getId());
+    }
+
+    /**
+     * @return provisioning latency of the connected gateways
+     */
+    public Collection<GatewayProvisioningStats> getGatewayStats() {
+        return new ArrayList<>(gatewayStats.values());
+    }
+
+    @ManagedAttribute(description = "Provisioning batch latency per connected gateway")
+    public String[] getGateways() {
+        return gatewayStats.values().stream().map(GatewayProvisioningStats::toString).toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Number of devices waiting to be provisioned")
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void processQueue() {
+        List<ProvisioningRequest> batch = new ArrayList<>(batchSize);
+        while (!stopped) {
+            try {
+                ProvisioningRequest first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                log.error("Failed to process gateway device provisioning batch", t);
+                batch.forEach(request -> complete(request, null, t));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<ProvisioningRequest> batch) throws Exception {
+        long startTs = System.currentTimeMillis();
+        Map<TenantId, Map<String, ProvisioningRequest>> byTenant = new HashMap<>();
+        for (ProvisioningRequest request : batch) {
+            byTenant.computeIfAbsent(request.key.getTenantId(), t -> new LinkedHashMap<>()).put(request.key.getName(), request);
+        }
+        int created = 0;
+        for (Map.Entry<TenantId, Map<String, ProvisioningRequest>> entry : byTenant.entrySet()) {
+            Map<String, ProvisioningRequest> requests = entry.getValue();
+            List<Device> existing = deviceService.findDevicesByTenantIdAndNamesAsync(entry.getKey(), new ArrayList<>(requests.keySet())).get();
+            for (Device device : existing) {
+                ProvisioningRequest request = requests.remove(device.getName());
+                if (request != null) {
+                    complete(request, device, null);
+                }
+            }
+            for (ProvisioningRequest request : requests.values()) {
+                try {
+                    complete(request, createDevice(request), null);
+                    created++;
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to create device [{}] for gateway [{}]", entry.getKey(), request.key.getName(), request.gateway.getName(), e);
+                    complete(request, null, e);
+                }
+            }
+        }
+        log.debug("Provisioned {} gateway devices, {} created, in {} ms", batch.size(), created, System.currentTimeMillis() - startTs);
+    }
+
+    private Device createDevice(ProvisioningRequest request) {
+        Device device = new Device();
+        device.setTenantId(request.key.getTenantId());
+        device.setName(request.key.getName());
+        device.setType(request.deviceType);
+        try {
+            device = deviceService.saveDevice(device);
+        } catch (DataValidationException e) {
+            // The device may have been created by another server in the meantime.
+            Device existing = deviceService.findDeviceByTenantIdAndName(request.key.getTenantId(), request.key.getName());
+            if (existing == null) {
+                throw e;
+            }
+            return existing;
+        }
+        EntityRelation relation = new EntityRelation(request.gateway.getId(), device.getId(), CREATED_RELATION);
+        Futures.addCallback(relationService.saveRelationAsync(relation), new FutureCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean result) {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.warn("[{}] Failed to save relation of device [{}] to gateway [{}]", request.key.getTenantId(), request.key.getName(),
+                        request.gateway.getName(), t);
+            }
+        });
+        return device;
+    }
+
+    private void complete(ProvisioningRequest request, Device device, Throwable error) {
+        pending.remove(request.key, request);
+        if (error == null) {
+            request.future.set(device);
+        } else {
+            request.future.setException(error);
+        }
+    }
+
+    @Data
+    private static final class DeviceKey {
+        private final TenantId tenantId;
+        private final String name;
+    }
+
+    private static final class ProvisioningRequest {
+        private final DeviceKey key;
+        private final Device gateway;
+        private final String deviceType;
+        private final SettableFuture<Device> future = SettableFuture.create();
+
+        private ProvisioningRequest(DeviceKey key, Device gateway, String deviceType) {
+            this.key = key;
+            this.gateway = gateway;
+            this.deviceType = deviceType;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt;
+
+/**
+ * Latency of device provisioning batches of a single gateway. A batch starts with the first unknown device
+ * reported by the gateway and ends once all devices that were reported in the meantime are provisioned.
+ */
+public class GatewayProvisioningStats {
+
+    private final String gatewayName;
+    private long batches;
+    private long devices;
+    private long totalBatchTimeMs;
+    private long maxBatchTimeMs;
+    private long lastBatchTimeMs;
+    private long maxDeviceLatencyMs;
+
+    GatewayProvisioningStats(String gatewayName) {
+        this.gatewayName = gatewayName;
+    }
+
+    synchronized void onBatchProvisioned(int devices, long batchTimeMs, long maxDeviceLatencyMs) {
+        this.batches++;
+        this.devices += devices;
+        this.totalBatchTimeMs += batchTimeMs;
+        this.maxBatchTimeMs = Math.max(this.maxBatchTimeMs, batchTimeMs);
+        this.lastBatchTimeMs = batchTimeMs;
+        this.maxDeviceLatencyMs = Math.max(this.maxDeviceLatencyMs, maxDeviceLatencyMs);
+    }
+
+    public String getGatewayName() {
+        return gatewayName;
+    }
+
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    public synchronized long getDevices() {
+        return devices;
+    }
+
+    public synchronized double getAvgBatchTimeMs() {
+        return batches > 0 ? totalBatchTimeMs / (double) batches : 0;
+    }
+
+    public synchronized long getMaxBatchTimeMs() {
+        return maxBatchTimeMs;
+    }
+
+    public synchronized long getLastBatchTimeMs() {
+        return lastBatchTimeMs;
+    }
+
+    public synchronized long getMaxDeviceLatencyMs() {
+        return maxDeviceLatencyMs;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s[batches=%d, devices=%d, avgBatchTimeMs=%.1f, maxBatchTimeMs=%d, lastBatchTimeMs=%d, maxDeviceLatencyMs=%d]",
+                gatewayName, batches, devices, getAvgBatchTimeMs(), maxBatchTimeMs, lastBatchTimeMs, maxDeviceLatencyMs);
+    }
+}
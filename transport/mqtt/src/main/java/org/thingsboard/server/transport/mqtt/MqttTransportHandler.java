@@ -27,6 +27,7 @@ import io.netty.util.concurrent.GenericFutureListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.DeviceTokenCredentials;
 import org.thingsboard.server.common.data.security.DeviceX509Credentials;
 import org.thingsboard.server.common.msg.session.AdaptorToSessionActorMsg;
@@ -35,10 +36,9 @@ import org.thingsboard.server.common.msg.session.ctrl.SessionCloseMsg;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.adaptor.AdaptorException;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
 import org.thingsboard.server.common.transport.quota.QuotaService;
 import org.thingsboard.server.dao.EncryptionUtil;
-import org.thingsboard.server.dao.device.DeviceService;
-import org.thingsboard.server.dao.relation.RelationService;
 import org.thingsboard.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 import org.thingsboard.server.transport.mqtt.session.DeviceSessionCtx;
 import org.thingsboard.server.transport.mqtt.session.GatewaySessionCtx;
@@ -49,6 +49,7 @@ import javax.security.cert.X509Certificate;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static io.netty.handler.codec.mqtt.MqttConnectReturnCode.*;
 import static io.netty.handler.codec.mqtt.MqttMessageType.*;
@@ -63,31 +64,34 @@ import static org.thingsboard.server.transport.mqtt.MqttTopics.*;
 public class MqttTransportHandler extends ChannelInboundHandlerAdapter implements GenericFutureListener<Future<? super Void>> {
 
     public static final MqttQoS MAX_SUPPORTED_QOS_LVL = AT_LEAST_ONCE;
+    private static final long RESUME_CHECK_INTERVAL_MS = 100;
 
     private final DeviceSessionCtx deviceSessionCtx;
     private final String sessionId;
     private final MqttTransportAdaptor adaptor;
     private final SessionMsgProcessor processor;
-    private final DeviceService deviceService;
     private final DeviceAuthService authService;
-    private final RelationService relationService;
+    private final GatewayDeviceProvisioningService provisioningService;
     private final QuotaService quotaService;
+    private final BackpressureService backpressureService;
     private final SslHandler sslHandler;
     private volatile boolean connected;
     private volatile InetSocketAddress address;
     private volatile GatewaySessionCtx gatewaySessionCtx;
+    private long readPausedTs;
 
-    public MqttTransportHandler(SessionMsgProcessor processor, DeviceService deviceService, DeviceAuthService authService, RelationService relationService,
-                                MqttTransportAdaptor adaptor, SslHandler sslHandler, QuotaService quotaService) {
+    public MqttTransportHandler(SessionMsgProcessor processor, DeviceAuthService authService, GatewayDeviceProvisioningService provisioningService,
+                                MqttTransportAdaptor adaptor, SslHandler sslHandler, QuotaService quotaService,
+                                BackpressureService backpressureService) {
         this.processor = processor;
-        this.deviceService = deviceService;
-        this.relationService = relationService;
+        this.provisioningService = provisioningService;
         this.authService = authService;
         this.adaptor = adaptor;
         this.deviceSessionCtx = new DeviceSessionCtx(processor, authService, adaptor);
         this.sessionId = deviceSessionCtx.getSessionId().toUidStr();
         this.sslHandler = sslHandler;
         this.quotaService = quotaService;
+        this.backpressureService = backpressureService;
     }
 
     @Override
@@ -119,6 +123,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
                 break;
             case PUBLISH:
                 processPublish(ctx, (MqttPublishMessage) msg);
+                checkBackpressure(ctx);
                 break;
             case SUBSCRIBE:
                 processSubscribe(ctx, (MqttSubscribeMessage) msg);
@@ -160,6 +165,36 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         }
     }
 
+    private void checkBackpressure(ChannelHandlerContext ctx) {
+        Device device = deviceSessionCtx.getDevice();
+        if (backpressureService == null || device == null || readPausedTs > 0) {
+            return;
+        }
+        TenantId tenantId = device.getTenantId();
+        if (backpressureService.isOverloaded(tenantId)) {
+            log.debug("[{}] Tenant [{}] is overloaded, pausing reads", sessionId, tenantId);
+            readPausedTs = System.currentTimeMillis();
+            ctx.channel().config().setAutoRead(false);
+            scheduleResume(ctx, tenantId);
+        }
+    }
+
+    private void scheduleResume(ChannelHandlerContext ctx, TenantId tenantId) {
+        ctx.executor().schedule(() -> {
+            boolean active = ctx.channel().isActive();
+            if (active && backpressureService.isOverloaded(tenantId)) {
+                scheduleResume(ctx, tenantId);
+                return;
+            }
+            backpressureService.onReadPaused(tenantId, System.currentTimeMillis() - readPausedTs);
+            readPausedTs = 0;
+            if (active) {
+                log.debug("[{}] Resuming reads", sessionId);
+                ctx.channel().config().setAutoRead(true);
+            }
+        }, RESUME_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
     private void handleMqttPublishMsg(String topicName, int msgId, MqttPublishMessage mqttMsg) {
         try {
             if (topicName.equals(GATEWAY_TELEMETRY_TOPIC)) {
@@ -403,7 +438,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         if (infoNode != null) {
             JsonNode gatewayNode = infoNode.get("gateway");
             if (gatewayNode != null && gatewayNode.asBoolean()) {
-                gatewaySessionCtx = new GatewaySessionCtx(processor, deviceService, authService, relationService, deviceSessionCtx);
+                gatewaySessionCtx = new GatewaySessionCtx(processor, authService, provisioningService, deviceSessionCtx);
             }
         }
     }
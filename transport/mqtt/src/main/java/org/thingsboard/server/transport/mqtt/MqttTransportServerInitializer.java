@@ -23,9 +23,8 @@ import io.netty.handler.codec.mqtt.MqttEncoder;
 import io.netty.handler.ssl.SslHandler;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
 import org.thingsboard.server.common.transport.quota.QuotaService;
-import org.thingsboard.server.dao.device.DeviceService;
-import org.thingsboard.server.dao.relation.RelationService;
 import org.thingsboard.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 
 /**
@@ -36,23 +35,23 @@ public class MqttTransportServerInitializer extends ChannelInitializer<SocketCha
     private static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
 
     private final SessionMsgProcessor processor;
-    private final DeviceService deviceService;
     private final DeviceAuthService authService;
-    private final RelationService relationService;
+    private final GatewayDeviceProvisioningService provisioningService;
     private final MqttTransportAdaptor adaptor;
     private final MqttSslHandlerProvider sslHandlerProvider;
     private final QuotaService quotaService;
+    private final BackpressureService backpressureService;
 
-    public MqttTransportServerInitializer(SessionMsgProcessor processor, DeviceService deviceService, DeviceAuthService authService, RelationService relationService,
+    public MqttTransportServerInitializer(SessionMsgProcessor processor, DeviceAuthService authService, GatewayDeviceProvisioningService provisioningService,
                                           MqttTransportAdaptor adaptor, MqttSslHandlerProvider sslHandlerProvider,
-                                          QuotaService quotaService) {
+                                          QuotaService quotaService, BackpressureService backpressureService) {
         this.processor = processor;
-        this.deviceService = deviceService;
         this.authService = authService;
-        this.relationService = relationService;
+        this.provisioningService = provisioningService;
         this.adaptor = adaptor;
         this.sslHandlerProvider = sslHandlerProvider;
         this.quotaService = quotaService;
+        this.backpressureService = backpressureService;
     }
 
     @Override
@@ -66,8 +65,8 @@ public class MqttTransportServerInitializer extends ChannelInitializer<SocketCha
         pipeline.addLast("decoder", new MqttDecoder(MAX_PAYLOAD_SIZE));
         pipeline.addLast("encoder", MqttEncoder.INSTANCE);
 
-        MqttTransportHandler handler = new MqttTransportHandler(processor, deviceService, authService, relationService,
-                adaptor, sslHandler, quotaService);
+        MqttTransportHandler handler = new MqttTransportHandler(processor, authService, provisioningService,
+                adaptor, sslHandler, quotaService, backpressureService);
 
         pipeline.addLast(handler);
         ch.closeFuture().addListener(handler);
@@ -29,9 +29,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.common.transport.backpressure.BackpressureService;
 import org.thingsboard.server.common.transport.quota.QuotaService;
-import org.thingsboard.server.dao.device.DeviceService;
-import org.thingsboard.server.dao.relation.RelationService;
 import org.thingsboard.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 
 import javax.annotation.PostConstruct;
@@ -54,14 +53,11 @@ public class MqttTransportService {
     @Autowired(required = false)
     private SessionMsgProcessor processor;
 
-    @Autowired(required = false)
-    private DeviceService deviceService;
-
     @Autowired(required = false)
     private DeviceAuthService authService;
 
     @Autowired(required = false)
-    private RelationService relationService;
+    private GatewayDeviceProvisioningService provisioningService;
 
     @Autowired(required = false)
     private MqttSslHandlerProvider sslHandlerProvider;
@@ -69,6 +65,9 @@ public class MqttTransportService {
     @Autowired(required = false)
     private QuotaService quotaService;
 
+    @Autowired(required = false)
+    private BackpressureService backpressureService;
+
     @Value("${mqtt.bind_address}")
     private String host;
     @Value("${mqtt.bind_port}")
@@ -105,8 +104,8 @@ public class MqttTransportService {
         ServerBootstrap b = new ServerBootstrap();
         b.group(bossGroup, workerGroup)
                 .channel(NioServerSocketChannel.class)
-                .childHandler(new MqttTransportServerInitializer(processor, deviceService, authService, relationService,
-                        adaptor, sslHandlerProvider, quotaService));
+                .childHandler(new MqttTransportServerInitializer(processor, authService, provisioningService,
+                        adaptor, sslHandlerProvider, quotaService, backpressureService));
 
         serverChannel = b.bind(host, port).sync().channel();
         log.info("Mqtt transport started!");
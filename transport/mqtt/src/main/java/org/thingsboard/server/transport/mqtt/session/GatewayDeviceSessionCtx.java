@@ -165,16 +165,16 @@ public class GatewayDeviceSessionCtx extends DeviceAwareSessionContext {
     private void addValueToJson(JsonObject json, String name, KvEntry entry) {
         switch (entry.getDataType()) {
             case BOOLEAN:
-                entry.getBooleanValue().ifPresent(aBoolean -> json.addProperty(name, aBoolean));
+                json.addProperty(name, entry.booleanValue());
                 break;
             case STRING:
                 entry.getStrValue().ifPresent(aString -> json.addProperty(name, aString));
                 break;
             case DOUBLE:
-                entry.getDoubleValue().ifPresent(aDouble -> json.addProperty(name, aDouble));
+                json.addProperty(name, entry.doubleValue());
                 break;
             case LONG:
-                entry.getLongValue().ifPresent(aLong -> json.addProperty(name, aLong));
+                json.addProperty(name, entry.longValue());
                 break;
         }
     }
@@ -15,6 +15,8 @@
  */
 package org.thingsboard.server.transport.mqtt.session;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -27,21 +29,21 @@ import org.springframework.util.StringUtils;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.SessionId;
 import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
-import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.msg.core.*;
 import org.thingsboard.server.common.msg.session.BasicAdaptorToSessionActorMsg;
 import org.thingsboard.server.common.msg.session.BasicToDeviceActorSessionMsg;
+import org.thingsboard.server.common.msg.session.FromDeviceMsg;
 import org.thingsboard.server.common.msg.session.ctrl.SessionCloseMsg;
 import org.thingsboard.server.common.transport.SessionMsgProcessor;
 import org.thingsboard.server.common.transport.adaptor.AdaptorException;
 import org.thingsboard.server.common.transport.adaptor.JsonConverter;
 import org.thingsboard.server.common.transport.auth.DeviceAuthService;
-import org.thingsboard.server.dao.device.DeviceService;
-import org.thingsboard.server.dao.relation.RelationService;
+import org.thingsboard.server.transport.mqtt.GatewayDeviceProvisioningService;
 import org.thingsboard.server.transport.mqtt.MqttTransportHandler;
 import org.thingsboard.server.transport.mqtt.adaptors.JsonMqttAdaptor;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.transport.mqtt.adaptors.JsonMqttAdaptor.validateJsonPayload;
@@ -55,23 +57,29 @@ public class GatewaySessionCtx {
     private static final String DEFAULT_DEVICE_TYPE = "default";
     public static final String CAN_T_PARSE_VALUE = "Can't parse value: ";
     public static final String DEVICE_PROPERTY = "device";
+    private static final int MAX_PENDING_MSGS_PER_DEVICE = 1000;
     private final Device gateway;
     private final SessionId gatewaySessionId;
     private final SessionMsgProcessor processor;
-    private final DeviceService deviceService;
     private final DeviceAuthService authService;
-    private final RelationService relationService;
+    private final GatewayDeviceProvisioningService provisioningService;
     private final Map<String, GatewayDeviceSessionCtx> devices;
+    // Messages of devices that are being provisioned. Accessed only from the channel event loop.
+    private final Map<String, List<Consumer<GatewayDeviceSessionCtx>>> pendingDevices;
     private ChannelHandlerContext channel;
+    private volatile boolean closed;
+    private long provisioningStartTs;
+    private int provisionedCount;
+    private long provisioningMaxLatency;
 
-    public GatewaySessionCtx(SessionMsgProcessor processor, DeviceService deviceService, DeviceAuthService authService, RelationService relationService, DeviceSessionCtx gatewaySessionCtx) {
+    public GatewaySessionCtx(SessionMsgProcessor processor, DeviceAuthService authService, GatewayDeviceProvisioningService provisioningService, DeviceSessionCtx gatewaySessionCtx) {
         this.processor = processor;
-        this.deviceService = deviceService;
         this.authService = authService;
-        this.relationService = relationService;
+        this.provisioningService = provisioningService;
         this.gateway = gatewaySessionCtx.getDevice();
         this.gatewaySessionId = gatewaySessionCtx.getSessionId();
         this.devices = new HashMap<>();
+        this.pendingDevices = new HashMap<>();
     }
 
     public void onDeviceConnect(MqttPublishMessage msg) throws AdaptorException {
@@ -83,26 +91,86 @@ public class GatewaySessionCtx {
     }
 
     private void onDeviceConnect(String deviceName, String deviceType) {
-        if (!devices.containsKey(deviceName)) {
-            Device device = deviceService.findDeviceByTenantIdAndName(gateway.getTenantId(), deviceName);
-            if (device == null) {
-                device = new Device();
-                device.setTenantId(gateway.getTenantId());
-                device.setName(deviceName);
-                device.setType(deviceType);
-                device = deviceService.saveDevice(device);
-                relationService.saveRelationAsync(new EntityRelation(gateway.getId(), device.getId(), "Created"));
+        if (devices.containsKey(deviceName) || pendingDevices.containsKey(deviceName)) {
+            return;
+        }
+        if (pendingDevices.isEmpty()) {
+            provisioningStartTs = System.currentTimeMillis();
+            provisionedCount = 0;
+            provisioningMaxLatency = 0;
+        }
+        pendingDevices.put(deviceName, new ArrayList<>());
+        long startTs = System.currentTimeMillis();
+        Futures.addCallback(provisioningService.provision(gateway, deviceName, deviceType), new FutureCallback<Device>() {
+            @Override
+            public void onSuccess(Device device) {
+                onDeviceProvisioned(deviceName, device, System.currentTimeMillis() - startTs);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.warn("[{}] Failed to provision device [{}]", gatewaySessionId, deviceName, t);
+                onDeviceProvisioned(deviceName, null, System.currentTimeMillis() - startTs);
             }
-            GatewayDeviceSessionCtx ctx = new GatewayDeviceSessionCtx(this, device);
-            devices.put(deviceName, ctx);
-            log.debug("[{}] Added device [{}] to the gateway session", gatewaySessionId, deviceName);
-            processor.process(new BasicToDeviceActorSessionMsg(device, new BasicAdaptorToSessionActorMsg(ctx, new AttributesSubscribeMsg())));
-            processor.process(new BasicToDeviceActorSessionMsg(device, new BasicAdaptorToSessionActorMsg(ctx, new RpcSubscribeMsg())));
+        }, channel.executor());
+    }
+
+    private void onDeviceProvisioned(String deviceName, Device device, long latency) {
+        if (closed) {
+            return;
         }
+        List<Consumer<GatewayDeviceSessionCtx>> pendingMsgs = pendingDevices.remove(deviceName);
+        reportProvisioning(latency);
+        if (pendingMsgs == null || device == null) {
+            return;
+        }
+        GatewayDeviceSessionCtx ctx = new GatewayDeviceSessionCtx(this, device);
+        devices.put(deviceName, ctx);
+        log.debug("[{}] Added device [{}] to the gateway session in {} ms", gatewaySessionId, deviceName, latency);
+        processor.process(new BasicToDeviceActorSessionMsg(device, new BasicAdaptorToSessionActorMsg(ctx, new AttributesSubscribeMsg())));
+        processor.process(new BasicToDeviceActorSessionMsg(device, new BasicAdaptorToSessionActorMsg(ctx, new RpcSubscribeMsg())));
+        pendingMsgs.forEach(msg -> msg.accept(ctx));
+    }
+
+    private void reportProvisioning(long latency) {
+        provisionedCount++;
+        provisioningMaxLatency = Math.max(provisioningMaxLatency, latency);
+        if (pendingDevices.isEmpty()) {
+            long batchTime = System.currentTimeMillis() - provisioningStartTs;
+            provisioningService.onBatchProvisioned(gateway, provisionedCount, batchTime, provisioningMaxLatency);
+            log.info("[{}] Provisioned {} devices of gateway [{}] in {} ms, max device latency {} ms", gatewaySessionId, provisionedCount,
+                    gateway.getName(), batchTime, provisioningMaxLatency);
+        }
+    }
+
+    /**
+     * Processes the message of the device immediately if the device is connected, otherwise starts provisioning
+     * of the device and buffers the message until provisioning completes.
+     */
+    private void processDeviceMsg(String deviceName, Consumer<GatewayDeviceSessionCtx> msg) {
+        GatewayDeviceSessionCtx deviceSessionCtx = devices.get(deviceName);
+        if (deviceSessionCtx != null) {
+            msg.accept(deviceSessionCtx);
+            return;
+        }
+        log.debug("[{}] Missing device [{}] for the gateway session", gatewaySessionId, deviceName);
+        onDeviceConnect(deviceName, DEFAULT_DEVICE_TYPE);
+        List<Consumer<GatewayDeviceSessionCtx>> pendingMsgs = pendingDevices.get(deviceName);
+        if (pendingMsgs.size() < MAX_PENDING_MSGS_PER_DEVICE) {
+            pendingMsgs.add(msg);
+        } else {
+            log.warn("[{}] Dropping message of device [{}]: too many messages wait for the device provisioning", gatewaySessionId, deviceName);
+        }
+    }
+
+    private void process(GatewayDeviceSessionCtx deviceSessionCtx, FromDeviceMsg msg) {
+        processor.process(new BasicToDeviceActorSessionMsg(deviceSessionCtx.getDevice(),
+                new BasicAdaptorToSessionActorMsg(deviceSessionCtx, msg)));
     }
 
     public void onDeviceDisconnect(MqttPublishMessage msg) throws AdaptorException {
         String deviceName = checkDeviceName(getDeviceName(getJson(msg)));
+        pendingDevices.remove(deviceName);
         GatewayDeviceSessionCtx deviceSessionCtx = devices.remove(deviceName);
         if (deviceSessionCtx != null) {
             processor.process(SessionCloseMsg.onDisconnect(deviceSessionCtx.getSessionId()));
@@ -115,6 +183,9 @@ public class GatewaySessionCtx {
     }
 
     public void onGatewayDisconnect() {
+        closed = true;
+        pendingDevices.clear();
+        provisioningService.onGatewayDisconnected(gateway);
         devices.forEach((k, v) -> {
             processor.process(SessionCloseMsg.onDisconnect(v.getSessionId()));
         });
@@ -126,7 +197,7 @@ public class GatewaySessionCtx {
         if (json.isJsonObject()) {
             JsonObject jsonObj = json.getAsJsonObject();
             for (Map.Entry<String, JsonElement> deviceEntry : jsonObj.entrySet()) {
-                String deviceName = checkDeviceConnected(deviceEntry.getKey());
+                String deviceName = checkDeviceName(deviceEntry.getKey());
                 if (!deviceEntry.getValue().isJsonArray()) {
                     throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
                 }
@@ -135,9 +206,7 @@ public class GatewaySessionCtx {
                 for (JsonElement element : deviceData) {
                     JsonConverter.parseWithTs(request, element.getAsJsonObject());
                 }
-                GatewayDeviceSessionCtx deviceSessionCtx = devices.get(deviceName);
-                processor.process(new BasicToDeviceActorSessionMsg(deviceSessionCtx.getDevice(),
-                        new BasicAdaptorToSessionActorMsg(deviceSessionCtx, request)));
+                processDeviceMsg(deviceName, ctx -> process(ctx, request));
             }
         } else {
             throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
@@ -148,12 +217,10 @@ public class GatewaySessionCtx {
         JsonElement json = validateJsonPayload(gatewaySessionId, mqttMsg.payload());
         if (json.isJsonObject()) {
             JsonObject jsonObj = json.getAsJsonObject();
-            String deviceName = checkDeviceConnected(jsonObj.get(DEVICE_PROPERTY).getAsString());
+            String deviceName = checkDeviceName(jsonObj.get(DEVICE_PROPERTY).getAsString());
             Integer requestId = jsonObj.get("id").getAsInt();
             String data = jsonObj.get("data").toString();
-            GatewayDeviceSessionCtx deviceSessionCtx = devices.get(deviceName);
-            processor.process(new BasicToDeviceActorSessionMsg(deviceSessionCtx.getDevice(),
-                    new BasicAdaptorToSessionActorMsg(deviceSessionCtx, new ToDeviceRpcResponseMsg(requestId, data))));
+            processDeviceMsg(deviceName, ctx -> process(ctx, new ToDeviceRpcResponseMsg(requestId, data)));
         } else {
             throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
         }
@@ -165,7 +232,7 @@ public class GatewaySessionCtx {
         if (json.isJsonObject()) {
             JsonObject jsonObj = json.getAsJsonObject();
             for (Map.Entry<String, JsonElement> deviceEntry : jsonObj.entrySet()) {
-                String deviceName = checkDeviceConnected(deviceEntry.getKey());
+                String deviceName = checkDeviceName(deviceEntry.getKey());
                 if (!deviceEntry.getValue().isJsonObject()) {
                     throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
                 }
@@ -173,9 +240,7 @@ public class GatewaySessionCtx {
                 BasicUpdateAttributesRequest request = new BasicUpdateAttributesRequest(requestId);
                 JsonObject deviceData = deviceEntry.getValue().getAsJsonObject();
                 request.add(JsonConverter.parseValues(deviceData).stream().map(kv -> new BaseAttributeKvEntry(kv, ts)).collect(Collectors.toList()));
-                GatewayDeviceSessionCtx deviceSessionCtx = devices.get(deviceName);
-                processor.process(new BasicToDeviceActorSessionMsg(deviceSessionCtx.getDevice(),
-                        new BasicAdaptorToSessionActorMsg(deviceSessionCtx, request)));
+                processDeviceMsg(deviceName, ctx -> process(ctx, request));
             }
         } else {
             throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
@@ -206,23 +271,13 @@ public class GatewaySessionCtx {
             } else {
                 request = new BasicGetAttributesRequest(requestId, null, keys);
             }
-            GatewayDeviceSessionCtx deviceSessionCtx = devices.get(deviceName);
-            processor.process(new BasicToDeviceActorSessionMsg(deviceSessionCtx.getDevice(),
-                    new BasicAdaptorToSessionActorMsg(deviceSessionCtx, request)));
+            processDeviceMsg(checkDeviceName(deviceName), ctx -> process(ctx, request));
             ack(msg);
         } else {
             throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
         }
     }
 
-    private String checkDeviceConnected(String deviceName) {
-        if (!devices.containsKey(deviceName)) {
-            log.debug("[{}] Missing device [{}] for the gateway session", gatewaySessionId, deviceName);
-            onDeviceConnect(deviceName, DEFAULT_DEVICE_TYPE);
-        }
-        return deviceName;
-    }
-
     private String checkDeviceName(String deviceName) {
         if (StringUtils.isEmpty(deviceName)) {
             throw new RuntimeException("Device name is empty!");
@@ -0,0 +1,175 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.dao.exception.DataValidationException;
+import org.thingsboard.server.dao.relation.RelationService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GatewayDeviceProvisioningServiceTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    private DeviceService deviceService;
+    private RelationService relationService;
+    private GatewayDeviceProvisioningService service;
+    private Device gateway;
+
+    @Before
+    public void before() {
+        deviceService = mock(DeviceService.class);
+        relationService = mock(RelationService.class);
+        when(relationService.saveRelationAsync(any(EntityRelation.class))).thenReturn(Futures.immediateFuture(true));
+        when(deviceService.saveDevice(any(Device.class))).thenAnswer(invocation -> {
+            Device device = (Device) invocation.getArguments()[0];
+            device.setId(new DeviceId(UUID.randomUUID()));
+            return device;
+        });
+        service = new GatewayDeviceProvisioningService();
+        ReflectionTestUtils.setField(service, "deviceService", deviceService);
+        ReflectionTestUtils.setField(service, "relationService", relationService);
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        gateway = device("Gateway");
+    }
+
+    @After
+    public void after() {
+        service.destroy();
+    }
+
+    @Test
+    public void testQueuedRequestsAreLookedUpInOneBatch() throws Exception {
+        Device existing = device("A");
+        when(deviceService.findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class)))
+                .thenReturn(Futures.immediateFuture(Collections.singletonList(existing)));
+
+        ListenableFuture<Device> a = service.provision(gateway, "A", "default");
+        ListenableFuture<Device> b = service.provision(gateway, "B", "sensor");
+        Assert.assertEquals(2, service.getQueueSize());
+        service.init();
+
+        Assert.assertSame(existing, a.get(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        Device created = b.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("B", created.getName());
+        Assert.assertEquals("sensor", created.getType());
+        Assert.assertEquals(tenantId, created.getTenantId());
+
+        ArgumentCaptor<List> names = ArgumentCaptor.forClass(List.class);
+        verify(deviceService, times(1)).findDevicesByTenantIdAndNamesAsync(eq(tenantId), names.capture());
+        Assert.assertEquals(Arrays.asList("A", "B"), names.getValue());
+        verify(deviceService, times(1)).saveDevice(any(Device.class));
+
+        ArgumentCaptor<EntityRelation> relation = ArgumentCaptor.forClass(EntityRelation.class);
+        verify(relationService).saveRelationAsync(relation.capture());
+        Assert.assertEquals(gateway.getId(), relation.getValue().getFrom());
+        Assert.assertEquals(created.getId(), relation.getValue().getTo());
+    }
+
+    @Test
+    public void testConcurrentRequestsForSameDeviceShareFuture() throws Exception {
+        when(deviceService.findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class)))
+                .thenReturn(Futures.immediateFuture(Collections.emptyList()));
+
+        ListenableFuture<Device> first = service.provision(gateway, "A", "default");
+        ListenableFuture<Device> second = service.provision(gateway, "A", "default");
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, service.getQueueSize());
+        service.init();
+
+        Device device = first.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        verify(deviceService, times(1)).saveDevice(any(Device.class));
+
+        // Completed requests are removed from the pending map, so the next request is looked up again.
+        when(deviceService.findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class)))
+                .thenReturn(Futures.immediateFuture(Collections.singletonList(device)));
+        ListenableFuture<Device> third = service.provision(gateway, "A", "default");
+        Assert.assertNotSame(first, third);
+        Assert.assertSame(device, third.get(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        verify(deviceService, times(2)).findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class));
+        verify(deviceService, times(1)).saveDevice(any(Device.class));
+    }
+
+    @Test
+    public void testDeviceCreatedConcurrentlyIsLookedUpAgain() throws Exception {
+        Device existing = device("A");
+        when(deviceService.findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class)))
+                .thenReturn(Futures.immediateFuture(Collections.emptyList()));
+        when(deviceService.saveDevice(any(Device.class))).thenThrow(new DataValidationException("Device with such name already exists!"));
+        when(deviceService.findDeviceByTenantIdAndName(tenantId, "A")).thenReturn(existing);
+
+        ListenableFuture<Device> future = service.provision(gateway, "A", "default");
+        service.init();
+
+        Assert.assertSame(existing, future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        verify(relationService, never()).saveRelationAsync(any(EntityRelation.class));
+    }
+
+    @Test
+    public void testValidationErrorIsReportedWhenDeviceIsNotFoundAgain() throws Exception {
+        when(deviceService.findDevicesByTenantIdAndNamesAsync(eq(tenantId), anyListOf(String.class)))
+                .thenReturn(Futures.immediateFuture(Collections.emptyList()));
+        when(deviceService.saveDevice(any(Device.class))).thenThrow(new DataValidationException("Device type should be specified!"));
+
+        ListenableFuture<Device> future = service.provision(gateway, "A", null);
+        service.init();
+
+        try {
+            future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            Assert.fail("Provisioning is expected to fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof DataValidationException);
+        }
+        verify(deviceService).findDeviceByTenantIdAndName(tenantId, "A");
+    }
+
+    private Device device(String name) {
+        Device device = new Device(new DeviceId(UUID.randomUUID()));
+        device.setTenantId(tenantId);
+        device.setName(name);
+        device.setType("default");
+        return device;
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright © 2016-2017 PT VIO Intelligence Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.session;
+
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.aware.SessionAwareMsg;
+import org.thingsboard.server.common.msg.core.AttributesSubscribeMsg;
+import org.thingsboard.server.common.msg.core.RpcSubscribeMsg;
+import org.thingsboard.server.common.msg.core.TelemetryUploadRequest;
+import org.thingsboard.server.common.msg.session.BasicToDeviceActorSessionMsg;
+import org.thingsboard.server.common.msg.session.FromDeviceMsg;
+import org.thingsboard.server.common.transport.SessionMsgProcessor;
+import org.thingsboard.server.common.transport.auth.DeviceAuthService;
+import org.thingsboard.server.transport.mqtt.GatewayDeviceProvisioningService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GatewaySessionCtxTest {
+
+    private static final int MAX_PENDING_MSGS_PER_DEVICE = 1000;
+
+    private final TenantId tenantId = new TenantId(UUID.randomUUID());
+    private SessionMsgProcessor processor;
+    private GatewayDeviceProvisioningService provisioningService;
+    private GatewaySessionCtx ctx;
+    private Device gateway;
+
+    @Before
+    public void before() {
+        processor = mock(SessionMsgProcessor.class);
+        provisioningService = mock(GatewayDeviceProvisioningService.class);
+        gateway = device("Gateway");
+        DeviceSessionCtx gatewaySessionCtx = mock(DeviceSessionCtx.class);
+        when(gatewaySessionCtx.getDevice()).thenReturn(gateway);
+        when(gatewaySessionCtx.getSessionId()).thenReturn(new MqttSessionId());
+        ChannelHandlerContext channel = mock(ChannelHandlerContext.class);
+        when(channel.executor()).thenReturn(ImmediateEventExecutor.INSTANCE);
+        ctx = new GatewaySessionCtx(processor, mock(DeviceAuthService.class), provisioningService, gatewaySessionCtx);
+        ctx.setChannel(channel);
+    }
+
+    @Test
+    public void testMessagesAreBufferedAndReplayedAfterProvisioning() throws Exception {
+        SettableFuture<Device> future = SettableFuture.create();
+        when(provisioningService.provision(gateway, "A", "default")).thenReturn(future);
+
+        ctx.onDeviceTelemetry(telemetry("A", 1));
+        ctx.onDeviceTelemetry(telemetry("A", 2));
+        verify(provisioningService, times(1)).provision(gateway, "A", "default");
+        verify(processor, never()).process(any(SessionAwareMsg.class));
+
+        future.set(device("A"));
+        List<FromDeviceMsg> msgs = processedMsgs(4);
+        Assert.assertTrue(msgs.get(0) instanceof AttributesSubscribeMsg);
+        Assert.assertTrue(msgs.get(1) instanceof RpcSubscribeMsg);
+        Assert.assertEquals(1, requestId(msgs.get(2)));
+        Assert.assertEquals(2, requestId(msgs.get(3)));
+        verify(provisioningService).onBatchProvisioned(eq(gateway), eq(1), anyLong(), anyLong());
+
+        ctx.onDeviceTelemetry(telemetry("A", 3));
+        Assert.assertEquals(3, requestId(processedMsgs(5).get(4)));
+        verify(provisioningService, times(1)).provision(any(Device.class), any(String.class), any(String.class));
+    }
+
+    @Test
+    public void testMessagesAboveLimitAreDropped() throws Exception {
+        SettableFuture<Device> future = SettableFuture.create();
+        when(provisioningService.provision(gateway, "A", "default")).thenReturn(future);
+
+        for (int i = 1; i <= MAX_PENDING_MSGS_PER_DEVICE + 10; i++) {
+            ctx.onDeviceTelemetry(telemetry("A", i));
+        }
+        future.set(device("A"));
+
+        List<FromDeviceMsg> msgs = processedMsgs(2 + MAX_PENDING_MSGS_PER_DEVICE);
+        Assert.assertEquals(MAX_PENDING_MSGS_PER_DEVICE, requestId(msgs.get(msgs.size() - 1)));
+    }
+
+    @Test
+    public void testBufferedMessagesAreDroppedWhenProvisioningFails() throws Exception {
+        SettableFuture<Device> failed = SettableFuture.create();
+        SettableFuture<Device> retried = SettableFuture.create();
+        when(provisioningService.provision(gateway, "A", "default")).thenReturn(failed, retried);
+
+        ctx.onDeviceTelemetry(telemetry("A", 1));
+        failed.setException(new RuntimeException("Failed to create device"));
+        verify(processor, never()).process(any(SessionAwareMsg.class));
+
+        ctx.onDeviceTelemetry(telemetry("A", 2));
+        verify(provisioningService, times(2)).provision(gateway, "A", "default");
+        retried.set(device("A"));
+        List<FromDeviceMsg> msgs = processedMsgs(3);
+        Assert.assertEquals(2, requestId(msgs.get(2)));
+    }
+
+    @Test
+    public void testProvisionedDeviceIsIgnoredAfterGatewayDisconnect() throws Exception {
+        SettableFuture<Device> future = SettableFuture.create();
+        when(provisioningService.provision(gateway, "A", "default")).thenReturn(future);
+
+        ctx.onDeviceTelemetry(telemetry("A", 1));
+        ctx.onGatewayDisconnect();
+        future.set(device("A"));
+
+        verify(provisioningService).onGatewayDisconnected(gateway);
+        verify(processor, never()).process(any(SessionAwareMsg.class));
+        verify(provisioningService, never()).onBatchProvisioned(any(Device.class), anyInt(), anyLong(), anyLong());
+    }
+
+    private List<FromDeviceMsg> processedMsgs(int count) {
+        ArgumentCaptor<SessionAwareMsg> captor = ArgumentCaptor.forClass(SessionAwareMsg.class);
+        verify(processor, times(count)).process(captor.capture());
+        return captor.getAllValues().stream()
+                .map(msg -> ((BasicToDeviceActorSessionMsg) msg).getSessionMsg().getMsg())
+                .collect(Collectors.toList());
+    }
+
+    private static int requestId(FromDeviceMsg msg) {
+        return ((TelemetryUploadRequest) msg).getRequestId();
+    }
+
+    private static MqttPublishMessage telemetry(String deviceName, int requestId) {
+        String json = "{\"" + deviceName + "\":[{\"ts\":" + requestId + ",\"values\":{\"temperature\":" + requestId + "}}]}";
+        return new MqttPublishMessage(new MqttFixedHeader(MqttMessageType.PUBLISH, false, MqttQoS.AT_LEAST_ONCE, false, 0),
+                new MqttPublishVariableHeader("v1/gateway/telemetry", requestId),
+                Unpooled.wrappedBuffer(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Device device(String name) {
+        Device device = new Device(new DeviceId(UUID.randomUUID()));
+        device.setTenantId(tenantId);
+        device.setName(name);
+        device.setType("default");
+        return device;
+    }
+}